@@ -0,0 +1,373 @@
+package ro.ulbsibiu.acaps.e3s.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Locale;
+
+/**
+ * A small harness for measuring the performance of an operation. The
+ * operation is first run for a number of warmup iterations (so that the JIT
+ * compiler optimizes it), which are not measured. Then, it is run for a
+ * number of measurement iterations. Each iteration runs the operation
+ * repeatedly, for a fixed amount of time, and gives the average time of an
+ * operation. The result of an operation is always consumed, so that the
+ * operation cannot be optimized away.
+ * <p>
+ * When the JVM supports it, the memory allocated by the measuring thread is
+ * measured as well, so the allocation rate and the bytes allocated by an
+ * operation are reported too. The memory allocated by the other threads
+ * cannot be measured (e.g.: the threads of a pool may end before the
+ * operation ends), so it is not reported for the operations which use other
+ * threads (see {@link #measureConcurrent(String, long, Operation)}).
+ * </p>
+ * <p>
+ * An operation which needs a new state at each run (e.g.: because it
+ * modifies its data) is given a {@link Setup}, which prepares each run and
+ * which is neither timed nor included in the allocations.
+ * </p>
+ *
+ * @author Ciprian Radu
+ *
+ */
+public class E3sBenchmarkHarness {
+
+	/**
+	 * An operation whose performance is measured.
+	 *
+	 * @author Ciprian Radu
+	 *
+	 */
+	public static interface Operation {
+
+		/**
+		 * Runs the operation once.
+		 *
+		 * @return the result of the operation (it is consumed by the harness)
+		 * @throws Exception
+		 */
+		Object run() throws Exception;
+
+	}
+
+	/**
+	 * Prepares a run of an operation.
+	 *
+	 * @author Ciprian Radu
+	 *
+	 */
+	public static interface Setup {
+
+		/**
+		 * Prepares the next run of the operation.
+		 *
+		 * @throws Exception
+		 */
+		void setUp() throws Exception;
+
+	}
+
+	/**
+	 * The performance of an operation.
+	 *
+	 * @author Ciprian Radu
+	 *
+	 */
+	public static class Result {
+
+		private String name;
+
+		/** the average time of an operation, for each measurement iteration (in nanoseconds) */
+		private double[] times;
+
+		/** the number of bytes processed by an operation (0 if not known) */
+		private long bytes;
+
+		/** the bytes allocated by an operation (-1 if not known) */
+		private double allocatedBytes;
+
+		private Result(String name, double[] times, long bytes,
+				double allocatedBytes) {
+			this.name = name;
+			this.times = times;
+			this.bytes = bytes;
+			this.allocatedBytes = allocatedBytes;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		/**
+		 * @return the average time of an operation (in nanoseconds)
+		 */
+		public double getTime() {
+			double sum = 0;
+			for (int i = 0; i < times.length; i++) {
+				sum += times[i];
+			}
+			return sum / times.length;
+		}
+
+		/**
+		 * @return the standard deviation of the time of an operation, among
+		 *         the measurement iterations (in nanoseconds)
+		 */
+		public double getTimeError() {
+			double mean = getTime();
+			double sum = 0;
+			for (int i = 0; i < times.length; i++) {
+				sum += (times[i] - mean) * (times[i] - mean);
+			}
+			return times.length > 1 ? Math.sqrt(sum / (times.length - 1)) : 0;
+		}
+
+		/**
+		 * @return the number of operations per second
+		 */
+		public double getThroughput() {
+			return 1e9 / getTime();
+		}
+
+		/**
+		 * @return the processed megabytes per second (0 if the operation
+		 *         doesn't process a known number of bytes)
+		 */
+		public double getBytesThroughput() {
+			return bytes / (1024.0 * 1024.0) * getThroughput();
+		}
+
+		/**
+		 * @return the bytes allocated by an operation (-1 if the JVM cannot
+		 *         measure the allocated memory)
+		 */
+		public double getAllocatedBytes() {
+			return allocatedBytes;
+		}
+
+		/**
+		 * @return the allocated megabytes per second (-1 if the JVM cannot
+		 *         measure the allocated memory)
+		 */
+		public double getAllocationRate() {
+			return allocatedBytes < 0 ? -1 : allocatedBytes
+					/ (1024.0 * 1024.0) * getThroughput();
+		}
+
+		/**
+		 * @return the header of the table made of {@link #toString()} rows
+		 */
+		public static String getHeader() {
+			return String.format(Locale.US, "%-60s %12s %10s %10s %12s %14s",
+					"Benchmark", "ms/op", "error", "MB/s", "alloc MB/s",
+					"alloc B/op");
+		}
+
+		@Override
+		public String toString() {
+			String allocationRate = "n/a";
+			String allocated = "n/a";
+			if (allocatedBytes >= 0) {
+				allocationRate = String.format(Locale.US, "%.1f", getAllocationRate());
+				allocated = String.format(Locale.US, "%.0f", allocatedBytes);
+			}
+			return String.format(Locale.US,
+					"%-60s %12.3f %10.3f %10.2f %12s %14s", name,
+					getTime() / 1e6, getTimeError() / 1e6,
+					getBytesThroughput(), allocationRate, allocated);
+		}
+
+	}
+
+	/** the number of iterations which are not measured */
+	private int warmupIterations;
+
+	/** the number of measured iterations */
+	private int measurementIterations;
+
+	/** the duration of an iteration, in nanoseconds */
+	private long iterationTime;
+
+	/** consumes the results of the operations */
+	private volatile int sink;
+
+	/**
+	 * Constructor
+	 *
+	 * @param warmupIterations
+	 *            the number of iterations which are not measured
+	 * @param measurementIterations
+	 *            the number of measured iterations (must be positive)
+	 * @param iterationMillis
+	 *            the duration of an iteration, in milliseconds (an iteration
+	 *            runs the operation at least once, even if it takes longer)
+	 */
+	public E3sBenchmarkHarness(int warmupIterations, int measurementIterations,
+			long iterationMillis) {
+		assert warmupIterations >= 0;
+		assert measurementIterations > 0;
+		assert iterationMillis > 0;
+
+		this.warmupIterations = warmupIterations;
+		this.measurementIterations = measurementIterations;
+		this.iterationTime = iterationMillis * 1000000;
+	}
+
+	/**
+	 * @return the memory allocated so far by the current thread (-1 if the
+	 *         JVM cannot measure it)
+	 */
+	private static long getAllocatedBytes() {
+		ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+		long allocatedBytes = -1;
+		if (threadMXBean instanceof com.sun.management.ThreadMXBean) {
+			com.sun.management.ThreadMXBean sunThreadMXBean = (com.sun.management.ThreadMXBean) threadMXBean;
+			if (sunThreadMXBean.isThreadAllocatedMemorySupported()
+					&& sunThreadMXBean.isThreadAllocatedMemoryEnabled()) {
+				allocatedBytes = sunThreadMXBean.getThreadAllocatedBytes(Thread
+						.currentThread().getId());
+			}
+		}
+		return allocatedBytes;
+	}
+
+	/**
+	 * Runs an iteration.
+	 *
+	 * @param setup
+	 *            prepares each run (<tt>null</tt> if the operation needs no
+	 *            preparation)
+	 * @param measured
+	 *            gives the measured time and the allocated bytes (-1 if they
+	 *            are not measured)
+	 * @return the number of operations which were run
+	 */
+	private long iterate(Setup setup, Operation operation,
+			boolean measureAllocations, long[] measured) throws Exception {
+		long operations = 0;
+		long time = 0;
+		long allocated = measureAllocations ? 0 : -1;
+		long start = System.nanoTime();
+		long now;
+		if (setup == null) {
+			long allocatedBefore = measureAllocations ? getAllocatedBytes() : -1;
+			do {
+				Object result = operation.run();
+				sink += result == null ? 0 : System.identityHashCode(result);
+				operations++;
+				now = System.nanoTime();
+			} while (now - start < iterationTime);
+			time = now - start;
+			allocated = allocatedBefore < 0 ? -1 : getAllocatedBytes() - allocatedBefore;
+		} else {
+			do {
+				setup.setUp();
+				long allocatedBefore = measureAllocations ? getAllocatedBytes() : -1;
+				long runStart = System.nanoTime();
+				Object result = operation.run();
+				now = System.nanoTime();
+				if (allocatedBefore < 0) {
+					allocated = -1;
+				} else {
+					allocated += getAllocatedBytes() - allocatedBefore;
+				}
+				time += now - runStart;
+				sink += result == null ? 0 : System.identityHashCode(result);
+				operations++;
+			} while (now - start < iterationTime);
+		}
+		measured[0] = time;
+		measured[1] = allocated;
+		return operations;
+	}
+
+	/**
+	 * Measures the performance of an operation.
+	 *
+	 * @param name
+	 *            the name of the benchmark
+	 * @param bytes
+	 *            the number of bytes processed by an operation (used for
+	 *            computing the throughput in MB/s; 0 if not relevant)
+	 * @param operation
+	 *            the operation
+	 * @return the measured performance
+	 * @throws Exception
+	 *             if the operation fails
+	 */
+	public Result measure(String name, long bytes, Operation operation)
+			throws Exception {
+		return measure(name, bytes, null, operation, true);
+	}
+
+	/**
+	 * Measures the performance of an operation which needs a new state at
+	 * each run. Only the operation is measured (not its setup).
+	 *
+	 * @param name
+	 *            the name of the benchmark
+	 * @param bytes
+	 *            the number of bytes processed by an operation (0 if not
+	 *            relevant)
+	 * @param setup
+	 *            prepares each run of the operation
+	 * @param operation
+	 *            the operation
+	 * @return the measured performance
+	 * @throws Exception
+	 *             if the setup or the operation fails
+	 */
+	public Result measure(String name, long bytes, Setup setup,
+			Operation operation) throws Exception {
+		return measure(name, bytes, setup, operation, true);
+	}
+
+	/**
+	 * Measures the performance of an operation which runs on multiple
+	 * threads. Its allocated memory is not reported, since only the memory
+	 * allocated by the measuring thread could be measured.
+	 *
+	 * @param name
+	 *            the name of the benchmark
+	 * @param bytes
+	 *            the number of bytes processed by an operation (0 if not
+	 *            relevant)
+	 * @param operation
+	 *            the operation
+	 * @return the measured performance
+	 * @throws Exception
+	 *             if the operation fails
+	 */
+	public Result measureConcurrent(String name, long bytes,
+			Operation operation) throws Exception {
+		return measure(name, bytes, null, operation, false);
+	}
+
+	private Result measure(String name, long bytes, Setup setup,
+			Operation operation, boolean measureAllocations) throws Exception {
+		long[] measured = new long[2];
+		for (int i = 0; i < warmupIterations; i++) {
+			iterate(setup, operation, false, measured);
+		}
+
+		double[] times = new double[measurementIterations];
+		long totalOperations = 0;
+		long totalAllocated = 0;
+		for (int i = 0; i < measurementIterations; i++) {
+			long operations = iterate(setup, operation, measureAllocations, measured);
+			times[i] = (double) measured[0] / operations;
+			totalOperations += operations;
+			if (measured[1] < 0 || totalAllocated < 0) {
+				totalAllocated = -1;
+			} else {
+				totalAllocated += measured[1];
+			}
+		}
+
+		double allocatedBytes = -1;
+		if (totalAllocated >= 0) {
+			allocatedBytes = (double) totalAllocated / totalOperations;
+		}
+		return new Result(name, times, bytes, allocatedBytes);
+	}
+
+}
@@ -0,0 +1,260 @@
+package ro.ulbsibiu.acaps.e3s.benchmark;
+
+import java.io.File;
+import java.io.FilenameFilter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+
+import ro.ulbsibiu.acaps.e3s.benchmark.E3sBenchmarkHarness.Operation;
+import ro.ulbsibiu.acaps.e3s.benchmark.E3sBenchmarkHarness.Result;
+import ro.ulbsibiu.acaps.e3s.benchmark.E3sBenchmarkHarness.Setup;
+import ro.ulbsibiu.acaps.e3s.ctg.E3sBenchmarkData;
+import ro.ulbsibiu.acaps.e3s.ctg.E3sDeadline;
+import ro.ulbsibiu.acaps.e3s.ctg.E3sEdge;
+import ro.ulbsibiu.acaps.e3s.ctg.E3sVertex;
+import ro.ulbsibiu.acaps.e3s.parser.E3sTgffFileParser;
+import ro.ulbsibiu.acaps.e3s.parser.E3sToXmlParser;
+
+/**
+ * Measures the throughput and the allocation rate of parsing E3S .tgff files
+ * ({@link E3sTgffFileParser#parseTgffFile(boolean)} and
+ * {@link E3sTgffFileParser#parseTgffFileInParallel(int)}), of building the
+ * CTGs ({@link E3sBenchmarkData#buildCtg()}) and, optionally, of converting
+ * them to XML ({@link E3sToXmlParser#parse()}). The XML conversion writes
+ * the XML files in the CTG-XML project, as the conversion from
+ * {@link E3sTgffFileParser#main(String[])} does; each measured conversion
+ * converts the tasks and the CTGs and, once, the cores of the benchmark.
+ * <p>
+ * Note that the allocations are measured only for the thread which runs the
+ * benchmarks, so they are not reported for the parallel parsing (whose worker
+ * threads allocate most of the memory). The CTGs whose graphs are built are
+ * copied before each build, outside of the measured time.
+ * </p>
+ *
+ * @author Ciprian Radu
+ *
+ */
+public class E3sParserBenchmark {
+
+	/**
+	 * Logger for this class
+	 */
+	private static final Logger logger = Logger
+			.getLogger(E3sParserBenchmark.class);
+
+	private E3sBenchmarkHarness harness;
+
+	/** whether the conversion to XML is measured */
+	private boolean xml;
+
+	/**
+	 * Constructor
+	 *
+	 * @param harness
+	 *            the harness which measures the operations
+	 * @param xml
+	 *            whether the conversion to XML is measured
+	 */
+	public E3sParserBenchmark(E3sBenchmarkHarness harness, boolean xml) {
+		logger.assertLog(harness != null, "A harness must be specified");
+
+		this.harness = harness;
+		this.xml = xml;
+	}
+
+	/**
+	 * Creates new CTGs, with the same data as the specified ones, but without
+	 * building their graphs (the tasks, the arcs, the deadlines and the
+	 * platform are shared).
+	 */
+	private static List<E3sBenchmarkData> copy(List<E3sBenchmarkData> e3sCtgs) {
+		List<E3sBenchmarkData> copies = new ArrayList<E3sBenchmarkData>(e3sCtgs.size());
+		for (E3sBenchmarkData e3sCtg : e3sCtgs) {
+			E3sBenchmarkData copy = new E3sBenchmarkData(e3sCtg.getName(), e3sCtg.getCtgId());
+			copy.setSymbols(e3sCtg.getSymbols());
+			copy.setPeriod(e3sCtg.getPeriod());
+			for (E3sVertex vertex : e3sCtg.getVertices()) {
+				copy.addTask(vertex);
+			}
+			for (E3sEdge edge : e3sCtg.getEdges()) {
+				copy.addEdge(edge);
+			}
+			for (E3sDeadline deadline : e3sCtg.getDeadlines()) {
+				copy.addDeadline(deadline);
+			}
+			copy.setPlatform(e3sCtg.getPlatform());
+			copies.add(copy);
+		}
+		return copies;
+	}
+
+	/**
+	 * Runs all the benchmarks for an E3S .tgff file.
+	 *
+	 * @param filePath
+	 *            the path to the .tgff file
+	 * @return the results of the benchmarks
+	 * @throws Exception
+	 */
+	public List<Result> run(final String filePath) throws Exception {
+		List<Result> results = new ArrayList<Result>();
+		String fileName = new File(filePath).getName();
+		long size = new File(filePath).length();
+
+		results.add(harness.measure("parseTgffFile(stream) " + fileName, size,
+				new Operation() {
+
+					@Override
+					public Object run() throws Exception {
+						E3sTgffFileParser e3sTgffFileParser = new E3sTgffFileParser(filePath);
+						e3sTgffFileParser.parseTgffFile(false);
+						return e3sTgffFileParser.getE3sCtgs();
+					}
+				}));
+		results.add(harness.measure("parseTgffFile(memory mapped) " + fileName,
+				size, new Operation() {
+
+					@Override
+					public Object run() throws Exception {
+						E3sTgffFileParser e3sTgffFileParser = new E3sTgffFileParser(filePath);
+						e3sTgffFileParser.parseTgffFile(true);
+						return e3sTgffFileParser.getE3sCtgs();
+					}
+				}));
+		final int threads = Runtime.getRuntime().availableProcessors();
+		results.add(harness.measureConcurrent("parseTgffFileInParallel(" + threads + ") "
+				+ fileName, size, new Operation() {
+
+			@Override
+			public Object run() throws Exception {
+				E3sTgffFileParser e3sTgffFileParser = new E3sTgffFileParser(filePath);
+				e3sTgffFileParser.parseTgffFileInParallel(threads);
+				return e3sTgffFileParser.getE3sCtgs();
+			}
+		}));
+
+		E3sTgffFileParser e3sTgffFileParser = new E3sTgffFileParser(filePath);
+		e3sTgffFileParser.parseTgffFile();
+		final List<E3sBenchmarkData> e3sCtgs = e3sTgffFileParser.getE3sCtgs();
+		// the graphs are built from new copies of the CTGs, at each run
+		final List<List<E3sBenchmarkData>> copies = new ArrayList<List<E3sBenchmarkData>>(1);
+		results.add(harness.measure("buildCtg " + fileName, 0, new Setup() {
+
+			@Override
+			public void setUp() {
+				copies.clear();
+				copies.add(copy(e3sCtgs));
+			}
+		}, new Operation() {
+
+			@Override
+			public Object run() throws Exception {
+				List<E3sBenchmarkData> ctgs = copies.get(0);
+				for (int i = 0; i < ctgs.size(); i++) {
+					ctgs.get(i).buildCtg();
+				}
+				return ctgs;
+			}
+		}));
+
+		if (xml) {
+			results.add(harness.measure("E3sToXmlParser.parse " + fileName, 0,
+					new Operation() {
+
+						@Override
+						public Object run() throws Exception {
+							Set<String> coresParsed = new HashSet<String>();
+							for (int i = 0; i < e3sCtgs.size(); i++) {
+								new E3sToXmlParser(e3sCtgs.get(i), coresParsed).parse();
+							}
+							return e3sCtgs;
+						}
+					}));
+		}
+
+		return results;
+	}
+
+	/**
+	 * @return the .tgff files from the specified paths (the directories are
+	 *         replaced with the .tgff files they contain)
+	 */
+	static List<File> listTgffFiles(List<String> paths) {
+		List<File> tgffFiles = new ArrayList<File>();
+		for (String path : paths) {
+			File file = new File(path);
+			if (file.isDirectory()) {
+				File[] files = file.listFiles(new FilenameFilter() {
+
+					@Override
+					public boolean accept(File dir, String name) {
+						return name.endsWith(".tgff");
+					}
+				});
+				Arrays.sort(files);
+				tgffFiles.addAll(Arrays.asList(files));
+			} else {
+				tgffFiles.add(file);
+			}
+		}
+		return tgffFiles;
+	}
+
+	public static void main(String[] args) throws Exception {
+		System.err.println("usage:   java E3sParserBenchmark.class [-warmup n] [-iterations n] [-time ms] [-xml] [.tgff files or directories]");
+		System.err.println("example 1 (all the E3S benchmarks): java E3sParserBenchmark.class");
+		System.err.println("example 2 (a large file, including the XML conversion): java E3sParserBenchmark.class -xml large.tgff");
+		final String E3S = "e3s";
+		final String WARMUP = "-warmup";
+		final String ITERATIONS = "-iterations";
+		final String TIME = "-time";
+		final String XML = "-xml";
+		int warmupIterations = 5;
+		int measurementIterations = 5;
+		long iterationMillis = 1000;
+		boolean xml = false;
+		List<String> paths = new ArrayList<String>();
+		for (int i = 0; i < args.length; i++) {
+			if (WARMUP.equals(args[i]) && i + 1 < args.length) {
+				warmupIterations = Integer.parseInt(args[++i]);
+			} else {
+				if (ITERATIONS.equals(args[i]) && i + 1 < args.length) {
+					measurementIterations = Integer.parseInt(args[++i]);
+				} else {
+					if (TIME.equals(args[i]) && i + 1 < args.length) {
+						iterationMillis = Long.parseLong(args[++i]);
+					} else {
+						if (XML.equals(args[i])) {
+							xml = true;
+						} else {
+							paths.add(args[i]);
+						}
+					}
+				}
+			}
+		}
+		if (paths.isEmpty()) {
+			paths.add(E3S);
+		}
+
+		// the parsers log at the INFO level, which would be measured too
+		Logger.getRootLogger().setLevel(Level.WARN);
+
+		E3sParserBenchmark benchmark = new E3sParserBenchmark(
+				new E3sBenchmarkHarness(warmupIterations,
+						measurementIterations, iterationMillis), xml);
+		System.out.println(Result.getHeader());
+		for (File tgffFile : listTgffFiles(paths)) {
+			for (Result result : benchmark.run(tgffFile.getPath())) {
+				System.out.println(result);
+			}
+		}
+	}
+
+}
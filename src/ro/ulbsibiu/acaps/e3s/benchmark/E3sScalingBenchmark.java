@@ -0,0 +1,169 @@
+package ro.ulbsibiu.acaps.e3s.benchmark;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.PrintWriter;
+import java.util.List;
+import java.util.Locale;
+
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+
+import ro.ulbsibiu.acaps.e3s.benchmark.E3sBenchmarkHarness.Result;
+
+/**
+ * Measures how parsing, CTG building and (optionally) XML conversion scale
+ * with the size of the input. Synthetic .tgff files (see
+ * {@link E3sTgffGenerator}) with an increasing number of arcs (10 times more
+ * at each step) are generated and measured with {@link E3sParserBenchmark}.
+ * <p>
+ * The results are printed as a table, with the time per operation and the
+ * time per arc, so a time per arc which grows with the size shows a super
+ * linear operation. They can be saved as a CSV file as well, for plotting the
+ * times against the input size (e.g.: with gnuplot, on logarithmic scales).
+ * The largest inputs need a large heap (about 1 GB for a million arcs).
+ * </p>
+ *
+ * @author Ciprian Radu
+ *
+ */
+public class E3sScalingBenchmark {
+
+	/**
+	 * Logger for this class
+	 */
+	private static final Logger logger = Logger
+			.getLogger(E3sScalingBenchmark.class);
+
+	/** the smallest number of arcs */
+	private static final long MIN_ARCS = 1000;
+
+	public static void main(String[] args) throws Exception {
+		System.err.println("usage:   java E3sScalingBenchmark.class [-maxarcs n] [-graphs n] [-fanout n] [-cores n] [-types n] [-warmup n] [-iterations n] [-time ms] [-xml] [-csv file] [-dir dir]");
+		System.err.println("example (up to a million arcs): java -Xmx2g E3sScalingBenchmark.class -maxarcs 1000000 -csv scaling.csv");
+		final String MAX_ARCS = "-maxarcs";
+		final String GRAPHS = "-graphs";
+		final String FANOUT = "-fanout";
+		final String CORES = "-cores";
+		final String TYPES = "-types";
+		final String WARMUP = "-warmup";
+		final String ITERATIONS = "-iterations";
+		final String TIME = "-time";
+		final String XML = "-xml";
+		final String CSV = "-csv";
+		final String DIR = "-dir";
+		long maxArcs = 1000000;
+		int taskGraphs = 10;
+		int fanOut = 3;
+		int cores = 30;
+		int taskTypes = 46;
+		int warmupIterations = 2;
+		int measurementIterations = 3;
+		long iterationMillis = 1000;
+		boolean xml = false;
+		String csvPath = null;
+		File directory = new File(System.getProperty("java.io.tmpdir"));
+		for (int i = 0; i < args.length; i++) {
+			if (MAX_ARCS.equals(args[i]) && i + 1 < args.length) {
+				maxArcs = Long.parseLong(args[++i]);
+			} else {
+				if (GRAPHS.equals(args[i]) && i + 1 < args.length) {
+					taskGraphs = Integer.parseInt(args[++i]);
+				} else {
+					if (FANOUT.equals(args[i]) && i + 1 < args.length) {
+						fanOut = Integer.parseInt(args[++i]);
+					} else {
+						if (CORES.equals(args[i]) && i + 1 < args.length) {
+							cores = Integer.parseInt(args[++i]);
+						} else {
+							if (TYPES.equals(args[i]) && i + 1 < args.length) {
+								taskTypes = Integer.parseInt(args[++i]);
+							} else {
+								if (WARMUP.equals(args[i]) && i + 1 < args.length) {
+									warmupIterations = Integer.parseInt(args[++i]);
+								} else {
+									if (ITERATIONS.equals(args[i]) && i + 1 < args.length) {
+										measurementIterations = Integer.parseInt(args[++i]);
+									} else {
+										if (TIME.equals(args[i]) && i + 1 < args.length) {
+											iterationMillis = Long.parseLong(args[++i]);
+										} else {
+											if (XML.equals(args[i])) {
+												xml = true;
+											} else {
+												if (CSV.equals(args[i]) && i + 1 < args.length) {
+													csvPath = args[++i];
+												} else {
+													if (DIR.equals(args[i]) && i + 1 < args.length) {
+														directory = new File(args[++i]);
+													} else {
+														logger.warn("Ignoring the unknown argument " + args[i]);
+													}
+												}
+											}
+										}
+									}
+								}
+							}
+						}
+					}
+				}
+			}
+		}
+
+		// the parsers log at the INFO level, which would be measured too
+		Logger.getRootLogger().setLevel(Level.WARN);
+
+		E3sParserBenchmark benchmark = new E3sParserBenchmark(
+				new E3sBenchmarkHarness(warmupIterations,
+						measurementIterations, iterationMillis), xml);
+		PrintWriter csv = null;
+		if (csvPath != null) {
+			csv = new PrintWriter(new FileWriter(csvPath));
+			csv.println("benchmark,arcs,bytes,ms/op,error,ns/arc,alloc B/op");
+		}
+		try {
+			System.out.println(String.format(Locale.US, "%-60s %10s %12s %12s %10s",
+					"Benchmark", "arcs", "KB", "ms/op", "ns/arc"));
+			for (long arcs = MIN_ARCS; arcs <= maxArcs; arcs *= 10) {
+				int tasksPerGraph = (int) Math.max(2, arcs / ((long) taskGraphs * fanOut));
+				E3sTgffGenerator generator = new E3sTgffGenerator(taskGraphs,
+						tasksPerGraph, fanOut, cores, taskTypes);
+				File tgffFile = new File(directory, "e3s-scaling-" + arcs + ".tgff");
+				long generatedArcs = generator.generate(tgffFile.getPath());
+				try {
+					List<Result> results = benchmark.run(tgffFile.getPath());
+					for (Result result : results) {
+						double nanosPerArc = result.getTime() / generatedArcs;
+						System.out.println(String.format(Locale.US,
+								"%-60s %10d %12d %12.3f %10.1f",
+								result.getName(), generatedArcs,
+								tgffFile.length() / 1024, result.getTime() / 1e6,
+								nanosPerArc));
+						if (csv != null) {
+							csv.println(String.format(Locale.US,
+									"\"%s\",%d,%d,%.3f,%.3f,%.1f,%s",
+									result.getName(), generatedArcs,
+									tgffFile.length(), result.getTime() / 1e6,
+									result.getTimeError() / 1e6, nanosPerArc,
+									// the allocations of the parallel parsing are not known
+									result.getAllocatedBytes() < 0 ? ""
+											: String.format(Locale.US, "%.0f",
+													result.getAllocatedBytes())));
+							csv.flush();
+						}
+					}
+				} finally {
+					if (!tgffFile.delete()) {
+						logger.warn("Could not delete " + tgffFile);
+					}
+				}
+			}
+		} finally {
+			if (csv != null) {
+				csv.close();
+			}
+		}
+	}
+
+}
@@ -0,0 +1,311 @@
+package ro.ulbsibiu.acaps.e3s.benchmark;
+
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Random;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Generates synthetic E3S .tgff files, with a configurable size. The files
+ * have the structure of the E3S benchmarks (a <tt>@COMMUN_QUANT</tt> block,
+ * the <tt>@TASK_GRAPH</tt> blocks, the <tt>@CORE</tt> blocks, each preceded
+ * by the name of the core, and the technology parameters), so they can be
+ * parsed by {@link ro.ulbsibiu.acaps.e3s.parser.E3sTgffFileParser}.
+ * <p>
+ * Each task graph is a random DAG. Each task (except the first one) has an
+ * arc from one of the previous tasks and each task has up to a number of
+ * arcs (the fan-out) to the next tasks, so a task graph has about
+ * <tt>tasks * fanOut</tt> arcs. The arcs connect tasks which are close to
+ * each other, as in the E3S task graphs. The tasks without successors have
+ * hard deadlines. Each core has a row for each task type.
+ * </p>
+ * <p>
+ * The file is written as it is generated, so files with millions of arcs can
+ * be generated with little memory. The same seed always generates the same
+ * file.
+ * </p>
+ *
+ * @author Ciprian Radu
+ *
+ */
+public class E3sTgffGenerator {
+
+	/**
+	 * Logger for this class
+	 */
+	private static final Logger logger = Logger
+			.getLogger(E3sTgffGenerator.class);
+
+	/** the number of communication (arc) types */
+	private static final int COMMUNICATION_TYPES = 8;
+
+	/** the period of the task graphs, in seconds */
+	private static final double PERIOD = 0.0009;
+
+	private int taskGraphs;
+
+	private int tasksPerGraph;
+
+	private int fanOut;
+
+	private int cores;
+
+	private int taskTypes;
+
+	private long seed;
+
+	/**
+	 * Constructor
+	 *
+	 * @param taskGraphs
+	 *            the number of task graphs (must be positive)
+	 * @param tasksPerGraph
+	 *            the number of tasks of each task graph (must be positive)
+	 * @param fanOut
+	 *            the maximum number of arcs which leave a task (must be
+	 *            positive)
+	 * @param cores
+	 *            the number of cores (must be positive)
+	 * @param taskTypes
+	 *            the number of task types (must be positive)
+	 */
+	public E3sTgffGenerator(int taskGraphs, int tasksPerGraph, int fanOut,
+			int cores, int taskTypes) {
+		logger.assertLog(taskGraphs > 0, "At least one task graph is required");
+		logger.assertLog(tasksPerGraph > 0, "At least one task per graph is required");
+		logger.assertLog(fanOut > 0, "The fan-out must be positive");
+		logger.assertLog(cores > 0, "At least one core is required");
+		logger.assertLog(taskTypes > 0, "At least one task type is required");
+
+		this.taskGraphs = taskGraphs;
+		this.tasksPerGraph = tasksPerGraph;
+		this.fanOut = fanOut;
+		this.cores = cores;
+		this.taskTypes = taskTypes;
+		seed = 0;
+	}
+
+	/**
+	 * Sets the seed of the random numbers generator (the default is 0).
+	 *
+	 * @param seed
+	 *            the seed
+	 */
+	public void setSeed(long seed) {
+		this.seed = seed;
+	}
+
+	/**
+	 * Generates an E3S .tgff file.
+	 *
+	 * @param filePath
+	 *            the path of the generated file
+	 * @return the number of generated arcs
+	 * @throws IOException
+	 */
+	public long generate(String filePath) throws IOException {
+		Writer writer = new BufferedWriter(new OutputStreamWriter(
+				new FileOutputStream(filePath), "US-ASCII"), 64 * 1024);
+		try {
+			return generate(writer);
+		} finally {
+			writer.close();
+		}
+	}
+
+	/**
+	 * Generates the content of an E3S .tgff file.
+	 *
+	 * @param writer
+	 *            where the content is written (it is not closed)
+	 * @return the number of generated arcs
+	 * @throws IOException
+	 */
+	public long generate(Writer writer) throws IOException {
+		Random random = new Random(seed);
+		long arcs = 0;
+
+		writer.write("@HYPERPERIOD " + toPlainString(PERIOD) + "\n\n");
+
+		writer.write("@COMMUN_QUANT 0 {\n");
+		writer.write("# type quantity\n");
+		for (int i = 0; i < COMMUNICATION_TYPES; i++) {
+			writer.write(i + " " + (1 + random.nextInt(16)) + "E3\n");
+		}
+		writer.write("}\n\n");
+
+		for (int i = 0; i < taskGraphs; i++) {
+			arcs += writeTaskGraph(writer, random, i);
+		}
+
+		for (int i = 0; i < cores; i++) {
+			writeCore(writer, random, i);
+		}
+
+		writer.write("\n@WIRE_BIT_WIDTH 32\n");
+		writer.write("@FP_DIST_UNIT 1E-4\n");
+		writer.write("@TRANS_PER_BIT 1.5\n");
+		writer.write("@E_MAX 500E6\n");
+		writer.write("@NUM_MAX 8\n");
+		writer.write("# Bits in block, price, m^2 area per bit\n");
+		writer.write("@MEMORY 8192 1.95E-3 372E-9\n\n");
+		writer.write("@WIRING {\n# max buffer size\n500\n}\n");
+
+		return arcs;
+	}
+
+	/**
+	 * @return the number of arcs of the task graph
+	 */
+	private long writeTaskGraph(Writer writer, Random random, int ctgId)
+			throws IOException {
+		writer.write("@TASK_GRAPH " + ctgId + " {\n");
+		writer.write("PERIOD " + toPlainString(PERIOD) + "\n\n");
+
+		for (int i = 0; i < tasksPerGraph; i++) {
+			writer.write("TASK t" + ctgId + "_" + i + " TYPE "
+					+ random.nextInt(taskTypes) + "\n");
+		}
+		writer.write("\n");
+
+		// the arcs go to the next tasks, inside a window
+		int window = Math.max(16, 4 * fanOut);
+		boolean[] hasSuccessors = new boolean[tasksPerGraph];
+		int[] successors = new int[fanOut];
+		long arcs = 0;
+		for (int i = 0; i < tasksPerGraph - 1; i++) {
+			int count = 0;
+			// the next task must have a predecessor, so that the graph is connected
+			successors[count++] = i + 1;
+			for (int j = 1; j < fanOut; j++) {
+				int successor = i + 1 + random.nextInt(window);
+				if (successor < tasksPerGraph) {
+					boolean duplicate = false;
+					for (int k = 0; k < count; k++) {
+						duplicate |= successors[k] == successor;
+					}
+					if (!duplicate) {
+						successors[count++] = successor;
+					}
+				}
+			}
+			Arrays.sort(successors, 0, count);
+			for (int k = 0; k < count; k++) {
+				writer.write("ARC a" + ctgId + "_" + arcs + " FROM t" + ctgId
+						+ "_" + i + " TO t" + ctgId + "_" + successors[k]
+						+ " TYPE " + random.nextInt(COMMUNICATION_TYPES) + "\n");
+				arcs++;
+			}
+			hasSuccessors[i] = count > 0;
+		}
+		writer.write("\n");
+
+		int deadlines = 0;
+		for (int i = 0; i < tasksPerGraph; i++) {
+			if (!hasSuccessors[i]) {
+				writer.write(String.format(Locale.US,
+						"HARD_DEADLINE d%d_%d ON t%d_%d AT %s\n", ctgId,
+						deadlines, ctgId, i, toPlainString(PERIOD)));
+				deadlines++;
+			}
+		}
+		writer.write("}\n\n");
+
+		return arcs;
+	}
+
+	/**
+	 * The times of the task graphs are written as plain decimals (e.g.:
+	 * <tt>0.0009</tt>, not <tt>9.0E-4</tt>), like in the E3S files.
+	 */
+	private static String toPlainString(double time) {
+		return BigDecimal.valueOf(time).stripTrailingZeros().toPlainString();
+	}
+
+	private void writeCore(Writer writer, Random random, int coreId)
+			throws IOException {
+		double price = 10 + random.nextInt(200);
+		double maxFrequency = (1 + random.nextInt(10)) * 1e8;
+		double side = 2e-3 + random.nextDouble() * 6e-3;
+		double idlePower = random.nextInt(20) / 10.0;
+
+		writer.write("# synthetic core " + coreId + "\n");
+		writer.write("@CORE " + coreId + " {\n");
+		writer.write("# price buffered max_freq width height density preempt_power commun_en_bit io_en_bit idle_power\n");
+		writer.write(String.format(Locale.US,
+				"  %s 1 %s %s %s 0.275 0 0 0 %s\n", price, maxFrequency,
+				side, side, idlePower));
+		writer.write("#------------------------------------------------------------------------------\n");
+		writer.write("# type version valid task_time preempt_time code_bits task_power\n");
+		for (int i = 0; i < taskTypes; i++) {
+			// some tasks cannot run on some cores
+			int valid = random.nextInt(4) == 0 ? 0 : 1;
+			double taskTime = valid == 0 ? 0 : (1 + random.nextInt(1000)) * 1e-6;
+			writer.write(String.format(Locale.US, "%d 0 %d %s 150E-6 %d %s\n",
+					i, valid, taskTime, valid * (8 + random.nextInt(4096)) * 8,
+					(1 + random.nextInt(200)) / 10.0));
+		}
+		writer.write("}\n\n");
+	}
+
+	public static void main(String[] args) throws IOException {
+		System.err.println("usage:   java E3sTgffGenerator.class [-graphs n] [-tasks n] [-fanout n] [-cores n] [-types n] [-seed n] output.tgff");
+		System.err.println("example (about a million arcs): java E3sTgffGenerator.class -graphs 100 -tasks 2500 -fanout 4 large.tgff");
+		final String GRAPHS = "-graphs";
+		final String TASKS = "-tasks";
+		final String FANOUT = "-fanout";
+		final String CORES = "-cores";
+		final String TYPES = "-types";
+		final String SEED = "-seed";
+		int taskGraphs = 10;
+		int tasksPerGraph = 100;
+		int fanOut = 3;
+		int cores = 30;
+		int taskTypes = 46;
+		long seed = 0;
+		String filePath = null;
+		for (int i = 0; i < args.length; i++) {
+			if (GRAPHS.equals(args[i]) && i + 1 < args.length) {
+				taskGraphs = Integer.parseInt(args[++i]);
+			} else {
+				if (TASKS.equals(args[i]) && i + 1 < args.length) {
+					tasksPerGraph = Integer.parseInt(args[++i]);
+				} else {
+					if (FANOUT.equals(args[i]) && i + 1 < args.length) {
+						fanOut = Integer.parseInt(args[++i]);
+					} else {
+						if (CORES.equals(args[i]) && i + 1 < args.length) {
+							cores = Integer.parseInt(args[++i]);
+						} else {
+							if (TYPES.equals(args[i]) && i + 1 < args.length) {
+								taskTypes = Integer.parseInt(args[++i]);
+							} else {
+								if (SEED.equals(args[i]) && i + 1 < args.length) {
+									seed = Long.parseLong(args[++i]);
+								} else {
+									filePath = args[i];
+								}
+							}
+						}
+					}
+				}
+			}
+		}
+		logger.assertLog(filePath != null, "The output file must be specified");
+
+		E3sTgffGenerator generator = new E3sTgffGenerator(taskGraphs,
+				tasksPerGraph, fanOut, cores, taskTypes);
+		generator.setSeed(seed);
+		long arcs = generator.generate(filePath);
+		logger.info("Generated " + filePath + " with " + taskGraphs
+				+ " task graphs and " + arcs + " arcs");
+	}
+
+}
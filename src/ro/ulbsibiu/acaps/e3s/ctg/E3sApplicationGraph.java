@@ -0,0 +1,361 @@
+package ro.ulbsibiu.acaps.e3s.ctg;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jgrapht.graph.DefaultDirectedWeightedGraph;
+import org.jgrapht.graph.DefaultWeightedEdge;
+
+/**
+ * The application graph of a benchmark: all its CTGs merged into a single
+ * graph, which is mapped at once. The task names repeat from a CTG to another
+ * (e.g.: <tt>src</tt>, <tt>sink</tt>), so the tasks of the merged graph are
+ * identified by global, dense IDs, from 0 to {@link #getTaskCount()} - 1.
+ * Each global task can be mapped back to its CTG and to its name.
+ * <p>
+ * The CTGs are merged in the order in which they are given, without copying
+ * any graph object: the tasks of each CTG are numbered like the tasks of its
+ * compact form (see {@link E3sCompactCtg}), starting after the tasks of the
+ * previous CTGs. So, the global ID of a task is
+ * <tt>getFirstTask(c) + v</tt>, where <tt>c</tt> is the index of its CTG and
+ * <tt>v</tt> is its index in the compact CTG. The arcs are numbered in the
+ * same way and they are kept in the CSR format, exactly like in the compact
+ * CTG (see {@link #getSuccessorOffsets()} and
+ * {@link #getPredecessorOffsets()}). This is the numbering used by
+ * {@link E3sBandwidthMatrixBuilder#addCtgs(List)} too. An {@link E3sJobSet}
+ * unrolls the tasks of an application graph over a hyperperiod, so it has a
+ * job for each instance of each task, numbered differently (see
+ * {@link E3sJobSet#getTask(int)}).
+ * </p>
+ * <p>
+ * The merge takes linear time. An application graph is immutable; the arrays
+ * are given without being copied, so they must not be modified.
+ * </p>
+ *
+ * @author Ciprian Radu
+ *
+ */
+public class E3sApplicationGraph {
+
+	/** the CTGs */
+	private final E3sBenchmarkData[] ctgs;
+
+	/** the compact form of each CTG */
+	private final E3sCompactCtg[] compactCtgs;
+
+	/** the CTGs, indexed by their IDs */
+	private final Map<Integer, Integer> ctgIndexes;
+
+	/** where the tasks of each CTG begin (one more element, for the end) */
+	private final int[] taskOffsets;
+
+	/** where the arcs of each CTG begin (one more element, for the end) */
+	private final int[] edgeOffsets;
+
+	/** the CTG of each task (an index in the list of CTGs) */
+	private final int[] taskCtgs;
+
+	/** where the outgoing arcs of each task begin (one more element, for the end) */
+	private final int[] successorOffsets;
+
+	/** the target task of each arc */
+	private final int[] successors;
+
+	/** the source task of each arc */
+	private final int[] edgeSources;
+
+	/** the weight (communication volume) of each arc */
+	private final double[] edgeWeights;
+
+	/** where the incoming arcs of each task begin (one more element, for the end) */
+	private final int[] predecessorOffsets;
+
+	/** the source task of each incoming arc */
+	private final int[] predecessors;
+
+	/** the arc of each incoming arc (an index in {@link #successors}) */
+	private final int[] predecessorEdges;
+
+	/**
+	 * Merges the CTGs of a benchmark.
+	 *
+	 * @param e3sCtgs
+	 *            the CTGs
+	 * @throws IllegalArgumentException
+	 *             if there are too many tasks or arcs
+	 */
+	public E3sApplicationGraph(List<E3sBenchmarkData> e3sCtgs) {
+		assert e3sCtgs != null;
+
+		int ctgCount = e3sCtgs.size();
+		ctgs = e3sCtgs.toArray(new E3sBenchmarkData[ctgCount]);
+		compactCtgs = new E3sCompactCtg[ctgCount];
+		ctgIndexes = new HashMap<Integer, Integer>(ctgCount * 2);
+		taskOffsets = new int[ctgCount + 1];
+		edgeOffsets = new int[ctgCount + 1];
+		long taskCount = 0;
+		long edgeCount = 0;
+		for (int c = 0; c < ctgCount; c++) {
+			compactCtgs[c] = ctgs[c].getCompactCtg();
+			if (!ctgIndexes.containsKey(ctgs[c].getCtgId())) {
+				ctgIndexes.put(ctgs[c].getCtgId(), c);
+			}
+			taskCount += compactCtgs[c].getVertexCount();
+			edgeCount += compactCtgs[c].getEdgeCount();
+			if (taskCount >= Integer.MAX_VALUE || edgeCount >= Integer.MAX_VALUE) {
+				throw new IllegalArgumentException("Too many tasks (" + taskCount
+						+ ") or arcs (" + edgeCount + ") in the application graph");
+			}
+			taskOffsets[c + 1] = (int) taskCount;
+			edgeOffsets[c + 1] = (int) edgeCount;
+		}
+
+		taskCtgs = new int[(int) taskCount];
+		successorOffsets = new int[(int) taskCount + 1];
+		successors = new int[(int) edgeCount];
+		edgeSources = new int[(int) edgeCount];
+		edgeWeights = new double[(int) edgeCount];
+		predecessorOffsets = new int[(int) taskCount + 1];
+		predecessors = new int[(int) edgeCount];
+		predecessorEdges = new int[(int) edgeCount];
+		for (int c = 0; c < ctgCount; c++) {
+			E3sCompactCtg ctg = compactCtgs[c];
+			int firstTask = taskOffsets[c];
+			int firstEdge = edgeOffsets[c];
+			int[] ctgSuccessorOffsets = ctg.getSuccessorOffsets();
+			int[] ctgSuccessors = ctg.getSuccessors();
+			int[] ctgEdgeSources = ctg.getEdgeSources();
+			double[] ctgEdgeWeights = ctg.getEdgeWeights();
+			int[] ctgPredecessorOffsets = ctg.getPredecessorOffsets();
+			int[] ctgPredecessors = ctg.getPredecessors();
+			int[] ctgPredecessorEdges = ctg.getPredecessorEdges();
+			for (int v = 0; v < ctg.getVertexCount(); v++) {
+				taskCtgs[firstTask + v] = c;
+				successorOffsets[firstTask + v] = firstEdge + ctgSuccessorOffsets[v];
+				predecessorOffsets[firstTask + v] = firstEdge + ctgPredecessorOffsets[v];
+			}
+			for (int e = 0; e < ctg.getEdgeCount(); e++) {
+				successors[firstEdge + e] = firstTask + ctgSuccessors[e];
+				edgeSources[firstEdge + e] = firstTask + ctgEdgeSources[e];
+				edgeWeights[firstEdge + e] = ctgEdgeWeights[e];
+				predecessors[firstEdge + e] = firstTask + ctgPredecessors[e];
+				predecessorEdges[firstEdge + e] = firstEdge + ctgPredecessorEdges[e];
+			}
+		}
+		successorOffsets[(int) taskCount] = (int) edgeCount;
+		predecessorOffsets[(int) taskCount] = (int) edgeCount;
+	}
+
+	/**
+	 * @return the number of CTGs
+	 */
+	public int getCtgCount() {
+		return ctgs.length;
+	}
+
+	/**
+	 * @param ctgIndex
+	 *            the index of a CTG (in the list given to the constructor)
+	 * @return the CTG
+	 */
+	public E3sBenchmarkData getCtg(int ctgIndex) {
+		return ctgs[ctgIndex];
+	}
+
+	/**
+	 * @param ctgIndex
+	 *            the index of a CTG
+	 * @return the compact form of the CTG
+	 */
+	public E3sCompactCtg getCompactCtg(int ctgIndex) {
+		return compactCtgs[ctgIndex];
+	}
+
+	/**
+	 * @param ctgId
+	 *            the ID of a CTG (see {@link E3sBenchmarkData#getCtgId()})
+	 * @return the index of the CTG, or -1 if there is no CTG with this ID
+	 */
+	public int getCtgIndex(int ctgId) {
+		Integer index = ctgIndexes.get(ctgId);
+		return index == null ? -1 : index;
+	}
+
+	/**
+	 * @param ctgIndex
+	 *            the index of a CTG
+	 * @return the global ID of the first task of the CTG
+	 */
+	public int getFirstTask(int ctgIndex) {
+		return taskOffsets[ctgIndex];
+	}
+
+	/**
+	 * @param ctgIndex
+	 *            the index of a CTG
+	 * @return the global index of the first arc of the CTG
+	 */
+	public int getFirstEdge(int ctgIndex) {
+		return edgeOffsets[ctgIndex];
+	}
+
+	/**
+	 * @return the number of tasks
+	 */
+	public int getTaskCount() {
+		return taskCtgs.length;
+	}
+
+	/**
+	 * @return the number of arcs
+	 */
+	public int getEdgeCount() {
+		return successors.length;
+	}
+
+	/**
+	 * Finds the global ID of a task.
+	 *
+	 * @param ctgId
+	 *            the ID of the task's CTG
+	 * @param taskName
+	 *            the name of the task
+	 * @return the global ID of the task, or -1 if there is no such task
+	 */
+	public int getTask(int ctgId, String taskName) {
+		int task = -1;
+		int ctgIndex = getCtgIndex(ctgId);
+		if (ctgIndex >= 0) {
+			int v = compactCtgs[ctgIndex].getVertexIndex(taskName);
+			if (v >= 0) {
+				task = taskOffsets[ctgIndex] + v;
+			}
+		}
+		return task;
+	}
+
+	/**
+	 * @param task
+	 *            the global ID of a task
+	 * @return the ID of the task's CTG (see {@link E3sBenchmarkData#getCtgId()})
+	 */
+	public int getCtgId(int task) {
+		return ctgs[taskCtgs[task]].getCtgId();
+	}
+
+	/**
+	 * @param task
+	 *            the global ID of a task
+	 * @return the index of the task in the compact form of its CTG
+	 */
+	public int getLocalTask(int task) {
+		return task - taskOffsets[taskCtgs[task]];
+	}
+
+	/**
+	 * @param task
+	 *            the global ID of a task
+	 * @return the name of the task (unique only within its CTG)
+	 */
+	public String getTaskName(int task) {
+		return compactCtgs[taskCtgs[task]].getVertexName(getLocalTask(task));
+	}
+
+	/**
+	 * @param edge
+	 *            the global index of an arc
+	 * @return the arc
+	 */
+	public E3sEdge getEdge(int edge) {
+		int c = taskCtgs[edgeSources[edge]];
+		return compactCtgs[c].getEdge(edge - edgeOffsets[c]);
+	}
+
+	/**
+	 * @return the CTG of each task (an index in the list of CTGs)
+	 */
+	public int[] getTaskCtgs() {
+		return taskCtgs;
+	}
+
+	/**
+	 * @return where the outgoing arcs of each task begin (the array has one
+	 *         more element, which is the number of arcs)
+	 */
+	public int[] getSuccessorOffsets() {
+		return successorOffsets;
+	}
+
+	/**
+	 * @return the target task of each arc
+	 */
+	public int[] getSuccessors() {
+		return successors;
+	}
+
+	/**
+	 * @return the source task of each arc
+	 */
+	public int[] getEdgeSources() {
+		return edgeSources;
+	}
+
+	/**
+	 * @return the weight (communication volume) of each arc
+	 */
+	public double[] getEdgeWeights() {
+		return edgeWeights;
+	}
+
+	/**
+	 * @return where the incoming arcs of each task begin (the array has one
+	 *         more element, which is the number of arcs)
+	 */
+	public int[] getPredecessorOffsets() {
+		return predecessorOffsets;
+	}
+
+	/**
+	 * @return the source task of each incoming arc
+	 */
+	public int[] getPredecessors() {
+		return predecessors;
+	}
+
+	/**
+	 * @return the arc of each incoming arc (an index in
+	 *         {@link #getSuccessors()})
+	 */
+	public int[] getPredecessorEdges() {
+		return predecessorEdges;
+	}
+
+	/**
+	 * Builds a JGraphT graph from this application graph. Its vertices are
+	 * the global IDs of the tasks and its edges are new edges, weighted with
+	 * the communication volumes (the {@link E3sEdge}s belong to the graphs of
+	 * their CTGs, so they cannot be added to another graph).
+	 *
+	 * @return the graph (it is not kept by this application graph)
+	 */
+	public DefaultDirectedWeightedGraph<Integer, DefaultWeightedEdge> toGraph() {
+		DefaultDirectedWeightedGraph<Integer, DefaultWeightedEdge> graph = new DefaultDirectedWeightedGraph<Integer, DefaultWeightedEdge>(
+				DefaultWeightedEdge.class);
+		for (int v = 0; v < getTaskCount(); v++) {
+			graph.addVertex(v);
+		}
+		for (int e = 0; e < getEdgeCount(); e++) {
+			DefaultWeightedEdge edge = graph.addEdge(edgeSources[e], successors[e]);
+			graph.setEdgeWeight(edge, edgeWeights[e]);
+		}
+		return graph;
+	}
+
+	@Override
+	public String toString() {
+		return ctgs.length + " CTGs, " + getTaskCount() + " tasks, "
+				+ getEdgeCount() + " arcs";
+	}
+
+}
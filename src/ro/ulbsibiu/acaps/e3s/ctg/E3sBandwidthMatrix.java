@@ -0,0 +1,179 @@
+package ro.ulbsibiu.acaps.e3s.ctg;
+
+/**
+ * The communication bandwidth required between the tasks of one or more CTGs,
+ * as a sparse matrix. The bandwidth from a task to another one is the
+ * communication volume of the arc between them divided by the period of their
+ * CTG (so, it is measured in bits per second). If multiple arcs connect the
+ * same two tasks, their bandwidths are summed.
+ * <p>
+ * The matrix is kept in the compressed sparse row (CSR) format: the entries
+ * of row (source task) <tt>s</tt> are the ones from
+ * <tt>getRowOffsets()[s]</tt> (inclusive) to <tt>getRowOffsets()[s + 1]</tt>
+ * (exclusive); entry <tt>i</tt> is in column (target task)
+ * <tt>getColumns()[i]</tt> and its bandwidth is <tt>getBandwidths()[i]</tt>.
+ * The entries are sorted by row and, within a row, by column, so
+ * {@link #getRows()}, {@link #getColumns()} and {@link #getBandwidths()} give
+ * the same matrix in the coordinate (COO) format, sorted by source task.
+ * </p>
+ * <p>
+ * The tasks are numbered like the tasks of the compact CTGs (see
+ * {@link E3sCompactCtg}); when the matrix has multiple CTGs, the tasks of
+ * each CTG follow the tasks of the previous CTGs (see
+ * {@link E3sBandwidthMatrixBuilder#addCtg(E3sBenchmarkData)}). A matrix is
+ * immutable; the arrays are given without being copied, so they must not be
+ * modified.
+ * </p>
+ *
+ * @see E3sBenchmarkData#getBandwidthMatrix()
+ * @see E3sBandwidthMatrixBuilder
+ *
+ * @author Ciprian Radu
+ *
+ */
+public class E3sBandwidthMatrix {
+
+	private final int taskCount;
+
+	/** where the entries of each row begin (one more element, for the end) */
+	private final int[] rowOffsets;
+
+	/** the row (source task) of each entry */
+	private final int[] rows;
+
+	/** the column (target task) of each entry */
+	private final int[] columns;
+
+	/** the bandwidth of each entry */
+	private final double[] bandwidths;
+
+	/**
+	 * Constructor
+	 *
+	 * @param taskCount
+	 *            the number of tasks (the number of rows and of columns)
+	 * @param rowOffsets
+	 *            where the entries of each row begin
+	 * @param rows
+	 *            the row of each entry
+	 * @param columns
+	 *            the column of each entry (sorted within each row)
+	 * @param bandwidths
+	 *            the bandwidth of each entry
+	 */
+	E3sBandwidthMatrix(int taskCount, int[] rowOffsets, int[] rows,
+			int[] columns, double[] bandwidths) {
+		assert rowOffsets.length == taskCount + 1;
+		assert rows.length == columns.length && columns.length == bandwidths.length;
+
+		this.taskCount = taskCount;
+		this.rowOffsets = rowOffsets;
+		this.rows = rows;
+		this.columns = columns;
+		this.bandwidths = bandwidths;
+	}
+
+	/**
+	 * @return the number of tasks (the matrix has a row and a column for
+	 *         each task)
+	 */
+	public int getTaskCount() {
+		return taskCount;
+	}
+
+	/**
+	 * @return the number of entries (of pairs of communicating tasks)
+	 */
+	public int getEntryCount() {
+		return columns.length;
+	}
+
+	/**
+	 * Finds the bandwidth required from a task to another one.
+	 *
+	 * @param source
+	 *            the source task
+	 * @param target
+	 *            the target task
+	 * @return the bandwidth (0 if the tasks don't communicate)
+	 */
+	public double getBandwidth(int source, int target) {
+		int entry = getEntry(source, target);
+		return entry < 0 ? 0 : bandwidths[entry];
+	}
+
+	/**
+	 * Finds the entry of two tasks (with a binary search of the source
+	 * task's row).
+	 *
+	 * @param source
+	 *            the source task
+	 * @param target
+	 *            the target task
+	 * @return the index of the entry, or -1 if the tasks don't communicate
+	 */
+	public int getEntry(int source, int target) {
+		int low = rowOffsets[source];
+		int high = rowOffsets[source + 1] - 1;
+		while (low <= high) {
+			int middle = (low + high) >>> 1;
+			if (columns[middle] < target) {
+				low = middle + 1;
+			} else {
+				if (columns[middle] > target) {
+					high = middle - 1;
+				} else {
+					return middle;
+				}
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * @return the total bandwidth of all the entries
+	 */
+	public double getTotalBandwidth() {
+		double total = 0;
+		for (int i = 0; i < bandwidths.length; i++) {
+			total += bandwidths[i];
+		}
+		return total;
+	}
+
+	/**
+	 * @return where the entries of each row begin (the array has one more
+	 *         element, which is the number of entries)
+	 */
+	public int[] getRowOffsets() {
+		return rowOffsets;
+	}
+
+	/**
+	 * @return the row (source task) of each entry
+	 */
+	public int[] getRows() {
+		return rows;
+	}
+
+	/**
+	 * @return the column (target task) of each entry
+	 */
+	public int[] getColumns() {
+		return columns;
+	}
+
+	/**
+	 * @return the bandwidth of each entry (in bits per second)
+	 */
+	public double[] getBandwidths() {
+		return bandwidths;
+	}
+
+	@Override
+	public String toString() {
+		return taskCount + " tasks, " + getEntryCount()
+				+ " communicating pairs, total bandwidth " + getTotalBandwidth();
+	}
+
+}
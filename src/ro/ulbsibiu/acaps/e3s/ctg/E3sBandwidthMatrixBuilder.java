@@ -0,0 +1,166 @@
+package ro.ulbsibiu.acaps.e3s.ctg;
+
+import java.util.List;
+
+/**
+ * Builds the {@link E3sBandwidthMatrix} of one or more CTGs (e.g.: of all the
+ * CTGs of a benchmark, which are mapped together). The CTGs are added one by
+ * one and their tasks are numbered in the order in which they are added.
+ *
+ * @author Ciprian Radu
+ *
+ */
+public class E3sBandwidthMatrixBuilder {
+
+	private static final int INITIAL_CAPACITY = 64;
+
+	/** the number of tasks of the added CTGs */
+	private int taskCount;
+
+	/** the number of added arcs */
+	private int edgeCount;
+
+	/** the source task of each added arc */
+	private int[] sources;
+
+	/** the target task of each added arc */
+	private int[] targets;
+
+	/** the bandwidth of each added arc */
+	private double[] bandwidths;
+
+	public E3sBandwidthMatrixBuilder() {
+		sources = new int[INITIAL_CAPACITY];
+		targets = new int[INITIAL_CAPACITY];
+		bandwidths = new double[INITIAL_CAPACITY];
+	}
+
+	/**
+	 * Adds a CTG. Its tasks are numbered like the tasks of its compact form
+	 * (see {@link E3sBenchmarkData#getCompactCtg()}), starting from the
+	 * number of tasks of the previously added CTGs.
+	 *
+	 * @param e3sBenchmarkData
+	 *            the CTG
+	 * @return the number of the first task of the CTG
+	 * @throws IllegalArgumentException
+	 *             if the CTG has arcs, but it has no period
+	 */
+	public int addCtg(E3sBenchmarkData e3sBenchmarkData) {
+		// the compact CTG updates the weights of the arcs, when it is built
+		E3sCompactCtg compactCtg = e3sBenchmarkData.getCompactCtg();
+		List<E3sEdge> edges = e3sBenchmarkData.getEdges();
+		double period = e3sBenchmarkData.getPeriod();
+		if (!edges.isEmpty() && period <= 0) {
+			throw new IllegalArgumentException("The CTG "
+					+ e3sBenchmarkData.getCtgId() + " of "
+					+ e3sBenchmarkData.getName() + " has no period");
+		}
+
+		int firstTask = taskCount;
+		ensureCapacity(edgeCount + edges.size());
+		for (int i = 0; i < edges.size(); i++) {
+			E3sEdge edge = edges.get(i);
+			// the arcs were checked by the compact CTG
+			sources[edgeCount] = firstTask + compactCtg.getVertexIndex(edge.getFrom());
+			targets[edgeCount] = firstTask + compactCtg.getVertexIndex(edge.getTo());
+			bandwidths[edgeCount] = edge.getWeight() / period;
+			edgeCount++;
+		}
+		taskCount += compactCtg.getVertexCount();
+		return firstTask;
+	}
+
+	/**
+	 * Adds multiple CTGs (see {@link #addCtg(E3sBenchmarkData)}).
+	 *
+	 * @param e3sCtgs
+	 *            the CTGs
+	 */
+	public void addCtgs(List<E3sBenchmarkData> e3sCtgs) {
+		for (int i = 0; i < e3sCtgs.size(); i++) {
+			addCtg(e3sCtgs.get(i));
+		}
+	}
+
+	private void ensureCapacity(int capacity) {
+		if (capacity > sources.length) {
+			int newCapacity = Math.max(capacity, sources.length * 2);
+			int[] newSources = new int[newCapacity];
+			System.arraycopy(sources, 0, newSources, 0, edgeCount);
+			sources = newSources;
+			int[] newTargets = new int[newCapacity];
+			System.arraycopy(targets, 0, newTargets, 0, edgeCount);
+			targets = newTargets;
+			double[] newBandwidths = new double[newCapacity];
+			System.arraycopy(bandwidths, 0, newBandwidths, 0, edgeCount);
+			bandwidths = newBandwidths;
+		}
+	}
+
+	/**
+	 * Builds the matrix of the added CTGs. The builder can be used
+	 * afterwards, for adding more CTGs.
+	 *
+	 * @return the bandwidth matrix
+	 */
+	public E3sBandwidthMatrix build() {
+		// a counting sort of the arcs by their source tasks (it is stable)
+		int[] offsets = new int[taskCount + 1];
+		for (int i = 0; i < edgeCount; i++) {
+			offsets[sources[i] + 1]++;
+		}
+		for (int s = 0; s < taskCount; s++) {
+			offsets[s + 1] += offsets[s];
+		}
+		int[] next = new int[taskCount];
+		System.arraycopy(offsets, 0, next, 0, taskCount);
+		int[] sortedTargets = new int[edgeCount];
+		double[] sortedBandwidths = new double[edgeCount];
+		for (int i = 0; i < edgeCount; i++) {
+			int position = next[sources[i]]++;
+			sortedTargets[position] = targets[i];
+			sortedBandwidths[position] = bandwidths[i];
+		}
+
+		// each row is sorted by target task and the parallel arcs are summed
+		int[] rowOffsets = new int[taskCount + 1];
+		int entryCount = 0;
+		for (int s = 0; s < taskCount; s++) {
+			rowOffsets[s] = entryCount;
+			for (int i = offsets[s]; i < offsets[s + 1]; i++) {
+				int target = sortedTargets[i];
+				double bandwidth = sortedBandwidths[i];
+				int j = entryCount;
+				while (j > rowOffsets[s] && sortedTargets[j - 1] > target) {
+					j--;
+				}
+				if (j > rowOffsets[s] && sortedTargets[j - 1] == target) {
+					sortedBandwidths[j - 1] += bandwidth;
+				} else {
+					// the entries are compacted in place (entryCount <= i)
+					System.arraycopy(sortedTargets, j, sortedTargets, j + 1, entryCount - j);
+					System.arraycopy(sortedBandwidths, j, sortedBandwidths, j + 1, entryCount - j);
+					sortedTargets[j] = target;
+					sortedBandwidths[j] = bandwidth;
+					entryCount++;
+				}
+			}
+		}
+		rowOffsets[taskCount] = entryCount;
+
+		int[] rows = new int[entryCount];
+		int[] columns = new int[entryCount];
+		double[] entryBandwidths = new double[entryCount];
+		System.arraycopy(sortedTargets, 0, columns, 0, entryCount);
+		System.arraycopy(sortedBandwidths, 0, entryBandwidths, 0, entryCount);
+		for (int s = 0; s < taskCount; s++) {
+			for (int i = rowOffsets[s]; i < rowOffsets[s + 1]; i++) {
+				rows[i] = s;
+			}
+		}
+		return new E3sBandwidthMatrix(taskCount, rowOffsets, rows, columns,
+				entryBandwidths);
+	}
+
+}
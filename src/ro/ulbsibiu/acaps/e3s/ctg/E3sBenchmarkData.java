@@ -1,43 +1,170 @@
 package ro.ulbsibiu.acaps.e3s.ctg;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
+import org.jgrapht.DirectedGraph;
 import org.jgrapht.graph.DefaultDirectedWeightedGraph;
+import org.jgrapht.graph.EdgeSetFactory;
+import org.jgrapht.graph.UnmodifiableDirectedGraph;
 
 import ro.ulbsibiu.acaps.e3s.ctg.E3sDeadline.DeadlineType;
 
 /**
  * The data held by an an E3S benchmark, for building Communication Task Graphs.
- * Each E3S benchmark data contains the data of a <i>single</i> CTG.
+ * Each E3S benchmark data contains the data of a <i>single</i> CTG. The
+ * platform (the cores and the communication volumes) is shared by all the
+ * CTGs of a benchmark (see {@link E3sPlatform}).
+ * <p>
+ * An E3S benchmark data can be frozen (see {@link #freeze()}), after which it
+ * can be read by multiple threads, without copying it and without locks.
+ * </p>
  * 
  * @author Ciprian Radu
  *
  */
 public class E3sBenchmarkData {
 	
+	/** means that the hyperperiod is not known */
+	public static final double NO_HYPERPERIOD = 0;
+	
+	/**
+	 * The Communication Task Graph, which cannot be modified after the CTG
+	 * is frozen.
+	 */
+	private static final class CtgGraph extends DefaultDirectedWeightedGraph<Object, Object> {
+		
+		/** autogenerated serial version UID */
+		private static final long serialVersionUID = -4418713539462046123L;
+		
+		/**
+		 * this graph, after it is frozen (a clone refers to another graph,
+		 * so the clone can be modified)
+		 */
+		private volatile CtgGraph frozenGraph;
+		
+		CtgGraph() {
+			super(Object.class);
+		}
+		
+		void freeze() {
+			frozenGraph = this;
+		}
+		
+		private void checkNotFrozen() {
+			if (frozenGraph == this) {
+				throw new UnsupportedOperationException("The CTG is frozen");
+			}
+		}
+		
+		@Override
+		public boolean addVertex(Object v) {
+			checkNotFrozen();
+			return super.addVertex(v);
+		}
+		
+		@Override
+		public Object addEdge(Object sourceVertex, Object targetVertex) {
+			checkNotFrozen();
+			return super.addEdge(sourceVertex, targetVertex);
+		}
+		
+		@Override
+		public boolean addEdge(Object sourceVertex, Object targetVertex, Object e) {
+			checkNotFrozen();
+			return super.addEdge(sourceVertex, targetVertex, e);
+		}
+		
+		@Override
+		public boolean removeVertex(Object v) {
+			checkNotFrozen();
+			return super.removeVertex(v);
+		}
+		
+		@Override
+		public Object removeEdge(Object sourceVertex, Object targetVertex) {
+			checkNotFrozen();
+			return super.removeEdge(sourceVertex, targetVertex);
+		}
+		
+		@Override
+		public boolean removeEdge(Object e) {
+			checkNotFrozen();
+			return super.removeEdge(e);
+		}
+		
+		@Override
+		public void setEdgeWeight(Object e, double weight) {
+			checkNotFrozen();
+			super.setEdgeWeight(e, weight);
+		}
+		
+		@Override
+		public void setEdgeSetFactory(EdgeSetFactory<Object, Object> edgeSetFactory) {
+			checkNotFrozen();
+			super.setEdgeSetFactory(edgeSetFactory);
+		}
+	}
+	
 	/** the name of the benchmark */
 	private String name;
 	
 	/** the ID of the CTG (an E3S benchmark file may hold multiple CTGs) */
 	private int ctgId; 
 
-	private DefaultDirectedWeightedGraph<Object, Object>  ctg;
+	private CtgGraph ctg;
 	
 	/** the period of the CTG (measured in seconds). The root task node injects new data with this period */
 	private double period;
 	
-	private List<E3sCommunicationVolume> communicationVolumes;
+	/**
+	 * the hyperperiod of the benchmark (measured in seconds), from
+	 * <tt>@HYPERPERIOD</tt>. It is the same for all the CTGs of a benchmark.
+	 */
+	private double hyperperiod;
 	
 	private List<E3sVertex> vertices;
 	
 	private List<E3sEdge> edges;
 	
-	private List<E3sCore> cores;
+	/** the platform on which the CTG runs (shared by all the CTGs of the benchmark) */
+	private E3sPlatform platform;
 	
 	/** holds all the deadlines (hard and soft) associated to the tasks of this CTG */
 	private List<E3sDeadline> deadlines;
 	
+	/** the symbols of the benchmark (<tt>null</tt> if the strings are not interned) */
+	private E3sSymbols symbols;
+	
+	/**
+	 * the compact form of the CTG (<tt>null</tt> until it is requested). It is
+	 * immutable (with final fields) and the field is volatile, so it can be
+	 * cached without locks, even by the threads which read a frozen CTG.
+	 */
+	private volatile E3sCompactCtg compactCtg;
+	
+	/**
+	 * the deadlines, indexed by their tasks (<tt>null</tt> until it is
+	 * requested). Like {@link #compactCtg}, it is immutable and volatile.
+	 */
+	private volatile E3sDeadlineIndex deadlineIndex;
+	
+	/**
+	 * the analysis of the CTG (<tt>null</tt> until it is requested). Like
+	 * {@link #compactCtg}, it is immutable and volatile.
+	 */
+	private volatile E3sCtgAnalytics analytics;
+	
+	/**
+	 * the bandwidth matrix of the CTG (<tt>null</tt> until it is requested).
+	 * Like {@link #compactCtg}, it is immutable and volatile.
+	 */
+	private volatile E3sBandwidthMatrix bandwidthMatrix;
+	
+	/** whether this CTG is frozen (see {@link #freeze()}) */
+	private volatile boolean frozen;
+	
 	/**
 	 * Constructor
 	 * 
@@ -52,11 +179,11 @@ public class E3sBenchmarkData {
 		this.name = name;
 		this.ctgId = ctgId;
 		period = 0;
-		ctg = new DefaultDirectedWeightedGraph<Object, Object> (Object.class);
-		communicationVolumes = new ArrayList<E3sCommunicationVolume>();
+		hyperperiod = NO_HYPERPERIOD;
+		ctg = new CtgGraph();
 		vertices = new ArrayList<E3sVertex>();
 		edges = new ArrayList<E3sEdge>();
-		cores = new ArrayList<E3sCore>();
+		platform = E3sPlatform.EMPTY;
 		deadlines = new ArrayList<E3sDeadline>();
 	}
 	
@@ -67,35 +194,161 @@ public class E3sBenchmarkData {
 	 */
 	public void setPeriod(double period) {
 		assert period >=0;
+		checkNotFrozen();
 		this.period = period;
+		bandwidthMatrix = null;
 	}
 	
 	public double getPeriod() {
 		return period;
 	}
 	
-	public void addCommunicationVolume(String communicationType, Double communicationVolume) {
+	/**
+	 * Sets the hyperperiod of the benchmark (in seconds). All the CTGs of a
+	 * benchmark should have the same hyperperiod.
+	 * 
+	 * @param hyperperiod
+	 *            the hyperperiod (must be a positive number), or
+	 *            {@link #NO_HYPERPERIOD}
+	 */
+	public void setHyperperiod(double hyperperiod) {
+		assert hyperperiod >= 0;
+		checkNotFrozen();
+		this.hyperperiod = hyperperiod;
+	}
+	
+	/**
+	 * @return the hyperperiod of the benchmark (in seconds), or
+	 *         {@link #NO_HYPERPERIOD} if it is not known
+	 */
+	public double getHyperperiod() {
+		return hyperperiod;
+	}
+	
+	/**
+	 * Sets the platform on which the CTG runs. All the CTGs of a benchmark
+	 * should share the same platform.
+	 * 
+	 * @param platform
+	 *            the platform (cannot be <tt>null</tt>)
+	 */
+	public void setPlatform(E3sPlatform platform) {
+		assert platform != null;
+		checkNotFrozen();
+		this.platform = platform;
+		compactCtg = null;
+		analytics = null;
+		bandwidthMatrix = null;
+	}
+	
+	/**
+	 * @return the platform on which the CTG runs
+	 */
+	public E3sPlatform getPlatform() {
+		return platform;
+	}
+	
+	/**
+	 * Adds a communication volume to the platform of this CTG. Since the
+	 * platform is immutable, this CTG gets a new platform.
+	 * 
+	 * @deprecated build an {@link E3sPlatform} and set it with
+	 *             {@link #setPlatform(E3sPlatform)}
+	 */
+	@Deprecated
+	public void addCommunicationVolume(String communicationType, double communicationVolume) {
+		List<E3sCommunicationVolume> communicationVolumes = new ArrayList<E3sCommunicationVolume>(
+				platform.getCommunicationVolumes());
 		communicationVolumes.add(new E3sCommunicationVolume(communicationType, communicationVolume));
+		setPlatform(platform.withCommunicationVolumes(communicationVolumes));
 	}
 
+	/**
+	 * Replaces the communication volumes of this CTG's platform. Since the
+	 * platform is immutable, this CTG gets a new platform.
+	 * 
+	 * @deprecated build an {@link E3sPlatform} and set it with
+	 *             {@link #setPlatform(E3sPlatform)}
+	 */
+	@Deprecated
 	public void setCommunicationVolumes(List<E3sCommunicationVolume> communicationVolumes) {
-		this.communicationVolumes = communicationVolumes;
+		setPlatform(platform.withCommunicationVolumes(communicationVolumes));
 	}
 
+	/**
+	 * @return the communication volumes of the platform (the list cannot be
+	 *         modified)
+	 */
 	public List<E3sCommunicationVolume> getCommunicationVolumes() {
-		return communicationVolumes;
+		return platform.getCommunicationVolumes();
+	}
+	
+	/**
+	 * Sets the symbol tables used for interning the strings of the tasks,
+	 * arcs and deadlines which are added afterwards. All the CTGs of a
+	 * benchmark should share the same symbols.
+	 * 
+	 * @param symbols
+	 *            the symbols of the benchmark
+	 */
+	public void setSymbols(E3sSymbols symbols) {
+		checkNotFrozen();
+		this.symbols = symbols;
+	}
+	
+	/**
+	 * @return the symbols of the benchmark (<tt>null</tt> if the strings are
+	 *         not interned)
+	 */
+	public E3sSymbols getSymbols() {
+		return symbols;
 	}
 	
 	public void addTask(String taskName, String taskType) {
-		vertices.add(new E3sVertex(taskName, taskType));
+		if (symbols == null) {
+			addTask(new E3sVertex(taskName, taskType));
+		} else {
+			addTask(symbols.createVertex(taskName, taskType));
+		}
+	}
+	
+	public void addTask(E3sVertex task) {
+		checkNotFrozen();
+		vertices.add(task);
+		compactCtg = null;
+		analytics = null;
+		bandwidthMatrix = null;
 	}
 	
 	public void addEdge(String edgeName, String from, String to, String edgeType) {
-		edges.add(new E3sEdge(edgeName, from, to, edgeType));
+		if (symbols == null) {
+			addEdge(new E3sEdge(edgeName, from, to, edgeType));
+		} else {
+			addEdge(symbols.createEdge(edgeName, from, to, edgeType));
+		}
+	}
+	
+	public void addEdge(E3sEdge edge) {
+		checkNotFrozen();
+		edges.add(edge);
+		compactCtg = null;
+		analytics = null;
+		bandwidthMatrix = null;
 	}
 	
+	/**
+	 * Adds a core to the platform of this CTG. Since the platform is
+	 * immutable, this CTG gets a new platform (and the core is sealed).
+	 * 
+	 * @deprecated build an {@link E3sPlatform} and set it with
+	 *             {@link #setPlatform(E3sPlatform)}
+	 */
+	@Deprecated
 	public void addCore(E3sCore core) {
+		List<E3sCore> cores = new ArrayList<E3sCore>(platform.getCores());
 		cores.add(core);
+		setPlatform(new E3sPlatform(platform.getSymbols(), cores,
+				platform.getCommunicationVolumes(), platform.getWireBitWidth()));
 	}
 	
 	/**
@@ -107,39 +360,307 @@ public class E3sBenchmarkData {
 	 * @param time the deadline, expressed in seconds
 	 */
 	public void addDeadline(DeadlineType type, String deadlineName, String taskName, double time) {
-		deadlines.add(new E3sDeadline(type, deadlineName, taskName, time));
+		if (symbols == null) {
+			addDeadline(new E3sDeadline(type, deadlineName, taskName, time));
+		} else {
+			addDeadline(symbols.createDeadline(type, deadlineName, taskName, time));
+		}
 	}
 	
-	private E3sCommunicationVolume findCommunicationVolume(String type) {
-		E3sCommunicationVolume cv = null;
-		
-		for (int i = 0; i < communicationVolumes.size(); i++) {
-			if (type.equals(communicationVolumes.get(i).getType())) {
-				cv = communicationVolumes.get(i);
-				break;
+	public void addDeadline(E3sDeadline deadline) {
+		checkNotFrozen();
+		deadlines.add(deadline);
+		deadlineIndex = null;
+	}
+	
+	/**
+	 * Gives the deadlines of this CTG, indexed by their tasks (see
+	 * {@link E3sDeadlineIndex}). The index is built the first time it is
+	 * requested and it is kept until deadlines are added or replaced (note
+	 * that modifying the list given by {@link #getDeadlines()} doesn't
+	 * rebuild it).
+	 * 
+	 * @return the deadline index
+	 */
+	public E3sDeadlineIndex getDeadlineIndex() {
+		E3sDeadlineIndex index = deadlineIndex;
+		if (index == null) {
+			index = new E3sDeadlineIndex(deadlines);
+			deadlineIndex = index;
+		}
+		return index;
+	}
+	
+	/**
+	 * Computes the weight of each arc (the communication volume of its type)
+	 * and sets it to the arc.
+	 * 
+	 * @return the weights, in the order of {@link #getEdges()}
+	 */
+	double[] computeEdgeWeights() {
+		double[] weights = new double[edges.size()];
+		// the volumes can be found by symbols only if the arcs and the platform share them
+		boolean bySymbol = symbols != null && platform.hasCommunicationVolumeSymbols()
+				&& symbols.getArcTypes() == platform.getSymbols().getArcTypes();
+		for (int i = 0; i < edges.size(); i++) {
+			E3sCommunicationVolume e3sCommunicationVolume;
+			int typeSymbol = edges.get(i).getTypeSymbol();
+			if (bySymbol && typeSymbol >= 0) {
+				e3sCommunicationVolume = platform.getCommunicationVolume(typeSymbol);
+			} else {
+				e3sCommunicationVolume = platform.getCommunicationVolume(edges.get(i).getType());
 			}
+			double weight = 0;
+			if (e3sCommunicationVolume != null) {
+				weight = e3sCommunicationVolume.getVolume();
+			}
+			// the arcs of a frozen CTG are sealed and they already have their weights
+			if (!edges.get(i).isSealed()) {
+				edges.get(i).setWeight(weight);
+			}
+			weights[i] = weight;
 		}
-		
-		return cv;
+		return weights;
 	}
 	
 	/**
 	 * builds the Communication Task Graph
 	 */
 	public void buildCtg() {
+		checkNotFrozen();
 		for (int i = 0; i < vertices.size(); i++) {
 			// we do not add the E3sVertex but only its name
 			ctg.addVertex(vertices.get(i).getName());
 		}
+		double[] weights = computeEdgeWeights();
 		for (int i = 0; i < edges.size(); i++) {
-			E3sCommunicationVolume e3sCommunicationVolume = findCommunicationVolume(edges.get(i).getType());
-			double weight = 0;
-			if (e3sCommunicationVolume != null) {
-				weight = e3sCommunicationVolume.getVolume();
-			}
-			edges.get(i).setWeight(weight);
 			ctg.addEdge(edges.get(i).getFrom(), edges.get(i).getTo(), edges.get(i));
-			ctg.setEdgeWeight(edges.get(i), weight);
+			ctg.setEdgeWeight(edges.get(i), weights[i]);
+		}
+	}
+	
+	/**
+	 * Gives the Communication Task Graph in a compact form (see
+	 * {@link E3sCompactCtg}), which is much faster to traverse. It is built
+	 * the first time it is requested (independently of {@link #buildCtg()})
+	 * and it is kept until the tasks, the arcs or the platform of this CTG
+	 * change.
+	 * 
+	 * @return the compact Communication Task Graph
+	 */
+	public E3sCompactCtg getCompactCtg() {
+		E3sCompactCtg compact = compactCtg;
+		if (compact == null) {
+			compact = new E3sCompactCtg(this);
+			compactCtg = compact;
+		}
+		return compact;
+	}
+
+	/**
+	 * Gives the analysis of the Communication Task Graph (see
+	 * {@link E3sCtgAnalytics}): its topological order, the ASAP and ALAP
+	 * levels of its tasks, its longest communication path and its best case
+	 * critical path. The analysis is made the first time it is requested and
+	 * it is kept until the tasks, the arcs or the platform of this CTG
+	 * change. It is indexed like the tasks of the compact CTG (see
+	 * {@link #getCompactCtg()}).
+	 * 
+	 * @return the analysis
+	 * @throws IllegalStateException
+	 *             if the CTG has a cycle
+	 */
+	public E3sCtgAnalytics getAnalytics() {
+		E3sCtgAnalytics ctgAnalytics = analytics;
+		if (ctgAnalytics == null) {
+			E3sCompactCtg compact = getCompactCtg();
+			E3sPerformanceTable table = platform.getPerformanceTable();
+			int[] typeIndexes = getTaskTypeIndexes();
+			double[] bestTaskTimes = new double[compact.getVertexCount()];
+			boolean[] set = new boolean[compact.getVertexCount()];
+			for (int i = 0; i < vertices.size(); i++) {
+				// a task name which repeats gives a single task (the first one)
+				int v = compact.getVertexIndex(vertices.get(i).getName());
+				if (!set[v]) {
+					bestTaskTimes[v] = table.getFastestTaskTime(typeIndexes[i]);
+					set[v] = true;
+				}
+			}
+			try {
+				ctgAnalytics = new E3sCtgAnalytics(compact, bestTaskTimes);
+			} catch (IllegalStateException e) {
+				throw new IllegalStateException("The CTG " + ctgId + " of "
+						+ name + " cannot be analyzed", e);
+			}
+			analytics = ctgAnalytics;
+		}
+		return ctgAnalytics;
+	}
+
+	/**
+	 * Gives the communication bandwidth required between the tasks of this
+	 * CTG (see {@link E3sBandwidthMatrix}). The matrix is built the first
+	 * time it is requested and it is kept until the period, the tasks, the
+	 * arcs or the platform of this CTG change. Its tasks are numbered like
+	 * the tasks of the compact CTG (see {@link #getCompactCtg()}).
+	 * 
+	 * @return the bandwidth matrix
+	 * @throws IllegalArgumentException
+	 *             if the CTG has arcs, but it has no period
+	 */
+	public E3sBandwidthMatrix getBandwidthMatrix() {
+		E3sBandwidthMatrix matrix = bandwidthMatrix;
+		if (matrix == null) {
+			E3sBandwidthMatrixBuilder builder = new E3sBandwidthMatrixBuilder();
+			builder.addCtg(this);
+			matrix = builder.build();
+			bandwidthMatrix = matrix;
+		}
+		return matrix;
+	}
+
+	/**
+	 * Finds the type of each task in the performance table of the platform
+	 * (see {@link E3sPlatform#getPerformanceTable()}). So, the performance
+	 * of a task on a core is found without searching the task table of the
+	 * core.
+	 * 
+	 * @return the index of the type of each task (-1 if the type is not in
+	 *         the table), in the order of {@link #getVertices()}
+	 */
+	public int[] getTaskTypeIndexes() {
+		E3sPerformanceTable table = platform.getPerformanceTable();
+		// the types can be used directly only if the tasks and the platform share their symbols
+		boolean bySymbol = symbols != null && table.isIndexedBySymbols()
+				&& symbols.getTaskTypes() == platform.getSymbols().getTaskTypes();
+		int[] typeIndexes = new int[vertices.size()];
+		for (int i = 0; i < vertices.size(); i++) {
+			int typeSymbol = vertices.get(i).getTypeSymbol();
+			if (bySymbol && typeSymbol != E3sSymbolTable.NO_SYMBOL) {
+				typeIndexes[i] = typeSymbol < table.getTypeCount() ? typeSymbol : -1;
+			} else {
+				typeIndexes[i] = table.getTypeIndex(vertices.get(i).getType());
+			}
+		}
+		return typeIndexes;
+	}
+
+	/**
+	 * Builds the Communication Task Graph again, in place (so the references
+	 * to it remain valid). This is needed after the tasks, the arcs or the
+	 * communication volumes changed.
+	 */
+	public void rebuildCtg() {
+		checkNotFrozen();
+		// removing the vertices removes their edges too
+		ctg.removeAllVertices(new ArrayList<Object>(ctg.vertexSet()));
+		compactCtg = null;
+		analytics = null;
+		bandwidthMatrix = null;
+		buildCtg();
+	}
+	
+	/**
+	 * Replaces the period, the tasks, the arcs and the deadlines of this CTG
+	 * with the ones of the specified CTG (typically, the same task graph,
+	 * parsed again after its file changed). The platform and the hyperperiod
+	 * are kept. The Communication Task Graph is rebuilt in place.
+	 * 
+	 * @param e3sBenchmarkData
+	 *            the CTG from which the task graph is taken (it is not
+	 *            modified)
+	 */
+	public void replaceTaskGraph(E3sBenchmarkData e3sBenchmarkData) {
+		assert e3sBenchmarkData != null;
+		checkNotFrozen();
+		
+		period = e3sBenchmarkData.period;
+		vertices.clear();
+		vertices.addAll(e3sBenchmarkData.vertices);
+		edges.clear();
+		edges.addAll(e3sBenchmarkData.edges);
+		deadlines.clear();
+		deadlines.addAll(e3sBenchmarkData.deadlines);
+		deadlineIndex = null;
+		rebuildCtg();
+	}
+	
+	/**
+	 * Freezes this CTG, so that it can be shared by multiple threads, which
+	 * read it concurrently, without copying it and without locks. The
+	 * Communication Task Graph is built (if it wasn't already built), the
+	 * compact CTG, the deadline index, the performance table of the platform,
+	 * the analysis and the bandwidth matrix are built, the arcs are sealed
+	 * (see {@link E3sEdge#seal()}) and the lists given by the getters become
+	 * unmodifiable. The analysis is not built if the CTG has a cycle and the
+	 * bandwidth matrix is not built if the CTG has no period; the getters
+	 * throw their exceptions when they are called. All these are cached in
+	 * volatile fields (like the performance table of the platform), so they
+	 * are published safely, whichever thread builds them.
+	 * Afterwards, all the methods which modify
+	 * this CTG throw an {@link IllegalStateException} (so, a frozen CTG is
+	 * not updated by an incremental parse anymore; the
+	 * <tt>E3sTgffIncrementalParser</tt> parses the file again, into new
+	 * CTGs).
+	 * <p>
+	 * The tasks, the arcs and the deadlines must not be modified after
+	 * freezing. The graph given by {@link #getCtg()} cannot be modified
+	 * anymore (its methods which modify it throw an
+	 * {@link UnsupportedOperationException}).
+	 * The frozen CTG must be given to the other threads after this method
+	 * returns, like any object (e.g.: by submitting a task to an executor),
+	 * or the threads must first call {@link #isFrozen()}.
+	 * </p>
+	 * 
+	 * @return this CTG
+	 */
+	public E3sBenchmarkData freeze() {
+		if (!frozen) {
+			if (ctg.vertexSet().isEmpty() && !vertices.isEmpty()) {
+				buildCtg();
+			}
+			getCompactCtg();
+			getDeadlineIndex();
+			platform.getPerformanceTable();
+			try {
+				getAnalytics();
+			} catch (IllegalStateException e) {
+				// the CTG has a cycle
+			}
+			try {
+				getBandwidthMatrix();
+			} catch (IllegalArgumentException e) {
+				// the CTG has no period
+			}
+			for (int i = 0; i < edges.size(); i++) {
+				edges.get(i).seal();
+			}
+			vertices = Collections.unmodifiableList(vertices);
+			edges = Collections.unmodifiableList(edges);
+			deadlines = Collections.unmodifiableList(deadlines);
+			// the graph creates its unmodifiable views when they are first needed
+			ctg.edgeSet();
+			for (Object vertex : ctg.vertexSet()) {
+				ctg.incomingEdgesOf(vertex);
+				ctg.outgoingEdgesOf(vertex);
+			}
+			ctg.freeze();
+			frozen = true;
+		}
+		return this;
+	}
+	
+	/**
+	 * @return whether this CTG is frozen (see {@link #freeze()})
+	 */
+	public boolean isFrozen() {
+		return frozen;
+	}
+	
+	private void checkNotFrozen() {
+		if (frozen) {
+			throw new IllegalStateException("The CTG " + ctgId + " of " + name
+					+ " is frozen");
 		}
 	}
 	
@@ -151,16 +672,31 @@ public class E3sBenchmarkData {
 		return ctgId;
 	}
 
+	/**
+	 * @return the Communication Task Graph (it cannot be modified after this
+	 *         CTG is frozen)
+	 */
 	public DefaultDirectedWeightedGraph<Object, Object>  getCtg() {
 		return ctg;
 	}
+	
+	/**
+	 * @return a view of the Communication Task Graph which cannot be
+	 *         modified
+	 */
+	public DirectedGraph<Object, Object> getUnmodifiableCtg() {
+		return new UnmodifiableDirectedGraph<Object, Object>(ctg);
+	}
 
 	public List<E3sVertex> getVertices() {
 		return vertices;
 	}
 
+	/**
+	 * @return the cores of the platform (the list cannot be modified)
+	 */
 	public List<E3sCore> getCores() {
-		return cores;
+		return platform.getCores();
 	}
 
 	public List<E3sEdge> getEdges() {
@@ -10,10 +10,18 @@ public class E3sCommunicationVolume {
 
 	private String type;
 	
-	private Double volume;
+	/** the symbol of the type (see {@link E3sSymbols#getArcTypes()}) */
+	private int typeSymbol;
 	
-	public E3sCommunicationVolume(String type, Double volume) {
+	private double volume;
+	
+	public E3sCommunicationVolume(String type, double volume) {
+		this(type, E3sSymbolTable.NO_SYMBOL, volume);
+	}
+	
+	public E3sCommunicationVolume(String type, int typeSymbol, double volume) {
 		this.type = type;
+		this.typeSymbol = typeSymbol;
 		this.volume = volume;
 	}
 	
@@ -21,7 +29,24 @@ public class E3sCommunicationVolume {
 		return type;
 	}
 	
-	public Double getVolume() {
+	/**
+	 * @return the symbol of the type, or {@link E3sSymbolTable#NO_SYMBOL}
+	 */
+	public int getTypeSymbol() {
+		return typeSymbol;
+	}
+	
+	/**
+	 * Sets the type, together with its symbol.
+	 * 
+	 * @see E3sSymbolTranslation#translate(E3sCommunicationVolume)
+	 */
+	void setType(String type, int typeSymbol) {
+		this.type = type;
+		this.typeSymbol = typeSymbol;
+	}
+	
+	public double getVolume() {
 		return volume;
 	}
 
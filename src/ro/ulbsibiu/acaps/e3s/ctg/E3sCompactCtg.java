@@ -0,0 +1,325 @@
+package ro.ulbsibiu.acaps.e3s.ctg;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jgrapht.DirectedGraph;
+
+/**
+ * A compact, immutable form of a Communication Task Graph, in which the
+ * tasks and the arcs are identified by integers and the adjacency is kept in
+ * plain arrays, in the compressed sparse row (CSR) format. Traversing it
+ * involves no hash maps, no iterators and no objects.
+ * <p>
+ * The tasks are numbered from 0, in the order of
+ * {@link E3sBenchmarkData#getVertices()}. The arcs are numbered from 0, in
+ * the order of their source tasks (and, for the same source task, in the
+ * order from the benchmark). So, the arcs which leave task <tt>v</tt> are
+ * the ones from <tt>getSuccessorOffsets()[v]</tt> (inclusive) to
+ * <tt>getSuccessorOffsets()[v + 1]</tt> (exclusive); the target of arc
+ * <tt>e</tt> is <tt>getSuccessors()[e]</tt> and its weight is
+ * <tt>getEdgeWeights()[e]</tt>. The arcs which enter a task are given
+ * similarly, by {@link #getPredecessorOffsets()},
+ * {@link #getPredecessors()} and {@link #getPredecessorEdges()}.
+ * </p>
+ * <p>
+ * Like in the graph built by {@link E3sBenchmarkData#buildCtg()}, a task
+ * name which repeats gives a single task and an arc which repeats an arc
+ * between the same tasks is ignored. The arrays are given without being
+ * copied, so they must not be modified.
+ * </p>
+ *
+ * @see E3sBenchmarkData#getCompactCtg()
+ * @see E3sCompactCtgGraph
+ *
+ * @author Ciprian Radu
+ *
+ */
+public class E3sCompactCtg {
+
+	/** the names of the tasks, indexed by task */
+	private final String[] vertexNames;
+
+	/** the tasks, indexed by their names */
+	private final Map<String, Integer> vertexIndexes;
+
+	/** where the outgoing arcs of each task begin (one more element, for the end) */
+	private final int[] successorOffsets;
+
+	/** the target task of each arc */
+	private final int[] successors;
+
+	/** the source task of each arc */
+	private final int[] edgeSources;
+
+	/** the weight (communication volume) of each arc */
+	private final double[] edgeWeights;
+
+	/** the arcs of the benchmark, indexed by arc */
+	private final E3sEdge[] edges;
+
+	/** where the incoming arcs of each task begin (one more element, for the end) */
+	private final int[] predecessorOffsets;
+
+	/** the source task of each incoming arc */
+	private final int[] predecessors;
+
+	/** the arc of each incoming arc (an index in {@link #successors}) */
+	private final int[] predecessorEdges;
+
+	/**
+	 * Builds the compact form of a CTG.
+	 *
+	 * @param e3sBenchmarkData
+	 *            the CTG
+	 * @throws IllegalArgumentException
+	 *             if an arc connects a task which doesn't exist
+	 */
+	E3sCompactCtg(E3sBenchmarkData e3sBenchmarkData) {
+		List<E3sVertex> vertices = e3sBenchmarkData.getVertices();
+		List<E3sEdge> allEdges = e3sBenchmarkData.getEdges();
+		double[] weights = e3sBenchmarkData.computeEdgeWeights();
+
+		vertexIndexes = new HashMap<String, Integer>(vertices.size() * 2);
+		String[] names = new String[vertices.size()];
+		int n = 0;
+		for (int i = 0; i < vertices.size(); i++) {
+			String name = vertices.get(i).getName();
+			if (!vertexIndexes.containsKey(name)) {
+				vertexIndexes.put(name, n);
+				names[n] = name;
+				n++;
+			}
+		}
+		vertexNames = n == names.length ? names : Arrays.copyOf(names, n);
+
+		int m = allEdges.size();
+		int[] from = new int[m];
+		int[] to = new int[m];
+		for (int i = 0; i < m; i++) {
+			from[i] = getVertexIndex(allEdges.get(i), allEdges.get(i).getFrom());
+			to[i] = getVertexIndex(allEdges.get(i), allEdges.get(i).getTo());
+		}
+
+		// the arcs, sorted (stably) by their source tasks
+		int[] offsets = new int[n + 1];
+		for (int i = 0; i < m; i++) {
+			offsets[from[i] + 1]++;
+		}
+		for (int v = 0; v < n; v++) {
+			offsets[v + 1] += offsets[v];
+		}
+		int[] sorted = new int[m];
+		int[] next = Arrays.copyOf(offsets, n);
+		for (int i = 0; i < m; i++) {
+			sorted[next[from[i]]++] = i;
+		}
+
+		// the arcs which repeat an arc between the same tasks are ignored
+		int[] lastSource = new int[n];
+		Arrays.fill(lastSource, -1);
+		int[] kept = new int[m];
+		int count = 0;
+		successorOffsets = new int[n + 1];
+		for (int v = 0; v < n; v++) {
+			successorOffsets[v] = count;
+			for (int k = offsets[v]; k < offsets[v + 1]; k++) {
+				int target = to[sorted[k]];
+				if (lastSource[target] != v) {
+					lastSource[target] = v;
+					kept[count++] = sorted[k];
+				}
+			}
+		}
+		successorOffsets[n] = count;
+
+		successors = new int[count];
+		edgeSources = new int[count];
+		edgeWeights = new double[count];
+		edges = new E3sEdge[count];
+		for (int e = 0; e < count; e++) {
+			successors[e] = to[kept[e]];
+			edgeSources[e] = from[kept[e]];
+			edgeWeights[e] = weights[kept[e]];
+			edges[e] = allEdges.get(kept[e]);
+		}
+
+		// the incoming arcs, sorted by their target tasks
+		predecessorOffsets = new int[n + 1];
+		for (int e = 0; e < count; e++) {
+			predecessorOffsets[successors[e] + 1]++;
+		}
+		for (int v = 0; v < n; v++) {
+			predecessorOffsets[v + 1] += predecessorOffsets[v];
+		}
+		predecessors = new int[count];
+		predecessorEdges = new int[count];
+		next = Arrays.copyOf(predecessorOffsets, n);
+		for (int e = 0; e < count; e++) {
+			int k = next[successors[e]]++;
+			predecessors[k] = edgeSources[e];
+			predecessorEdges[k] = e;
+		}
+	}
+
+	private int getVertexIndex(E3sEdge edge, String name) {
+		Integer index = vertexIndexes.get(name);
+		if (index == null) {
+			throw new IllegalArgumentException("The arc " + edge.getName()
+					+ " connects the unknown task " + name);
+		}
+		return index;
+	}
+
+	/**
+	 * @return the number of tasks
+	 */
+	public int getVertexCount() {
+		return vertexNames.length;
+	}
+
+	/**
+	 * @return the number of arcs
+	 */
+	public int getEdgeCount() {
+		return successors.length;
+	}
+
+	/**
+	 * @param vertex
+	 *            a task
+	 * @return the name of the task
+	 */
+	public String getVertexName(int vertex) {
+		return vertexNames[vertex];
+	}
+
+	/**
+	 * @param name
+	 *            the name of a task
+	 * @return the task, or -1 if there is no task with this name
+	 */
+	public int getVertexIndex(String name) {
+		Integer index = vertexIndexes.get(name);
+		return index == null ? -1 : index;
+	}
+
+	/**
+	 * @param edge
+	 *            an arc
+	 * @return the arc, as it was parsed
+	 */
+	public E3sEdge getEdge(int edge) {
+		return edges[edge];
+	}
+
+	/**
+	 * @param vertex
+	 *            a task
+	 * @return the number of arcs which leave the task
+	 */
+	public int getOutDegree(int vertex) {
+		return successorOffsets[vertex + 1] - successorOffsets[vertex];
+	}
+
+	/**
+	 * @param vertex
+	 *            a task
+	 * @return the number of arcs which enter the task
+	 */
+	public int getInDegree(int vertex) {
+		return predecessorOffsets[vertex + 1] - predecessorOffsets[vertex];
+	}
+
+	/**
+	 * @param source
+	 *            the source task
+	 * @param target
+	 *            the target task
+	 * @return the arc from the source task to the target task, or -1 if
+	 *         there is none
+	 */
+	public int getEdge(int source, int target) {
+		for (int e = successorOffsets[source]; e < successorOffsets[source + 1]; e++) {
+			if (successors[e] == target) {
+				return e;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * @return where the outgoing arcs of each task begin, indexed by task
+	 *         (the last element is the number of arcs)
+	 */
+	public int[] getSuccessorOffsets() {
+		return successorOffsets;
+	}
+
+	/**
+	 * @return the target task of each arc, indexed by arc
+	 */
+	public int[] getSuccessors() {
+		return successors;
+	}
+
+	/**
+	 * @return the source task of each arc, indexed by arc
+	 */
+	public int[] getEdgeSources() {
+		return edgeSources;
+	}
+
+	/**
+	 * @return the weight (communication volume) of each arc, indexed by arc
+	 */
+	public double[] getEdgeWeights() {
+		return edgeWeights;
+	}
+
+	/**
+	 * @return where the incoming arcs of each task begin, indexed by task
+	 *         (the last element is the number of arcs)
+	 */
+	public int[] getPredecessorOffsets() {
+		return predecessorOffsets;
+	}
+
+	/**
+	 * @return the source task of each incoming arc (in the order given by
+	 *         {@link #getPredecessorOffsets()})
+	 */
+	public int[] getPredecessors() {
+		return predecessors;
+	}
+
+	/**
+	 * @return the arc of each incoming arc (in the order given by
+	 *         {@link #getPredecessorOffsets()})
+	 */
+	public int[] getPredecessorEdges() {
+		return predecessorEdges;
+	}
+
+	/**
+	 * Gives a read only JGraphT view of this graph, with the same vertices
+	 * (the task names) and edges (the {@link E3sEdge}s) as the graph built by
+	 * {@link E3sBenchmarkData#buildCtg()}. It is meant for the code which
+	 * needs a JGraphT graph (e.g.: the viewer), not for traversing the graph
+	 * fast.
+	 *
+	 * @return the view
+	 */
+	public DirectedGraph<Object, Object> asGraph() {
+		return new E3sCompactCtgGraph(this);
+	}
+
+	@Override
+	public String toString() {
+		return "CTG with " + getVertexCount() + " tasks and " + getEdgeCount()
+				+ " arcs";
+	}
+
+}
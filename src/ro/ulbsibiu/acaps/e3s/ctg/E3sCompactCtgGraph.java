@@ -0,0 +1,356 @@
+package ro.ulbsibiu.acaps.e3s.ctg;
+
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import org.jgrapht.DirectedGraph;
+import org.jgrapht.EdgeFactory;
+import org.jgrapht.WeightedGraph;
+import org.jgrapht.graph.AbstractGraph;
+
+/**
+ * A read only JGraphT view of an {@link E3sCompactCtg}. Its vertices are the
+ * names of the tasks and its edges are the {@link E3sEdge}s, like in the
+ * graph built by {@link E3sBenchmarkData#buildCtg()}. The sets are views of
+ * the arrays of the compact CTG, so no graph is copied. All the methods which
+ * modify the graph throw {@link UnsupportedOperationException}s.
+ *
+ * @see E3sCompactCtg#asGraph()
+ *
+ * @author Ciprian Radu
+ *
+ */
+class E3sCompactCtgGraph extends AbstractGraph<Object, Object> implements
+		DirectedGraph<Object, Object>, WeightedGraph<Object, Object> {
+
+	/**
+	 * The edges which are given by a range of arc indexes (of the successor
+	 * arrays or of the predecessor arrays).
+	 */
+	private class EdgeRangeSet extends AbstractSet<Object> {
+
+		private final int begin;
+
+		private final int end;
+
+		/** whether the range indexes the predecessor arrays */
+		private final boolean incoming;
+
+		EdgeRangeSet(int begin, int end, boolean incoming) {
+			this.begin = begin;
+			this.end = end;
+			this.incoming = incoming;
+		}
+
+		@Override
+		public Iterator<Object> iterator() {
+			return new Iterator<Object>() {
+
+				private int k = begin;
+
+				@Override
+				public boolean hasNext() {
+					return k < end;
+				}
+
+				@Override
+				public Object next() {
+					if (k >= end) {
+						throw new NoSuchElementException();
+					}
+					int e = incoming ? ctg.getPredecessorEdges()[k] : k;
+					k++;
+					return ctg.getEdge(e);
+				}
+
+				@Override
+				public void remove() {
+					throw new UnsupportedOperationException();
+				}
+			};
+		}
+
+		@Override
+		public int size() {
+			return end - begin;
+		}
+
+		@Override
+		public boolean contains(Object o) {
+			Integer e = edgeIndexes.get(o);
+			if (e == null) {
+				return false;
+			}
+			if (incoming) {
+				int target = ctg.getSuccessors()[e];
+				return ctg.getPredecessorOffsets()[target] == begin
+						&& ctg.getPredecessorOffsets()[target + 1] == end;
+			}
+			return e >= begin && e < end;
+		}
+	}
+
+	private static final EdgeFactory<Object, Object> UNSUPPORTED_EDGE_FACTORY = new EdgeFactory<Object, Object>() {
+
+		@Override
+		public Object createEdge(Object sourceVertex, Object targetVertex) {
+			throw new UnsupportedOperationException();
+		}
+	};
+
+	private final E3sCompactCtg ctg;
+
+	/** the arcs, indexed by the {@link E3sEdge} objects */
+	private final Map<Object, Integer> edgeIndexes;
+
+	private final Set<Object> vertexSet;
+
+	private final Set<Object> edgeSet;
+
+	/**
+	 * Constructor
+	 *
+	 * @param ctg
+	 *            the compact CTG
+	 */
+	E3sCompactCtgGraph(E3sCompactCtg ctg) {
+		assert ctg != null;
+
+		this.ctg = ctg;
+		edgeIndexes = new IdentityHashMap<Object, Integer>(ctg.getEdgeCount());
+		for (int e = 0; e < ctg.getEdgeCount(); e++) {
+			edgeIndexes.put(ctg.getEdge(e), e);
+		}
+		vertexSet = new AbstractSet<Object>() {
+
+			@Override
+			public Iterator<Object> iterator() {
+				return new Iterator<Object>() {
+
+					private int v = 0;
+
+					@Override
+					public boolean hasNext() {
+						return v < E3sCompactCtgGraph.this.ctg.getVertexCount();
+					}
+
+					@Override
+					public Object next() {
+						if (!hasNext()) {
+							throw new NoSuchElementException();
+						}
+						return E3sCompactCtgGraph.this.ctg.getVertexName(v++);
+					}
+
+					@Override
+					public void remove() {
+						throw new UnsupportedOperationException();
+					}
+				};
+			}
+
+			@Override
+			public int size() {
+				return E3sCompactCtgGraph.this.ctg.getVertexCount();
+			}
+
+			@Override
+			public boolean contains(Object o) {
+				return containsVertex(o);
+			}
+		};
+		edgeSet = new EdgeRangeSet(0, ctg.getEdgeCount(), false);
+	}
+
+	/**
+	 * @return the task with the specified name, or -1
+	 */
+	private int indexOf(Object vertex) {
+		return vertex instanceof String ? ctg.getVertexIndex((String) vertex) : -1;
+	}
+
+	/**
+	 * @return the task with the specified name
+	 * @throws IllegalArgumentException
+	 *             if there is no such task
+	 */
+	private int existingIndexOf(Object vertex) {
+		int v = indexOf(vertex);
+		if (v < 0) {
+			if (vertex == null) {
+				throw new NullPointerException();
+			}
+			throw new IllegalArgumentException("no such vertex in graph");
+		}
+		return v;
+	}
+
+	/**
+	 * @return the arc
+	 * @throws IllegalArgumentException
+	 *             if there is no such arc
+	 */
+	private int existingEdgeIndexOf(Object e) {
+		Integer index = edgeIndexes.get(e);
+		if (index == null) {
+			throw new IllegalArgumentException("no such edge in graph");
+		}
+		return index;
+	}
+
+	@Override
+	public Set<Object> getAllEdges(Object sourceVertex, Object targetVertex) {
+		int source = indexOf(sourceVertex);
+		int target = indexOf(targetVertex);
+		if (source < 0 || target < 0) {
+			return null;
+		}
+		int e = ctg.getEdge(source, target);
+		return e < 0 ? new EdgeRangeSet(0, 0, false) : new EdgeRangeSet(e, e + 1, false);
+	}
+
+	@Override
+	public Object getEdge(Object sourceVertex, Object targetVertex) {
+		int source = indexOf(sourceVertex);
+		int target = indexOf(targetVertex);
+		if (source < 0 || target < 0) {
+			return null;
+		}
+		int e = ctg.getEdge(source, target);
+		return e < 0 ? null : ctg.getEdge(e);
+	}
+
+	@Override
+	public EdgeFactory<Object, Object> getEdgeFactory() {
+		return UNSUPPORTED_EDGE_FACTORY;
+	}
+
+	@Override
+	public Object addEdge(Object sourceVertex, Object targetVertex) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public boolean addEdge(Object sourceVertex, Object targetVertex, Object e) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public boolean addVertex(Object v) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public boolean containsEdge(Object e) {
+		return edgeIndexes.containsKey(e);
+	}
+
+	@Override
+	public boolean containsVertex(Object v) {
+		return indexOf(v) >= 0;
+	}
+
+	@Override
+	public Set<Object> edgeSet() {
+		return edgeSet;
+	}
+
+	@Override
+	public Set<Object> edgesOf(Object vertex) {
+		int v = existingIndexOf(vertex);
+		Set<Object> edges = new EdgeRangeSet(ctg.getSuccessorOffsets()[v],
+				ctg.getSuccessorOffsets()[v + 1], false);
+		if (ctg.getInDegree(v) > 0) {
+			Set<Object> allEdges = new LinkedHashSet<Object>(edges);
+			allEdges.addAll(incomingEdgesOf(vertex));
+			edges = allEdges;
+		}
+		return edges;
+	}
+
+	@Override
+	public Object removeEdge(Object sourceVertex, Object targetVertex) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public boolean removeEdge(Object e) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public boolean removeVertex(Object v) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public boolean removeAllEdges(Collection<? extends Object> edges) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public Set<Object> removeAllEdges(Object sourceVertex, Object targetVertex) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public boolean removeAllVertices(Collection<? extends Object> vertices) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public Set<Object> vertexSet() {
+		return vertexSet;
+	}
+
+	@Override
+	public Object getEdgeSource(Object e) {
+		return ctg.getVertexName(ctg.getEdgeSources()[existingEdgeIndexOf(e)]);
+	}
+
+	@Override
+	public Object getEdgeTarget(Object e) {
+		return ctg.getVertexName(ctg.getSuccessors()[existingEdgeIndexOf(e)]);
+	}
+
+	@Override
+	public double getEdgeWeight(Object e) {
+		return ctg.getEdgeWeights()[existingEdgeIndexOf(e)];
+	}
+
+	@Override
+	public void setEdgeWeight(Object e, double weight) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public int inDegreeOf(Object vertex) {
+		return ctg.getInDegree(existingIndexOf(vertex));
+	}
+
+	@Override
+	public Set<Object> incomingEdgesOf(Object vertex) {
+		int v = existingIndexOf(vertex);
+		return new EdgeRangeSet(ctg.getPredecessorOffsets()[v],
+				ctg.getPredecessorOffsets()[v + 1], true);
+	}
+
+	@Override
+	public int outDegreeOf(Object vertex) {
+		return ctg.getOutDegree(existingIndexOf(vertex));
+	}
+
+	@Override
+	public Set<Object> outgoingEdgesOf(Object vertex) {
+		int v = existingIndexOf(vertex);
+		return new EdgeRangeSet(ctg.getSuccessorOffsets()[v],
+				ctg.getSuccessorOffsets()[v + 1], false);
+	}
+
+}
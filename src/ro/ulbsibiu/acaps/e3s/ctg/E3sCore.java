@@ -1,7 +1,10 @@
 package ro.ulbsibiu.acaps.e3s.ctg;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Holds the parameters of an IP (Intellectual Property) core.
@@ -32,6 +35,9 @@ public class E3sCore {
 	/** the ID of the core */
 	private String id;
 	
+	/** the symbol of the ID (see {@link E3sSymbols#getCoreIds()}) */
+	private int idSymbol = E3sSymbolTable.NO_SYMBOL;
+	
 	/**
 	 * The parameters of the IP core
 	 * 
@@ -107,6 +113,42 @@ public class E3sCore {
 	/** keeps all the tasks associated to this IP core */
 	private List<E3sTaskCore> tasks = new ArrayList<E3sTaskCore>();
 	
+	/**
+	 * loads the tasks of this core when they are first needed (<tt>null</tt>
+	 * if the tasks are already loaded)
+	 */
+	private volatile E3sTaskCoresLoader tasksLoader;
+	
+	/**
+	 * the tasks of this core, indexed by the symbols of their types (built
+	 * when it is first needed)
+	 */
+	private volatile E3sTaskCore[] tasksByTypeSymbol;
+	
+	/**
+	 * the tasks of this core, indexed by their types (built when it is first
+	 * needed)
+	 */
+	private volatile Map<String, E3sTaskCore> tasksByType;
+	
+	/**
+	 * the table which keeps the tasks of this core off the heap
+	 * (<tt>null</tt> if the tasks are kept in {@link #tasks})
+	 */
+	private E3sTaskCoreTable taskTable;
+	
+	/** the first row of this core, from {@link #taskTable} */
+	private int firstTaskRow;
+	
+	/** the number of rows of this core, from {@link #taskTable} */
+	private int taskRowCount;
+	
+	/** whether this core can still be modified (see {@link #seal()}) */
+	private volatile boolean sealed;
+	
+	/** a view of {@link #tasks} which cannot be modified (set when this core is sealed) */
+	private List<E3sTaskCore> unmodifiableTasks;
+	
 	/**
 	 * Constructor
 	 * 
@@ -120,41 +162,235 @@ public class E3sCore {
 		this.id = id;
 	}
 	
+	/**
+	 * Seals this core, so that it can be shared (a core is sealed when it is
+	 * given to an {@link E3sPlatform}). Afterwards, all the methods which
+	 * modify this core or its tasks throw an {@link IllegalStateException}
+	 * and {@link #getE3sTaskCores()} gives a list which cannot be modified.
+	 * The tasks which are loaded lazily are sealed when they are loaded.
+	 */
+	public synchronized void seal() {
+		if (!sealed) {
+			for (int i = 0; i < tasks.size(); i++) {
+				tasks.get(i).seal();
+			}
+			unmodifiableTasks = Collections.unmodifiableList(tasks);
+			sealed = true;
+		}
+	}
+	
+	/**
+	 * @return whether this core is sealed (see {@link #seal()})
+	 */
+	public boolean isSealed() {
+		return sealed;
+	}
+	
+	private void checkNotSealed() {
+		if (sealed) {
+			throw new IllegalStateException("The core " + id + " (" + name
+					+ ") is sealed");
+		}
+	}
+	
 	/**
 	 * Adds an {@link E3sTaskCore} to the list of tasks processed by this core.
 	 * 
 	 * @param e3sTaskCore the task
 	 */
 	public void addE3sTaskCore (E3sTaskCore e3sTaskCore) {
+		checkNotSealed();
+		loadE3sTaskCores();
+		if (taskTable != null) {
+			// the tasks are moved on the heap
+			tasks.addAll(taskTable.asList(firstTaskRow, taskRowCount));
+			taskTable = null;
+		}
 		tasks.add(e3sTaskCore);
+		tasksByTypeSymbol = null;
+		tasksByType = null;
+	}
+	
+	/**
+	 * Makes the tasks of this core to be loaded only when they are first
+	 * requested (through {@link #getE3sTaskCores()} or
+	 * {@link #getE3sTaskCore(String)}). The loaded tasks are placed before
+	 * the tasks which were already added.
+	 * 
+	 * @param tasksLoader
+	 *            the loader of the tasks (<tt>null</tt> means that there are
+	 *            no more tasks to load)
+	 */
+	public void setE3sTaskCoresLoader(E3sTaskCoresLoader tasksLoader) {
+		checkNotSealed();
+		this.tasksLoader = tasksLoader;
+	}
+	
+	/**
+	 * Makes this core to keep its tasks off the heap, as a range of rows from
+	 * an {@link E3sTaskCoreTable}. The tasks are created only when they are
+	 * requested and they are not kept, so modifying them doesn't modify this
+	 * core. The core must not have tasks yet.
+	 * 
+	 * @param taskTable
+	 *            the table
+	 * @param firstRow
+	 *            the first row of this core
+	 * @param rowCount
+	 *            the number of rows of this core
+	 */
+	public void setE3sTaskCoreRows(E3sTaskCoreTable taskTable, int firstRow, int rowCount) {
+		checkNotSealed();
+		assert taskTable != null;
+		assert tasks.isEmpty() && tasksLoader == null;
+		
+		this.taskTable = taskTable;
+		firstTaskRow = firstRow;
+		taskRowCount = rowCount;
+		tasksByTypeSymbol = null;
+		tasksByType = null;
+	}
+	
+	/**
+	 * @return whether the tasks of this core are kept off the heap (see
+	 *         {@link #setE3sTaskCoreRows(E3sTaskCoreTable, int, int)})
+	 */
+	public boolean isE3sTaskCoresOffHeap() {
+		return taskTable != null;
+	}
+	
+	/**
+	 * @return the table which keeps the tasks of this core off the heap
+	 *         (<tt>null</tt> if they are kept on the heap)
+	 */
+	E3sTaskCoreTable getE3sTaskCoreTable() {
+		return taskTable;
+	}
+	
+	/**
+	 * @return the first row of this core, from its
+	 *         {@link #getE3sTaskCoreTable()}
+	 */
+	int getFirstE3sTaskCoreRow() {
+		return firstTaskRow;
+	}
+	
+	/**
+	 * @return the number of rows of this core, from its
+	 *         {@link #getE3sTaskCoreTable()}
+	 */
+	int getE3sTaskCoreRowCount() {
+		return taskRowCount;
+	}
+	
+	/**
+	 * @return whether the tasks of this core are loaded (they are not loaded
+	 *         when an {@link E3sTaskCoresLoader} is set and no task was
+	 *         requested yet)
+	 */
+	public boolean isE3sTaskCoresLoaded() {
+		return tasksLoader == null;
+	}
+	
+	private void loadE3sTaskCores() {
+		if (tasksLoader != null) {
+			synchronized (this) {
+				if (tasksLoader != null) {
+					List<E3sTaskCore> loadedTasks = tasksLoader.loadE3sTaskCores(this);
+					if (sealed) {
+						for (int i = 0; i < loadedTasks.size(); i++) {
+							loadedTasks.get(i).seal();
+						}
+					}
+					tasks.addAll(0, loadedTasks);
+					tasksLoader = null;
+				}
+			}
+		}
 	}
 	
 	/**
-	 * Retrieves the {@link E3sTaskCore} with the specified type.
-	 * Note that <tt>null</tt> will be returned in case no task is found.
-	 * It is assumed that a single task exists with an certain type.
+	 * Retrieves the {@link E3sTaskCore} with the specified type, from a map
+	 * which is built when it is first needed (or from the rows of the table,
+	 * if the tasks are kept off the heap). Note that <tt>null</tt> will be
+	 * returned in case no task is found. It is assumed that a single task
+	 * exists with an certain type (otherwise, the first one is retrieved).
 	 * 
 	 * @param type the type of the task
 	 * @return the {@link E3sTaskCore} or <tt>null</tt>
+	 * 
+	 * @see E3sPerformanceTable
 	 */
 	public E3sTaskCore getE3sTaskCore (String type) {
-		E3sTaskCore task = null;
-		for (int i = 0; i < tasks.size(); i++) {
-			if (type.equals(tasks.get(i).getType())) {
-				task = tasks.get(i);
-				break;
+		E3sTaskCoreTable table = taskTable;
+		if (table != null) {
+			// the rows are searched, so that no task is kept on the heap
+			int row = table.findRow(firstTaskRow, taskRowCount, type);
+			return row < 0 ? null : table.getE3sTaskCore(row);
+		}
+		Map<String, E3sTaskCore> index = tasksByType;
+		if (index == null) {
+			loadE3sTaskCores();
+			index = new HashMap<String, E3sTaskCore>(tasks.size() * 2);
+			for (int i = tasks.size() - 1; i >= 0; i--) {
+				// the first task with a certain type is kept
+				index.put(tasks.get(i).getType(), tasks.get(i));
+			}
+			tasksByType = index;
+		}
+		return index.get(type);
+	}
+	
+	/**
+	 * Retrieves the {@link E3sTaskCore} with the specified type symbol (see
+	 * {@link E3sSymbols#getTaskTypes()}), by indexing an array. Note that
+	 * <tt>null</tt> will be returned in case no task is found (including the
+	 * case when the task types are not interned).
+	 * 
+	 * @param typeSymbol
+	 *            the symbol of the type of the task
+	 * @return the {@link E3sTaskCore} or <tt>null</tt>
+	 */
+	public E3sTaskCore getE3sTaskCore (int typeSymbol) {
+		E3sTaskCoreTable table = taskTable;
+		if (table != null) {
+			int row = table.findRow(firstTaskRow, taskRowCount, typeSymbol);
+			return row < 0 ? null : table.getE3sTaskCore(row);
+		}
+		E3sTaskCore[] index = tasksByTypeSymbol;
+		if (index == null) {
+			loadE3sTaskCores();
+			int length = 0;
+			for (int i = 0; i < tasks.size(); i++) {
+				length = Math.max(length, tasks.get(i).getTypeSymbol() + 1);
 			}
+			index = new E3sTaskCore[length];
+			for (int i = tasks.size() - 1; i >= 0; i--) {
+				// the first task with a certain type is kept
+				if (tasks.get(i).getTypeSymbol() != E3sSymbolTable.NO_SYMBOL) {
+					index[tasks.get(i).getTypeSymbol()] = tasks.get(i);
+				}
+			}
+			tasksByTypeSymbol = index;
 		}
-		return task;
+		return typeSymbol >= 0 && typeSymbol < index.length ? index[typeSymbol] : null;
 	}
 	
 	/**
 	 * Retrieves a list with all the {@link E3sTaskCore} belonging to this core.
+	 * If the tasks are kept off the heap, the list cannot be modified and its
+	 * tasks are created when they are requested. If this core is sealed, the
+	 * list cannot be modified either.
 	 * 
 	 * @return a list with all the {@link E3sTaskCore}
 	 */
 	public List<E3sTaskCore> getE3sTaskCores() {
-		return tasks;
+		E3sTaskCoreTable table = taskTable;
+		if (table != null) {
+			return table.asList(firstTaskRow, taskRowCount);
+		}
+		loadE3sTaskCores();
+		return sealed ? unmodifiableTasks : tasks;
 	}
 	
 	/**
@@ -164,6 +400,7 @@ public class E3sCore {
 	 * @param value the parameter's value
 	 */
 	public void setCoreParameter (E3sCoreParams parameter, double value) {
+		checkNotSealed();
 		switch (parameter) {
 		case BUFFERED:
 			buffered = value;
@@ -199,6 +436,51 @@ public class E3sCore {
 		}
 	}
 	
+	/**
+	 * Gets a core parameter
+	 * 
+	 * @param parameter the parameter
+	 * @return the parameter's value
+	 */
+	public double getCoreParameter (E3sCoreParams parameter) {
+		double value;
+		switch (parameter) {
+		case BUFFERED:
+			value = buffered;
+			break;
+		case COMMUN_EN_BIT:
+			value = communicationEnergyBit;
+			break;
+		case DENSITY:
+			value = density;
+			break;
+		case HEIGHT:
+			value = height;
+			break;
+		case IDLE_POWER:
+			value = idlePower;
+			break;
+		case IO_EN_BIT:
+			value = ioEnergy;
+			break;
+		case MAX_FREQ:
+			value = maxFrequency;
+			break;
+		case PREEMPT_POWER:
+			value = preemptPower;
+			break;
+		case PRICE:
+			value = price;
+			break;
+		case WIDTH:
+			value = width;
+			break;
+		default:
+			value = 0;
+		}
+		return value;
+	}
+	
 	public String getName() {
 		return name;
 	}
@@ -207,11 +489,35 @@ public class E3sCore {
 		return id;
 	}
 
+	/**
+	 * @return the symbol of the ID, or {@link E3sSymbolTable#NO_SYMBOL}
+	 */
+	public int getIdSymbol() {
+		return idSymbol;
+	}
+
+	public void setIdSymbol(int idSymbol) {
+		checkNotSealed();
+		this.idSymbol = idSymbol;
+	}
+
+	/**
+	 * Sets the ID, together with its symbol.
+	 * 
+	 * @see E3sSymbolTranslation#translate(E3sCore)
+	 */
+	void setId(String id, int idSymbol) {
+		checkNotSealed();
+		this.id = id;
+		this.idSymbol = idSymbol;
+	}
+
 	public double getPrice() {
 		return price;
 	}
 
 	public void setPrice(double price) {
+		checkNotSealed();
 		this.price = price;
 	}
 
@@ -220,6 +526,7 @@ public class E3sCore {
 	}
 
 	public void setBuffered(double buffered) {
+		checkNotSealed();
 		this.buffered = buffered;
 	}
 
@@ -228,6 +535,7 @@ public class E3sCore {
 	}
 
 	public void setMaxFrequency(double maxFrequency) {
+		checkNotSealed();
 		this.maxFrequency = maxFrequency;
 	}
 
@@ -236,6 +544,7 @@ public class E3sCore {
 	}
 
 	public void setWidth(double width) {
+		checkNotSealed();
 		this.width = width;
 	}
 
@@ -244,6 +553,7 @@ public class E3sCore {
 	}
 
 	public void setHeight(double height) {
+		checkNotSealed();
 		this.height = height;
 	}
 
@@ -252,6 +562,7 @@ public class E3sCore {
 	}
 
 	public void setDensity(double density) {
+		checkNotSealed();
 		this.density = density;
 	}
 
@@ -260,6 +571,7 @@ public class E3sCore {
 	}
 
 	public void setPreemptPower(double preemptPower) {
+		checkNotSealed();
 		this.preemptPower = preemptPower;
 	}
 
@@ -268,6 +580,7 @@ public class E3sCore {
 	}
 
 	public void setCommunicationEnergyBit(double communicationEnergy) {
+		checkNotSealed();
 		this.communicationEnergyBit = communicationEnergy;
 	}
 
@@ -276,6 +589,7 @@ public class E3sCore {
 	}
 
 	public void setIoEnergy(double ioEnergy) {
+		checkNotSealed();
 		this.ioEnergy = ioEnergy;
 	}
 
@@ -284,6 +598,7 @@ public class E3sCore {
 	}
 
 	public void setIdlePower(double idlePower) {
+		checkNotSealed();
 		this.idlePower = idlePower;
 	}
 	
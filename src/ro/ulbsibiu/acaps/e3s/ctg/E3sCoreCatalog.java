@@ -0,0 +1,326 @@
+package ro.ulbsibiu.acaps.e3s.ctg;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import ro.ulbsibiu.acaps.e3s.ctg.E3sCore.E3sCoreParams;
+
+/**
+ * A catalog of the cores and of the task rows of the cores, which keeps a
+ * single instance of each distinct core and of each distinct task row. The
+ * E3S benchmarks describe the same cores (e.g.: the AMD ElanSC520) in each
+ * file, so, when many benchmarks are loaded in the same JVM, the catalog
+ * allows them to share their cores, instead of keeping a copy of each core
+ * for each file.
+ * <p>
+ * The task rows are identified by their contents (the task type and the
+ * values of the parameters) and the cores are identified by their name, their
+ * ID, the values of their parameters and their (canonical) task rows. The
+ * instances kept by the catalog are copies, made when a core or a row is
+ * first interned, so interning never modifies its argument. The task types
+ * and the core IDs of the copies are interned in the symbols of the catalog
+ * (see {@link #getSymbols()}), so the catalog can be used only by the
+ * platforms whose symbols share the task types with the symbols of the
+ * catalog (e.g.: the benchmarks parsed with
+ * <tt>E3sTgffFileParser.setCoreCatalog(E3sCoreCatalog)</tt>).
+ * </p>
+ * <p>
+ * The cores and the rows given by the catalog are shared, so they are sealed
+ * (see {@link E3sCore#seal()} and {@link E3sTaskCore#seal()}) and they cannot
+ * be modified. The cores whose tasks are kept off the heap or are not loaded
+ * yet are not interned (they are given back unchanged). A catalog can be used
+ * concurrently by multiple threads. The benchmarks which share their cores
+ * must be parsed with the same catalog; the catalog keeps its cores until it
+ * is cleared (see {@link #clear()}) or it is no longer referenced (the
+ * benchmarks reference only the cores, not the catalog).
+ * </p>
+ * <p>
+ * The benchmarks parsed with the catalog share its task types and its arc
+ * types, so these grow with the distinct types of all the benchmarks, and so
+ * does the performance table of each platform (see
+ * {@link E3sPerformanceTable}), which is indexed by the task type symbols.
+ * The E3S benchmarks have few distinct types, but a long running application
+ * which parses arbitrary benchmarks should clear the catalog from time to
+ * time, which gives it new symbols.
+ * </p>
+ *
+ * @author Ciprian Radu
+ *
+ */
+public class E3sCoreCatalog {
+
+	private static final E3sCoreParams[] CORE_PARAMS = E3sCoreParams.values();
+
+	/**
+	 * Identifies a task row by its contents.
+	 */
+	private static final class TaskCoreKey {
+
+		private final String type;
+
+		private final long[] values;
+
+		private final int hash;
+
+		TaskCoreKey(E3sTaskCore e3sTaskCore) {
+			type = e3sTaskCore.getType();
+			values = new long[] {
+					Double.doubleToLongBits(e3sTaskCore.getVersion()),
+					Double.doubleToLongBits(e3sTaskCore.getValid()),
+					Double.doubleToLongBits(e3sTaskCore.getTaskTime()),
+					Double.doubleToLongBits(e3sTaskCore.getPreemtTime()),
+					Double.doubleToLongBits(e3sTaskCore.getCodeBits()),
+					Double.doubleToLongBits(e3sTaskCore.getTaskPower()) };
+			hash = 31 * (type == null ? 0 : type.hashCode()) + Arrays.hashCode(values);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			boolean equal = false;
+			if (obj instanceof TaskCoreKey) {
+				TaskCoreKey key = (TaskCoreKey) obj;
+				equal = hash == key.hash
+						&& (type == null ? key.type == null : type.equals(key.type))
+						&& Arrays.equals(values, key.values);
+			}
+			return equal;
+		}
+	}
+
+	/**
+	 * Identifies a core by its name, its ID, its parameters and its canonical
+	 * task rows (which are compared by identity).
+	 */
+	private static final class CoreKey {
+
+		private final String name;
+
+		private final String id;
+
+		private final long[] values;
+
+		private final E3sTaskCore[] taskCores;
+
+		private final int hash;
+
+		CoreKey(E3sCore e3sCore, E3sTaskCore[] taskCores) {
+			name = e3sCore.getName();
+			id = e3sCore.getId();
+			values = new long[CORE_PARAMS.length];
+			for (int i = 0; i < CORE_PARAMS.length; i++) {
+				values[i] = Double.doubleToLongBits(e3sCore.getCoreParameter(CORE_PARAMS[i]));
+			}
+			this.taskCores = taskCores;
+			int h = 31 * (name == null ? 0 : name.hashCode()) + (id == null ? 0 : id.hashCode());
+			h = 31 * h + Arrays.hashCode(values);
+			for (int i = 0; i < taskCores.length; i++) {
+				h = 31 * h + System.identityHashCode(taskCores[i]);
+			}
+			hash = h;
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			boolean equal = false;
+			if (obj instanceof CoreKey) {
+				CoreKey key = (CoreKey) obj;
+				equal = hash == key.hash
+						&& (name == null ? key.name == null : name.equals(key.name))
+						&& (id == null ? key.id == null : id.equals(key.id))
+						&& Arrays.equals(values, key.values)
+						&& taskCores.length == key.taskCores.length;
+				for (int i = 0; equal && i < taskCores.length; i++) {
+					// the task rows are canonical
+					equal = taskCores[i] == key.taskCores[i];
+				}
+			}
+			return equal;
+		}
+	}
+
+	/**
+	 * the symbols in which the task types and the core IDs are interned (new
+	 * symbols are created when the catalog is cleared)
+	 */
+	private E3sSymbols symbols;
+
+	/** the canonical task rows */
+	private final Map<TaskCoreKey, E3sTaskCore> taskCores;
+
+	/** the canonical cores */
+	private final Map<CoreKey, E3sCore> cores;
+
+	/** how many task rows were interned */
+	private long taskCoreRequests;
+
+	/** how many cores were interned */
+	private long coreRequests;
+
+	public E3sCoreCatalog() {
+		symbols = new E3sSymbols();
+		taskCores = new HashMap<TaskCoreKey, E3sTaskCore>();
+		cores = new HashMap<CoreKey, E3sCore>();
+	}
+
+	/**
+	 * @return the symbols in which the task types and the core IDs of the
+	 *         catalog are interned (a benchmark which uses the catalog should
+	 *         intern its strings in {@link E3sSymbols#withNewTaskNames()} of
+	 *         these symbols)
+	 */
+	public synchronized E3sSymbols getSymbols() {
+		return symbols;
+	}
+
+	/**
+	 * Gives the canonical instance of a task row.
+	 *
+	 * @param e3sTaskCore
+	 *            the task row (it is not modified)
+	 * @return the task row kept by the catalog, which has the same contents
+	 *         (it is sealed)
+	 */
+	public synchronized E3sTaskCore intern(E3sTaskCore e3sTaskCore) {
+		taskCoreRequests++;
+		TaskCoreKey key = new TaskCoreKey(e3sTaskCore);
+		E3sTaskCore canonical = taskCores.get(key);
+		if (canonical == null) {
+			canonical = new E3sTaskCore();
+			canonical.setVersion(e3sTaskCore.getVersion());
+			canonical.setValid(e3sTaskCore.getValid());
+			canonical.setTaskTime(e3sTaskCore.getTaskTime());
+			canonical.setPreemtTime(e3sTaskCore.getPreemtTime());
+			canonical.setCodeBits(e3sTaskCore.getCodeBits());
+			canonical.setTaskPower(e3sTaskCore.getTaskPower());
+			canonical.setType(e3sTaskCore.getType());
+			if (e3sTaskCore.getType() != null) {
+				symbols.intern(canonical);
+			}
+			canonical.seal();
+			taskCores.put(key, canonical);
+		}
+		return canonical;
+	}
+
+	/**
+	 * Gives the canonical instance of a core. The cores whose tasks are kept
+	 * off the heap or are not loaded yet are not interned.
+	 *
+	 * @param e3sCore
+	 *            the core (it is not modified)
+	 * @return the core kept by the catalog, which has the same name, ID,
+	 *         parameters and tasks (it is sealed), or the given core, if it
+	 *         cannot be interned
+	 */
+	public synchronized E3sCore intern(E3sCore e3sCore) {
+		E3sCore canonical = e3sCore;
+		if (!e3sCore.isE3sTaskCoresOffHeap() && e3sCore.isE3sTaskCoresLoaded()) {
+			coreRequests++;
+			List<E3sTaskCore> tasks = e3sCore.getE3sTaskCores();
+			E3sTaskCore[] canonicalTasks = new E3sTaskCore[tasks.size()];
+			for (int i = 0; i < canonicalTasks.length; i++) {
+				canonicalTasks[i] = intern(tasks.get(i));
+			}
+			CoreKey key = new CoreKey(e3sCore, canonicalTasks);
+			canonical = cores.get(key);
+			if (canonical == null) {
+				canonical = symbols.createCore(e3sCore.getName(), e3sCore.getId());
+				for (int i = 0; i < CORE_PARAMS.length; i++) {
+					canonical.setCoreParameter(CORE_PARAMS[i], e3sCore.getCoreParameter(CORE_PARAMS[i]));
+				}
+				for (int i = 0; i < canonicalTasks.length; i++) {
+					canonical.addE3sTaskCore(canonicalTasks[i]);
+				}
+				canonical.seal();
+				cores.put(key, canonical);
+			}
+		}
+		return canonical;
+	}
+
+	/**
+	 * Gives a platform whose cores are the canonical instances of the cores
+	 * of the specified platform.
+	 *
+	 * @param platform
+	 *            the platform (it must share the task types with the symbols
+	 *            of the catalog)
+	 * @return the platform with the canonical cores (the given platform, if
+	 *         all its cores are already canonical)
+	 * @throws IllegalArgumentException
+	 *             if the platform doesn't share the task types with the
+	 *             catalog
+	 */
+	public E3sPlatform intern(E3sPlatform platform) {
+		if (platform.getSymbols() == null
+				|| platform.getSymbols().getTaskTypes() != getSymbols().getTaskTypes()) {
+			throw new IllegalArgumentException(
+					"The platform doesn't share the task types with the catalog");
+		}
+		List<E3sCore> platformCores = platform.getCores();
+		List<E3sCore> canonicalCores = new ArrayList<E3sCore>(platformCores.size());
+		boolean changed = false;
+		for (int i = 0; i < platformCores.size(); i++) {
+			E3sCore canonical = intern(platformCores.get(i));
+			changed = changed || canonical != platformCores.get(i);
+			canonicalCores.add(canonical);
+		}
+		if (changed) {
+			platform = new E3sPlatform(platform.getSymbols(), canonicalCores,
+					platform.getCommunicationVolumes(), platform.getWireBitWidth());
+		}
+		return platform;
+	}
+
+	/**
+	 * @return the number of distinct task rows
+	 */
+	public synchronized int getTaskCoreCount() {
+		return taskCores.size();
+	}
+
+	/**
+	 * @return the number of distinct cores
+	 */
+	public synchronized int getCoreCount() {
+		return cores.size();
+	}
+
+	/**
+	 * Removes all the cores and the task rows from the catalog and starts new
+	 * symbols (see {@link #getSymbols()}), so the types of the benchmarks
+	 * which were parsed before don't widen the platforms of the benchmarks
+	 * parsed afterwards. The instances which were already given remain valid
+	 * (with the old symbols). The catalog should not be cleared while a
+	 * benchmark is parsed with it, since the benchmark would not share the
+	 * task types with the catalog anymore (so its cores would not be shared).
+	 */
+	public synchronized void clear() {
+		symbols = new E3sSymbols();
+		taskCores.clear();
+		cores.clear();
+		taskCoreRequests = 0;
+		coreRequests = 0;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return cores.size() + " distinct cores (of " + coreRequests
+				+ " interned), " + taskCores.size()
+				+ " distinct task rows (of " + taskCoreRequests + " interned)";
+	}
+
+}
@@ -0,0 +1,276 @@
+package ro.ulbsibiu.acaps.e3s.ctg;
+
+import java.util.Arrays;
+
+/**
+ * The analysis of a Communication Task Graph: its topological order, the
+ * ASAP and ALAP levels of its tasks, its longest communication path and its
+ * best case critical path. Everything is computed once, from the compact form
+ * of the CTG (see {@link E3sCompactCtg}), and it is kept in arrays which are
+ * indexed like the tasks of the compact CTG.
+ * <p>
+ * The longest communication path is the path whose arcs have the largest
+ * total communication volume. The best case critical path is the path whose
+ * tasks have the largest total execution time, when each task is executed by
+ * the fastest core which can execute its type (see
+ * {@link E3sPerformanceTable#getFastestTaskTime(int)}) and the communications
+ * take no time. So, its length is a lower bound of the time in which the CTG
+ * can be executed, on any mapping.
+ * </p>
+ * <p>
+ * An analysis is immutable, so it can be read concurrently by multiple
+ * threads. The arrays are given without being copied, so they must not be
+ * modified.
+ * </p>
+ *
+ * @see E3sBenchmarkData#getAnalytics()
+ *
+ * @author Ciprian Radu
+ *
+ */
+public class E3sCtgAnalytics {
+
+	/** the tasks, in topological order */
+	private final int[] topologicalOrder;
+
+	/** the ASAP (as soon as possible) level of each task */
+	private final int[] asapLevels;
+
+	/** the ALAP (as late as possible) level of each task */
+	private final int[] alapLevels;
+
+	private final int levelCount;
+
+	/** the tasks of the longest communication path, from its first task */
+	private final int[] communicationPath;
+
+	/** the total communication volume of the longest communication path */
+	private final double communicationPathVolume;
+
+	/** the best execution time of each task */
+	private final double[] bestTaskTimes;
+
+	/** the earliest finish time of each task, in the best case */
+	private final double[] bestCaseFinishTimes;
+
+	/** the tasks of the best case critical path, from its first task */
+	private final int[] bestCaseCriticalPath;
+
+	/** the length (time) of the best case critical path */
+	private final double bestCaseCriticalPathLength;
+
+	/**
+	 * Analyzes a CTG.
+	 *
+	 * @param ctg
+	 *            the compact CTG
+	 * @param bestTaskTimes
+	 *            the best execution time of each task (indexed like the tasks
+	 *            of the compact CTG)
+	 * @throws IllegalStateException
+	 *             if the CTG has a cycle
+	 */
+	E3sCtgAnalytics(E3sCompactCtg ctg, double[] bestTaskTimes) {
+		assert bestTaskTimes.length == ctg.getVertexCount();
+
+		int n = ctg.getVertexCount();
+		int[] offsets = ctg.getSuccessorOffsets();
+		int[] successors = ctg.getSuccessors();
+
+		// Kahn's algorithm
+		int[] inDegrees = new int[n];
+		for (int v = 0; v < n; v++) {
+			inDegrees[v] = ctg.getInDegree(v);
+		}
+		topologicalOrder = new int[n];
+		int tail = 0;
+		for (int v = 0; v < n; v++) {
+			if (inDegrees[v] == 0) {
+				topologicalOrder[tail++] = v;
+			}
+		}
+		for (int head = 0; head < tail; head++) {
+			int v = topologicalOrder[head];
+			for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+				if (--inDegrees[successors[e]] == 0) {
+					topologicalOrder[tail++] = successors[e];
+				}
+			}
+		}
+		if (tail < n) {
+			throw new IllegalStateException("The CTG has a cycle (" + (n - tail)
+					+ " tasks cannot be ordered topologically)");
+		}
+
+		asapLevels = new int[n];
+		int maxLevel = 0;
+		for (int i = 0; i < n; i++) {
+			int v = topologicalOrder[i];
+			maxLevel = Math.max(maxLevel, asapLevels[v]);
+			for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+				asapLevels[successors[e]] = Math.max(asapLevels[successors[e]], asapLevels[v] + 1);
+			}
+		}
+		levelCount = n == 0 ? 0 : maxLevel + 1;
+		alapLevels = new int[n];
+		Arrays.fill(alapLevels, maxLevel);
+		for (int i = n - 1; i >= 0; i--) {
+			int v = topologicalOrder[i];
+			for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+				alapLevels[v] = Math.min(alapLevels[v], alapLevels[successors[e]] - 1);
+			}
+		}
+
+		double[] volumes = new double[n];
+		communicationPath = findLongestPath(ctg, topologicalOrder,
+				new double[n], ctg.getEdgeWeights(), volumes);
+		communicationPathVolume = communicationPath.length == 0 ? 0
+				: volumes[communicationPath[communicationPath.length - 1]];
+
+		this.bestTaskTimes = bestTaskTimes;
+		bestCaseFinishTimes = new double[n];
+		bestCaseCriticalPath = findLongestPath(ctg, topologicalOrder,
+				bestTaskTimes, new double[ctg.getEdgeCount()], bestCaseFinishTimes);
+		bestCaseCriticalPathLength = bestCaseCriticalPath.length == 0 ? 0
+				: bestCaseFinishTimes[bestCaseCriticalPath[bestCaseCriticalPath.length - 1]];
+	}
+
+	/**
+	 * Finds the longest path of a DAG, whose tasks and arcs have lengths.
+	 *
+	 * @param ctg
+	 *            the DAG
+	 * @param order
+	 *            the tasks, in topological order
+	 * @param taskLengths
+	 *            the length of each task
+	 * @param edgeLengths
+	 *            the length of each arc
+	 * @param lengths
+	 *            receives the length of the longest path which ends with each
+	 *            task (including the task)
+	 * @return the tasks of the longest path (the first one, if there are
+	 *         more)
+	 */
+	private static int[] findLongestPath(E3sCompactCtg ctg, int[] order,
+			double[] taskLengths, double[] edgeLengths, double[] lengths) {
+		int n = ctg.getVertexCount();
+		int[] offsets = ctg.getSuccessorOffsets();
+		int[] successors = ctg.getSuccessors();
+		int[] previous = new int[n];
+		Arrays.fill(previous, -1);
+		// the length of the longest path which reaches each task (without the task)
+		double[] starts = new double[n];
+		int last = -1;
+		for (int i = 0; i < n; i++) {
+			int v = order[i];
+			lengths[v] = starts[v] + taskLengths[v];
+			if (last < 0 || lengths[v] > lengths[last]) {
+				last = v;
+			}
+			for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+				int s = successors[e];
+				if (previous[s] < 0 || lengths[v] + edgeLengths[e] > starts[s]) {
+					starts[s] = lengths[v] + edgeLengths[e];
+					previous[s] = v;
+				}
+			}
+		}
+		int count = 0;
+		for (int v = last; v >= 0; v = previous[v]) {
+			count++;
+		}
+		int[] path = new int[count];
+		for (int v = last; v >= 0; v = previous[v]) {
+			path[--count] = v;
+		}
+		return path;
+	}
+
+	/**
+	 * @return the tasks, in topological order (each task comes after its
+	 *         predecessors)
+	 */
+	public int[] getTopologicalOrder() {
+		return topologicalOrder;
+	}
+
+	/**
+	 * @return the ASAP level of each task (the tasks without predecessors are
+	 *         on level 0 and a task is one level after its last predecessor)
+	 */
+	public int[] getAsapLevels() {
+		return asapLevels;
+	}
+
+	/**
+	 * @return the ALAP level of each task (the tasks without successors are
+	 *         on the last level and a task is one level before its first
+	 *         successor)
+	 */
+	public int[] getAlapLevels() {
+		return alapLevels;
+	}
+
+	/**
+	 * @return the number of levels (the number of tasks of the longest path)
+	 */
+	public int getLevelCount() {
+		return levelCount;
+	}
+
+	/**
+	 * @return the tasks of the path whose arcs have the largest total
+	 *         communication volume, from its first task
+	 */
+	public int[] getCommunicationPath() {
+		return communicationPath;
+	}
+
+	/**
+	 * @return the total communication volume of the longest communication
+	 *         path
+	 */
+	public double getCommunicationPathVolume() {
+		return communicationPathVolume;
+	}
+
+	/**
+	 * @return the best execution time of each task (the time on the fastest
+	 *         core which can execute it, or {@link Double#POSITIVE_INFINITY}
+	 *         if no core can execute it)
+	 */
+	public double[] getBestTaskTimes() {
+		return bestTaskTimes;
+	}
+
+	/**
+	 * @return the earliest time at which each task can finish, in the best
+	 *         case
+	 */
+	public double[] getBestCaseFinishTimes() {
+		return bestCaseFinishTimes;
+	}
+
+	/**
+	 * @return the tasks of the best case critical path, from its first task
+	 */
+	public int[] getBestCaseCriticalPath() {
+		return bestCaseCriticalPath;
+	}
+
+	/**
+	 * @return the length (time) of the best case critical path
+	 */
+	public double getBestCaseCriticalPathLength() {
+		return bestCaseCriticalPathLength;
+	}
+
+	@Override
+	public String toString() {
+		return levelCount + " levels, communication path volume "
+				+ communicationPathVolume + ", best case critical path length "
+				+ bestCaseCriticalPathLength;
+	}
+
+}
@@ -20,13 +20,26 @@ public class E3sDeadline {
 	/** the name of the task to which this deadline is attached */
 	private String taskName;
 	
+	/** the symbol of the task name (see {@link E3sSymbols#getTaskNames()}) */
+	private int taskNameSymbol;
+	
 	/** the value of the deadline, expressed in seconds */
 	private double time;
 	
 	public E3sDeadline(DeadlineType type, String deadlineName, String taskName, double time) {
+		this(type, deadlineName, taskName, E3sSymbolTable.NO_SYMBOL, time);
+	}
+	
+	/**
+	 * Constructor
+	 * 
+	 * @see E3sSymbols#createDeadline(DeadlineType, CharSequence, CharSequence, double)
+	 */
+	public E3sDeadline(DeadlineType type, String deadlineName, String taskName, int taskNameSymbol, double time) {
 		this.type = type;
 		this.deadlineName = deadlineName;
 		this.taskName = taskName;
+		this.taskNameSymbol = taskNameSymbol;
 		this.time = time;
 	}
 
@@ -52,6 +65,24 @@ public class E3sDeadline {
 
 	public void setTaskName(String taskName) {
 		this.taskName = taskName;
+		taskNameSymbol = E3sSymbolTable.NO_SYMBOL;
+	}
+
+	/**
+	 * Sets the name of the task, together with its symbol.
+	 * 
+	 * @see E3sSymbolTranslation#translate(E3sDeadline)
+	 */
+	void setTaskName(String taskName, int taskNameSymbol) {
+		this.taskName = taskName;
+		this.taskNameSymbol = taskNameSymbol;
+	}
+
+	/**
+	 * @return the symbol of the task name, or {@link E3sSymbolTable#NO_SYMBOL}
+	 */
+	public int getTaskNameSymbol() {
+		return taskNameSymbol;
 	}
 
 	public double getTime() {
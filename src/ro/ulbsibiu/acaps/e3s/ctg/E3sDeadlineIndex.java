@@ -0,0 +1,125 @@
+package ro.ulbsibiu.acaps.e3s.ctg;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import ro.ulbsibiu.acaps.e3s.ctg.E3sDeadline.DeadlineType;
+
+/**
+ * Indexes the deadlines of a CTG by the names of their tasks, so that the
+ * hard and the soft deadline of a task are found in constant time, instead of
+ * searching all the deadlines of the CTG.
+ * <p>
+ * Like a search of the deadlines list, the index gives the first deadline of
+ * each type which is attached to a task. An index is immutable, so it can be
+ * read concurrently by multiple threads.
+ * </p>
+ *
+ * @see E3sBenchmarkData#getDeadlineIndex()
+ *
+ * @author Ciprian Radu
+ *
+ */
+public class E3sDeadlineIndex {
+
+	/**
+	 * the deadlines of each task, by their task names (indexed by the
+	 * ordinals of the deadline types)
+	 */
+	private final Map<String, E3sDeadline[]> deadlinesByTask;
+
+	/**
+	 * Builds the index of some deadlines.
+	 *
+	 * @param deadlines
+	 *            the deadlines
+	 */
+	E3sDeadlineIndex(List<E3sDeadline> deadlines) {
+		deadlinesByTask = new HashMap<String, E3sDeadline[]>(deadlines.size() * 2);
+		for (int i = 0; i < deadlines.size(); i++) {
+			E3sDeadline deadline = deadlines.get(i);
+			E3sDeadline[] taskDeadlines = deadlinesByTask.get(deadline.getTaskName());
+			if (taskDeadlines == null) {
+				taskDeadlines = new E3sDeadline[DeadlineType.values().length];
+				deadlinesByTask.put(deadline.getTaskName(), taskDeadlines);
+			}
+			// the first deadline with a certain type is kept
+			if (taskDeadlines[deadline.getType().ordinal()] == null) {
+				taskDeadlines[deadline.getType().ordinal()] = deadline;
+			}
+		}
+	}
+
+	/**
+	 * Finds the deadline of a certain type, of a task.
+	 *
+	 * @param taskName
+	 *            the name of the task
+	 * @param type
+	 *            the type of the deadline
+	 * @return the deadline (<tt>null</tt> if the task has no deadline of this
+	 *         type)
+	 */
+	public E3sDeadline getDeadline(String taskName, DeadlineType type) {
+		E3sDeadline[] taskDeadlines = deadlinesByTask.get(taskName);
+		return taskDeadlines == null ? null : taskDeadlines[type.ordinal()];
+	}
+
+	/**
+	 * @param taskName
+	 *            the name of the task
+	 * @return the hard deadline of the task (<tt>null</tt> if it has none)
+	 */
+	public E3sDeadline getHardDeadline(String taskName) {
+		return getDeadline(taskName, DeadlineType.HARD);
+	}
+
+	/**
+	 * @param taskName
+	 *            the name of the task
+	 * @return the soft deadline of the task (<tt>null</tt> if it has none)
+	 */
+	public E3sDeadline getSoftDeadline(String taskName) {
+		return getDeadline(taskName, DeadlineType.SOFT);
+	}
+
+	/**
+	 * @param taskName
+	 *            the name of the task
+	 * @return whether the task has a (hard or soft) deadline
+	 */
+	public boolean hasDeadline(String taskName) {
+		return deadlinesByTask.containsKey(taskName);
+	}
+
+	/**
+	 * Gives the deadlines of a certain type, of all the tasks of a compact
+	 * CTG. This is meant for the schedulability checks, which traverse the
+	 * compact CTG.
+	 *
+	 * @param ctg
+	 *            the compact CTG
+	 * @param type
+	 *            the type of the deadlines
+	 * @return the time of the deadline of each task (indexed like the tasks
+	 *         of the compact CTG), or {@link Double#NaN} for the tasks
+	 *         without a deadline of this type
+	 */
+	public double[] getDeadlineTimes(E3sCompactCtg ctg, DeadlineType type) {
+		double[] times = new double[ctg.getVertexCount()];
+		for (int v = 0; v < times.length; v++) {
+			E3sDeadline deadline = getDeadline(ctg.getVertexName(v), type);
+			times[v] = deadline == null ? Double.NaN : deadline.getTime();
+		}
+		return times;
+	}
+
+	/**
+	 * @return the number of tasks which have deadlines
+	 */
+	public int getTaskCount() {
+		return deadlinesByTask.size();
+	}
+
+}
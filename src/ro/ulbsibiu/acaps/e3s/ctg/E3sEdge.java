@@ -21,13 +21,40 @@ public class E3sEdge extends DefaultWeightedEdge {
 	
 	private String type;
 	
+	/** the symbol of the source vertex (see {@link E3sSymbols#getTaskNames()}) */
+	private int fromSymbol;
+	
+	/** the symbol of the target vertex */
+	private int toSymbol;
+	
+	/** the symbol of the type (see {@link E3sSymbols#getArcTypes()}) */
+	private int typeSymbol;
+	
 	private double weight;
 	
+	/** whether this arc can still be modified (see {@link #seal()}) */
+	private volatile boolean sealed;
+	
 	public E3sEdge(String name, String from, String to, String type) {
+		this(name, from, E3sSymbolTable.NO_SYMBOL, to,
+				E3sSymbolTable.NO_SYMBOL, type, E3sSymbolTable.NO_SYMBOL);
+	}
+	
+	/**
+	 * Constructor
+	 * 
+	 * @see E3sSymbols#createEdge(CharSequence, CharSequence, CharSequence,
+	 *      CharSequence)
+	 */
+	public E3sEdge(String name, String from, int fromSymbol, String to,
+			int toSymbol, String type, int typeSymbol) {
 		this.name = name;
 		this.from = from;
+		this.fromSymbol = fromSymbol;
 		this.to = to;
+		this.toSymbol = toSymbol;
 		this.type = type;
+		this.typeSymbol = typeSymbol;
 	}
 
 	public String getName() {
@@ -46,11 +73,90 @@ public class E3sEdge extends DefaultWeightedEdge {
 		return type;
 	}
 
+	/**
+	 * @return the symbol of the source vertex, or
+	 *         {@link E3sSymbolTable#NO_SYMBOL}
+	 */
+	public int getFromSymbol() {
+		return fromSymbol;
+	}
+
+	/**
+	 * @return the symbol of the target vertex, or
+	 *         {@link E3sSymbolTable#NO_SYMBOL}
+	 */
+	public int getToSymbol() {
+		return toSymbol;
+	}
+
+	/**
+	 * @return the symbol of the type, or {@link E3sSymbolTable#NO_SYMBOL}
+	 */
+	public int getTypeSymbol() {
+		return typeSymbol;
+	}
+
+	/**
+	 * Sets the name of the source vertex, together with its symbol.
+	 * 
+	 * @see E3sSymbolTranslation#translate(E3sEdge)
+	 */
+	void setFrom(String from, int fromSymbol) {
+		checkNotSealed();
+		this.from = from;
+		this.fromSymbol = fromSymbol;
+	}
+
+	/**
+	 * Sets the name of the target vertex, together with its symbol.
+	 * 
+	 * @see E3sSymbolTranslation#translate(E3sEdge)
+	 */
+	void setTo(String to, int toSymbol) {
+		checkNotSealed();
+		this.to = to;
+		this.toSymbol = toSymbol;
+	}
+
+	/**
+	 * Sets the type, together with its symbol.
+	 * 
+	 * @see E3sSymbolTranslation#translate(E3sEdge)
+	 */
+	void setType(String type, int typeSymbol) {
+		checkNotSealed();
+		this.type = type;
+		this.typeSymbol = typeSymbol;
+	}
+
+	/**
+	 * Seals this arc, so that it can be shared (an arc is sealed when its CTG
+	 * is frozen, see {@link E3sBenchmarkData#freeze()}). Afterwards, the
+	 * methods which modify it throw an {@link IllegalStateException}.
+	 */
+	public void seal() {
+		sealed = true;
+	}
+	
+	/**
+	 * @return whether this arc is sealed (see {@link #seal()})
+	 */
+	public boolean isSealed() {
+		return sealed;
+	}
+	
+	private void checkNotSealed() {
+		if (sealed) {
+			throw new IllegalStateException("The arc " + name + " is sealed");
+		}
+	}
+
 	public double getWeight() {
 		return weight;
 	}
 
 	public void setWeight(double weight) {
+		checkNotSealed();
 		this.weight = weight;
 	}
 
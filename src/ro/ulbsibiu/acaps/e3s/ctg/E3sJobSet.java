@@ -0,0 +1,490 @@
+package ro.ulbsibiu.acaps.e3s.ctg;
+
+import java.util.List;
+
+import ro.ulbsibiu.acaps.e3s.ctg.E3sDeadline.DeadlineType;
+
+/**
+ * The jobs of a benchmark over one hyperperiod. Each CTG is released once per
+ * period, so, during a hyperperiod, CTG <tt>c</tt> has
+ * <tt>hyperperiod / period</tt> instances and each instance has a job for
+ * each task of the CTG. The arcs of the CTG are unrolled in the same way,
+ * into arcs between the jobs of the same instance.
+ * <p>
+ * The jobs are unrolled from the {@link E3sApplicationGraph} of the CTGs.
+ * Everything is kept in plain arrays, indexed by job and by arc; there is no
+ * object per job. The jobs of a CTG are consecutive, grouped by instance and
+ * numbered like the tasks of the compact CTG (see {@link E3sCompactCtg}), so
+ * the job of task <tt>v</tt> from instance <tt>k</tt> of CTG <tt>c</tt> is
+ * <tt>getFirstJob(c) + k * n + v</tt>, where <tt>n</tt> is the number of
+ * tasks of the CTG (see {@link #getJob(int, int, int)}). So, the jobs are
+ * numbered like the tasks of the application graph only while each CTG has
+ * a single instance; {@link #getTask(int)} gives the task of a job, in the
+ * application graph. The arcs are kept in the CSR format, exactly like in the
+ * compact CTG (see {@link #getSuccessorOffsets()} and
+ * {@link #getPredecessorOffsets()}).
+ * </p>
+ * <p>
+ * Instance <tt>k</tt> of a CTG is released at <tt>k * period</tt> and the
+ * deadlines of its jobs are the deadlines of their tasks, relative to the
+ * release time. A job set is immutable; the arrays are given without being
+ * copied, so they must not be modified.
+ * </p>
+ *
+ * @see E3sBenchmarkData#getHyperperiod()
+ *
+ * @author Ciprian Radu
+ *
+ */
+public class E3sJobSet {
+
+	/**
+	 * the relative error tolerated when the hyperperiod is divided by a
+	 * period (the periods are written with a few digits, e.g.: 3.33333E-4 for
+	 * a third of 0.001)
+	 */
+	private static final double PERIOD_TOLERANCE = 1e-4;
+
+	private final double hyperperiod;
+
+	/** the application graph whose tasks are unrolled */
+	private final E3sApplicationGraph applicationGraph;
+
+	/** the number of instances of each CTG */
+	private final int[] instanceCounts;
+
+	/** where the jobs of each CTG begin (one more element, for the end) */
+	private final int[] jobOffsets;
+
+	/** where the arcs of each CTG begin (one more element, for the end) */
+	private final int[] edgeOffsets;
+
+	/** the CTG of each job (an index in the list of CTGs) */
+	private final int[] jobCtgs;
+
+	/** the instance of each job */
+	private final int[] jobInstances;
+
+	/** the task of each job (a task of the compact CTG) */
+	private final int[] jobTasks;
+
+	/** the release time of each job */
+	private final double[] releaseTimes;
+
+	/** the absolute hard deadline of each job ({@link Double#NaN} if it has none) */
+	private final double[] hardDeadlines;
+
+	/** the absolute soft deadline of each job ({@link Double#NaN} if it has none) */
+	private final double[] softDeadlines;
+
+	/** where the outgoing arcs of each job begin (one more element, for the end) */
+	private final int[] successorOffsets;
+
+	/** the target job of each arc */
+	private final int[] successors;
+
+	/** the source job of each arc */
+	private final int[] edgeSources;
+
+	/** the weight (communication volume) of each arc */
+	private final double[] edgeWeights;
+
+	/** where the incoming arcs of each job begin (one more element, for the end) */
+	private final int[] predecessorOffsets;
+
+	/** the source job of each incoming arc */
+	private final int[] predecessors;
+
+	/** the arc of each incoming arc (an index in {@link #successors}) */
+	private final int[] predecessorEdges;
+
+	/**
+	 * Unrolls the CTGs of a benchmark over its hyperperiod (see
+	 * {@link E3sBenchmarkData#getHyperperiod()}). If the hyperperiod is not
+	 * known, the largest period is used.
+	 *
+	 * @param e3sCtgs
+	 *            the CTGs of the benchmark (they must have the same
+	 *            hyperperiod)
+	 */
+	public E3sJobSet(List<E3sBenchmarkData> e3sCtgs) {
+		this(new E3sApplicationGraph(e3sCtgs));
+	}
+
+	/**
+	 * Unrolls some CTGs over a hyperperiod.
+	 *
+	 * @param e3sCtgs
+	 *            the CTGs
+	 * @param hyperperiod
+	 *            the hyperperiod (in seconds)
+	 * @throws IllegalArgumentException
+	 *             if there are too many jobs or arcs
+	 */
+	public E3sJobSet(List<E3sBenchmarkData> e3sCtgs, double hyperperiod) {
+		this(new E3sApplicationGraph(e3sCtgs), hyperperiod);
+	}
+
+	/**
+	 * Unrolls the application graph of a benchmark over its hyperperiod (see
+	 * {@link E3sBenchmarkData#getHyperperiod()}). If the hyperperiod is not
+	 * known, the largest period is used.
+	 *
+	 * @param applicationGraph
+	 *            the application graph of the benchmark (its CTGs must have
+	 *            the same hyperperiod)
+	 */
+	public E3sJobSet(E3sApplicationGraph applicationGraph) {
+		this(applicationGraph, getHyperperiod(applicationGraph));
+	}
+
+	/**
+	 * Unrolls an application graph over a hyperperiod.
+	 *
+	 * @param applicationGraph
+	 *            the application graph
+	 * @param hyperperiod
+	 *            the hyperperiod (in seconds)
+	 * @throws IllegalArgumentException
+	 *             if there are too many jobs or arcs
+	 */
+	public E3sJobSet(E3sApplicationGraph applicationGraph, double hyperperiod) {
+		assert applicationGraph != null;
+		assert hyperperiod >= 0;
+
+		this.hyperperiod = hyperperiod;
+		this.applicationGraph = applicationGraph;
+		int ctgCount = applicationGraph.getCtgCount();
+		instanceCounts = new int[ctgCount];
+		jobOffsets = new int[ctgCount + 1];
+		edgeOffsets = new int[ctgCount + 1];
+		long jobCount = 0;
+		long edgeCount = 0;
+		for (int c = 0; c < ctgCount; c++) {
+			E3sCompactCtg ctg = applicationGraph.getCompactCtg(c);
+			instanceCounts[c] = getInstanceCount(hyperperiod, applicationGraph.getCtg(c).getPeriod());
+			jobCount += (long) instanceCounts[c] * ctg.getVertexCount();
+			edgeCount += (long) instanceCounts[c] * ctg.getEdgeCount();
+			if (jobCount >= Integer.MAX_VALUE || edgeCount >= Integer.MAX_VALUE) {
+				throw new IllegalArgumentException("Too many jobs (" + jobCount
+						+ ") or arcs (" + edgeCount + ") in a hyperperiod of "
+						+ hyperperiod + " seconds");
+			}
+			jobOffsets[c + 1] = (int) jobCount;
+			edgeOffsets[c + 1] = (int) edgeCount;
+		}
+
+		jobCtgs = new int[(int) jobCount];
+		jobInstances = new int[(int) jobCount];
+		jobTasks = new int[(int) jobCount];
+		releaseTimes = new double[(int) jobCount];
+		hardDeadlines = new double[(int) jobCount];
+		softDeadlines = new double[(int) jobCount];
+		successorOffsets = new int[(int) jobCount + 1];
+		successors = new int[(int) edgeCount];
+		edgeSources = new int[(int) edgeCount];
+		edgeWeights = new double[(int) edgeCount];
+		predecessorOffsets = new int[(int) jobCount + 1];
+		predecessors = new int[(int) edgeCount];
+		predecessorEdges = new int[(int) edgeCount];
+
+		int[] taskSuccessorOffsets = applicationGraph.getSuccessorOffsets();
+		int[] taskSuccessors = applicationGraph.getSuccessors();
+		int[] taskEdgeSources = applicationGraph.getEdgeSources();
+		double[] taskEdgeWeights = applicationGraph.getEdgeWeights();
+		int[] taskPredecessorOffsets = applicationGraph.getPredecessorOffsets();
+		int[] taskPredecessors = applicationGraph.getPredecessors();
+		int[] taskPredecessorEdges = applicationGraph.getPredecessorEdges();
+		for (int c = 0; c < ctgCount; c++) {
+			E3sBenchmarkData e3sCtg = applicationGraph.getCtg(c);
+			E3sCompactCtg ctg = applicationGraph.getCompactCtg(c);
+			int n = ctg.getVertexCount();
+			int m = ctg.getEdgeCount();
+			int firstTask = applicationGraph.getFirstTask(c);
+			int firstTaskEdge = applicationGraph.getFirstEdge(c);
+			E3sDeadlineIndex deadlineIndex = e3sCtg.getDeadlineIndex();
+			double[] hardTimes = deadlineIndex.getDeadlineTimes(ctg, DeadlineType.HARD);
+			double[] softTimes = deadlineIndex.getDeadlineTimes(ctg, DeadlineType.SOFT);
+			for (int k = 0; k < instanceCounts[c]; k++) {
+				// each instance is a copy of the CTG's tasks and arcs from
+				// the application graph, shifted to the jobs of the instance
+				int firstJob = jobOffsets[c] + k * n;
+				int firstEdge = edgeOffsets[c] + k * m;
+				int jobShift = firstJob - firstTask;
+				int edgeShift = firstEdge - firstTaskEdge;
+				double release = k * e3sCtg.getPeriod();
+				for (int v = 0; v < n; v++) {
+					int job = firstJob + v;
+					jobCtgs[job] = c;
+					jobInstances[job] = k;
+					jobTasks[job] = v;
+					releaseTimes[job] = release;
+					// NaN remains NaN
+					hardDeadlines[job] = release + hardTimes[v];
+					softDeadlines[job] = release + softTimes[v];
+					successorOffsets[job] = taskSuccessorOffsets[firstTask + v] + edgeShift;
+					predecessorOffsets[job] = taskPredecessorOffsets[firstTask + v] + edgeShift;
+				}
+				for (int e = 0; e < m; e++) {
+					int taskEdge = firstTaskEdge + e;
+					successors[firstEdge + e] = taskSuccessors[taskEdge] + jobShift;
+					edgeSources[firstEdge + e] = taskEdgeSources[taskEdge] + jobShift;
+					edgeWeights[firstEdge + e] = taskEdgeWeights[taskEdge];
+					predecessors[firstEdge + e] = taskPredecessors[taskEdge] + jobShift;
+					predecessorEdges[firstEdge + e] = taskPredecessorEdges[taskEdge] + edgeShift;
+				}
+			}
+		}
+		successorOffsets[(int) jobCount] = (int) edgeCount;
+		predecessorOffsets[(int) jobCount] = (int) edgeCount;
+	}
+
+	/**
+	 * @return the hyperperiod of the CTGs or, if it is not known, their
+	 *         largest period
+	 */
+	private static double getHyperperiod(E3sApplicationGraph applicationGraph) {
+		double hyperperiod = E3sBenchmarkData.NO_HYPERPERIOD;
+		if (applicationGraph.getCtgCount() > 0) {
+			hyperperiod = applicationGraph.getCtg(0).getHyperperiod();
+		}
+		if (hyperperiod == E3sBenchmarkData.NO_HYPERPERIOD) {
+			for (int i = 0; i < applicationGraph.getCtgCount(); i++) {
+				hyperperiod = Math.max(hyperperiod, applicationGraph.getCtg(i).getPeriod());
+			}
+		}
+		return hyperperiod;
+	}
+
+	/**
+	 * @return how many times a CTG is released during a hyperperiod (at
+	 *         least once)
+	 */
+	private static int getInstanceCount(double hyperperiod, double period) {
+		int instanceCount = 1;
+		if (period > 0) {
+			double instances = hyperperiod / period;
+			if (Math.abs(instances - Math.rint(instances)) <= PERIOD_TOLERANCE * instances) {
+				instances = Math.rint(instances);
+			} else {
+				instances = Math.ceil(instances);
+			}
+			if (instances >= Integer.MAX_VALUE) {
+				throw new IllegalArgumentException("Too many instances of a CTG with the period "
+						+ period + " in a hyperperiod of " + hyperperiod + " seconds");
+			}
+			instanceCount = Math.max(1, (int) instances);
+		}
+		return instanceCount;
+	}
+
+	/**
+	 * @return the hyperperiod over which the CTGs are unrolled (in seconds)
+	 */
+	public double getHyperperiod() {
+		return hyperperiod;
+	}
+
+	/**
+	 * @return the application graph whose tasks are unrolled
+	 */
+	public E3sApplicationGraph getApplicationGraph() {
+		return applicationGraph;
+	}
+
+	/**
+	 * @return the number of CTGs
+	 */
+	public int getCtgCount() {
+		return applicationGraph.getCtgCount();
+	}
+
+	/**
+	 * @param ctgIndex
+	 *            the index of a CTG (in the application graph)
+	 * @return the CTG
+	 */
+	public E3sBenchmarkData getCtg(int ctgIndex) {
+		return applicationGraph.getCtg(ctgIndex);
+	}
+
+	/**
+	 * @param ctgIndex
+	 *            the index of a CTG
+	 * @return the compact form of the CTG (its tasks identify the tasks of
+	 *         the jobs)
+	 */
+	public E3sCompactCtg getCompactCtg(int ctgIndex) {
+		return applicationGraph.getCompactCtg(ctgIndex);
+	}
+
+	/**
+	 * @param ctgIndex
+	 *            the index of a CTG
+	 * @return how many times the CTG is released during the hyperperiod
+	 */
+	public int getInstanceCount(int ctgIndex) {
+		return instanceCounts[ctgIndex];
+	}
+
+	/**
+	 * @param ctgIndex
+	 *            the index of a CTG
+	 * @return the first job of the CTG
+	 */
+	public int getFirstJob(int ctgIndex) {
+		return jobOffsets[ctgIndex];
+	}
+
+	/**
+	 * @param ctgIndex
+	 *            the index of a CTG
+	 * @param instance
+	 *            an instance of the CTG
+	 * @param task
+	 *            a task of the compact CTG
+	 * @return the job of the task, from the instance
+	 */
+	public int getJob(int ctgIndex, int instance, int task) {
+		assert instance >= 0 && instance < instanceCounts[ctgIndex];
+		assert task >= 0 && task < getCompactCtg(ctgIndex).getVertexCount();
+
+		return jobOffsets[ctgIndex] + instance * getCompactCtg(ctgIndex).getVertexCount() + task;
+	}
+
+	/**
+	 * @return the number of jobs
+	 */
+	public int getJobCount() {
+		return jobCtgs.length;
+	}
+
+	/**
+	 * @return the number of arcs
+	 */
+	public int getEdgeCount() {
+		return successors.length;
+	}
+
+	/**
+	 * @param job
+	 *            a job
+	 * @return the name of the task of the job
+	 */
+	public String getTaskName(int job) {
+		return getCompactCtg(jobCtgs[job]).getVertexName(jobTasks[job]);
+	}
+
+	/**
+	 * @param job
+	 *            a job
+	 * @return the task of the job, in the application graph (see
+	 *         {@link E3sApplicationGraph#getFirstTask(int)})
+	 */
+	public int getTask(int job) {
+		return applicationGraph.getFirstTask(jobCtgs[job]) + jobTasks[job];
+	}
+
+	/**
+	 * @return the CTG of each job (an index in the list of CTGs)
+	 */
+	public int[] getJobCtgs() {
+		return jobCtgs;
+	}
+
+	/**
+	 * @return the instance of each job
+	 */
+	public int[] getJobInstances() {
+		return jobInstances;
+	}
+
+	/**
+	 * @return the task of each job (a task of the compact CTG)
+	 */
+	public int[] getJobTasks() {
+		return jobTasks;
+	}
+
+	/**
+	 * @return the release time of each job (in seconds)
+	 */
+	public double[] getReleaseTimes() {
+		return releaseTimes;
+	}
+
+	/**
+	 * @return the absolute hard deadline of each job (in seconds), or
+	 *         {@link Double#NaN} for the jobs without a hard deadline
+	 */
+	public double[] getHardDeadlines() {
+		return hardDeadlines;
+	}
+
+	/**
+	 * @return the absolute soft deadline of each job (in seconds), or
+	 *         {@link Double#NaN} for the jobs without a soft deadline
+	 */
+	public double[] getSoftDeadlines() {
+		return softDeadlines;
+	}
+
+	/**
+	 * @return where the outgoing arcs of each job begin (the array has one
+	 *         more element, which is the number of arcs)
+	 */
+	public int[] getSuccessorOffsets() {
+		return successorOffsets;
+	}
+
+	/**
+	 * @return the target job of each arc
+	 */
+	public int[] getSuccessors() {
+		return successors;
+	}
+
+	/**
+	 * @return the source job of each arc
+	 */
+	public int[] getEdgeSources() {
+		return edgeSources;
+	}
+
+	/**
+	 * @return the weight (communication volume) of each arc
+	 */
+	public double[] getEdgeWeights() {
+		return edgeWeights;
+	}
+
+	/**
+	 * @return where the incoming arcs of each job begin (the array has one
+	 *         more element, which is the number of arcs)
+	 */
+	public int[] getPredecessorOffsets() {
+		return predecessorOffsets;
+	}
+
+	/**
+	 * @return the source job of each incoming arc
+	 */
+	public int[] getPredecessors() {
+		return predecessors;
+	}
+
+	/**
+	 * @return the arc of each incoming arc (an index in
+	 *         {@link #getSuccessors()})
+	 */
+	public int[] getPredecessorEdges() {
+		return predecessorEdges;
+	}
+
+	@Override
+	public String toString() {
+		return getJobCount() + " jobs, " + getEdgeCount()
+				+ " arcs in a hyperperiod of " + hyperperiod + " seconds";
+	}
+
+}
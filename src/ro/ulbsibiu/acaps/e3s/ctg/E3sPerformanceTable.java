@@ -0,0 +1,377 @@
+package ro.ulbsibiu.acaps.e3s.ctg;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import ro.ulbsibiu.acaps.e3s.ctg.E3sTaskCore.E3sTaskCoreParams;
+
+/**
+ * The performance of each core, for each task type, as a dense table. The
+ * execution time, the power, the preemption time and the code size of a task
+ * type on a core are found by indexing arrays, instead of searching the task
+ * table of the core (see {@link E3sCore#getE3sTaskCore(String)}).
+ * <p>
+ * The cores are indexed like in {@link E3sPlatform#getCores()}. When all the
+ * task types are interned in the symbols of the platform, the task types are
+ * indexed by their symbols (see {@link E3sSymbols#getTaskTypes()}), so the
+ * type symbol of a task is its index in this table. Otherwise, the task types
+ * are indexed in the order in which they appear in the task tables of the
+ * cores. An entry is found at <tt>core * getTypeCount() + type</tt> in the
+ * arrays.
+ * </p>
+ * <p>
+ * Each entry has a state. An entry is {@link #MISSING} if the core has no row
+ * for the task type and it is {@link #INVALID} if the row of the core is not
+ * valid (its <tt>valid</tt> column is 0, which means that the core cannot
+ * execute the task type). The values of a missing entry are
+ * {@link Double#NaN}. The values of an invalid entry are the ones from the
+ * file (the E3S benchmarks give 0 as the execution time), so they must not be
+ * used.
+ * </p>
+ * <p>
+ * A table is immutable, so it can be read concurrently by multiple threads.
+ * The arrays are given without being copied, so they must not be modified.
+ * </p>
+ *
+ * @see E3sPlatform#getPerformanceTable()
+ *
+ * @author Ciprian Radu
+ *
+ */
+public class E3sPerformanceTable {
+
+	/** the state of an entry for which the core has no row */
+	public static final byte MISSING = 0;
+
+	/** the state of an entry whose row is not valid */
+	public static final byte INVALID = 1;
+
+	/** the state of a valid entry */
+	public static final byte VALID = 2;
+
+	private final int coreCount;
+
+	private final int typeCount;
+
+	/** whether the task types are indexed by their symbols */
+	private final boolean indexedBySymbols;
+
+	/** the task types, by their indexes (<tt>null</tt> for unused indexes) */
+	private final String[] types;
+
+	/** the indexes of the task types */
+	private final Map<String, Integer> typeIndexes;
+
+	/** the state of each entry */
+	private final byte[] states;
+
+	private final double[] taskTimes;
+
+	private final double[] taskPowers;
+
+	private final double[] preemptTimes;
+
+	private final double[] codeBits;
+
+	/** the fastest valid execution time of each task type */
+	private final double[] fastestTaskTimes;
+
+	/**
+	 * Builds the table of a platform.
+	 *
+	 * @param platform
+	 *            the platform
+	 */
+	E3sPerformanceTable(E3sPlatform platform) {
+		List<E3sCore> cores = platform.getCores();
+		coreCount = cores.size();
+
+		E3sSymbolTable taskTypes = platform.getSymbols() == null ? null
+				: platform.getSymbols().getTaskTypes();
+		boolean bySymbol = taskTypes != null;
+		for (int i = 0; i < coreCount && bySymbol; i++) {
+			E3sTaskCoreTable table = cores.get(i).getE3sTaskCoreTable();
+			if (table != null) {
+				int firstRow = cores.get(i).getFirstE3sTaskCoreRow();
+				for (int row = firstRow; row < firstRow + cores.get(i).getE3sTaskCoreRowCount() && bySymbol; row++) {
+					bySymbol = table.getTypeSymbol(row) != E3sSymbolTable.NO_SYMBOL;
+				}
+			} else {
+				List<E3sTaskCore> tasks = cores.get(i).getE3sTaskCores();
+				for (int j = 0; j < tasks.size() && bySymbol; j++) {
+					bySymbol = tasks.get(j).getTypeSymbol() != E3sSymbolTable.NO_SYMBOL;
+				}
+			}
+		}
+		indexedBySymbols = bySymbol;
+
+		typeIndexes = new HashMap<String, Integer>();
+		if (indexedBySymbols) {
+			// the types of the tasks from the CTGs are included too
+			typeCount = taskTypes.size();
+			types = new String[typeCount];
+			for (int t = 0; t < typeCount; t++) {
+				types[t] = taskTypes.getString(t);
+				typeIndexes.put(types[t], t);
+			}
+		} else {
+			for (int i = 0; i < coreCount; i++) {
+				List<E3sTaskCore> tasks = cores.get(i).getE3sTaskCores();
+				for (int j = 0; j < tasks.size(); j++) {
+					if (!typeIndexes.containsKey(tasks.get(j).getType())) {
+						typeIndexes.put(tasks.get(j).getType(), typeIndexes.size());
+					}
+				}
+			}
+			typeCount = typeIndexes.size();
+			types = new String[typeCount];
+			for (Map.Entry<String, Integer> entry : typeIndexes.entrySet()) {
+				types[entry.getValue()] = entry.getKey();
+			}
+		}
+
+		int size = coreCount * typeCount;
+		states = new byte[size];
+		taskTimes = new double[size];
+		taskPowers = new double[size];
+		preemptTimes = new double[size];
+		codeBits = new double[size];
+		Arrays.fill(taskTimes, Double.NaN);
+		Arrays.fill(taskPowers, Double.NaN);
+		Arrays.fill(preemptTimes, Double.NaN);
+		Arrays.fill(codeBits, Double.NaN);
+		for (int i = 0; i < coreCount; i++) {
+			E3sTaskCoreTable table = cores.get(i).getE3sTaskCoreTable();
+			if (table != null) {
+				// the rows which are kept off the heap are read without creating tasks
+				int firstRow = cores.get(i).getFirstE3sTaskCoreRow();
+				for (int row = firstRow; row < firstRow + cores.get(i).getE3sTaskCoreRowCount(); row++) {
+					int type = indexedBySymbols ? table.getTypeSymbol(row)
+							: typeIndexes.get(table.getType(row));
+					setEntry(i * typeCount + type,
+							table.getValue(row, E3sTaskCoreParams.VALID),
+							table.getValue(row, E3sTaskCoreParams.TASK_TIME),
+							table.getValue(row, E3sTaskCoreParams.TASK_POWER),
+							table.getValue(row, E3sTaskCoreParams.PREEMPT_TIME),
+							table.getValue(row, E3sTaskCoreParams.CODE_BITS));
+				}
+			} else {
+				List<E3sTaskCore> tasks = cores.get(i).getE3sTaskCores();
+				for (int j = 0; j < tasks.size(); j++) {
+					E3sTaskCore task = tasks.get(j);
+					int type = indexedBySymbols ? task.getTypeSymbol()
+							: typeIndexes.get(task.getType());
+					setEntry(i * typeCount + type, task.getValid(),
+							task.getTaskTime(), task.getTaskPower(),
+							task.getPreemtTime(), task.getCodeBits());
+				}
+			}
+		}
+
+		fastestTaskTimes = new double[typeCount];
+		Arrays.fill(fastestTaskTimes, Double.POSITIVE_INFINITY);
+		for (int entry = 0; entry < size; entry++) {
+			if (states[entry] == VALID) {
+				int type = entry % typeCount;
+				fastestTaskTimes[type] = Math.min(fastestTaskTimes[type], taskTimes[entry]);
+			}
+		}
+	}
+
+	private void setEntry(int entry, double valid, double taskTime,
+			double taskPower, double preemptTime, double codeBits) {
+		// the first row with a certain type is kept
+		if (states[entry] == MISSING) {
+			states[entry] = valid != 0 ? VALID : INVALID;
+			taskTimes[entry] = taskTime;
+			taskPowers[entry] = taskPower;
+			preemptTimes[entry] = preemptTime;
+			this.codeBits[entry] = codeBits;
+		}
+	}
+
+	/**
+	 * @return the number of cores
+	 */
+	public int getCoreCount() {
+		return coreCount;
+	}
+
+	/**
+	 * @return the number of task types
+	 */
+	public int getTypeCount() {
+		return typeCount;
+	}
+
+	/**
+	 * @return whether the task types are indexed by their symbols
+	 */
+	public boolean isIndexedBySymbols() {
+		return indexedBySymbols;
+	}
+
+	/**
+	 * @param type
+	 *            a task type
+	 * @return the index of the task type, or -1 if it is not in this table
+	 */
+	public int getTypeIndex(String type) {
+		Integer index = typeIndexes.get(type);
+		return index == null ? -1 : index;
+	}
+
+	/**
+	 * @param typeIndex
+	 *            the index of a task type
+	 * @return the task type
+	 */
+	public String getType(int typeIndex) {
+		return types[typeIndex];
+	}
+
+	/**
+	 * @param coreIndex
+	 *            the index of a core
+	 * @param typeIndex
+	 *            the index of a task type
+	 * @return the index of the entry in the arrays of this table
+	 */
+	public int getEntry(int coreIndex, int typeIndex) {
+		return coreIndex * typeCount + typeIndex;
+	}
+
+	/**
+	 * @param coreIndex
+	 *            the index of a core
+	 * @param typeIndex
+	 *            the index of a task type (an index which is not in this table
+	 *            gives {@link #MISSING})
+	 * @return the state of the entry: {@link #MISSING}, {@link #INVALID} or
+	 *         {@link #VALID}
+	 */
+	public byte getState(int coreIndex, int typeIndex) {
+		if (typeIndex < 0 || typeIndex >= typeCount) {
+			return MISSING;
+		}
+		return states[coreIndex * typeCount + typeIndex];
+	}
+
+	/**
+	 * @param coreIndex
+	 *            the index of a core
+	 * @param typeIndex
+	 *            the index of a task type
+	 * @return whether the core can execute the task type
+	 */
+	public boolean isValid(int coreIndex, int typeIndex) {
+		return getState(coreIndex, typeIndex) == VALID;
+	}
+
+	/**
+	 * @return the execution time of a task type on a core
+	 *         ({@link Double#NaN} if the entry is missing or if the index of
+	 *         the task type is not in this table)
+	 */
+	public double getTaskTime(int coreIndex, int typeIndex) {
+		if (typeIndex < 0 || typeIndex >= typeCount) {
+			return Double.NaN;
+		}
+		return taskTimes[coreIndex * typeCount + typeIndex];
+	}
+
+	/**
+	 * @return the power consumed by a core for executing a task type
+	 *         ({@link Double#NaN} if the entry is missing or if the index of
+	 *         the task type is not in this table)
+	 */
+	public double getTaskPower(int coreIndex, int typeIndex) {
+		if (typeIndex < 0 || typeIndex >= typeCount) {
+			return Double.NaN;
+		}
+		return taskPowers[coreIndex * typeCount + typeIndex];
+	}
+
+	/**
+	 * @return the preemption time of a task type on a core
+	 *         ({@link Double#NaN} if the entry is missing or if the index of
+	 *         the task type is not in this table)
+	 */
+	public double getPreemptTime(int coreIndex, int typeIndex) {
+		if (typeIndex < 0 || typeIndex >= typeCount) {
+			return Double.NaN;
+		}
+		return preemptTimes[coreIndex * typeCount + typeIndex];
+	}
+
+	/**
+	 * @return the size of the code (in bits) of a task type on a core
+	 *         ({@link Double#NaN} if the entry is missing or if the index of
+	 *         the task type is not in this table)
+	 */
+	public double getCodeBits(int coreIndex, int typeIndex) {
+		if (typeIndex < 0 || typeIndex >= typeCount) {
+			return Double.NaN;
+		}
+		return codeBits[coreIndex * typeCount + typeIndex];
+	}
+
+	/**
+	 * @param typeIndex
+	 *            the index of a task type
+	 * @return the execution time of the task type on the fastest core which
+	 *         can execute it, or {@link Double#POSITIVE_INFINITY} if no core
+	 *         can execute it
+	 */
+	public double getFastestTaskTime(int typeIndex) {
+		if (typeIndex < 0 || typeIndex >= typeCount) {
+			return Double.POSITIVE_INFINITY;
+		}
+		return fastestTaskTimes[typeIndex];
+	}
+
+	/**
+	 * @return the state of each entry (see {@link #getEntry(int, int)})
+	 */
+	public byte[] getStates() {
+		return states;
+	}
+
+	/**
+	 * @return the execution time of each entry (see
+	 *         {@link #getEntry(int, int)})
+	 */
+	public double[] getTaskTimes() {
+		return taskTimes;
+	}
+
+	/**
+	 * @return the power of each entry (see {@link #getEntry(int, int)})
+	 */
+	public double[] getTaskPowers() {
+		return taskPowers;
+	}
+
+	/**
+	 * @return the preemption time of each entry (see
+	 *         {@link #getEntry(int, int)})
+	 */
+	public double[] getPreemptTimes() {
+		return preemptTimes;
+	}
+
+	/**
+	 * @return the code size of each entry (see {@link #getEntry(int, int)})
+	 */
+	public double[] getCodeBits() {
+		return codeBits;
+	}
+
+	@Override
+	public String toString() {
+		return coreCount + " cores x " + typeCount + " task types";
+	}
+
+}
@@ -0,0 +1,255 @@
+package ro.ulbsibiu.acaps.e3s.ctg;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The platform described by an E3S benchmark: the cores (with their task
+ * tables), the communication quantities and the wire bit width. All the CTGs
+ * of a benchmark run on the same platform, so it is built once for each
+ * .tgff file and it is referenced by all the {@link E3sBenchmarkData} of the
+ * file.
+ * <p>
+ * A platform is immutable: its lists cannot be modified and a modified
+ * platform is obtained as a new platform (see {@link #withCore(int, E3sCore)}
+ * , {@link #withCommunicationVolumes(List)} and
+ * {@link #withWireBitWidth(int)}). The cores are sealed when they are given
+ * to a platform (see {@link E3sCore#seal()}), so neither they nor their task
+ * tables can be modified afterwards (the task tables which are loaded lazily
+ * are loaded in a thread safe way). So, a platform can be read concurrently
+ * by multiple threads.
+ * </p>
+ *
+ * @author Ciprian Radu
+ *
+ */
+public class E3sPlatform {
+
+	/** the wire bit width of a benchmark which doesn't specify it */
+	public static final int NO_WIRE_BIT_WIDTH = -1;
+
+	/** a platform without cores and communication volumes */
+	public static final E3sPlatform EMPTY = new E3sPlatform(null,
+			new ArrayList<E3sCore>(), new ArrayList<E3sCommunicationVolume>(),
+			NO_WIRE_BIT_WIDTH);
+
+	/** the symbols of the benchmark (<tt>null</tt> if the strings are not interned) */
+	private final E3sSymbols symbols;
+
+	private final List<E3sCore> cores;
+
+	private final List<E3sCommunicationVolume> communicationVolumes;
+
+	/** the number of bits of the wires which connect the cores */
+	private final int wireBitWidth;
+
+	/**
+	 * the communication volumes, indexed by the symbols of their types
+	 * (<tt>null</tt> if the volumes don't have symbols)
+	 */
+	private final E3sCommunicationVolume[] volumesByTypeSymbol;
+
+	/** the performance of the cores (built when it is first needed) */
+	private volatile E3sPerformanceTable performanceTable;
+
+	/**
+	 * Constructor. The lists are copied and the cores are sealed.
+	 *
+	 * @param symbols
+	 *            the symbols in which the strings of the cores and of the
+	 *            communication volumes are interned (<tt>null</tt> if they
+	 *            are not interned)
+	 * @param cores
+	 *            the cores, in the order from the file (they cannot be
+	 *            modified afterwards)
+	 * @param communicationVolumes
+	 *            the communication volumes (from the <tt>@COMMUN_QUANT</tt>
+	 *            block)
+	 * @param wireBitWidth
+	 *            the wire bit width (from <tt>@WIRE_BIT_WIDTH</tt>) or
+	 *            {@link #NO_WIRE_BIT_WIDTH}
+	 */
+	public E3sPlatform(E3sSymbols symbols, List<E3sCore> cores,
+			List<E3sCommunicationVolume> communicationVolumes, int wireBitWidth) {
+		assert cores != null;
+		assert communicationVolumes != null;
+
+		this.symbols = symbols;
+		this.cores = Collections.unmodifiableList(new ArrayList<E3sCore>(cores));
+		for (int i = 0; i < this.cores.size(); i++) {
+			this.cores.get(i).seal();
+		}
+		this.communicationVolumes = Collections
+				.unmodifiableList(new ArrayList<E3sCommunicationVolume>(
+						communicationVolumes));
+		this.wireBitWidth = wireBitWidth;
+		volumesByTypeSymbol = indexVolumes(this.communicationVolumes);
+	}
+
+	private static E3sCommunicationVolume[] indexVolumes(
+			List<E3sCommunicationVolume> communicationVolumes) {
+		int length = 0;
+		for (int i = 0; i < communicationVolumes.size(); i++) {
+			int typeSymbol = communicationVolumes.get(i).getTypeSymbol();
+			if (typeSymbol < 0) {
+				return null;
+			}
+			length = Math.max(length, typeSymbol + 1);
+		}
+		E3sCommunicationVolume[] volumes = new E3sCommunicationVolume[length];
+		for (int i = communicationVolumes.size() - 1; i >= 0; i--) {
+			// the first volume with a certain type is kept
+			volumes[communicationVolumes.get(i).getTypeSymbol()] = communicationVolumes.get(i);
+		}
+		return volumes;
+	}
+
+	/**
+	 * @return the symbols of the benchmark (<tt>null</tt> if the strings are
+	 *         not interned)
+	 */
+	public E3sSymbols getSymbols() {
+		return symbols;
+	}
+
+	/**
+	 * @return the cores, in the order from the file (the list cannot be
+	 *         modified)
+	 */
+	public List<E3sCore> getCores() {
+		return cores;
+	}
+
+	/**
+	 * @return the communication volumes (the list cannot be modified)
+	 */
+	public List<E3sCommunicationVolume> getCommunicationVolumes() {
+		return communicationVolumes;
+	}
+
+	/**
+	 * @return the wire bit width or {@link #NO_WIRE_BIT_WIDTH}, if the
+	 *         benchmark doesn't specify it
+	 */
+	public int getWireBitWidth() {
+		return wireBitWidth;
+	}
+
+	/**
+	 * Finds the communication volume of a communication (arc) type.
+	 *
+	 * @param type
+	 *            the communication type
+	 * @return the first communication volume with the specified type
+	 *         (<tt>null</tt> if there is none)
+	 */
+	public E3sCommunicationVolume getCommunicationVolume(String type) {
+		E3sCommunicationVolume cv = null;
+
+		for (int i = 0; i < communicationVolumes.size(); i++) {
+			if (type.equals(communicationVolumes.get(i).getType())) {
+				cv = communicationVolumes.get(i);
+				break;
+			}
+		}
+
+		return cv;
+	}
+
+	/**
+	 * Finds the communication volume of a communication (arc) type, in
+	 * constant time.
+	 *
+	 * @param typeSymbol
+	 *            the symbol of the communication type, from the
+	 *            {@link #getSymbols()} of this platform
+	 * @return the first communication volume with the specified type
+	 *         (<tt>null</tt> if there is none)
+	 * @throws IllegalStateException
+	 *             if the communication volumes don't have symbols (see
+	 *             {@link #hasCommunicationVolumeSymbols()})
+	 */
+	public E3sCommunicationVolume getCommunicationVolume(int typeSymbol) {
+		if (volumesByTypeSymbol == null) {
+			throw new IllegalStateException("The communication volumes don't have symbols");
+		}
+		E3sCommunicationVolume cv = null;
+		if (typeSymbol >= 0 && typeSymbol < volumesByTypeSymbol.length) {
+			cv = volumesByTypeSymbol[typeSymbol];
+		}
+		return cv;
+	}
+
+	/**
+	 * @return whether the communication volumes can be found by the symbols
+	 *         of their types (see {@link #getCommunicationVolume(int)})
+	 */
+	public boolean hasCommunicationVolumeSymbols() {
+		return symbols != null && volumesByTypeSymbol != null;
+	}
+
+	/**
+	 * Gives the execution time, the power, the preemption time and the code
+	 * size of each task type, on each core, as a dense table. The table is
+	 * built when it is first requested.
+	 *
+	 * @return the performance table
+	 */
+	public E3sPerformanceTable getPerformanceTable() {
+		E3sPerformanceTable table = performanceTable;
+		if (table == null) {
+			// a race only makes the table to be built more than once
+			table = new E3sPerformanceTable(this);
+			performanceTable = table;
+		}
+		return table;
+	}
+
+	/**
+	 * Creates a platform which differs from this one only by a core.
+	 *
+	 * @param index
+	 *            the index of the replaced core
+	 * @param core
+	 *            the new core
+	 * @return the new platform
+	 */
+	public E3sPlatform withCore(int index, E3sCore core) {
+		List<E3sCore> newCores = new ArrayList<E3sCore>(cores);
+		newCores.set(index, core);
+		return new E3sPlatform(symbols, newCores, communicationVolumes, wireBitWidth);
+	}
+
+	/**
+	 * Creates a platform which differs from this one only by the
+	 * communication volumes.
+	 *
+	 * @param communicationVolumes
+	 *            the new communication volumes
+	 * @return the new platform
+	 */
+	public E3sPlatform withCommunicationVolumes(
+			List<E3sCommunicationVolume> communicationVolumes) {
+		return new E3sPlatform(symbols, cores, communicationVolumes, wireBitWidth);
+	}
+
+	/**
+	 * Creates a platform which differs from this one only by the wire bit
+	 * width.
+	 *
+	 * @param wireBitWidth
+	 *            the new wire bit width
+	 * @return the new platform
+	 */
+	public E3sPlatform withWireBitWidth(int wireBitWidth) {
+		return new E3sPlatform(symbols, cores, communicationVolumes, wireBitWidth);
+	}
+
+	@Override
+	public String toString() {
+		return cores.size() + " cores, " + communicationVolumes.size()
+				+ " communication volumes, wire bit width " + wireBitWidth;
+	}
+
+}
@@ -0,0 +1,187 @@
+package ro.ulbsibiu.acaps.e3s.ctg;
+
+/**
+ * Interns strings and gives each distinct string a dense integer ID (a
+ * symbol): the first interned string is 0, the second is 1 and so on. The
+ * strings are looked up by their content, so interning a {@link CharSequence}
+ * which is already in the table creates no object.
+ * <p>
+ * The table is thread safe, since the task types may be shared by benchmarks
+ * which are parsed concurrently (see {@link E3sCoreCatalog}). The parts of a
+ * file which are parsed in parallel have their own tables, which are merged
+ * in the order of the file (see {@link E3sSymbols#internAll(E3sSymbols)}), so
+ * the symbols don't depend on the order in which the parts are parsed.
+ * </p>
+ *
+ * @see E3sSymbols
+ *
+ * @author Ciprian Radu
+ *
+ */
+public class E3sSymbolTable {
+
+	/** the symbol of the objects whose strings were not interned */
+	public static final int NO_SYMBOL = -1;
+
+	/** the interned strings, indexed by their symbols */
+	private String[] strings;
+
+	/** the hash codes of the interned strings */
+	private int[] hashes;
+
+	/** the number of interned strings */
+	private int size;
+
+	/**
+	 * an open addressing hash table with the symbols (plus one, so that 0
+	 * marks an empty slot); its length is a power of 2
+	 */
+	private int[] slots;
+
+	public E3sSymbolTable() {
+		strings = new String[16];
+		hashes = new int[16];
+		slots = new int[32];
+		size = 0;
+	}
+
+	/**
+	 * Computes the hash code of a character sequence (the same as
+	 * {@link String#hashCode()}).
+	 */
+	private static int hash(CharSequence string) {
+		int hash = 0;
+		for (int i = 0; i < string.length(); i++) {
+			hash = 31 * hash + string.charAt(i);
+		}
+		return hash;
+	}
+
+	private static boolean contentEquals(String string, CharSequence sequence) {
+		if (string.length() != sequence.length()) {
+			return false;
+		}
+		for (int i = 0; i < string.length(); i++) {
+			if (string.charAt(i) != sequence.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return the slot where the string is, or the empty slot where it would
+	 *         be added
+	 */
+	private int findSlot(CharSequence string, int hash) {
+		int mask = slots.length - 1;
+		int slot = hash & mask;
+		while (slots[slot] != 0) {
+			int symbol = slots[slot] - 1;
+			if (hashes[symbol] == hash && contentEquals(strings[symbol], string)) {
+				break;
+			}
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+
+	private void grow() {
+		String[] largerStrings = new String[strings.length * 2];
+		System.arraycopy(strings, 0, largerStrings, 0, size);
+		strings = largerStrings;
+		int[] largerHashes = new int[hashes.length * 2];
+		System.arraycopy(hashes, 0, largerHashes, 0, size);
+		hashes = largerHashes;
+
+		slots = new int[slots.length * 2];
+		int mask = slots.length - 1;
+		for (int symbol = 0; symbol < size; symbol++) {
+			int slot = hashes[symbol] & mask;
+			while (slots[slot] != 0) {
+				slot = (slot + 1) & mask;
+			}
+			slots[slot] = symbol + 1;
+		}
+	}
+
+	/**
+	 * Interns a string.
+	 *
+	 * @param string
+	 *            the string (cannot be <tt>null</tt>)
+	 * @return the symbol of the string (a new symbol is given to a string
+	 *         which is not in the table yet)
+	 */
+	public synchronized int intern(CharSequence string) {
+		assert string != null;
+
+		int hash = hash(string);
+		int slot = findSlot(string, hash);
+		int symbol;
+		if (slots[slot] != 0) {
+			symbol = slots[slot] - 1;
+		} else {
+			symbol = size;
+			strings[symbol] = string.toString();
+			hashes[symbol] = hash;
+			slots[slot] = symbol + 1;
+			size++;
+			if (size == strings.length) {
+				grow();
+			}
+		}
+		return symbol;
+	}
+
+	/**
+	 * Interns all the strings of another table, in the order of their
+	 * symbols.
+	 *
+	 * @param table
+	 *            the other table
+	 * @return the symbol which each symbol of the other table has in this
+	 *         table
+	 */
+	public int[] internAll(E3sSymbolTable table) {
+		int[] translation = new int[table.size()];
+		for (int symbol = 0; symbol < translation.length; symbol++) {
+			translation[symbol] = intern(table.getString(symbol));
+		}
+		return translation;
+	}
+
+	/**
+	 * Looks up a string, without interning it.
+	 *
+	 * @param string
+	 *            the string
+	 * @return the symbol of the string, or {@link #NO_SYMBOL} if the string
+	 *         is not in the table
+	 */
+	public synchronized int getSymbol(CharSequence string) {
+		int slot = findSlot(string, hash(string));
+		return slots[slot] - 1;
+	}
+
+	/**
+	 * @param symbol
+	 *            a symbol from this table
+	 * @return the string with the specified symbol
+	 */
+	public synchronized String getString(int symbol) {
+		if (symbol < 0 || symbol >= size) {
+			throw new IndexOutOfBoundsException(Integer.toString(symbol));
+		}
+		return strings[symbol];
+	}
+
+	/**
+	 * @return the number of symbols (the symbols are between 0 and this
+	 *         number, exclusive)
+	 */
+	public synchronized int size() {
+		return size;
+	}
+
+}
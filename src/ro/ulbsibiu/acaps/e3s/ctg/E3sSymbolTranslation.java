@@ -0,0 +1,144 @@
+package ro.ulbsibiu.acaps.e3s.ctg;
+
+import java.util.List;
+
+/**
+ * Moves the objects created with some {@link E3sSymbols} to other symbols,
+ * in which all their strings were interned (see
+ * {@link E3sSymbols#internAll(E3sSymbols)}). The objects are updated in place:
+ * they get the strings and the symbols of the other symbols, so they don't
+ * have to be created again. This is how the parts of a file which are parsed
+ * in parallel, each with its own symbols, are merged.
+ *
+ * @author Ciprian Radu
+ *
+ */
+public class E3sSymbolTranslation {
+
+	/** the symbols to which the objects are moved */
+	private final E3sSymbols symbols;
+
+	/**
+	 * the symbol of each task name in {@link #symbols} (<tt>null</tt> if the
+	 * task names are shared)
+	 */
+	private final int[] taskNames;
+
+	/** the symbol of each task type (<tt>null</tt> if they are shared) */
+	private final int[] taskTypes;
+
+	/** the symbol of each arc type (<tt>null</tt> if they are shared) */
+	private final int[] arcTypes;
+
+	/** the symbol of each core ID (<tt>null</tt> if they are shared) */
+	private final int[] coreIds;
+
+	E3sSymbolTranslation(E3sSymbols symbols, int[] taskNames, int[] taskTypes,
+			int[] arcTypes, int[] coreIds) {
+		this.symbols = symbols;
+		this.taskNames = taskNames;
+		this.taskTypes = taskTypes;
+		this.arcTypes = arcTypes;
+		this.coreIds = coreIds;
+	}
+
+	/**
+	 * @return the symbols to which the objects are moved
+	 */
+	public E3sSymbols getSymbols() {
+		return symbols;
+	}
+
+	/**
+	 * Moves a CTG (which is not built yet), with its tasks, arcs and
+	 * deadlines.
+	 *
+	 * @param e3sBenchmarkData
+	 *            the CTG
+	 */
+	public void translate(E3sBenchmarkData e3sBenchmarkData) {
+		List<E3sVertex> vertices = e3sBenchmarkData.getVertices();
+		for (int i = 0; i < vertices.size(); i++) {
+			translate(vertices.get(i));
+		}
+		List<E3sEdge> edges = e3sBenchmarkData.getEdges();
+		for (int i = 0; i < edges.size(); i++) {
+			translate(edges.get(i));
+		}
+		List<E3sDeadline> deadlines = e3sBenchmarkData.getDeadlines();
+		for (int i = 0; i < deadlines.size(); i++) {
+			translate(deadlines.get(i));
+		}
+		e3sBenchmarkData.setSymbols(symbols);
+	}
+
+	public void translate(E3sVertex vertex) {
+		if (taskNames != null && vertex.getNameSymbol() != E3sSymbolTable.NO_SYMBOL) {
+			int nameSymbol = taskNames[vertex.getNameSymbol()];
+			vertex.setName(symbols.getTaskNames().getString(nameSymbol), nameSymbol);
+		}
+		if (taskTypes != null && vertex.getTypeSymbol() != E3sSymbolTable.NO_SYMBOL) {
+			int typeSymbol = taskTypes[vertex.getTypeSymbol()];
+			vertex.setType(symbols.getTaskTypes().getString(typeSymbol), typeSymbol);
+		}
+	}
+
+	public void translate(E3sEdge edge) {
+		if (taskNames != null && edge.getFromSymbol() != E3sSymbolTable.NO_SYMBOL) {
+			int fromSymbol = taskNames[edge.getFromSymbol()];
+			edge.setFrom(symbols.getTaskNames().getString(fromSymbol), fromSymbol);
+		}
+		if (taskNames != null && edge.getToSymbol() != E3sSymbolTable.NO_SYMBOL) {
+			int toSymbol = taskNames[edge.getToSymbol()];
+			edge.setTo(symbols.getTaskNames().getString(toSymbol), toSymbol);
+		}
+		if (arcTypes != null && edge.getTypeSymbol() != E3sSymbolTable.NO_SYMBOL) {
+			int typeSymbol = arcTypes[edge.getTypeSymbol()];
+			edge.setType(symbols.getArcTypes().getString(typeSymbol), typeSymbol);
+		}
+	}
+
+	public void translate(E3sDeadline deadline) {
+		if (taskNames != null && deadline.getTaskNameSymbol() != E3sSymbolTable.NO_SYMBOL) {
+			int taskNameSymbol = taskNames[deadline.getTaskNameSymbol()];
+			deadline.setTaskName(symbols.getTaskNames().getString(taskNameSymbol),
+					taskNameSymbol);
+		}
+	}
+
+	public void translate(E3sCommunicationVolume communicationVolume) {
+		if (arcTypes != null && communicationVolume.getTypeSymbol() != E3sSymbolTable.NO_SYMBOL) {
+			int typeSymbol = arcTypes[communicationVolume.getTypeSymbol()];
+			communicationVolume.setType(symbols.getArcTypes().getString(typeSymbol),
+					typeSymbol);
+		}
+	}
+
+	/**
+	 * Moves a core, with its task table.
+	 *
+	 * @param core
+	 *            the core (it must not be sealed and its task table must be
+	 *            on the heap and loaded)
+	 */
+	public void translate(E3sCore core) {
+		assert !core.isE3sTaskCoresOffHeap() && core.isE3sTaskCoresLoaded();
+
+		if (coreIds != null && core.getIdSymbol() != E3sSymbolTable.NO_SYMBOL) {
+			int idSymbol = coreIds[core.getIdSymbol()];
+			core.setId(symbols.getCoreIds().getString(idSymbol), idSymbol);
+		}
+		List<E3sTaskCore> e3sTaskCores = core.getE3sTaskCores();
+		for (int i = 0; i < e3sTaskCores.size(); i++) {
+			translate(e3sTaskCores.get(i));
+		}
+	}
+
+	public void translate(E3sTaskCore e3sTaskCore) {
+		if (taskTypes != null && e3sTaskCore.getTypeSymbol() != E3sSymbolTable.NO_SYMBOL) {
+			int typeSymbol = taskTypes[e3sTaskCore.getTypeSymbol()];
+			e3sTaskCore.setType(symbols.getTaskTypes().getString(typeSymbol), typeSymbol);
+		}
+	}
+
+}
@@ -0,0 +1,200 @@
+package ro.ulbsibiu.acaps.e3s.ctg;
+
+/**
+ * The symbol tables of an E3S benchmark, shared by all its CTGs. The task
+ * names, the task types, the arc (communication) types and the core IDs are
+ * interned once, in separate {@link E3sSymbolTable}s, so that the objects of
+ * the benchmark share the same strings and have dense integer IDs for them.
+ * The task types have the same symbols in the tasks of the CTGs (see
+ * {@link E3sVertex#getTypeSymbol()}) and in the task tables of the cores (see
+ * {@link E3sTaskCore#getTypeSymbol()}), so they can be used as array indexes
+ * (see {@link E3sCore#getE3sTaskCore(int)}). The same holds for the arc types
+ * and the communication volumes.
+ *
+ * @author Ciprian Radu
+ *
+ */
+public class E3sSymbols {
+
+	private E3sSymbolTable taskNames;
+
+	private E3sSymbolTable taskTypes;
+
+	private E3sSymbolTable arcTypes;
+
+	private E3sSymbolTable coreIds;
+
+	public E3sSymbols() {
+		this(new E3sSymbolTable(), new E3sSymbolTable(), new E3sSymbolTable(),
+				new E3sSymbolTable());
+	}
+
+	private E3sSymbols(E3sSymbolTable taskNames, E3sSymbolTable taskTypes,
+			E3sSymbolTable arcTypes, E3sSymbolTable coreIds) {
+		this.taskNames = taskNames;
+		this.taskTypes = taskTypes;
+		this.arcTypes = arcTypes;
+		this.coreIds = coreIds;
+	}
+
+	/**
+	 * Creates symbols which share the task types, the arc types and the core
+	 * IDs with these symbols, but which intern the task names in a new table.
+	 * The number of task names grows with the number of CTGs, while the
+	 * number of types is bounded, so this is useful when the CTGs of a large
+	 * benchmark are processed one at a time.
+	 *
+	 * @return the new symbols
+	 */
+	public E3sSymbols withNewTaskNames() {
+		return new E3sSymbols(new E3sSymbolTable(), taskTypes, arcTypes, coreIds);
+	}
+
+	/**
+	 * Interns the strings of other symbols in these symbols, table by table,
+	 * in the order of their symbols. If the other symbols were used for
+	 * parsing a part of a file, the strings get the same symbols as they
+	 * would have got if that part were parsed with these symbols (see
+	 * {@link E3sSymbolTable}).
+	 *
+	 * @param symbols
+	 *            the other symbols
+	 * @return the translation which moves the objects created with the other
+	 *         symbols to these symbols
+	 */
+	public E3sSymbolTranslation internAll(E3sSymbols symbols) {
+		return new E3sSymbolTranslation(this,
+				internAll(taskNames, symbols.taskNames),
+				internAll(taskTypes, symbols.taskTypes),
+				internAll(arcTypes, symbols.arcTypes),
+				internAll(coreIds, symbols.coreIds));
+	}
+
+	/**
+	 * @return the symbol of each string of the other table, or <tt>null</tt>
+	 *         if the tables are the same
+	 */
+	private static int[] internAll(E3sSymbolTable table, E3sSymbolTable other) {
+		return table == other ? null : table.internAll(other);
+	}
+
+	public E3sSymbolTable getTaskNames() {
+		return taskNames;
+	}
+
+	public E3sSymbolTable getTaskTypes() {
+		return taskTypes;
+	}
+
+	public E3sSymbolTable getArcTypes() {
+		return arcTypes;
+	}
+
+	public E3sSymbolTable getCoreIds() {
+		return coreIds;
+	}
+
+	/**
+	 * Creates a task, with interned name and type.
+	 *
+	 * @param name
+	 *            the name of the task
+	 * @param type
+	 *            the type of the task
+	 * @return the task
+	 */
+	public E3sVertex createVertex(CharSequence name, CharSequence type) {
+		int nameSymbol = taskNames.intern(name);
+		int typeSymbol = taskTypes.intern(type);
+		return new E3sVertex(taskNames.getString(nameSymbol), nameSymbol,
+				taskTypes.getString(typeSymbol), typeSymbol);
+	}
+
+	/**
+	 * Creates an arc, with interned task names and type (the arc names are
+	 * unique, so they are not interned).
+	 *
+	 * @param name
+	 *            the name of the arc
+	 * @param from
+	 *            the name of the source task
+	 * @param to
+	 *            the name of the destination task
+	 * @param type
+	 *            the communication type of the arc
+	 * @return the arc
+	 */
+	public E3sEdge createEdge(CharSequence name, CharSequence from,
+			CharSequence to, CharSequence type) {
+		int fromSymbol = taskNames.intern(from);
+		int toSymbol = taskNames.intern(to);
+		int typeSymbol = arcTypes.intern(type);
+		return new E3sEdge(name.toString(), taskNames.getString(fromSymbol),
+				fromSymbol, taskNames.getString(toSymbol), toSymbol,
+				arcTypes.getString(typeSymbol), typeSymbol);
+	}
+
+	/**
+	 * Creates a deadline, with an interned task name.
+	 *
+	 * @param type
+	 *            the type of the deadline
+	 * @param name
+	 *            the deadline's name
+	 * @param taskName
+	 *            the name of the task
+	 * @param time
+	 *            the deadline, expressed in seconds
+	 * @return the deadline
+	 */
+	public E3sDeadline createDeadline(E3sDeadline.DeadlineType type,
+			CharSequence name, CharSequence taskName, double time) {
+		int taskNameSymbol = taskNames.intern(taskName);
+		return new E3sDeadline(type, name.toString(),
+				taskNames.getString(taskNameSymbol), taskNameSymbol, time);
+	}
+
+	/**
+	 * Creates a communication volume, with an interned type.
+	 *
+	 * @param type
+	 *            the communication type
+	 * @param volume
+	 *            the communication volume
+	 * @return the communication volume
+	 */
+	public E3sCommunicationVolume createCommunicationVolume(CharSequence type,
+			double volume) {
+		int typeSymbol = arcTypes.intern(type);
+		return new E3sCommunicationVolume(arcTypes.getString(typeSymbol),
+				typeSymbol, volume);
+	}
+
+	/**
+	 * Creates a core, with an interned ID.
+	 *
+	 * @param name
+	 *            the name of the core
+	 * @param id
+	 *            the ID of the core
+	 * @return the core (without parameters and tasks)
+	 */
+	public E3sCore createCore(CharSequence name, CharSequence id) {
+		int idSymbol = coreIds.intern(id);
+		E3sCore core = new E3sCore(name.toString(), coreIds.getString(idSymbol));
+		core.setIdSymbol(idSymbol);
+		return core;
+	}
+
+	/**
+	 * Interns the type of a task from the task table of a core.
+	 *
+	 * @param e3sTaskCore
+	 *            the task (its type must be set)
+	 */
+	public void intern(E3sTaskCore e3sTaskCore) {
+		int typeSymbol = taskTypes.intern(e3sTaskCore.getType());
+		e3sTaskCore.setType(taskTypes.getString(typeSymbol), typeSymbol);
+	}
+
+}
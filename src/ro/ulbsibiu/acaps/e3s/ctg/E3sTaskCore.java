@@ -52,9 +52,19 @@ public class E3sTaskCore {
 		TASK_POWER
 	}
 	
+	/**
+	 * the task types are small integers, so the Strings of the first types
+	 * are cached (a benchmark has thousands of task rows, but only a few
+	 * tens of task types)
+	 */
+	private static final String[] TYPES = new String[256];
+	
 	/** unique identifier for a task */
 	private String type;
 	
+	/** the symbol of the type (see {@link E3sSymbols#getTaskTypes()}) */
+	private int typeSymbol = E3sSymbolTable.NO_SYMBOL;
+	
 	/** always set to 0 */
 	private double version;
 	
@@ -76,8 +86,34 @@ public class E3sTaskCore {
 	/** the power consumption for the execution of this task (in Watt) */
 	private double taskPower;
 
+	/** whether this task can still be modified (see {@link #seal()}) */
+	private volatile boolean sealed;
+
 	// ********************************************************************* //
 	
+	/**
+	 * Seals this task, so that it can be shared (e.g.: by the cores of an
+	 * {@link E3sPlatform}). Afterwards, all the methods which modify this
+	 * task throw an {@link IllegalStateException}.
+	 */
+	public void seal() {
+		sealed = true;
+	}
+	
+	/**
+	 * @return whether this task is sealed (see {@link #seal()})
+	 */
+	public boolean isSealed() {
+		return sealed;
+	}
+	
+	private void checkNotSealed() {
+		if (sealed) {
+			throw new IllegalStateException("The task " + type
+					+ " of a core is sealed");
+		}
+	}
+	
 	/**
 	 * Sets a task core parameter
 	 * 
@@ -85,6 +121,7 @@ public class E3sTaskCore {
 	 * @param value the parameter's value
 	 */
 	public void setTaskCoreParameter (E3sTaskCoreParams parameter, double value) {
+		checkNotSealed();
 		switch (parameter) {
 		case CODE_BITS:
 			codeBits = value;
@@ -99,7 +136,8 @@ public class E3sTaskCore {
 			taskTime = value;
 			break;
 		case TYPE:
-			type = Long.toString(new Double(value).longValue());
+			type = toType((long) value);
+			typeSymbol = E3sSymbolTable.NO_SYMBOL;
 			break;
 		case VALID:
 			valid = value;
@@ -111,12 +149,55 @@ public class E3sTaskCore {
 		}
 	}
 	
+	/**
+	 * @param type
+	 *            a task type
+	 * @return the task type, as a String
+	 */
+	static String toType(long type) {
+		String typeString;
+		if (type >= 0 && type < TYPES.length) {
+			// a race only makes the same String to be created more than once
+			typeString = TYPES[(int) type];
+			if (typeString == null) {
+				typeString = Long.toString(type);
+				TYPES[(int) type] = typeString;
+			}
+		} else {
+			typeString = Long.toString(type);
+		}
+		return typeString;
+	}
+	
 	public String getType() {
 		return type;
 	}
 
 	public void setType(String type) {
+		setType(type, E3sSymbolTable.NO_SYMBOL);
+	}
+
+	/**
+	 * Sets the type, together with its symbol.
+	 * 
+	 * @param type
+	 *            the type
+	 * @param typeSymbol
+	 *            the symbol of the type
+	 * 
+	 * @see E3sSymbols#intern(E3sTaskCore)
+	 */
+	public void setType(String type, int typeSymbol) {
+		checkNotSealed();
 		this.type = type;
+		this.typeSymbol = typeSymbol;
+	}
+
+	/**
+	 * @return the symbol of the type, or {@link E3sSymbolTable#NO_SYMBOL}
+	 */
+	public int getTypeSymbol() {
+		return typeSymbol;
 	}
 
 	public double getVersion() {
@@ -124,6 +205,7 @@ public class E3sTaskCore {
 	}
 
 	public void setVersion(double version) {
+		checkNotSealed();
 		this.version = version;
 	}
 
@@ -132,6 +214,7 @@ public class E3sTaskCore {
 	}
 
 	public void setValid(double valid) {
+		checkNotSealed();
 		this.valid = valid;
 	}
 
@@ -140,6 +223,7 @@ public class E3sTaskCore {
 	}
 
 	public void setTaskTime(double taskTime) {
+		checkNotSealed();
 		this.taskTime = taskTime;
 	}
 
@@ -148,6 +232,7 @@ public class E3sTaskCore {
 	}
 
 	public void setPreemtTime(double preemtTime) {
+		checkNotSealed();
 		this.preemtTime = preemtTime;
 	}
 
@@ -156,6 +241,7 @@ public class E3sTaskCore {
 	}
 
 	public void setCodeBits(double codeBits) {
+		checkNotSealed();
 		this.codeBits = codeBits;
 	}
 
@@ -164,6 +250,7 @@ public class E3sTaskCore {
 	}
 
 	public void setTaskPower(double taskPower) {
+		checkNotSealed();
 		this.taskPower = taskPower;
 	}
 	
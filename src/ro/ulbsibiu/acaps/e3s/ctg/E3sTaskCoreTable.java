@@ -0,0 +1,257 @@
+package ro.ulbsibiu.acaps.e3s.ctg;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+
+import ro.ulbsibiu.acaps.e3s.ctg.E3sTaskCore.E3sTaskCoreParams;
+
+/**
+ * Keeps the task tables of the cores outside of the Java heap, in direct
+ * {@link ByteBuffer}s. A task row takes {@link #ROW_SIZE} bytes and no
+ * objects, so the task tables of large platforms (thousands of cores, each
+ * with hundreds of task types) neither fill the heap with millions of small
+ * {@link E3sTaskCore} objects, nor slow down the garbage collector.
+ * <p>
+ * The rows of all the cores are appended to the same table, so each core
+ * holds a range of rows (see
+ * {@link E3sCore#setE3sTaskCoreRows(E3sTaskCoreTable, int, int)}). The rows
+ * are kept in chunks of {@link #CHUNK_ROWS} rows, so a table can grow without
+ * copying its rows. An {@link E3sTaskCore} is created only when a row is
+ * requested (through the getters of the core) and it is not kept, so
+ * modifying it doesn't modify the table.
+ * </p>
+ * <p>
+ * A table is filled by a single thread. Afterwards, it can be read
+ * concurrently by multiple threads (the buffers are read only with absolute
+ * indexes).
+ * </p>
+ *
+ * @author Ciprian Radu
+ *
+ */
+public class E3sTaskCoreTable {
+
+	private static final E3sTaskCoreParams[] TASK_CORE_PARAMS = E3sTaskCoreParams.values();
+
+	/** the number of bytes of a row: a double for each parameter and the type symbol */
+	public static final int ROW_SIZE = 64;
+
+	/** the number of rows of a chunk */
+	public static final int CHUNK_ROWS = 4096;
+
+	private static final int CHUNK_SHIFT = 12;
+
+	/** where the type symbol is kept in a row (after the parameters) */
+	private static final int TYPE_SYMBOL_OFFSET = TASK_CORE_PARAMS.length * 8;
+
+	static {
+		assert 1 << CHUNK_SHIFT == CHUNK_ROWS;
+		assert TYPE_SYMBOL_OFFSET + 4 <= ROW_SIZE;
+	}
+
+	/**
+	 * the table in which the task types are interned (<tt>null</tt> if they
+	 * are not interned)
+	 */
+	private final E3sSymbolTable taskTypes;
+
+	/** the chunks of rows */
+	private final List<ByteBuffer> chunks;
+
+	private int rowCount;
+
+	/**
+	 * Constructor
+	 *
+	 * @param taskTypes
+	 *            the table in which the task types are interned (see
+	 *            {@link E3sSymbols#getTaskTypes()}); <tt>null</tt> means that
+	 *            they are not interned
+	 */
+	public E3sTaskCoreTable(E3sSymbolTable taskTypes) {
+		this.taskTypes = taskTypes;
+		chunks = new ArrayList<ByteBuffer>();
+		rowCount = 0;
+	}
+
+	/**
+	 * Appends a task row.
+	 *
+	 * @param row
+	 *            the values of the row, in the order of
+	 *            {@link E3sTaskCoreParams}
+	 * @return the index of the row
+	 */
+	public int addRow(double[] row) {
+		assert row.length == TASK_CORE_PARAMS.length;
+
+		if (rowCount == chunks.size() * CHUNK_ROWS) {
+			chunks.add(ByteBuffer.allocateDirect(CHUNK_ROWS * ROW_SIZE).order(
+					ByteOrder.nativeOrder()));
+		}
+		ByteBuffer chunk = chunks.get(rowCount >>> CHUNK_SHIFT);
+		int offset = (rowCount & (CHUNK_ROWS - 1)) * ROW_SIZE;
+		for (int i = 0; i < row.length; i++) {
+			chunk.putDouble(offset + i * 8, row[i]);
+		}
+		int typeSymbol = E3sSymbolTable.NO_SYMBOL;
+		if (taskTypes != null) {
+			typeSymbol = taskTypes.intern(E3sTaskCore
+					.toType((long) row[E3sTaskCoreParams.TYPE.ordinal()]));
+		}
+		chunk.putInt(offset + TYPE_SYMBOL_OFFSET, typeSymbol);
+		return rowCount++;
+	}
+
+	/**
+	 * @return the number of rows
+	 */
+	public int getRowCount() {
+		return rowCount;
+	}
+
+	/**
+	 * @return the number of bytes allocated outside of the heap
+	 */
+	public long getOffHeapSize() {
+		return (long) chunks.size() * CHUNK_ROWS * ROW_SIZE;
+	}
+
+	/**
+	 * @param row
+	 *            the index of a row
+	 * @param parameter
+	 *            a parameter
+	 * @return the value of the parameter, from the row
+	 */
+	public double getValue(int row, E3sTaskCoreParams parameter) {
+		return chunks.get(row >>> CHUNK_SHIFT).getDouble(
+				(row & (CHUNK_ROWS - 1)) * ROW_SIZE + parameter.ordinal() * 8);
+	}
+
+	/**
+	 * @param row
+	 *            the index of a row
+	 * @return the symbol of the task type, or {@link E3sSymbolTable#NO_SYMBOL}
+	 */
+	public int getTypeSymbol(int row) {
+		return chunks.get(row >>> CHUNK_SHIFT).getInt(
+				(row & (CHUNK_ROWS - 1)) * ROW_SIZE + TYPE_SYMBOL_OFFSET);
+	}
+
+	/**
+	 * @param row
+	 *            the index of a row
+	 * @return the task type
+	 */
+	public String getType(int row) {
+		int typeSymbol = getTypeSymbol(row);
+		if (typeSymbol != E3sSymbolTable.NO_SYMBOL) {
+			return taskTypes.getString(typeSymbol);
+		}
+		return E3sTaskCore.toType((long) getValue(row, E3sTaskCoreParams.TYPE));
+	}
+
+	/**
+	 * Creates an {@link E3sTaskCore} from a row (the task is not kept by the
+	 * table).
+	 *
+	 * @param row
+	 *            the index of the row
+	 * @return the task
+	 */
+	public E3sTaskCore getE3sTaskCore(int row) {
+		E3sTaskCore e3sTaskCore = new E3sTaskCore();
+		for (int i = 0; i < TASK_CORE_PARAMS.length; i++) {
+			e3sTaskCore.setTaskCoreParameter(TASK_CORE_PARAMS[i], getValue(row, TASK_CORE_PARAMS[i]));
+		}
+		int typeSymbol = getTypeSymbol(row);
+		if (typeSymbol != E3sSymbolTable.NO_SYMBOL) {
+			e3sTaskCore.setType(taskTypes.getString(typeSymbol), typeSymbol);
+		}
+		return e3sTaskCore;
+	}
+
+	/**
+	 * Finds the first row with a certain task type, among some rows.
+	 *
+	 * @param firstRow
+	 *            the first row which is searched
+	 * @param count
+	 *            the number of rows which are searched
+	 * @param typeSymbol
+	 *            the symbol of the task type
+	 * @return the index of the row, or -1 if there is no such row
+	 */
+	public int findRow(int firstRow, int count, int typeSymbol) {
+		if (typeSymbol != E3sSymbolTable.NO_SYMBOL) {
+			for (int row = firstRow; row < firstRow + count; row++) {
+				if (getTypeSymbol(row) == typeSymbol) {
+					return row;
+				}
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Finds the first row with a certain task type, among some rows.
+	 *
+	 * @param firstRow
+	 *            the first row which is searched
+	 * @param count
+	 *            the number of rows which are searched
+	 * @param type
+	 *            the task type
+	 * @return the index of the row, or -1 if there is no such row
+	 */
+	public int findRow(int firstRow, int count, String type) {
+		if (taskTypes != null) {
+			int typeSymbol = taskTypes.getSymbol(type);
+			return typeSymbol == E3sSymbolTable.NO_SYMBOL ? -1 : findRow(firstRow, count, typeSymbol);
+		}
+		for (int row = firstRow; row < firstRow + count; row++) {
+			if (getType(row).equals(type)) {
+				return row;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Gives some rows as a list of {@link E3sTaskCore}s, which are created
+	 * when they are requested.
+	 *
+	 * @param firstRow
+	 *            the first row
+	 * @param count
+	 *            the number of rows
+	 * @return the list (it cannot be modified)
+	 */
+	List<E3sTaskCore> asList(final int firstRow, final int count) {
+		return new AbstractList<E3sTaskCore>() {
+
+			@Override
+			public E3sTaskCore get(int index) {
+				if (index < 0 || index >= count) {
+					throw new IndexOutOfBoundsException(Integer.toString(index));
+				}
+				return getE3sTaskCore(firstRow + index);
+			}
+
+			@Override
+			public int size() {
+				return count;
+			}
+		};
+	}
+
+	@Override
+	public String toString() {
+		return rowCount + " task rows (" + getOffHeapSize() + " bytes off the heap)";
+	}
+
+}
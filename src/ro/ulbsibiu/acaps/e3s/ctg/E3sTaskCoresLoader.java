@@ -0,0 +1,27 @@
+package ro.ulbsibiu.acaps.e3s.ctg;
+
+import java.util.List;
+
+/**
+ * Loads the tasks of an {@link E3sCore} when they are needed for the first
+ * time (see {@link E3sCore#setE3sTaskCoresLoader(E3sTaskCoresLoader)}). This
+ * allows a benchmark to be parsed without reading the (large) task tables of
+ * the cores which are never used.
+ * 
+ * @author Ciprian Radu
+ * 
+ */
+public interface E3sTaskCoresLoader {
+
+	/**
+	 * Loads the tasks of a core.
+	 * 
+	 * @param core
+	 *            the core whose tasks are loaded
+	 * @return the tasks, in the order from the benchmark
+	 * @throws IllegalStateException
+	 *             if the tasks cannot be loaded
+	 */
+	List<E3sTaskCore> loadE3sTaskCores(E3sCore core);
+
+}
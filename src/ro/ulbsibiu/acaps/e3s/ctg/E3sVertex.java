@@ -10,9 +10,35 @@ public class E3sVertex {
 
 	private String type;
 
+	/** the symbol of the name (see {@link E3sSymbols#getTaskNames()}) */
+	private int nameSymbol;
+
+	/** the symbol of the type (see {@link E3sSymbols#getTaskTypes()}) */
+	private int typeSymbol;
+
 	public E3sVertex(String name, String type) {
+		this(name, E3sSymbolTable.NO_SYMBOL, type, E3sSymbolTable.NO_SYMBOL);
+	}
+
+	/**
+	 * Constructor
+	 * 
+	 * @param name
+	 *            the name of the task
+	 * @param nameSymbol
+	 *            the symbol of the name
+	 * @param type
+	 *            the type of the task
+	 * @param typeSymbol
+	 *            the symbol of the type
+	 * 
+	 * @see E3sSymbols#createVertex(CharSequence, CharSequence)
+	 */
+	public E3sVertex(String name, int nameSymbol, String type, int typeSymbol) {
 		this.name = name;
+		this.nameSymbol = nameSymbol;
 		this.type = type;
+		this.typeSymbol = typeSymbol;
 	}
 
 	public String getName() {
@@ -23,6 +49,40 @@ public class E3sVertex {
 		return type;
 	}
 
+	/**
+	 * @return the symbol of the name, or {@link E3sSymbolTable#NO_SYMBOL}
+	 */
+	public int getNameSymbol() {
+		return nameSymbol;
+	}
+
+	/**
+	 * @return the symbol of the type, or {@link E3sSymbolTable#NO_SYMBOL}
+	 */
+	public int getTypeSymbol() {
+		return typeSymbol;
+	}
+
+	/**
+	 * Sets the name, together with its symbol.
+	 * 
+	 * @see E3sSymbolTranslation#translate(E3sVertex)
+	 */
+	void setName(String name, int nameSymbol) {
+		this.name = name;
+		this.nameSymbol = nameSymbol;
+	}
+
+	/**
+	 * Sets the type, together with its symbol.
+	 * 
+	 * @see E3sSymbolTranslation#translate(E3sVertex)
+	 */
+	void setType(String type, int typeSymbol) {
+		this.type = type;
+		this.typeSymbol = typeSymbol;
+	}
+
 	@Override
 	public String toString() {
 		return "TASK " + name + " TYPE " + type;
@@ -0,0 +1,427 @@
+package ro.ulbsibiu.acaps.e3s.parser;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.log4j.Logger;
+
+import ro.ulbsibiu.acaps.e3s.ctg.E3sBenchmarkData;
+import ro.ulbsibiu.acaps.e3s.ctg.E3sCommunicationVolume;
+import ro.ulbsibiu.acaps.e3s.ctg.E3sCore;
+import ro.ulbsibiu.acaps.e3s.ctg.E3sCoreCatalog;
+import ro.ulbsibiu.acaps.e3s.ctg.E3sCore.E3sCoreParams;
+import ro.ulbsibiu.acaps.e3s.ctg.E3sDeadline.DeadlineType;
+import ro.ulbsibiu.acaps.e3s.ctg.E3sPlatform;
+import ro.ulbsibiu.acaps.e3s.ctg.E3sSymbolTranslation;
+import ro.ulbsibiu.acaps.e3s.ctg.E3sSymbols;
+import ro.ulbsibiu.acaps.e3s.ctg.E3sTaskCore;
+import ro.ulbsibiu.acaps.e3s.ctg.E3sTaskCore.E3sTaskCoreParams;
+import ro.ulbsibiu.acaps.e3s.ctg.E3sTaskCoreTable;
+import ro.ulbsibiu.acaps.e3s.ctg.E3sTaskCoresLoader;
+
+/**
+ * {@link E3sTgffHandler} which builds an {@link E3sBenchmarkData} for each
+ * task graph from an E3S .tgff file. This is what
+ * {@link E3sTgffFileParser#parseTgffFile()} uses.
+ * <p>
+ * The cores, the communication volumes and the wire bit width are shared by
+ * all the CTGs from a file, so a single {@link E3sPlatform} is built from
+ * them, after the entire file was parsed, and it is given to each CTG. The
+ * hyperperiod is given to each CTG as well.
+ * </p>
+ * <p>
+ * The strings are interned in the {@link E3sSymbols} of the benchmark, as
+ * they are parsed, so the strings which repeat are created only once.
+ * </p>
+ * <p>
+ * Optionally, the task tables of the cores are kept off the heap, in an
+ * {@link E3sTaskCoreTable} (see {@link #setTaskCoresOffHeap(boolean)}), or
+ * they are shared with the other benchmarks, through an
+ * {@link E3sCoreCatalog} (see {@link #setCoreCatalog(E3sCoreCatalog)}).
+ * </p>
+ * 
+ * @author Ciprian Radu
+ * 
+ */
+public class E3sBenchmarkDataBuilder implements E3sTgffHandler {
+
+	/**
+	 * Logger for this class
+	 */
+	private static final Logger logger = Logger
+			.getLogger(E3sBenchmarkDataBuilder.class);
+
+	private static final E3sCoreParams[] CORE_PARAMS = E3sCoreParams.values();
+
+	private static final E3sTaskCoreParams[] TASK_CORE_PARAMS = E3sTaskCoreParams.values();
+
+	/** the name of the benchmark */
+	private String name;
+
+	/** the E3S Communication Task Graphs */
+	private List<E3sBenchmarkData> e3sCtgs;
+
+	/** the cores, in the order from the file */
+	private List<E3sCore> cores;
+
+	/** the communication volumes (from the @COMMUN_QUANT block) */
+	private List<E3sCommunicationVolume> communicationVolumes;
+
+	/** the wire bit width (from @WIRE_BIT_WIDTH) */
+	private int wireBitWidth;
+
+	/** the hyperperiod (from @HYPERPERIOD) */
+	private double hyperperiod;
+
+	/** the platform shared by the CTGs (built when the parsing ends) */
+	private E3sPlatform platform;
+
+	/** the CTG which is currently built */
+	private E3sBenchmarkData e3sCtg;
+
+	/** the core which is currently built */
+	private E3sCore e3sCore;
+
+	/**
+	 * the symbols given to the constructor (<tt>null</tt> if each parse has
+	 * its own symbols)
+	 */
+	private E3sSymbols sharedSymbols;
+
+	/** the symbols of the benchmark */
+	private E3sSymbols symbols;
+
+	/** whether the task tables of the cores are kept off the heap */
+	private boolean taskCoresOffHeap;
+
+	/**
+	 * the table which keeps the task tables of the cores off the heap
+	 * (<tt>null</tt> if they are kept on the heap)
+	 */
+	private E3sTaskCoreTable taskCoreTable;
+
+	/** the first row of the current core, from {@link #taskCoreTable} */
+	private int firstTaskCoreRow;
+
+	/**
+	 * the catalog which gives the shared cores (<tt>null</tt> if each
+	 * benchmark has its own cores)
+	 */
+	private E3sCoreCatalog coreCatalog;
+
+	public E3sBenchmarkDataBuilder() {
+		this(null);
+	}
+
+	/**
+	 * Constructor
+	 * 
+	 * @param symbols
+	 *            the symbols in which the strings are interned (useful when
+	 *            multiple builders parse parts of the same file); <tt>null</tt>
+	 *            means that new symbols are created at each parse
+	 */
+	public E3sBenchmarkDataBuilder(E3sSymbols symbols) {
+		sharedSymbols = symbols;
+	}
+
+	/**
+	 * Sets whether the task tables of the cores are kept off the heap, in an
+	 * {@link E3sTaskCoreTable}, instead of being kept as {@link E3sTaskCore}
+	 * objects. This is meant for the platforms with many cores and task
+	 * types. It applies to the next parses. The task tables which are loaded
+	 * lazily are kept on the heap.
+	 * 
+	 * @param taskCoresOffHeap
+	 *            whether the task tables are kept off the heap
+	 */
+	public void setTaskCoresOffHeap(boolean taskCoresOffHeap) {
+		this.taskCoresOffHeap = taskCoresOffHeap;
+	}
+
+	/**
+	 * Sets the catalog through which the cores are shared with the other
+	 * benchmarks which use it. The identical cores (and task rows) are kept
+	 * only once, by the catalog. It applies to the next parses. The strings
+	 * of the benchmark are interned in the symbols of the catalog (unless
+	 * symbols were given to the constructor; then, the cores are shared only
+	 * if these symbols share the task types of the catalog). The cores whose
+	 * task tables are kept off the heap or are loaded lazily are not shared.
+	 * 
+	 * @param coreCatalog
+	 *            the catalog (<tt>null</tt> means that each benchmark has its
+	 *            own cores)
+	 */
+	public void setCoreCatalog(E3sCoreCatalog coreCatalog) {
+		this.coreCatalog = coreCatalog;
+	}
+
+	/**
+	 * @return the E3S Communication Task Graphs (available after the file
+	 *         was parsed)
+	 */
+	public List<E3sBenchmarkData> getE3sCtgs() {
+		return e3sCtgs;
+	}
+
+	/**
+	 * @return the symbols of the benchmark (available after the parsing
+	 *         started)
+	 */
+	public E3sSymbols getSymbols() {
+		return symbols;
+	}
+
+	/**
+	 * @return the platform shared by all the CTGs (available after the file
+	 *         was parsed)
+	 */
+	public E3sPlatform getPlatform() {
+		return platform;
+	}
+
+	/**
+	 * @return the cores, in the order from the file (they are given to the
+	 *         CTGs only when the parsing ends)
+	 */
+	List<E3sCore> getCores() {
+		return cores;
+	}
+
+	/**
+	 * @return the communication volumes (they are given to the CTGs only
+	 *         when the parsing ends)
+	 */
+	List<E3sCommunicationVolume> getCommunicationVolumes() {
+		return communicationVolumes;
+	}
+
+	/**
+	 * @return the wire bit width or {@link E3sPlatform#NO_WIRE_BIT_WIDTH}, if
+	 *         it wasn't parsed
+	 */
+	int getWireBitWidth() {
+		return wireBitWidth;
+	}
+
+	/**
+	 * @return the hyperperiod or {@link E3sBenchmarkData#NO_HYPERPERIOD}, if
+	 *         it wasn't parsed
+	 */
+	double getHyperperiod() {
+		return hyperperiod;
+	}
+
+	@Override
+	public void onStart(String name) {
+		this.name = name;
+		e3sCtgs = new ArrayList<E3sBenchmarkData>();
+		cores = new ArrayList<E3sCore>();
+		communicationVolumes = new ArrayList<E3sCommunicationVolume>();
+		wireBitWidth = E3sPlatform.NO_WIRE_BIT_WIDTH;
+		hyperperiod = E3sBenchmarkData.NO_HYPERPERIOD;
+		platform = null;
+		if (sharedSymbols != null) {
+			symbols = sharedSymbols;
+		} else {
+			// each benchmark has its own task names
+			symbols = coreCatalog == null ? new E3sSymbols()
+					: coreCatalog.getSymbols().withNewTaskNames();
+		}
+		taskCoreTable = taskCoresOffHeap ? new E3sTaskCoreTable(symbols.getTaskTypes()) : null;
+		e3sCore = null;
+	}
+
+	@Override
+	public void onHyperperiod(double hyperperiod) {
+		this.hyperperiod = hyperperiod;
+	}
+
+	@Override
+	public void onCommunicationVolume(CharSequence type, double volume) {
+		communicationVolumes.add(symbols.createCommunicationVolume(type, volume));
+	}
+
+	@Override
+	public void onTaskGraph(int ctgId) {
+		e3sCtg = new E3sBenchmarkData(name, ctgId);
+		e3sCtg.setSymbols(symbols);
+		e3sCtgs.add(e3sCtg);
+	}
+
+	@Override
+	public void onPeriod(double period) {
+		e3sCtg.setPeriod(period);
+	}
+
+	@Override
+	public void onTask(CharSequence name, CharSequence type) {
+		e3sCtg.addTask(symbols.createVertex(name, type));
+	}
+
+	@Override
+	public void onArc(CharSequence name, CharSequence from, CharSequence to,
+			CharSequence type) {
+		e3sCtg.addEdge(symbols.createEdge(name, from, to, type));
+	}
+
+	@Override
+	public void onDeadline(DeadlineType type, CharSequence name,
+			CharSequence taskName, double time) {
+		e3sCtg.addDeadline(symbols.createDeadline(type, name, taskName, time));
+	}
+
+	@Override
+	public void onCoreParams(CharSequence name, CharSequence id,
+			double[] params) {
+		endCore();
+		e3sCore = symbols.createCore(name, id);
+		for (int i = 0; i < params.length; i++) {
+			e3sCore.setCoreParameter(CORE_PARAMS[i], params[i]);
+		}
+		cores.add(e3sCore);
+		if (taskCoreTable != null) {
+			firstTaskCoreRow = taskCoreTable.getRowCount();
+		}
+	}
+
+	/**
+	 * Gives the rows of the current core to the core, if the task tables
+	 * are kept off the heap.
+	 */
+	private void endCore() {
+		if (taskCoreTable != null && e3sCore != null) {
+			int rowCount = taskCoreTable.getRowCount() - firstTaskCoreRow;
+			if (rowCount > 0) {
+				e3sCore.setE3sTaskCoreRows(taskCoreTable, firstTaskCoreRow, rowCount);
+			}
+		}
+		e3sCore = null;
+	}
+
+	@Override
+	public void onTaskCoreRow(double[] row) {
+		if (taskCoreTable != null) {
+			taskCoreTable.addRow(row);
+		} else {
+			E3sTaskCore e3sTaskCore = new E3sTaskCore();
+			for (int i = 0; i < row.length; i++) {
+				e3sTaskCore.setTaskCoreParameter(TASK_CORE_PARAMS[i], row[i]);
+			}
+			symbols.intern(e3sTaskCore);
+			e3sCore.addE3sTaskCore(e3sTaskCore);
+		}
+	}
+
+	@Override
+	public void onTaskCoreRows(final E3sTaskCoresLoader loader) {
+		// the types of the loaded tasks are interned as well
+		e3sCore.setE3sTaskCoresLoader(new E3sTaskCoresLoader() {
+
+			@Override
+			public List<E3sTaskCore> loadE3sTaskCores(E3sCore core) {
+				List<E3sTaskCore> e3sTaskCores = loader.loadE3sTaskCores(core);
+				for (int i = 0; i < e3sTaskCores.size(); i++) {
+					symbols.intern(e3sTaskCores.get(i));
+				}
+				return e3sTaskCores;
+			}
+		});
+	}
+
+	@Override
+	public void onWireBitWidth(int wireBitWidth) {
+		this.wireBitWidth = wireBitWidth;
+	}
+
+	@Override
+	public void onEnd() {
+		if (logger.isInfoEnabled()) {
+			logger.info("Building the E3S CTGs");
+		}
+		endCore();
+
+		if (e3sCtgs.isEmpty()) {
+			// a benchmark has at least one CTG
+			E3sBenchmarkData e3sBenchmarkData = new E3sBenchmarkData(name, 0);
+			e3sBenchmarkData.setSymbols(symbols);
+			e3sCtgs.add(e3sBenchmarkData);
+		}
+		if (coreCatalog != null
+				&& symbols.getTaskTypes() == coreCatalog.getSymbols().getTaskTypes()) {
+			for (int i = 0; i < cores.size(); i++) {
+				cores.set(i, coreCatalog.intern(cores.get(i)));
+			}
+		}
+		platform = new E3sPlatform(symbols, cores, communicationVolumes,
+				wireBitWidth);
+		for (int i = 0; i < e3sCtgs.size(); i++) {
+			E3sBenchmarkData e3sBenchmarkData = e3sCtgs.get(i);
+			e3sBenchmarkData.setPlatform(platform);
+			e3sBenchmarkData.setHyperperiod(hyperperiod);
+			e3sBenchmarkData.buildCtg();
+		}
+	}
+
+	/**
+	 * Appends the data built by another builder, from a part of the same
+	 * file, to the data of this builder. Neither of the builders must be
+	 * ended. If the other builder has its own symbols, its data is first
+	 * moved to the symbols of this builder (see {@link #moveTo(E3sSymbols)}),
+	 * so the parts of a file can be parsed in parallel and appended in the
+	 * order of the file, with the same symbols as if the file were parsed
+	 * sequentially. The data of the other builder must not be used
+	 * afterwards.
+	 * 
+	 * @param builder
+	 *            the builder which parsed the next part of the file (without
+	 *            loading the task tables of the cores lazily or keeping them
+	 *            off the heap)
+	 */
+	void append(E3sBenchmarkDataBuilder builder) {
+		endCore();
+		if (builder.symbols != symbols) {
+			builder.moveTo(symbols);
+		} else {
+			builder.endCore();
+		}
+		e3sCtgs.addAll(builder.e3sCtgs);
+		cores.addAll(builder.cores);
+		communicationVolumes.addAll(builder.communicationVolumes);
+		if (builder.wireBitWidth != E3sPlatform.NO_WIRE_BIT_WIDTH) {
+			wireBitWidth = builder.wireBitWidth;
+		}
+		if (builder.hyperperiod != E3sBenchmarkData.NO_HYPERPERIOD) {
+			hyperperiod = builder.hyperperiod;
+		}
+	}
+
+	/**
+	 * Moves the data built by this builder, which must not be ended, to other
+	 * symbols. The strings of this builder are interned in the other symbols,
+	 * in the order in which they were parsed, and the CTGs, the cores and the
+	 * communication volumes get the strings and the symbols of the other
+	 * symbols in place (see {@link E3sSymbolTranslation}), so they are not
+	 * copied.
+	 * 
+	 * @param symbols
+	 *            the other symbols
+	 */
+	void moveTo(E3sSymbols symbols) {
+		endCore();
+		if (symbols != this.symbols) {
+			E3sSymbolTranslation translation = symbols.internAll(this.symbols);
+			for (int i = 0; i < e3sCtgs.size(); i++) {
+				translation.translate(e3sCtgs.get(i));
+			}
+			for (int i = 0; i < cores.size(); i++) {
+				translation.translate(cores.get(i));
+			}
+			for (int i = 0; i < communicationVolumes.size(); i++) {
+				translation.translate(communicationVolumes.get(i));
+			}
+			this.symbols = symbols;
+		}
+	}
+
+}
@@ -0,0 +1,222 @@
+package ro.ulbsibiu.acaps.e3s.parser;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.xml.bind.JAXBException;
+
+import org.apache.log4j.Logger;
+
+import ro.ulbsibiu.acaps.e3s.ctg.E3sBenchmarkData;
+
+/**
+ * Converts multiple E3S .tgff files to XML, concurrently. Each file is parsed
+ * and converted by a worker from a fixed size thread pool. After all the
+ * files are converted, the time and the throughput for each file are logged.
+ *
+ * @author Ciprian Radu
+ *
+ */
+public class E3sTgffBatchConverter {
+
+	/**
+	 * Logger for this class
+	 */
+	private static final Logger logger = Logger
+			.getLogger(E3sTgffBatchConverter.class);
+
+	/** the number of worker threads */
+	private int threads;
+
+	/**
+	 * the cache with the snapshots of the parsed files (<tt>null</tt> when
+	 * the files are always parsed)
+	 */
+	private E3sTgffSnapshotCache snapshotCache;
+
+	/**
+	 * The results of converting a .tgff file
+	 *
+	 * @author Ciprian Radu
+	 *
+	 */
+	private static class Result {
+
+		private String filePath;
+
+		/** the size of the file, in bytes */
+		private long size;
+
+		/** the number of CTGs from the file */
+		private int ctgs;
+
+		/** the parsing time, in nanoseconds */
+		private long parseTime;
+
+		/** the XML conversion time, in nanoseconds */
+		private long emitTime;
+
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param threads
+	 *            the number of worker threads (must be positive)
+	 */
+	public E3sTgffBatchConverter(int threads) {
+		logger.assertLog(threads > 0, "At least one thread is required");
+
+		this.threads = threads;
+	}
+
+	/**
+	 * Sets the cache from which the files are loaded, instead of parsing
+	 * them.
+	 *
+	 * @param snapshotCache
+	 *            the snapshot cache (<tt>null</tt> means that the files are
+	 *            always parsed)
+	 */
+	public void setSnapshotCache(E3sTgffSnapshotCache snapshotCache) {
+		this.snapshotCache = snapshotCache;
+	}
+
+	/**
+	 * Parses a .tgff file and converts each of its CTGs to XML.
+	 *
+	 * @param filePath
+	 *            the path to the .tgff file
+	 * @param coresParsed
+	 *            the names of the benchmarks whose cores were already
+	 *            converted during this run (a synchronized set)
+	 * @return the results
+	 * @throws IOException
+	 * @throws JAXBException
+	 */
+	private Result convert(String filePath, Set<String> coresParsed)
+			throws IOException, JAXBException {
+		Result result = new Result();
+		result.filePath = filePath;
+		result.size = new File(filePath).length();
+
+		long start = System.nanoTime();
+		List<E3sBenchmarkData> e3sCtgs;
+		if (snapshotCache == null) {
+			E3sTgffFileParser e3sFileParser = new E3sTgffFileParser(filePath);
+			e3sFileParser.parseTgffFile();
+			e3sCtgs = e3sFileParser.getE3sCtgs();
+		} else {
+			e3sCtgs = snapshotCache.load(filePath);
+		}
+		result.parseTime = System.nanoTime() - start;
+
+		start = System.nanoTime();
+		for (E3sBenchmarkData e3sBenchmarkData : e3sCtgs) {
+			E3sToXmlParser e3sToXmlParser = new E3sToXmlParser(
+					e3sBenchmarkData, coresParsed);
+			e3sToXmlParser.parse();
+		}
+		result.emitTime = System.nanoTime() - start;
+		result.ctgs = e3sCtgs.size();
+		logger.info("Finished with " + filePath);
+
+		return result;
+	}
+
+	/**
+	 * Converts the specified .tgff files. The method returns after all the
+	 * files are converted. The first error stops the conversion.
+	 *
+	 * @param filePaths
+	 *            the paths to the .tgff files
+	 * @throws IOException
+	 * @throws JAXBException
+	 * @throws InterruptedException
+	 */
+	public void convert(String[] filePaths) throws IOException,
+			JAXBException, InterruptedException {
+		long start = System.nanoTime();
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(
+				threads, Math.max(1, filePaths.length)));
+		List<Result> results = new ArrayList<Result>(filePaths.length);
+		// the cores of each benchmark are converted once per run
+		final Set<String> coresParsed = Collections
+				.synchronizedSet(new HashSet<String>());
+		try {
+			List<Future<Result>> futures = new ArrayList<Future<Result>>(
+					filePaths.length);
+			for (int i = 0; i < filePaths.length; i++) {
+				final String filePath = filePaths[i];
+				futures.add(executor.submit(new Callable<Result>() {
+
+					@Override
+					public Result call() throws Exception {
+						return convert(filePath, coresParsed);
+					}
+				}));
+			}
+			for (Future<Result> future : futures) {
+				results.add(future.get());
+			}
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			}
+			if (cause instanceof JAXBException) {
+				throw (JAXBException) cause;
+			}
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new IllegalStateException(cause);
+		} finally {
+			executor.shutdownNow();
+		}
+		long wallTime = System.nanoTime() - start;
+
+		logSummary(results, wallTime);
+	}
+
+	private void logSummary(List<Result> results, long wallTime) {
+		if (logger.isInfoEnabled()) {
+			long totalSize = 0;
+			for (Result result : results) {
+				logger.info(String.format(Locale.US,
+						"%s: %d CTGs, %d KB, parse %.1f ms (%.2f MB/s), XML %.1f ms",
+						result.filePath, result.ctgs, result.size / 1024,
+						result.parseTime / 1e6, throughput(result.size,
+								result.parseTime), result.emitTime / 1e6));
+				totalSize += result.size;
+			}
+			logger.info(String.format(Locale.US,
+					"Converted %d files (%d KB) in %.1f ms, using %d threads (%.2f MB/s)",
+					results.size(), totalSize / 1024, wallTime / 1e6,
+					threads, throughput(totalSize, wallTime)));
+		}
+	}
+
+	/**
+	 * @return the throughput, in MB/s
+	 */
+	private static double throughput(long bytes, long nanoseconds) {
+		return nanoseconds == 0 ? 0 : (bytes / (1024.0 * 1024.0))
+				/ (nanoseconds / 1e9);
+	}
+
+}
@@ -0,0 +1,154 @@
+package ro.ulbsibiu.acaps.e3s.parser;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import ro.ulbsibiu.acaps.e3s.ctg.E3sBenchmarkData;
+import ro.ulbsibiu.acaps.e3s.ctg.E3sCore;
+
+/**
+ * Describes what changed in the data of an E3S benchmark after its .tgff file
+ * was parsed again by an {@link E3sTgffIncrementalParser}. It allows the
+ * users of the data to invalidate only what depends on the changed CTGs and
+ * cores.
+ *
+ * @author Ciprian Radu
+ *
+ */
+public class E3sTgffChanges {
+
+	/** whether the entire file was parsed and all the data was replaced */
+	private boolean fullyParsed;
+
+	/** the IDs of the CTGs whose task graph changed */
+	private List<Integer> ctgIds;
+
+	/** the indexes of the changed cores */
+	private List<Integer> coreIndexes;
+
+	/** whether the communication volumes changed */
+	private boolean communicationVolumesChanged;
+
+	/** whether the wire bit width changed */
+	private boolean wireBitWidthChanged;
+
+	/** whether the hyperperiod changed */
+	private boolean hyperperiodChanged;
+
+	/**
+	 * Constructor
+	 *
+	 * @param fullyParsed
+	 *            whether the entire file was parsed and all the data was
+	 *            replaced
+	 */
+	E3sTgffChanges(boolean fullyParsed) {
+		this.fullyParsed = fullyParsed;
+		ctgIds = new ArrayList<Integer>();
+		coreIndexes = new ArrayList<Integer>();
+		communicationVolumesChanged = fullyParsed;
+		wireBitWidthChanged = fullyParsed;
+		hyperperiodChanged = fullyParsed;
+	}
+
+	void addCtgId(int ctgId) {
+		if (!ctgIds.contains(ctgId)) {
+			ctgIds.add(ctgId);
+		}
+	}
+
+	void addCoreIndex(int coreIndex) {
+		coreIndexes.add(coreIndex);
+	}
+
+	void setCommunicationVolumesChanged() {
+		communicationVolumesChanged = true;
+	}
+
+	void setWireBitWidthChanged() {
+		wireBitWidthChanged = true;
+	}
+
+	void setHyperperiodChanged() {
+		hyperperiodChanged = true;
+	}
+
+	/**
+	 * @return whether the entire file was parsed. In this case, all the
+	 *         {@link E3sBenchmarkData} and {@link E3sCore} objects were
+	 *         replaced with new ones (this happens at the first parse and
+	 *         each time task graphs or cores are added or removed).
+	 */
+	public boolean isFullyParsed() {
+		return fullyParsed;
+	}
+
+	/**
+	 * @return whether nothing changed
+	 */
+	public boolean isEmpty() {
+		return !fullyParsed && ctgIds.isEmpty() && coreIndexes.isEmpty()
+				&& !communicationVolumesChanged && !wireBitWidthChanged
+				&& !hyperperiodChanged;
+	}
+
+	/**
+	 * Note that a changed core does not make its CTGs to be reported here,
+	 * although all the CTGs share the cores. A change of the communication
+	 * volumes makes all the CTGs to be reported, because their arc weights
+	 * change.
+	 *
+	 * @return the IDs of the CTGs whose tasks, arcs, deadlines or period
+	 *         changed, in ascending order
+	 */
+	public List<Integer> getChangedCtgIds() {
+		Collections.sort(ctgIds);
+		return Collections.unmodifiableList(ctgIds);
+	}
+
+	/**
+	 * @return the indexes (in the order from the file) of the cores whose
+	 *         parameters or task tables changed, in ascending order
+	 */
+	public List<Integer> getChangedCoreIndexes() {
+		return Collections.unmodifiableList(coreIndexes);
+	}
+
+	/**
+	 * @return whether the communication volumes changed
+	 */
+	public boolean isCommunicationVolumesChanged() {
+		return communicationVolumesChanged;
+	}
+
+	/**
+	 * @return whether the wire bit width changed
+	 */
+	public boolean isWireBitWidthChanged() {
+		return wireBitWidthChanged;
+	}
+
+	/**
+	 * Note that a changed hyperperiod does not make the CTGs to be reported
+	 * by {@link #getChangedCtgIds()}, although it changes the jobs of all the
+	 * CTGs.
+	 *
+	 * @return whether the hyperperiod changed
+	 */
+	public boolean isHyperperiodChanged() {
+		return hyperperiodChanged;
+	}
+
+	@Override
+	public String toString() {
+		return fullyParsed ? "all" : "CTGs " + ctgIds + ", cores "
+				+ coreIndexes + ", communication volumes "
+				+ (communicationVolumesChanged ? "changed" : "unchanged")
+				+ ", wire bit width "
+				+ (wireBitWidthChanged ? "changed" : "unchanged")
+				+ ", hyperperiod "
+				+ (hyperperiodChanged ? "changed" : "unchanged");
+	}
+
+}
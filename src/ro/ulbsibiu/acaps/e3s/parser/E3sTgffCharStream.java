@@ -0,0 +1,115 @@
+package ro.ulbsibiu.acaps.e3s.parser;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+
+/**
+ * Gives the characters of a TGFF text (from a {@link Reader} or from a
+ * {@link CharSequence}) as bytes, so that they can be read by an
+ * {@link E3sTgffLexer}. The TGFF files are ASCII files, so each character is
+ * given as a byte, without encoding it. The non ASCII characters (which may
+ * appear only in the comments) are given as <tt>?</tt>.
+ *
+ * @author Ciprian Radu
+ *
+ */
+class E3sTgffCharStream extends InputStream {
+
+	private static final int BUFFER_SIZE = 8 * 1024;
+
+	/** the reader (<tt>null</tt> when the text is a {@link CharSequence}) */
+	private Reader reader;
+
+	/** the text (<tt>null</tt> when the text is read from a {@link Reader}) */
+	private CharSequence text;
+
+	/** the characters read from the reader */
+	private char[] chars;
+
+	/** the index of the next character which is given */
+	private int position;
+
+	/** the number of valid characters (from {@link #chars} or from {@link #text}) */
+	private int limit;
+
+	/**
+	 * Constructor
+	 *
+	 * @param reader
+	 *            the reader from which the text is read (it is not closed)
+	 */
+	E3sTgffCharStream(Reader reader) {
+		assert reader != null;
+
+		this.reader = reader;
+		chars = new char[BUFFER_SIZE];
+		position = 0;
+		limit = 0;
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param text
+	 *            the text (it must not be modified while it is read)
+	 */
+	E3sTgffCharStream(CharSequence text) {
+		assert text != null;
+
+		this.text = text;
+		position = 0;
+		limit = text.length();
+	}
+
+	private static int toByte(char c) {
+		return c < 0x80 ? c : '?';
+	}
+
+	/**
+	 * Reads more characters from the reader, if all the read ones were given.
+	 *
+	 * @return whether there are characters to be given
+	 */
+	private boolean fill() throws IOException {
+		if (position == limit && reader != null) {
+			int read = reader.read(chars, 0, chars.length);
+			position = 0;
+			limit = read < 0 ? 0 : read;
+		}
+		return position < limit;
+	}
+
+	@Override
+	public int read() throws IOException {
+		if (!fill()) {
+			return -1;
+		}
+		char c = reader == null ? text.charAt(position) : chars[position];
+		position++;
+		return toByte(c);
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+		if (len == 0) {
+			return 0;
+		}
+		if (!fill()) {
+			return -1;
+		}
+		int count = Math.min(len, limit - position);
+		if (reader == null) {
+			for (int i = 0; i < count; i++) {
+				b[off + i] = (byte) toByte(text.charAt(position + i));
+			}
+		} else {
+			for (int i = 0; i < count; i++) {
+				b[off + i] = (byte) toByte(chars[position + i]);
+			}
+		}
+		position += count;
+		return count;
+	}
+
+}
@@ -0,0 +1,237 @@
+package ro.ulbsibiu.acaps.e3s.parser;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A part of an E3S .tgff file, which contains only whole top level blocks
+ * (<tt>@COMMUN_QUANT</tt>, <tt>@TASK_GRAPH</tt>, <tt>@CORE</tt> and so on),
+ * together with the lines which precede them. The chunks of a file can be
+ * parsed independently of each other.
+ * 
+ * @author Ciprian Radu
+ * 
+ */
+class E3sTgffChunk {
+
+	private static final String AT_TASK_GRAPH = "@TASK_GRAPH";
+
+	private static final String AT_CORE = "@CORE";
+
+	private static final String AT_COMMUN_QUANT = "@COMMUN_QUANT";
+
+	private static final String AT_HYPERPERIOD = "@HYPERPERIOD";
+
+	private static final String AT_WIRE_BIT_WIDTH = "@WIRE_BIT_WIDTH";
+
+	// the types of the top level blocks
+
+	/** a block which holds no data used by E3S (e.g.: @WIRING) */
+	static final int BLOCK_OTHER = 0;
+
+	static final int BLOCK_COMMUN_QUANT = 1;
+
+	static final int BLOCK_TASK_GRAPH = 2;
+
+	static final int BLOCK_CORE = 3;
+
+	/** where the chunk begins (in the file buffer) */
+	private int start;
+
+	/** where the chunk ends (exclusive) */
+	private int end;
+
+	/** the line number of the first byte of the chunk */
+	private int line;
+
+	/** the ID of the first <tt>@TASK_GRAPH</tt> from this chunk */
+	private int firstCtgId;
+
+	/** the type of the last top level block from this chunk */
+	private int lastBlockType;
+
+	/** whether this chunk has a <tt>@HYPERPERIOD</tt> line */
+	private boolean hyperperiod;
+
+	/** whether this chunk has a <tt>@WIRE_BIT_WIDTH</tt> line */
+	private boolean wireBitWidth;
+
+	private E3sTgffChunk(int start, int end, int line, int firstCtgId,
+			int lastBlockType, boolean hyperperiod, boolean wireBitWidth) {
+		this.start = start;
+		this.end = end;
+		this.line = line;
+		this.firstCtgId = firstCtgId;
+		this.lastBlockType = lastBlockType;
+		this.hyperperiod = hyperperiod;
+		this.wireBitWidth = wireBitWidth;
+	}
+
+	/**
+	 * Creates a lexer for this chunk.
+	 * 
+	 * @param buffer
+	 *            the buffer with the entire file (the one which was split)
+	 * @return the lexer
+	 */
+	E3sTgffLexer createLexer(ByteBuffer buffer) {
+		ByteBuffer chunk = buffer.duplicate();
+		chunk.limit(end);
+		chunk.position(start);
+		return new E3sTgffLexer(chunk, line);
+	}
+
+	int getStart() {
+		return start;
+	}
+
+	int getEnd() {
+		return end;
+	}
+
+	int getFirstCtgId() {
+		return firstCtgId;
+	}
+
+	int getLastBlockType() {
+		return lastBlockType;
+	}
+
+	boolean hasHyperperiod() {
+		return hyperperiod;
+	}
+
+	boolean hasWireBitWidth() {
+		return wireBitWidth;
+	}
+
+	private static boolean isDelimiter(byte b) {
+		return b == ' ' || b == '\n' || b == '\r' || b == '\t' || b == '{'
+				|| b == '}';
+	}
+
+	/**
+	 * Checks (case insensitively) if the specified keyword is in the buffer,
+	 * at the specified index.
+	 */
+	private static boolean matches(ByteBuffer buffer, int index, int limit,
+			String keyword) {
+		if (index + keyword.length() > limit) {
+			return false;
+		}
+		for (int i = 0; i < keyword.length(); i++) {
+			int c = buffer.get(index + i);
+			if (c >= 'a' && c <= 'z') {
+				c -= 'a' - 'A';
+			}
+			if (c != keyword.charAt(i)) {
+				return false;
+			}
+		}
+		return index + keyword.length() == limit
+				|| isDelimiter(buffer.get(index + keyword.length()));
+	}
+
+	/**
+	 * Quickly splits an E3S .tgff file into chunks. Only the block
+	 * boundaries are searched (the curly brackets which are not commented)
+	 * and the <tt>@TASK_GRAPH</tt> blocks are counted, so that each chunk
+	 * knows the IDs of its task graphs (and whether it has the
+	 * <tt>@HYPERPERIOD</tt> or the <tt>@WIRE_BIT_WIDTH</tt>). A chunk ends at the end of the first
+	 * top level block which makes it at least as large as the specified
+	 * size (so a size of 1 gives a chunk for each top level block).
+	 * 
+	 * @param buffer
+	 *            the buffer with the entire file (between its position and
+	 *            its limit)
+	 * @param chunkSize
+	 *            the minimum size of a chunk, in bytes (the last chunk may be
+	 *            smaller)
+	 * @return the chunks, in the order from the file
+	 */
+	static List<E3sTgffChunk> split(ByteBuffer buffer, int chunkSize) {
+		List<E3sTgffChunk> chunks = new ArrayList<E3sTgffChunk>();
+
+		int limit = buffer.limit();
+		int depth = 0;
+		boolean comment = false;
+		int line = 1;
+		int ctgs = 0;
+		byte previous = '\n';
+		int chunkStart = buffer.position();
+		int chunkLine = line;
+		int chunkFirstCtgId = ctgs;
+		int blockType = BLOCK_OTHER;
+		boolean hyperperiod = false;
+		boolean wireBitWidth = false;
+		for (int i = buffer.position(); i < limit; i++) {
+			byte b = buffer.get(i);
+			if (b == '\n') {
+				line++;
+				comment = false;
+			} else {
+				if (!comment) {
+					switch (b) {
+					case '#':
+						comment = true;
+						break;
+					case '{':
+						depth++;
+						break;
+					case '}':
+						if (depth > 0) {
+							depth--;
+						}
+						if (depth == 0 && i + 1 - chunkStart >= chunkSize) {
+							chunks.add(new E3sTgffChunk(chunkStart, i + 1,
+									chunkLine, chunkFirstCtgId, blockType,
+									hyperperiod, wireBitWidth));
+							chunkStart = i + 1;
+							chunkLine = line;
+							chunkFirstCtgId = ctgs;
+							hyperperiod = false;
+							wireBitWidth = false;
+						}
+						break;
+					case '@':
+						if (depth == 0 && isDelimiter(previous)) {
+							if (matches(buffer, i, limit, AT_TASK_GRAPH)) {
+								ctgs++;
+								blockType = BLOCK_TASK_GRAPH;
+							} else {
+								if (matches(buffer, i, limit, AT_CORE)) {
+									blockType = BLOCK_CORE;
+								} else {
+									if (matches(buffer, i, limit, AT_COMMUN_QUANT)) {
+										blockType = BLOCK_COMMUN_QUANT;
+									} else {
+										blockType = BLOCK_OTHER;
+										if (matches(buffer, i, limit, AT_HYPERPERIOD)) {
+											hyperperiod = true;
+										} else {
+											if (matches(buffer, i, limit, AT_WIRE_BIT_WIDTH)) {
+												wireBitWidth = true;
+											}
+										}
+									}
+								}
+							}
+						}
+						break;
+					default:
+						break;
+					}
+				}
+			}
+			previous = b;
+		}
+		if (chunkStart < limit) {
+			chunks.add(new E3sTgffChunk(chunkStart, limit, chunkLine,
+					chunkFirstCtgId, BLOCK_OTHER, hyperperiod, wireBitWidth));
+		}
+
+		return chunks;
+	}
+
+}
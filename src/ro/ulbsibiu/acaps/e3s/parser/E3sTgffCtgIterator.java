@@ -0,0 +1,295 @@
+package ro.ulbsibiu.acaps.e3s.parser;
+
+import java.io.Closeable;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import org.apache.log4j.Logger;
+
+import ro.ulbsibiu.acaps.e3s.ctg.E3sBenchmarkData;
+import ro.ulbsibiu.acaps.e3s.ctg.E3sDeadline.DeadlineType;
+import ro.ulbsibiu.acaps.e3s.ctg.E3sPlatform;
+import ro.ulbsibiu.acaps.e3s.ctg.E3sSymbols;
+
+/**
+ * Iterates over the CTGs of an E3S .tgff file, while the file is parsed. Each
+ * CTG is given (with its Communication Task Graph already built) as soon as
+ * its <tt>@TASK_GRAPH</tt> block was parsed, and the iterator doesn't keep
+ * any reference to it. So, the memory needed for parsing a file is bounded by
+ * the size of its largest CTG (plus the size of the platform), not by the
+ * size of the file. This allows processing generated benchmarks which don't
+ * fit in the heap. For the same reason, the task names of each CTG are
+ * interned in their own table (see {@link E3sSymbols#withNewTaskNames()}).
+ * <p>
+ * In the E3S files, the cores follow the task graphs. Since the CTGs need the
+ * {@link E3sPlatform}, the file is read twice: the platform is read first
+ * (the task graphs are only skipped) and then the task graphs are read, one
+ * by one, while the iterator advances. Both passes read the file as a stream.
+ * </p>
+ * <p>
+ * The parsing errors are reported by {@link #hasNext()} and {@link #next()}
+ * as {@link IllegalStateException}s, caused by the {@link IOException}s. The
+ * file is closed when the last CTG was given, when an error occurs or when
+ * {@link #close()} is called.
+ * </p>
+ *
+ * @see E3sTgffFileParser#iterateTgffFile()
+ *
+ * @author Ciprian Radu
+ *
+ */
+public class E3sTgffCtgIterator implements Iterator<E3sBenchmarkData>,
+		Closeable {
+
+	/**
+	 * Logger for this class
+	 */
+	private static final Logger logger = Logger
+			.getLogger(E3sTgffCtgIterator.class);
+
+	/**
+	 * Builds only the platform of a benchmark (the task graphs are skipped).
+	 */
+	private static class PlatformBuilder extends E3sBenchmarkDataBuilder {
+
+		@Override
+		public void onTaskGraph(int ctgId) {
+		}
+
+		@Override
+		public void onPeriod(double period) {
+		}
+
+		@Override
+		public void onTask(CharSequence name, CharSequence type) {
+		}
+
+		@Override
+		public void onArc(CharSequence name, CharSequence from,
+				CharSequence to, CharSequence type) {
+		}
+
+		@Override
+		public void onDeadline(DeadlineType type, CharSequence name,
+				CharSequence taskName, double time) {
+		}
+
+	}
+
+	/**
+	 * Builds the CTG of the current <tt>@TASK_GRAPH</tt> block (the platform
+	 * is already known).
+	 */
+	private class CtgBuilder extends E3sTgffHandlerAdapter {
+
+		@Override
+		public void onTaskGraph(int ctgId) {
+			e3sCtg = new E3sBenchmarkData(filePath, ctgId);
+			// the task names of a CTG are not kept after the CTG was given
+			ctgSymbols = symbols.withNewTaskNames();
+			e3sCtg.setSymbols(ctgSymbols);
+			e3sCtg.setPlatform(platform);
+			e3sCtg.setHyperperiod(hyperperiod);
+		}
+
+		@Override
+		public void onPeriod(double period) {
+			e3sCtg.setPeriod(period);
+		}
+
+		@Override
+		public void onTask(CharSequence name, CharSequence type) {
+			e3sCtg.addTask(ctgSymbols.createVertex(name, type));
+		}
+
+		@Override
+		public void onArc(CharSequence name, CharSequence from,
+				CharSequence to, CharSequence type) {
+			e3sCtg.addEdge(ctgSymbols.createEdge(name, from, to, type));
+		}
+
+		@Override
+		public void onDeadline(DeadlineType type, CharSequence name,
+				CharSequence taskName, double time) {
+			e3sCtg.addDeadline(ctgSymbols.createDeadline(type, name, taskName, time));
+		}
+
+	}
+
+	/** the path to the E3S .tgff file */
+	private String filePath;
+
+	/** the platform, shared by all the CTGs */
+	private E3sPlatform platform;
+
+	/** the hyperperiod, shared by all the CTGs */
+	private double hyperperiod;
+
+	/** the symbols of the benchmark (the ones of the platform) */
+	private E3sSymbols symbols;
+
+	/**
+	 * the symbols of the current CTG (they share everything with
+	 * {@link #symbols}, except for the task names)
+	 */
+	private E3sSymbols ctgSymbols;
+
+	/** the stream from which the task graphs are read (<tt>null</tt> after it was closed) */
+	private FileInputStream stream;
+
+	private E3sTgffReader reader;
+
+	/** the CTG which is currently parsed */
+	private E3sBenchmarkData e3sCtg;
+
+	/** the CTG which is given by the next call of {@link #next()} */
+	private E3sBenchmarkData nextE3sCtg;
+
+	/** how many CTGs were given */
+	private int count;
+
+	/**
+	 * Constructor. The platform is read from the file, so this may take a
+	 * while for a large file.
+	 *
+	 * @param filePath
+	 *            the path to the E3S .tgff file
+	 * @throws IOException
+	 *             if the file cannot be read or its platform is not valid
+	 */
+	public E3sTgffCtgIterator(String filePath) throws IOException {
+		logger.assertLog(filePath != null && filePath.length() > 0,
+				"A file path must be specified");
+
+		this.filePath = filePath;
+
+		E3sBenchmarkDataBuilder platformBuilder = new PlatformBuilder();
+		FileInputStream platformStream = new FileInputStream(filePath);
+		try {
+			new E3sTgffReader(filePath, new E3sTgffLexer(platformStream),
+					platformBuilder).read();
+		} finally {
+			platformStream.close();
+		}
+		platform = platformBuilder.getPlatform();
+		hyperperiod = platformBuilder.getHyperperiod();
+		symbols = platformBuilder.getSymbols();
+		if (logger.isDebugEnabled()) {
+			logger.debug("The platform of " + filePath + ": " + platform);
+		}
+
+		stream = new FileInputStream(filePath);
+		reader = new E3sTgffReader(filePath, new E3sTgffLexer(stream),
+				new CtgBuilder());
+		reader.startBlocks(0);
+	}
+
+	/**
+	 * @return the platform, shared by all the CTGs
+	 */
+	public E3sPlatform getPlatform() {
+		return platform;
+	}
+
+	/**
+	 * @return the hyperperiod, shared by all the CTGs (or
+	 *         {@link E3sBenchmarkData#NO_HYPERPERIOD})
+	 */
+	public double getHyperperiod() {
+		return hyperperiod;
+	}
+
+	/**
+	 * Reads the blocks until a task graph block ends.
+	 *
+	 * @return the CTG of the task graph block (<tt>null</tt> if the end of
+	 *         the file was reached)
+	 */
+	private E3sBenchmarkData readE3sCtg() throws IOException {
+		E3sBenchmarkData readE3sCtg = null;
+		while (readE3sCtg == null && reader.readBlock()) {
+			// the CTG is created when its block starts
+			readE3sCtg = e3sCtg;
+			e3sCtg = null;
+		}
+		if (readE3sCtg == null && e3sCtg != null) {
+			// the last task graph block is not closed
+			readE3sCtg = e3sCtg;
+			e3sCtg = null;
+		}
+		if (readE3sCtg == null && count == 0) {
+			// a benchmark has at least one CTG
+			readE3sCtg = new E3sBenchmarkData(filePath, 0);
+			readE3sCtg.setSymbols(symbols);
+			readE3sCtg.setPlatform(platform);
+			readE3sCtg.setHyperperiod(hyperperiod);
+		}
+		return readE3sCtg;
+	}
+
+	@Override
+	public boolean hasNext() {
+		if (nextE3sCtg == null && stream != null) {
+			try {
+				nextE3sCtg = readE3sCtg();
+				if (nextE3sCtg == null) {
+					closeQuietly();
+				} else {
+					nextE3sCtg.buildCtg();
+				}
+			} catch (IOException e) {
+				closeQuietly();
+				throw new IllegalStateException(e);
+			}
+		}
+		return nextE3sCtg != null;
+	}
+
+	@Override
+	public E3sBenchmarkData next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		E3sBenchmarkData e3sBenchmarkData = nextE3sCtg;
+		nextE3sCtg = null;
+		count++;
+		return e3sBenchmarkData;
+	}
+
+	/**
+	 * Not supported.
+	 *
+	 * @throws UnsupportedOperationException
+	 *             always
+	 */
+	@Override
+	public void remove() {
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * Closes the file. The CTGs which were not given yet are not given
+	 * anymore.
+	 */
+	@Override
+	public void close() throws IOException {
+		if (stream != null) {
+			FileInputStream closed = stream;
+			stream = null;
+			reader = null;
+			nextE3sCtg = null;
+			closed.close();
+		}
+	}
+
+	private void closeQuietly() {
+		try {
+			close();
+		} catch (IOException e) {
+			logger.warn("Could not close " + filePath, e);
+		}
+	}
+
+}
@@ -4,34 +4,44 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FilenameFilter;
-import java.io.InputStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.RandomAccessFile;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import javax.xml.bind.JAXBException;
 
 import org.apache.log4j.Logger;
 
+import ro.ulbsibiu.acaps.e3s.ctg.E3sApplicationGraph;
 import ro.ulbsibiu.acaps.e3s.ctg.E3sBenchmarkData;
+import ro.ulbsibiu.acaps.e3s.ctg.E3sCoreCatalog;
 import ro.ulbsibiu.acaps.e3s.ctg.E3sCore;
-import ro.ulbsibiu.acaps.e3s.ctg.E3sCore.E3sCoreParams;
-import ro.ulbsibiu.acaps.e3s.ctg.E3sDeadline.DeadlineType;
-import ro.ulbsibiu.acaps.e3s.ctg.E3sTaskCore;
-import ro.ulbsibiu.acaps.e3s.ctg.E3sTaskCore.E3sTaskCoreParams;
-import de.susebox.jtopas.Flags;
-import de.susebox.jtopas.ReaderSource;
-import de.susebox.jtopas.StandardTokenizer;
-import de.susebox.jtopas.StandardTokenizerProperties;
-import de.susebox.jtopas.Token;
-import de.susebox.jtopas.Tokenizer;
-import de.susebox.jtopas.TokenizerException;
-import de.susebox.jtopas.TokenizerProperties;
+import ro.ulbsibiu.acaps.e3s.ctg.E3sTaskCoreTable;
 
 /**
  * File parser for the <a href="http://ziyang.eecs.umich.edu/~dickrp/e3s/">E3S
  * benchmarks</a>. Those benchmarks are written in the <a
  * href="http://ziyang.eecs.umich.edu/~dickrp/tgff/">TGFF</a> file format.
  * However, this file parser is specific to E3S.
+ * <p>
+ * Besides files, E3S benchmarks can be parsed from memory (from an
+ * {@link InputStream}, a {@link Reader}, a {@link CharSequence} or a
+ * {@link ByteBuffer}) and from the class path, with the static
+ * <tt>parseTgff</tt> methods. They don't need a file system.
+ * </p>
  * 
  * @author Ciprian Radu
  * 
@@ -44,115 +54,11 @@ public class E3sTgffFileParser {
 	private static final Logger logger = Logger
 			.getLogger(E3sTgffFileParser.class);
 
-	// REGEX specific patterns
-	
-	private static final String REGEX_ANY_CHARACTER = "[A-Za-z0-9_\\-]";
-	
-	private static final String REGEX_ANY_CHARACTER_MULTIPLE_TIMES = REGEX_ANY_CHARACTER + "*";
-	
-	private static final String REGEX_ANY_INTEGER_NUMBER = "-?[0-9]*";
-	
-//	private static final String REGEX_ANY_DOUBLE_NUMBER = "[-+]?\\b\\d+(\\.\\d+)?\\b";
-	
-	private static final String REGEX_ANY_POSITIVE_DOUBLE_NUMBER = "[+]?\\b\\d+(\\.\\d+)?\\b";
-	
-	private static final String REGEX_AS_MANY_SPACES = "[ ]*";
-	
-	// TGFF specifc patterns
-	
-	private static final String TGFF_LINE_COMMENT = "#";
-	
-//	private static final String TGFF_BLOCK_START = "{";
-	
-	private static final String TGFF_BLOCK_END = "}";
-	
-	private static final String AT_TASK_GRAPH = "@TASK_GRAPH";
-	
-	/** regex: @TASK_GRAPH followed by an integer number */
-	private static final String TGFF_TASK_GRAPH = "@TASK_GRAPH " + REGEX_ANY_INTEGER_NUMBER;
-	
-	private static final String TASK = "TASK";
-	
-	private static final String TYPE = "TYPE";
-	
-	/** regex: TASK followed by its name and its TYPE (an integer number)*/
-	private static final String TGFF_TASK = TASK + " "
-			+ REGEX_ANY_CHARACTER_MULTIPLE_TIMES + REGEX_AS_MANY_SPACES + TYPE + " "
-			+ REGEX_ANY_INTEGER_NUMBER;
-	
-	private static final String ARC = "ARC";
-	
-	private static final String FROM = "FROM";
-	
-	private static final String TO = "TO";
-	
-	/** regex: ARC followed by its name, then FROM task name TO task name*/
-	private static final String TGFF_ARC = ARC + " "
-			+ REGEX_ANY_CHARACTER_MULTIPLE_TIMES + REGEX_AS_MANY_SPACES + FROM + " "
-			+ REGEX_ANY_CHARACTER_MULTIPLE_TIMES + REGEX_AS_MANY_SPACES + TO + " "
-			+ REGEX_ANY_CHARACTER_MULTIPLE_TIMES + REGEX_AS_MANY_SPACES + TYPE + " "
-			+ REGEX_ANY_INTEGER_NUMBER;
-	
-	private static final String PERIOD = "PERIOD";
-	
-	/** regex: PERIOD followed by its value (a positive floating point number)*/
-	private static final String TGFF_PERIOD = PERIOD + " " + REGEX_ANY_POSITIVE_DOUBLE_NUMBER;
-	
-	private static final String ON = "ON";
-	
-	private static final String AT = "AT";
-	
-	private static final String HARD_DEADLINE = "HARD_DEADLINE";
-	
-	/** regex: HARD_DEADLINE followed its name ON task name AT time */
-	private static final String TGFF_HARD_DEADLINE = HARD_DEADLINE + " "
-			+ REGEX_ANY_CHARACTER_MULTIPLE_TIMES + REGEX_AS_MANY_SPACES + ON + " "
-			+ REGEX_ANY_CHARACTER_MULTIPLE_TIMES + REGEX_AS_MANY_SPACES + AT + " "
-			+ REGEX_ANY_POSITIVE_DOUBLE_NUMBER;
-	
-	private static final String SOFT_DEADLINE = "SOFT_DEADLINE";
-	
-	/** regex: SOFT_DEADLINE followed its name ON task name AT time */
-	private static final String TGFF_SOFT_DEADLINE = SOFT_DEADLINE + " "
-	+ REGEX_ANY_CHARACTER_MULTIPLE_TIMES + REGEX_AS_MANY_SPACES + ON + " "
-	+ REGEX_ANY_CHARACTER_MULTIPLE_TIMES + REGEX_AS_MANY_SPACES + AT + " "
-	+ REGEX_ANY_POSITIVE_DOUBLE_NUMBER;
-	
-	// E3S specific patterns
-	
-	// constants for communication quantities
-	
-	private static final String AT_COMMUN_QUANT = "@COMMUN_QUANT";
-	
-	private static final String E3S_COMMUN_QUANTITY = AT_COMMUN_QUANT + " "
-			+ REGEX_ANY_INTEGER_NUMBER + " \\{";
-	
-	// constants for core parameters
-	
-	private static final String AT_CORE = "@CORE";
-	
-	private static final String E3S_CORE = AT_CORE + " "
-			+ REGEX_ANY_INTEGER_NUMBER + " \\{";
-	
-	// we use the last comment for obtaining the name of each core
-	private String lastComment;
-	
-	private int e3sCoreParamIndex = 0;
-	
-	private int e3sCoreTaskParamIndex = 0;
-	
-	private E3sCore e3sCore;
-	
-	private E3sTaskCore e3sTaskCore;
-	
-	// constants for wire bandwidth
-	
-	private static final String AT_WIRE_BIT_WIDTH = "@WIRE_BIT_WIDTH";
-	
-	private static final String E3S_WIRE_BIT_WIDTH = "@WIRE_BIT_WIDTH" + " "
-			+ REGEX_ANY_INTEGER_NUMBER;
-	
-	// ---
+	/**
+	 * the minimum size of a chunk, when the file is parsed in parallel
+	 * (smaller chunks are not worth the scheduling overhead)
+	 */
+	private static final int MIN_CHUNK_SIZE = 64 * 1024;
 	
 	/** the file path */
 	private String filePath;
@@ -160,6 +66,18 @@ public class E3sTgffFileParser {
 	/** the E3S Communication Task Graphs */
 	private List<E3sBenchmarkData> e3sCtgs;
 	
+	/**
+	 * the application graph of the CTGs (<tt>null</tt> until it is
+	 * requested)
+	 */
+	private E3sApplicationGraph applicationGraph;
+	
+	/**
+	 * the catalog which gives the shared cores (<tt>null</tt> if the
+	 * benchmark has its own cores)
+	 */
+	private E3sCoreCatalog coreCatalog;
+	
 	/**
 	 * Default constructor
 	 */
@@ -175,292 +93,489 @@ public class E3sTgffFileParser {
 	public List<E3sBenchmarkData> getE3sCtgs() {
 		return e3sCtgs;
 	}
+	
+	/**
+	 * Makes the next parses share the cores of the benchmark with the other
+	 * benchmarks parsed with the same catalog, so that the cores which are
+	 * described by multiple files are kept only once. The shared cores are
+	 * sealed (see {@link ro.ulbsibiu.acaps.e3s.ctg.E3sCore#seal()}). The
+	 * cores are not shared when their task tables are kept off the heap or
+	 * are parsed lazily.
+	 * 
+	 * @param coreCatalog
+	 *            the catalog (<tt>null</tt> means that the benchmark has its
+	 *            own cores)
+	 * 
+	 * @see E3sBenchmarkDataBuilder#setCoreCatalog(E3sCoreCatalog)
+	 */
+	public void setCoreCatalog(E3sCoreCatalog coreCatalog) {
+		this.coreCatalog = coreCatalog;
+	}
+	
+	/**
+	 * Gives all the CTGs of the benchmark merged into a single application
+	 * graph (see {@link E3sApplicationGraph}). The graph is built the first
+	 * time it is requested and it is kept until the file is parsed again.
+	 * The CTGs should not be modified while the graph is used.
+	 * 
+	 * @return the application graph
+	 */
+	public E3sApplicationGraph getApplicationGraph() {
+		if (applicationGraph == null) {
+			applicationGraph = new E3sApplicationGraph(e3sCtgs);
+		}
+		return applicationGraph;
+	}
 
 	/**
-	 * Searches for the value of a specified attribute, in a String line. It is
-	 * required that the value of the attribute is right after its name (only a
-	 * space separates the two).
+	 * Maps a file in memory.
 	 * 
-	 * @param attributeName
-	 *            the name of the attribute
-	 * @param line
-	 *            the String line
-	 * @return the value of the attribute or <tt>null</tt> if no value was found
+	 * @param filePath
+	 *            the path to the file
+	 * @return the mapped file or <tt>null</tt>, if the file is too large to be
+	 *         mapped
+	 * @throws IOException
 	 */
-	private static String getAttributeValue(String attributeName, String line) {
-		String value = null;
+	static MappedByteBuffer mapFile(String filePath) throws IOException {
+		MappedByteBuffer buffer = null;
 		
-		final String SPACE = " ";
-		if (line != null && !line.isEmpty() 
-				&& attributeName != null && !attributeName.isEmpty()) {
-			int index = line.indexOf(attributeName + SPACE);
-			if (index >= 0) {
-				value = line.substring(index + (attributeName + SPACE).length());
-				int spaceIndex = value.indexOf(SPACE);
-				if (spaceIndex > 0) {
-					value = value.substring(0, spaceIndex);
-				}
+		RandomAccessFile file = new RandomAccessFile(filePath, "r");
+		try {
+			FileChannel channel = file.getChannel();
+			long size = channel.size();
+			if (size > Integer.MAX_VALUE) {
+				logger.warn("The file " + filePath + " is too large to be memory mapped. It will be read as a stream.");
+			} else {
+				buffer = channel.map(MapMode.READ_ONLY, 0, size);
 			}
+		} finally {
+			file.close();
 		}
 		
-		return value;
+		return buffer;
+	}
+	
+	/**
+	 * Parses the E3S .tgff file, in a single pass (see {@link E3sTgffReader}).
+	 * 
+	 * @throws IOException
+	 *             if the file cannot be read or it is not a valid E3S file
+	 */
+	public void parseTgffFile () throws IOException {
+		parseTgffFile(false);
+	}
+	
+	/**
+	 * Parses the E3S .tgff file (see {@link #parseTgffFile()}).
+	 * 
+	 * @param memoryMapped
+	 *            whether the file is memory mapped or read as a stream. A
+	 *            memory mapped file is tokenized directly from the mapped
+	 *            bytes, without copying them. Files larger than 2 GB cannot be
+	 *            mapped and they are always read as a stream.
+	 * @throws IOException
+	 *             if the file cannot be read or it is not a valid E3S file
+	 */
+	public void parseTgffFile (boolean memoryMapped) throws IOException {
+		E3sBenchmarkDataBuilder builder = new E3sBenchmarkDataBuilder();
+		builder.setCoreCatalog(coreCatalog);
+		parseTgffFile(builder, memoryMapped);
+		e3sCtgs = builder.getE3sCtgs();
+		applicationGraph = null;
 	}
 	
-	public void parseTgffFile () throws FileNotFoundException, TokenizerException {
+	/**
+	 * Parses the E3S .tgff file, without parsing the task tables of the
+	 * cores. The file is memory mapped and only the location of each task
+	 * table is remembered. The task table of a core is parsed the first time
+	 * its tasks are requested (see {@link E3sCore#getE3sTaskCores()}), so the
+	 * tasks of the cores which are not used are never created. Since the task
+	 * tables are read later, the file must not be modified while the
+	 * {@link E3sBenchmarkData} are used. The errors from a task table are
+	 * reported (as {@link IllegalStateException}s) only when the table is
+	 * parsed. A file which is too large to be memory mapped is entirely
+	 * parsed.
+	 * 
+	 * @throws IOException
+	 *             if the file cannot be read or it is not a valid E3S file
+	 */
+	public void parseTgffFileLazily() throws IOException {
+		MappedByteBuffer buffer = mapFile(filePath);
+		if (buffer == null) {
+			parseTgffFile(false);
+		} else {
+			E3sBenchmarkDataBuilder builder = new E3sBenchmarkDataBuilder();
+			E3sTgffReader reader = new E3sTgffReader(filePath, new E3sTgffLexer(buffer), builder);
+			reader.setLazyCores(buffer);
+			reader.read();
+			e3sCtgs = builder.getE3sCtgs();
+			applicationGraph = null;
+		}
+	}
+	
+	/**
+	 * Parses the E3S .tgff file (see {@link #parseTgffFile()}) and keeps the
+	 * task tables of the cores off the heap, in an {@link E3sTaskCoreTable}.
+	 * The tasks are still given by the getters of the cores, but they are
+	 * created only when they are requested. This is meant for the platforms
+	 * with many cores and task types, whose task tables would otherwise put
+	 * millions of small objects on the heap.
+	 * 
+	 * @throws IOException
+	 *             if the file cannot be read or it is not a valid E3S file
+	 */
+	public void parseTgffFileOffHeap() throws IOException {
+		E3sBenchmarkDataBuilder builder = new E3sBenchmarkDataBuilder();
+		builder.setTaskCoresOffHeap(true);
+		parseTgffFile(builder, true);
+		e3sCtgs = builder.getE3sCtgs();
+		applicationGraph = null;
+	}
+	
+	/**
+	 * Parses the E3S .tgff file while its CTGs are iterated. Each CTG is
+	 * given as soon as it was parsed and it is not kept by the parser (so
+	 * {@link #getE3sCtgs()} remains empty). This allows processing files
+	 * which are too large for keeping all their CTGs in memory.
+	 * 
+	 * @return the iterator over the CTGs (it should be closed if it is not
+	 *         iterated until its end)
+	 * @throws IOException
+	 *             if the file cannot be read or its platform is not valid
+	 * 
+	 * @see E3sTgffCtgIterator
+	 */
+	public E3sTgffCtgIterator iterateTgffFile() throws IOException {
+		return new E3sTgffCtgIterator(filePath);
+	}
+	
+	/**
+	 * Parses the E3S .tgff file and pushes its data to the specified handler,
+	 * without building any {@link E3sBenchmarkData}. This is useful when only
+	 * some statistics are needed from a benchmark, because the memory
+	 * requirements are constant.
+	 * 
+	 * @param handler
+	 *            the handler which receives the parsed data
+	 * @throws IOException
+	 *             if the file cannot be read or it is not a valid E3S file
+	 */
+	public void parseTgffFile (E3sTgffHandler handler) throws IOException {
+		parseTgffFile(handler, false);
+	}
+	
+	/**
+	 * Parses the E3S .tgff file and pushes its data to the specified handler
+	 * (see {@link #parseTgffFile(E3sTgffHandler)}).
+	 * 
+	 * @param handler
+	 *            the handler which receives the parsed data
+	 * @param memoryMapped
+	 *            whether the file is memory mapped or read as a stream (see
+	 *            {@link #parseTgffFile(boolean)})
+	 * @throws IOException
+	 *             if the file cannot be read or it is not a valid E3S file
+	 */
+	public void parseTgffFile (E3sTgffHandler handler, boolean memoryMapped)
+			throws IOException {
 		if (logger.isInfoEnabled()) {
 			logger.debug("Parsing the E3S .tgff file");
 		}
 
-		FileInputStream stream = new FileInputStream(filePath);
-		InputStreamReader reader = new InputStreamReader(stream);
-		TokenizerProperties props = new StandardTokenizerProperties();
-		Tokenizer tokenizer = new StandardTokenizer();
-		Token token;
-		
-		// setup the tokenizer
-		props.setParseFlags(Flags.F_NO_CASE | Flags.F_TOKEN_POS_ONLY
-				| Flags.F_RETURN_WHITESPACES);
-//		int caseFlags = props.getParseFlags() & ~Flags.F_NO_CASE;
-		props.setSeparators(null);
-		
-		props.addLineComment(TGFF_LINE_COMMENT);
-		props.addSpecialSequence(TGFF_BLOCK_END);
-		
-		props.addPattern(E3S_COMMUN_QUANTITY);
-		
-		props.addPattern(E3S_CORE);
-		
-		props.addPattern(TGFF_TASK_GRAPH);
-		props.addPattern(TGFF_TASK);
-		props.addPattern(TGFF_ARC);
-		props.addPattern(TGFF_PERIOD);
-		props.addPattern(TGFF_HARD_DEADLINE);
-		props.addPattern(TGFF_SOFT_DEADLINE);
-		
-		props.addPattern(E3S_WIRE_BIT_WIDTH);
-
-		tokenizer.setTokenizerProperties(props);
-		tokenizer.setSource(new ReaderSource(reader));
-
-		String currentAttribute = null;
-		String communType = null;
-		String communValue = null;
-		int taskGraphCounter = -1;
-		E3sBenchmarkData e3sCtg = new E3sBenchmarkData(filePath, taskGraphCounter + 1);
-		e3sCtgs.add(e3sCtg);
-		
-		// tokenize the file and print basically
-		// formatted context to stdout
-		while (tokenizer.hasMoreToken()) {
-			token = tokenizer.nextToken();
-			switch (token.getType()) {
-			case Token.NORMAL:
-//				System.out.println(tokenizer.currentImage());
-				if (currentAttribute == AT_COMMUN_QUANT) {
-					if (communType == null) {
-						communType = tokenizer.currentImage();
-					} else {
-						if (communValue == null) {
-							communValue = tokenizer.currentImage();
-						} else {
-//							System.out.println(communType + " " + communValue);
-							e3sCtg.addCommunicationVolume(communType, new Double(communValue));
-							communType = tokenizer.currentImage();
-							communValue = null;
-						}
-					}
-				} else {
-					if (currentAttribute == AT_CORE) {
-						if (e3sCoreParamIndex < E3sCoreParams.values().length) {
-//							System.out.println(E3sCoreParams.values()[e3sCoreParamIndex] + " " + tokenizer.currentImage());
-							e3sCore.setCoreParameter(E3sCoreParams.values()[e3sCoreParamIndex], new Double(tokenizer.currentImage()));
-							e3sCoreParamIndex++;
-						} else {
-							if (e3sCoreTaskParamIndex >= E3sTaskCoreParams.values().length) {
-								e3sCoreTaskParamIndex = 0;
-								e3sTaskCore = new E3sTaskCore();
-								e3sCore.addE3sTaskCore(e3sTaskCore);
-							}
-//							System.out.println(E3sTaskCoreParams.values()[e3sCoreTaskParamIndex] + " " + tokenizer.currentImage());
-							e3sTaskCore.setTaskCoreParameter(E3sTaskCoreParams.values()[e3sCoreTaskParamIndex], new Double(tokenizer.currentImage()));
-							e3sCoreTaskParamIndex++;
-						}
-					} else {
-						if (currentAttribute == AT_WIRE_BIT_WIDTH) {
-							e3sCoreParamIndex = E3sCoreParams.values().length;
-							e3sCoreTaskParamIndex = E3sTaskCoreParams.values().length;
-						}
-					}
-				}
-				break;
-			case Token.LINE_COMMENT:
-//				System.out.println(tokenizer.currentImage());
-				lastComment = tokenizer.currentImage();
-				break;
-			case Token.SPECIAL_SEQUENCE:
-//				System.out.println(tokenizer.currentImage());
-				break;
-			case Token.PATTERN:
-//				System.out.println(tokenizer.currentImage());
-				if (tokenizer.currentImage().startsWith(AT_TASK_GRAPH)) {
-					taskGraphCounter++;
-					if (taskGraphCounter > 0) {
-						e3sCtg = new E3sBenchmarkData(filePath, taskGraphCounter);
-						e3sCtgs.add(e3sCtg);
-					}
-				}
-				if (tokenizer.currentImage().startsWith(AT_COMMUN_QUANT)) {
-					currentAttribute = AT_COMMUN_QUANT;
-				} else {
-					if (tokenizer.currentImage().startsWith(AT_CORE)) {
-						currentAttribute = AT_CORE;
-						String coreName = lastComment.trim().substring(2);
-						e3sCore = new E3sCore(coreName,
-								tokenizer.currentImage().substring(AT_CORE.length() + 1, tokenizer.currentImage().length() - 2));
-						e3sTaskCore = new E3sTaskCore();
-						e3sCore.addE3sTaskCore(e3sTaskCore);
-						// all the E3S CTGs were already added to the list e3sCtgs
-						for (int i = 0; i < e3sCtgs.size(); i++) {
-							e3sCtgs.get(i).addCore(e3sCore);
-						}
-						e3sCoreParamIndex = 0;
-						e3sCoreTaskParamIndex = 0;
-					} else {
-						if (tokenizer.currentImage().startsWith(AT_WIRE_BIT_WIDTH)) {
-							currentAttribute = AT_WIRE_BIT_WIDTH;
-						} else {
-							if (tokenizer.currentImage().startsWith(TASK)) {
-								currentAttribute = TASK;
-								String taskValue = getAttributeValue(TASK, tokenizer.currentImage());
-								if ("display".equals(taskValue)){
-									System.out.println();
-								}
-								if (taskValue == null || taskValue.isEmpty()) {
-									taskValue = getAttributeValue(TASK.toLowerCase(),tokenizer.currentImage());
-								}
-								assert taskValue != null && !taskValue.isEmpty();
-								String typeValue = getAttributeValue(TYPE, tokenizer.currentImage());
-								if (typeValue == null || typeValue.isEmpty()) {
-									typeValue = getAttributeValue(TYPE.toLowerCase(),tokenizer.currentImage());
-								}
-								assert typeValue != null && !typeValue.isEmpty();
-//								System.out.println(taskValue + " " + typeValue);
-								e3sCtg.addTask(taskValue, typeValue);
-							} else {
-								if (tokenizer.currentImage().startsWith(ARC)) {
-									currentAttribute = ARC;
-									String arcValue = getAttributeValue(ARC,tokenizer.currentImage());
-									if (arcValue == null || arcValue.isEmpty()) {
-										arcValue = getAttributeValue(ARC.toLowerCase(),tokenizer.currentImage());
-									}
-									assert arcValue != null && !arcValue.isEmpty();
-									String fromValue = getAttributeValue(FROM,tokenizer.currentImage());
-									if (fromValue == null || fromValue.isEmpty()) {
-										fromValue = getAttributeValue(FROM.toLowerCase(),tokenizer.currentImage());
-									}
-									assert fromValue != null && !fromValue.isEmpty();
-									String toValue = getAttributeValue(TO,tokenizer.currentImage());
-									if (toValue == null || toValue.isEmpty()) {
-										toValue = getAttributeValue(TO.toLowerCase(),tokenizer.currentImage());
-									}
-									assert toValue != null && !toValue.isEmpty();
-									String typeValue = getAttributeValue(TYPE,tokenizer.currentImage());
-									if (typeValue == null || typeValue.isEmpty()) {
-										typeValue = getAttributeValue(TYPE.toLowerCase(),tokenizer.currentImage());
-									}
-									assert typeValue != null && !typeValue.isEmpty();
-//									System.out.println(arcValue + " " + fromValue +  " " + toValue + " " + typeValue);
-									e3sCtg.addEdge(arcValue, fromValue, toValue, typeValue);
-								} else {
-									if (tokenizer.currentImage().startsWith(PERIOD)) {
-										currentAttribute = PERIOD;
-										String periodValue = getAttributeValue(PERIOD, tokenizer.currentImage());
-										assert periodValue != null && !periodValue.isEmpty();
-//										System.out.println(PERIOD + " " + periodValue);
-										e3sCtg.setPeriod(new Double(periodValue));
-									} else {
-										if (tokenizer.currentImage().startsWith(HARD_DEADLINE)) {
-											currentAttribute = HARD_DEADLINE;
-											String hdValue = getAttributeValue(HARD_DEADLINE,tokenizer.currentImage());
-											if (hdValue == null || hdValue.isEmpty()) {
-												hdValue = getAttributeValue(HARD_DEADLINE.toLowerCase(),tokenizer.currentImage());
-											}
-											assert hdValue != null && !hdValue.isEmpty();
-											String onValue = getAttributeValue(ON,tokenizer.currentImage());
-											if (onValue == null || onValue.isEmpty()) {
-												onValue = getAttributeValue(ON.toLowerCase(),tokenizer.currentImage());
-											}
-											assert onValue != null && !onValue.isEmpty();
-											String atValue = getAttributeValue(AT,tokenizer.currentImage());
-											if (atValue == null || atValue.isEmpty()) {
-												atValue = getAttributeValue(AT.toLowerCase(),tokenizer.currentImage());
-											}
-											assert atValue != null && !atValue.isEmpty();
-//											System.out.println(HARD_DEADLINE + " " + hdValue + " " + ON + " " + onValue +  " " + AT + " " + atValue);
-											e3sCtg.addDeadline(DeadlineType.HARD, hdValue, onValue, new Double(atValue));
-										} else {
-											if (tokenizer.currentImage().startsWith(SOFT_DEADLINE)) {
-												currentAttribute = SOFT_DEADLINE;
-												String softValue = getAttributeValue(SOFT_DEADLINE,tokenizer.currentImage());
-												if (softValue == null || softValue.isEmpty()) {
-													softValue = getAttributeValue(SOFT_DEADLINE.toLowerCase(),tokenizer.currentImage());
-												}
-												assert softValue != null && !softValue.isEmpty();
-												String onValue = getAttributeValue(ON,tokenizer.currentImage());
-												if (onValue == null || onValue.isEmpty()) {
-													onValue = getAttributeValue(ON.toLowerCase(),tokenizer.currentImage());
-												}
-												assert onValue != null && !onValue.isEmpty();
-												String atValue = getAttributeValue(AT,tokenizer.currentImage());
-												if (atValue == null || atValue.isEmpty()) {
-													atValue = getAttributeValue(AT.toLowerCase(),tokenizer.currentImage());
-												}
-												assert atValue != null && !atValue.isEmpty();
-//												System.out.println(SOFT_DEADLINE + " " + softValue + " " + ON + " " + onValue +  " " + AT + " " + atValue);
-												e3sCtg.addDeadline(DeadlineType.SOFT, softValue, onValue, new Double(atValue));
-											} else {
-												currentAttribute = null;
-											}
-										}
-									}
-								}
-							}
-						}
-					}
-				}
-				break;
+		if (memoryMapped) {
+			MappedByteBuffer buffer = mapFile(filePath);
+			if (buffer == null) {
+				memoryMapped = false;
+			} else {
+				new E3sTgffReader(filePath, new E3sTgffLexer(buffer), handler).read();
+			}
+		}
+		if (!memoryMapped) {
+			FileInputStream stream = new FileInputStream(filePath);
+			try {
+				new E3sTgffReader(filePath, new E3sTgffLexer(stream), handler).read();
+			} finally {
+				stream.close();
 			}
 		}
-		// process the data which is still "buffered"
-		assert communType != null && communValue != null;
-//		System.out.println(communType + " " + communValue);
-		e3sCtgs.get(0).addCommunicationVolume(communType, new Double(communValue));
+	}
+	
+	/**
+	 * Parses the E3S .tgff file using multiple threads. The file is memory
+	 * mapped and quickly split into chunks of whole top level blocks (see
+	 * {@link E3sTgffChunk}). The chunks are parsed in parallel and their data
+	 * is merged in the order from the file, so the resulted
+	 * {@link E3sBenchmarkData} are the same as the ones built by
+	 * {@link #parseTgffFile()}.
+	 * 
+	 * @param threads
+	 *            the number of threads (must be positive)
+	 * @throws IOException
+	 *             if the file cannot be read or it is not a valid E3S file
+	 */
+	public void parseTgffFileInParallel(int threads) throws IOException {
+		logger.assertLog(threads > 0, "At least one thread is required");
 		
-		buildE3sCtgs();
+		MappedByteBuffer buffer = mapFile(filePath);
+		if (buffer == null) {
+			parseTgffFile(false);
+		} else {
+			e3sCtgs = parseTgffInParallel(filePath, buffer, threads, coreCatalog);
+			applicationGraph = null;
+		}
+	}
+	
+	/**
+	 * Parses an E3S benchmark from an input stream.
+	 * 
+	 * @param name
+	 *            the name of the benchmark (cannot be empty; it is used in the
+	 *            error messages too)
+	 * @param stream
+	 *            the stream with the content of a .tgff file (it is read until
+	 *            its end, but it is not closed)
+	 * @return the E3S Communication Task Graphs
+	 * @throws IOException
+	 *             if the stream cannot be read or it is not a valid E3S file
+	 */
+	public static List<E3sBenchmarkData> parseTgff(String name,
+			InputStream stream) throws IOException {
+		E3sBenchmarkDataBuilder builder = new E3sBenchmarkDataBuilder();
+		parseTgff(name, stream, builder);
+		return builder.getE3sCtgs();
+	}
+	
+	/**
+	 * Parses an E3S benchmark from an input stream and pushes its data to the
+	 * specified handler (see {@link #parseTgffFile(E3sTgffHandler)}).
+	 * 
+	 * @param name
+	 *            the name of the benchmark
+	 * @param stream
+	 *            the stream with the content of a .tgff file (it is read until
+	 *            its end, but it is not closed)
+	 * @param handler
+	 *            the handler which receives the parsed data
+	 * @throws IOException
+	 *             if the stream cannot be read or it is not a valid E3S file
+	 */
+	public static void parseTgff(String name, InputStream stream,
+			E3sTgffHandler handler) throws IOException {
+		new E3sTgffReader(name, new E3sTgffLexer(stream), handler).read();
+	}
+	
+	/**
+	 * Parses an E3S benchmark from a reader. The characters are given to the
+	 * parser as they are read, without being encoded.
+	 * 
+	 * @param name
+	 *            the name of the benchmark (cannot be empty)
+	 * @param reader
+	 *            the reader with the content of a .tgff file (it is read until
+	 *            its end, but it is not closed)
+	 * @return the E3S Communication Task Graphs
+	 * @throws IOException
+	 *             if the reader cannot be read or it is not a valid E3S file
+	 */
+	public static List<E3sBenchmarkData> parseTgff(String name, Reader reader)
+			throws IOException {
+		return parseTgff(name, new E3sTgffCharStream(reader));
 	}
 	
-	private void buildE3sCtgs() {
+	/**
+	 * Parses an E3S benchmark from a text (e.g.: a String or a
+	 * StringBuilder). The text is not copied.
+	 * 
+	 * @param name
+	 *            the name of the benchmark (cannot be empty)
+	 * @param tgff
+	 *            the content of a .tgff file
+	 * @return the E3S Communication Task Graphs
+	 * @throws IOException
+	 *             if the text is not a valid E3S file
+	 */
+	public static List<E3sBenchmarkData> parseTgff(String name,
+			CharSequence tgff) throws IOException {
+		return parseTgff(name, new E3sTgffCharStream(tgff));
+	}
+	
+	/**
+	 * Parses an E3S benchmark from a buffer. The bytes are tokenized directly
+	 * from the buffer, without copying them (as for a memory mapped file).
+	 * 
+	 * @param name
+	 *            the name of the benchmark (cannot be empty)
+	 * @param buffer
+	 *            the content of a .tgff file, between the position and the
+	 *            limit of the buffer (they are not modified)
+	 * @return the E3S Communication Task Graphs
+	 * @throws IOException
+	 *             if the buffer is not a valid E3S file
+	 */
+	public static List<E3sBenchmarkData> parseTgff(String name,
+			ByteBuffer buffer) throws IOException {
+		E3sBenchmarkDataBuilder builder = new E3sBenchmarkDataBuilder();
+		parseTgff(name, buffer, builder);
+		return builder.getE3sCtgs();
+	}
+	
+	/**
+	 * Parses an E3S benchmark from a buffer and pushes its data to the
+	 * specified handler (see {@link #parseTgff(String, ByteBuffer)}).
+	 * 
+	 * @param name
+	 *            the name of the benchmark
+	 * @param buffer
+	 *            the content of a .tgff file, between the position and the
+	 *            limit of the buffer (they are not modified)
+	 * @param handler
+	 *            the handler which receives the parsed data
+	 * @throws IOException
+	 *             if the buffer is not a valid E3S file
+	 */
+	public static void parseTgff(String name, ByteBuffer buffer,
+			E3sTgffHandler handler) throws IOException {
+		new E3sTgffReader(name, new E3sTgffLexer(buffer), handler).read();
+	}
+	
+	/**
+	 * Parses an E3S benchmark from the class path (e.g.: from a JAR).
+	 * 
+	 * @param resource
+	 *            the name of the resource with the .tgff file (see
+	 *            {@link ClassLoader#getResource(String)}). It is used as the
+	 *            name of the benchmark too.
+	 * @return the E3S Communication Task Graphs
+	 * @throws IOException
+	 *             if the resource cannot be found or read, or it is not a
+	 *             valid E3S file
+	 */
+	public static List<E3sBenchmarkData> parseTgffResource(String resource)
+			throws IOException {
+		InputStream stream = E3sTgffFileParser.class.getClassLoader()
+				.getResourceAsStream(resource);
+		if (stream == null) {
+			throw new FileNotFoundException("No resource named " + resource
+					+ " was found in the class path");
+		}
+		try {
+			return parseTgff(resource, stream);
+		} finally {
+			stream.close();
+		}
+	}
+	
+	/**
+	 * Parses an E3S benchmark from a buffer, using multiple threads (see
+	 * {@link #parseTgffFileInParallel(int)}).
+	 * 
+	 * @param name
+	 *            the name of the benchmark (cannot be empty)
+	 * @param buffer
+	 *            the content of a .tgff file, between the position and the
+	 *            limit of the buffer (they are not modified)
+	 * @param threads
+	 *            the number of threads (must be positive)
+	 * @return the E3S Communication Task Graphs
+	 * @throws IOException
+	 *             if the buffer is not a valid E3S file
+	 */
+	public static List<E3sBenchmarkData> parseTgffInParallel(final String name,
+			ByteBuffer buffer, int threads) throws IOException {
+		return parseTgffInParallel(name, buffer, threads, null);
+	}
+	
+	private static List<E3sBenchmarkData> parseTgffInParallel(final String name,
+			ByteBuffer buffer, int threads, E3sCoreCatalog coreCatalog)
+			throws IOException {
+		logger.assertLog(threads > 0, "At least one thread is required");
+		
 		if (logger.isInfoEnabled()) {
-			logger.info("Building the E3S CTGs");
+			logger.debug("Parsing the E3S .tgff file using " + threads + " threads");
 		}
+		
+		// the chunks read the buffer with absolute indexes, from its position
+		final ByteBuffer input = buffer.duplicate();
+		// a few chunks for each thread, to balance the load
+		int chunkSize = Math.max(MIN_CHUNK_SIZE, input.remaining() / (threads * 4));
+		List<E3sTgffChunk> chunks = E3sTgffChunk.split(input, chunkSize);
+		
+		ExecutorService executor = Executors.newFixedThreadPool(Math.max(1,
+				Math.min(threads, chunks.size())));
+		E3sBenchmarkDataBuilder builder = new E3sBenchmarkDataBuilder();
+		builder.setCoreCatalog(coreCatalog);
+		builder.onStart(name);
+		try {
+			List<Future<E3sBenchmarkDataBuilder>> futures = new ArrayList<Future<E3sBenchmarkDataBuilder>>(chunks.size());
+			for (final E3sTgffChunk chunk : chunks) {
+				futures.add(executor.submit(new Callable<E3sBenchmarkDataBuilder>() {
 
-		for (int i = 0; i < e3sCtgs.size(); i++) {
-			if (i > 0) {
-				e3sCtgs.get(i).setCommunicationVolumes(e3sCtgs.get(0).getCommunicationVolumes());
+					@Override
+					public E3sBenchmarkDataBuilder call() throws IOException {
+						// each chunk has its own symbols, which are merged in
+						// the order of the file, when the chunk is appended
+						E3sBenchmarkDataBuilder chunkBuilder = new E3sBenchmarkDataBuilder();
+						chunkBuilder.onStart(name);
+						new E3sTgffReader(name, chunk.createLexer(input),
+								chunkBuilder).readBlocks(chunk.getFirstCtgId());
+						return chunkBuilder;
+					}
+				}));
+			}
+			for (Future<E3sBenchmarkDataBuilder> future : futures) {
+				builder.append(future.get());
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while parsing " + name);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
 			}
-			e3sCtgs.get(i).buildCtg();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new IllegalStateException(cause);
+		} finally {
+			executor.shutdownNow();
 		}
+		builder.onEnd();
+		return builder.getE3sCtgs();
 	}
 	
 	// Main method. Supply a TGFF file name as argument
-	public static void main(String[] args) throws FileNotFoundException,
-			TokenizerException, JAXBException {
-		System.err.println("usage:   java E3sCtgViewer.class [.tgff file]");
-		System.err.println("example 1 (specify the tgff file): java E3sCtgViewer.class e3s/telecom-mocsyn.tgff");
-		System.err.println("example 2 (parse the entire E3S benchmark suite): java E3sCtgViewer.class");
+	public static void main(String[] args) throws IOException, JAXBException,
+			InterruptedException {
+		System.err.println("usage:   java E3sTgffFileParser.class [-threads n] [-cache dir] [.tgff file]");
+		System.err.println("example 1 (specify the tgff file): java E3sTgffFileParser.class e3s/telecom-mocsyn.tgff");
+		System.err.println("example 2 (parse the entire E3S benchmark suite): java E3sTgffFileParser.class");
+		System.err.println("example 3 (parse the entire E3S benchmark suite, using 4 threads): java E3sTgffFileParser.class -threads 4");
+		System.err.println("example 4 (reuse the parsed benchmarks from a snapshot cache): java E3sTgffFileParser.class -cache e3s-cache");
 		final String E3S = "e3s";
+		final String THREADS = "-threads";
+		final String CACHE = "-cache";
+		int threads = Runtime.getRuntime().availableProcessors();
+		E3sTgffSnapshotCache snapshotCache = null;
+		List<String> fileArgs = new ArrayList<String>();
+		if (args != null) {
+			for (int i = 0; i < args.length; i++) {
+				if (THREADS.equals(args[i]) && i + 1 < args.length) {
+					threads = Integer.parseInt(args[++i]);
+				} else {
+					if (CACHE.equals(args[i]) && i + 1 < args.length) {
+						snapshotCache = new E3sTgffSnapshotCache(new File(args[++i]));
+					} else {
+						fileArgs.add(args[i]);
+					}
+				}
+			}
+		}
 		File[] tgffFiles = null;
-		if (args == null || args.length == 0) {
+		if (fileArgs.isEmpty()) {
 			File e3sDir = new File(E3S);
 			logger.assertLog(e3sDir.isDirectory(),
 					"Could not find the E3S benchmarks directory!");
@@ -472,25 +587,18 @@ public class E3sTgffFileParser {
 				}
 			});
 		} else {
-			tgffFiles = new File[args.length];
-			for (int i = 0; i < args.length; i++) {
-				tgffFiles[i] = new File(args[i]);
+			tgffFiles = new File[fileArgs.size()];
+			for (int i = 0; i < fileArgs.size(); i++) {
+				tgffFiles[i] = new File(fileArgs.get(i));
 			}
 		}
+		String[] filePaths = new String[tgffFiles.length];
 		for (int i = 0; i < tgffFiles.length; i++) {
-			E3sTgffFileParser e3sFileParser = new E3sTgffFileParser(E3S
-					+ File.separator + tgffFiles[i].getName());
-			e3sFileParser.parseTgffFile();
-
-			List<E3sBenchmarkData> e3sCtgs = e3sFileParser.getE3sCtgs();
-			for (E3sBenchmarkData e3sBenchmarkData : e3sCtgs) {
-				E3sToXmlParser e3sToXmlParser = new E3sToXmlParser(
-						e3sBenchmarkData);
-				e3sToXmlParser.parse();
-			}
-			logger.info("Finished with " + E3S + File.separator
-					+ tgffFiles[i].getName());
+			filePaths[i] = tgffFiles[i].getPath();
 		}
+		E3sTgffBatchConverter batchConverter = new E3sTgffBatchConverter(threads);
+		batchConverter.setSnapshotCache(snapshotCache);
+		batchConverter.convert(filePaths);
 		logger.info("Done.");
 	}
 }
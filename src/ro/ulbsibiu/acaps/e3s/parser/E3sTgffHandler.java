@@ -0,0 +1,160 @@
+package ro.ulbsibiu.acaps.e3s.parser;
+
+import ro.ulbsibiu.acaps.e3s.ctg.E3sDeadline.DeadlineType;
+import ro.ulbsibiu.acaps.e3s.ctg.E3sTaskCoresLoader;
+
+/**
+ * Receives the data of an E3S .tgff file, as it is parsed by
+ * {@link E3sTgffFileParser#parseTgffFile(E3sTgffHandler)}. The callbacks are
+ * made in the order in which the data appears in the file.
+ * <p>
+ * In order to avoid creating objects for each record, the textual values are
+ * given as {@link CharSequence}s which are reused by the parser. They are
+ * valid only during the callback; an implementation which needs to keep them
+ * must copy them (e.g.: by calling {@link CharSequence#toString()}). The same
+ * holds for the arrays with the core parameters and with the task parameters.
+ * </p>
+ * 
+ * @see E3sTgffHandlerAdapter
+ * @see E3sBenchmarkDataBuilder
+ * 
+ * @author Ciprian Radu
+ * 
+ */
+public interface E3sTgffHandler {
+
+	/**
+	 * Called before anything else is parsed from the file.
+	 * 
+	 * @param name
+	 *            the name of the parsed E3S benchmark
+	 */
+	void onStart(String name);
+
+	/**
+	 * Called for the hyperperiod of the benchmark (from
+	 * <tt>@HYPERPERIOD</tt>).
+	 * 
+	 * @param hyperperiod
+	 *            the hyperperiod (in seconds)
+	 */
+	void onHyperperiod(double hyperperiod);
+
+	/**
+	 * Called for each communication quantity (from the <tt>@COMMUN_QUANT</tt>
+	 * block).
+	 * 
+	 * @param type
+	 *            the communication type
+	 * @param volume
+	 *            the communication volume
+	 */
+	void onCommunicationVolume(CharSequence type, double volume);
+
+	/**
+	 * Called when a <tt>@TASK_GRAPH</tt> block starts. All the tasks, arcs
+	 * and deadlines which follow belong to this task graph.
+	 * 
+	 * @param ctgId
+	 *            the ID of the CTG (the task graphs are numbered in the order
+	 *            in which they appear, starting from 0)
+	 */
+	void onTaskGraph(int ctgId);
+
+	/**
+	 * Called for the period of the current task graph.
+	 * 
+	 * @param period
+	 *            the period (in seconds)
+	 */
+	void onPeriod(double period);
+
+	/**
+	 * Called for each task of the current task graph.
+	 * 
+	 * @param name
+	 *            the name of the task
+	 * @param type
+	 *            the type of the task
+	 */
+	void onTask(CharSequence name, CharSequence type);
+
+	/**
+	 * Called for each arc of the current task graph.
+	 * 
+	 * @param name
+	 *            the name of the arc
+	 * @param from
+	 *            the name of the source task
+	 * @param to
+	 *            the name of the destination task
+	 * @param type
+	 *            the communication type of the arc
+	 */
+	void onArc(CharSequence name, CharSequence from, CharSequence to,
+			CharSequence type);
+
+	/**
+	 * Called for each deadline of the current task graph.
+	 * 
+	 * @param type
+	 *            the type of the deadline (hard or soft)
+	 * @param name
+	 *            the name of the deadline
+	 * @param taskName
+	 *            the name of the task to which the deadline is attached
+	 * @param time
+	 *            the deadline (in seconds)
+	 */
+	void onDeadline(DeadlineType type, CharSequence name,
+			CharSequence taskName, double time);
+
+	/**
+	 * Called when the parameters of a core (from a <tt>@CORE</tt> block) were
+	 * parsed. The rows of the core's task table follow.
+	 * 
+	 * @param name
+	 *            the name of the core
+	 * @param id
+	 *            the ID of the core
+	 * @param params
+	 *            the core parameters, indexed by the ordinals of
+	 *            {@link ro.ulbsibiu.acaps.e3s.ctg.E3sCore.E3sCoreParams}
+	 */
+	void onCoreParams(CharSequence name, CharSequence id, double[] params);
+
+	/**
+	 * Called for each row of the task table of the current core.
+	 * 
+	 * @param row
+	 *            the task parameters, indexed by the ordinals of
+	 *            {@link ro.ulbsibiu.acaps.e3s.ctg.E3sTaskCore.E3sTaskCoreParams}
+	 */
+	void onTaskCoreRow(double[] row);
+
+	/**
+	 * Called instead of {@link #onTaskCoreRow(double[])} when the task tables
+	 * of the cores are loaded lazily (see
+	 * {@link E3sTgffFileParser#parseTgffFileLazily()}). The loader reads the
+	 * task table of the current core when it is invoked. Unlike the other
+	 * arguments, the loader can be kept after the callback.
+	 * 
+	 * @param loader
+	 *            the loader of the task table of the current core
+	 */
+	void onTaskCoreRows(E3sTaskCoresLoader loader);
+
+	/**
+	 * Called for the wire bit width (from <tt>@WIRE_BIT_WIDTH</tt>).
+	 * 
+	 * @param wireBitWidth
+	 *            the number of bits of the wires which connect the cores
+	 */
+	void onWireBitWidth(int wireBitWidth);
+
+	/**
+	 * Called after the entire file was parsed.
+	 */
+	void onEnd();
+
+}
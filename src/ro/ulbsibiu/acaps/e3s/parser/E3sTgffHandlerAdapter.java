@@ -0,0 +1,70 @@
+package ro.ulbsibiu.acaps.e3s.parser;
+
+import ro.ulbsibiu.acaps.e3s.ctg.E3sDeadline.DeadlineType;
+import ro.ulbsibiu.acaps.e3s.ctg.E3sTaskCoresLoader;
+
+/**
+ * An {@link E3sTgffHandler} which ignores all the parsed data. Extend it
+ * and override only the callbacks of interest.
+ * 
+ * @author Ciprian Radu
+ * 
+ */
+public abstract class E3sTgffHandlerAdapter implements E3sTgffHandler {
+
+	@Override
+	public void onStart(String name) {
+	}
+
+	@Override
+	public void onHyperperiod(double hyperperiod) {
+	}
+
+	@Override
+	public void onCommunicationVolume(CharSequence type, double volume) {
+	}
+
+	@Override
+	public void onTaskGraph(int ctgId) {
+	}
+
+	@Override
+	public void onPeriod(double period) {
+	}
+
+	@Override
+	public void onTask(CharSequence name, CharSequence type) {
+	}
+
+	@Override
+	public void onArc(CharSequence name, CharSequence from, CharSequence to,
+			CharSequence type) {
+	}
+
+	@Override
+	public void onDeadline(DeadlineType type, CharSequence name,
+			CharSequence taskName, double time) {
+	}
+
+	@Override
+	public void onCoreParams(CharSequence name, CharSequence id,
+			double[] params) {
+	}
+
+	@Override
+	public void onTaskCoreRow(double[] row) {
+	}
+
+	@Override
+	public void onTaskCoreRows(E3sTaskCoresLoader loader) {
+	}
+
+	@Override
+	public void onWireBitWidth(int wireBitWidth) {
+	}
+
+	@Override
+	public void onEnd() {
+	}
+
+}
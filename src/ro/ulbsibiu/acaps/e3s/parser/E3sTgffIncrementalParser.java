@@ -0,0 +1,431 @@
+package ro.ulbsibiu.acaps.e3s.parser;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.log4j.Logger;
+
+import ro.ulbsibiu.acaps.e3s.ctg.E3sApplicationGraph;
+import ro.ulbsibiu.acaps.e3s.ctg.E3sBenchmarkData;
+import ro.ulbsibiu.acaps.e3s.ctg.E3sCommunicationVolume;
+import ro.ulbsibiu.acaps.e3s.ctg.E3sCore;
+import ro.ulbsibiu.acaps.e3s.ctg.E3sEdge;
+import ro.ulbsibiu.acaps.e3s.ctg.E3sPlatform;
+import ro.ulbsibiu.acaps.e3s.ctg.E3sSymbols;
+import ro.ulbsibiu.acaps.e3s.ctg.E3sVertex;
+
+/**
+ * Parses an E3S .tgff file which is repeatedly edited. The data from the last
+ * parse is kept in memory, together with a fingerprint (an MD5 hash) of each
+ * top level block from the file. When the file is parsed again, only the
+ * blocks whose fingerprint changed are parsed and the existing
+ * {@link E3sBenchmarkData} objects are updated in place. Since the platform
+ * is immutable, a changed core, communication volume or wire bit width gives
+ * a new {@link E3sPlatform} (which reuses the unchanged {@link E3sCore}s)
+ * to all the CTGs. What changed is reported through {@link E3sTgffChanges}.
+ * <p>
+ * The entire file is parsed again when blocks are added, removed or
+ * reordered, since the IDs of the task graphs and the indexes of the cores
+ * are given by their position in the file. It is parsed again, into new
+ * {@link E3sBenchmarkData} objects, when a CTG from the previous parse is
+ * frozen (see {@link E3sBenchmarkData#freeze()}), since the frozen CTGs may
+ * be read by other threads.
+ * </p>
+ * <p>
+ * The changed blocks are parsed and checked before any data is updated, so
+ * an invalid file leaves the data from the previous parse (including its
+ * symbols) unchanged.
+ * </p>
+ *
+ * @author Ciprian Radu
+ *
+ */
+public class E3sTgffIncrementalParser {
+
+	/**
+	 * Logger for this class
+	 */
+	private static final Logger logger = Logger
+			.getLogger(E3sTgffIncrementalParser.class);
+
+	/** the path to the E3S .tgff file */
+	private String filePath;
+
+	/** the E3S Communication Task Graphs, from the last parse */
+	private List<E3sBenchmarkData> e3sCtgs;
+
+	/** the platform (shared by all the CTGs), from the last parse */
+	private E3sPlatform platform;
+
+	/**
+	 * the application graph of the CTGs (<tt>null</tt> until it is
+	 * requested)
+	 */
+	private E3sApplicationGraph applicationGraph;
+
+	/** the top level blocks of the file, from the last parse */
+	private List<E3sTgffChunk> blocks;
+
+	/** the fingerprints of the {@link #blocks} */
+	private List<byte[]> fingerprints;
+
+	/**
+	 * Constructor
+	 *
+	 * @param filePath
+	 *            the path to the E3S .tgff file
+	 */
+	public E3sTgffIncrementalParser(String filePath) {
+		logger.assertLog(filePath != null && filePath.length() > 0,
+				"A file path must be specified");
+
+		this.filePath = filePath;
+	}
+
+	/**
+	 * @return the E3S Communication Task Graphs, from the last parse
+	 *         (<tt>null</tt> if the file was not parsed yet)
+	 */
+	public List<E3sBenchmarkData> getE3sCtgs() {
+		return e3sCtgs;
+	}
+
+	/**
+	 * Gives all the CTGs merged into a single application graph (see
+	 * {@link E3sApplicationGraph}). The graph is built the first time it is
+	 * requested and it is kept until a parse changes the CTGs or the
+	 * platform.
+	 *
+	 * @return the application graph (<tt>null</tt> if the file was not
+	 *         parsed yet)
+	 */
+	public E3sApplicationGraph getApplicationGraph() {
+		if (applicationGraph == null && e3sCtgs != null) {
+			applicationGraph = new E3sApplicationGraph(e3sCtgs);
+		}
+		return applicationGraph;
+	}
+
+	/**
+	 * Parses the E3S .tgff file. The first call parses the entire file. The
+	 * next calls parse only the blocks which changed since the previous call
+	 * and update the existing data. If the file is not valid, the data from
+	 * the previous parse is kept unchanged.
+	 *
+	 * @return what changed since the previous call
+	 * @throws IOException
+	 *             if the file cannot be read or it is not a valid E3S file
+	 */
+	public E3sTgffChanges parseTgffFile() throws IOException {
+		E3sTgffChanges changes;
+
+		MappedByteBuffer buffer = E3sTgffFileParser.mapFile(filePath);
+		if (buffer == null) {
+			// the file is too large to be split into blocks
+			E3sBenchmarkDataBuilder builder = new E3sBenchmarkDataBuilder();
+			FileInputStream stream = new FileInputStream(filePath);
+			try {
+				new E3sTgffReader(filePath, new E3sTgffLexer(stream), builder).read();
+			} finally {
+				stream.close();
+			}
+			changes = replaceAll(builder);
+			blocks = null;
+			fingerprints = null;
+		} else {
+			List<E3sTgffChunk> newBlocks = E3sTgffChunk.split(buffer, 1);
+			List<byte[]> newFingerprints = fingerprint(buffer, newBlocks);
+			if (e3sCtgs == null || isFrozen()
+					|| !isSameStructure(newBlocks, newFingerprints)) {
+				E3sBenchmarkDataBuilder builder = new E3sBenchmarkDataBuilder();
+				new E3sTgffReader(filePath, new E3sTgffLexer(buffer), builder).read();
+				changes = replaceAll(builder);
+			} else {
+				changes = update(buffer, newBlocks, newFingerprints);
+			}
+			blocks = newBlocks;
+			fingerprints = newFingerprints;
+		}
+		if (!changes.isEmpty()) {
+			applicationGraph = null;
+		}
+		if (logger.isInfoEnabled()) {
+			logger.info("Changes in " + filePath + ": " + changes);
+		}
+
+		return changes;
+	}
+
+	private E3sTgffChanges replaceAll(E3sBenchmarkDataBuilder builder) {
+		e3sCtgs = builder.getE3sCtgs();
+		platform = builder.getPlatform();
+
+		E3sTgffChanges changes = new E3sTgffChanges(true);
+		for (int i = 0; i < e3sCtgs.size(); i++) {
+			changes.addCtgId(e3sCtgs.get(i).getCtgId());
+		}
+		for (int i = 0; i < platform.getCores().size(); i++) {
+			changes.addCoreIndex(i);
+		}
+		return changes;
+	}
+
+	/**
+	 * @return whether a CTG from the previous parse is frozen
+	 */
+	private boolean isFrozen() {
+		for (int i = 0; i < e3sCtgs.size(); i++) {
+			if (e3sCtgs.get(i).isFrozen()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Checks if the file has the same sequence of blocks as at the previous
+	 * parse. Only then the task graph IDs and the core indexes remain valid.
+	 * The hyperperiod and the wire bit width must be given by the same block
+	 * as before or by a changed block (the values from the unchanged blocks
+	 * are known only for the blocks which gave them).
+	 */
+	private boolean isSameStructure(List<E3sTgffChunk> newBlocks,
+			List<byte[]> newFingerprints) {
+		if (blocks == null || blocks.size() != newBlocks.size()) {
+			return false;
+		}
+		for (int i = 0; i < newBlocks.size(); i++) {
+			if (blocks.get(i).getLastBlockType() != newBlocks.get(i).getLastBlockType()) {
+				return false;
+			}
+		}
+		int hyperperiodBlock = getHyperperiodBlock(newBlocks);
+		if (hyperperiodBlock >= 0
+				&& hyperperiodBlock != getHyperperiodBlock(blocks)
+				&& isUnchanged(hyperperiodBlock, newFingerprints)) {
+			return false;
+		}
+		int wireBitWidthBlock = getWireBitWidthBlock(newBlocks);
+		if (wireBitWidthBlock >= 0
+				&& wireBitWidthBlock != getWireBitWidthBlock(blocks)
+				&& isUnchanged(wireBitWidthBlock, newFingerprints)) {
+			return false;
+		}
+		return true;
+	}
+
+	private boolean isUnchanged(int block, List<byte[]> newFingerprints) {
+		return Arrays.equals(fingerprints.get(block), newFingerprints.get(block));
+	}
+
+	/**
+	 * @return the last block with a <tt>@HYPERPERIOD</tt> (which gives the
+	 *         hyperperiod), or -1 if there is no such block
+	 */
+	private static int getHyperperiodBlock(List<E3sTgffChunk> blocks) {
+		for (int i = blocks.size() - 1; i >= 0; i--) {
+			if (blocks.get(i).hasHyperperiod()) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * @return the last block with a <tt>@WIRE_BIT_WIDTH</tt> (which gives the
+	 *         wire bit width), or -1 if there is no such block
+	 */
+	private static int getWireBitWidthBlock(List<E3sTgffChunk> blocks) {
+		for (int i = blocks.size() - 1; i >= 0; i--) {
+			if (blocks.get(i).hasWireBitWidth()) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Parses the blocks whose fingerprints changed. All the changed blocks
+	 * are parsed (with their own symbols) and checked before any data is
+	 * updated, so that an invalid block leaves the data and the symbols
+	 * unchanged.
+	 */
+	private E3sTgffChanges update(ByteBuffer buffer,
+			List<E3sTgffChunk> newBlocks, List<byte[]> newFingerprints)
+			throws IOException {
+		E3sBenchmarkDataBuilder[] builders = new E3sBenchmarkDataBuilder[newBlocks.size()];
+		for (int i = 0; i < newBlocks.size(); i++) {
+			E3sTgffChunk block = newBlocks.get(i);
+			if (!isUnchanged(i, newFingerprints)) {
+				E3sBenchmarkDataBuilder builder = new E3sBenchmarkDataBuilder();
+				builder.onStart(filePath);
+				new E3sTgffReader(filePath, block.createLexer(buffer), builder)
+						.readBlocks(block.getFirstCtgId());
+				if (block.getLastBlockType() == E3sTgffChunk.BLOCK_TASK_GRAPH) {
+					checkArcs(builder.getE3sCtgs().get(0));
+				}
+				builders[i] = builder;
+			}
+		}
+
+		// the changed blocks are valid, so they are moved to the existing symbols
+		E3sSymbols symbols = e3sCtgs.get(0).getSymbols();
+		for (int i = 0; i < builders.length; i++) {
+			if (builders[i] != null) {
+				builders[i].moveTo(symbols);
+			}
+		}
+
+		E3sTgffChanges changes = new E3sTgffChanges(false);
+		E3sPlatform newPlatform = platform;
+		int coreIndex = 0;
+		for (int i = 0; i < newBlocks.size(); i++) {
+			E3sBenchmarkDataBuilder builder = builders[i];
+			switch (newBlocks.get(i).getLastBlockType()) {
+			case E3sTgffChunk.BLOCK_TASK_GRAPH:
+				if (builder != null) {
+					E3sBenchmarkData e3sCtg = builder.getE3sCtgs().get(0);
+					e3sCtgs.get(e3sCtg.getCtgId()).replaceTaskGraph(e3sCtg);
+					changes.addCtgId(e3sCtg.getCtgId());
+				}
+				break;
+			case E3sTgffChunk.BLOCK_CORE:
+				if (builder != null) {
+					newPlatform = newPlatform.withCore(coreIndex, builder.getCores().get(0));
+					changes.addCoreIndex(coreIndex);
+				}
+				coreIndex++;
+				break;
+			case E3sTgffChunk.BLOCK_COMMUN_QUANT:
+				// the block may have changed only because of the @HYPERPERIOD before it
+				if (builder != null
+						&& !isSame(builder.getCommunicationVolumes(), newPlatform.getCommunicationVolumes())) {
+					newPlatform = newPlatform.withCommunicationVolumes(builder.getCommunicationVolumes());
+					changes.setCommunicationVolumesChanged();
+				}
+				break;
+			default:
+				break;
+			}
+		}
+
+		// the @HYPERPERIOD and the @WIRE_BIT_WIDTH may precede any block (or
+		// they may have been removed)
+		double newHyperperiod = E3sBenchmarkData.NO_HYPERPERIOD;
+		int hyperperiodBlock = getHyperperiodBlock(newBlocks);
+		if (hyperperiodBlock >= 0) {
+			newHyperperiod = builders[hyperperiodBlock] == null ? e3sCtgs.get(0).getHyperperiod()
+					: builders[hyperperiodBlock].getHyperperiod();
+		}
+		if (newHyperperiod != e3sCtgs.get(0).getHyperperiod()) {
+			changes.setHyperperiodChanged();
+		}
+		int newWireBitWidth = E3sPlatform.NO_WIRE_BIT_WIDTH;
+		int wireBitWidthBlock = getWireBitWidthBlock(newBlocks);
+		if (wireBitWidthBlock >= 0) {
+			newWireBitWidth = builders[wireBitWidthBlock] == null ? newPlatform.getWireBitWidth()
+					: builders[wireBitWidthBlock].getWireBitWidth();
+		}
+		if (newWireBitWidth != newPlatform.getWireBitWidth()) {
+			newPlatform = newPlatform.withWireBitWidth(newWireBitWidth);
+			changes.setWireBitWidthChanged();
+		}
+
+		if (newPlatform != platform) {
+			platform = newPlatform;
+			for (int i = 0; i < e3sCtgs.size(); i++) {
+				e3sCtgs.get(i).setPlatform(platform);
+			}
+		}
+
+		if (changes.isHyperperiodChanged()) {
+			for (int i = 0; i < e3sCtgs.size(); i++) {
+				e3sCtgs.get(i).setHyperperiod(newHyperperiod);
+			}
+		}
+
+		if (changes.isCommunicationVolumesChanged()) {
+			// the weights of all the arcs may have changed
+			for (int i = 0; i < e3sCtgs.size(); i++) {
+				e3sCtgs.get(i).rebuildCtg();
+				changes.addCtgId(e3sCtgs.get(i).getCtgId());
+			}
+		}
+
+		return changes;
+	}
+
+	/**
+	 * Checks that the arcs of a parsed task graph connect its tasks, so that
+	 * its Communication Task Graph can be built.
+	 *
+	 * @throws IOException
+	 *             if an arc connects an unknown task
+	 */
+	private void checkArcs(E3sBenchmarkData e3sCtg) throws IOException {
+		Set<String> taskNames = new HashSet<String>();
+		List<E3sVertex> vertices = e3sCtg.getVertices();
+		for (int i = 0; i < vertices.size(); i++) {
+			taskNames.add(vertices.get(i).getName());
+		}
+		List<E3sEdge> edges = e3sCtg.getEdges();
+		for (int i = 0; i < edges.size(); i++) {
+			E3sEdge edge = edges.get(i);
+			if (!taskNames.contains(edge.getFrom()) || !taskNames.contains(edge.getTo())) {
+				throw new IOException(filePath + ": the arc " + edge.getName()
+						+ " of the task graph " + e3sCtg.getCtgId()
+						+ " connects an unknown task");
+			}
+		}
+	}
+
+	/**
+	 * @return whether two lists have the same communication volumes, in the
+	 *         same order
+	 */
+	private static boolean isSame(List<E3sCommunicationVolume> communicationVolumes,
+			List<E3sCommunicationVolume> otherCommunicationVolumes) {
+		if (communicationVolumes.size() != otherCommunicationVolumes.size()) {
+			return false;
+		}
+		for (int i = 0; i < communicationVolumes.size(); i++) {
+			E3sCommunicationVolume communicationVolume = communicationVolumes.get(i);
+			E3sCommunicationVolume otherCommunicationVolume = otherCommunicationVolumes.get(i);
+			if (!communicationVolume.getType().equals(otherCommunicationVolume.getType())
+					|| Double.compare(communicationVolume.getVolume(), otherCommunicationVolume.getVolume()) != 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static List<byte[]> fingerprint(ByteBuffer buffer,
+			List<E3sTgffChunk> blocks) {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("MD5");
+		} catch (NoSuchAlgorithmException e) {
+			// every Java platform is required to support MD5
+			throw new IllegalStateException(e);
+		}
+		List<byte[]> fingerprints = new ArrayList<byte[]>(blocks.size());
+		for (int i = 0; i < blocks.size(); i++) {
+			ByteBuffer block = buffer.duplicate();
+			block.limit(blocks.get(i).getEnd());
+			block.position(blocks.get(i).getStart());
+			digest.update(block);
+			fingerprints.add(digest.digest());
+		}
+		return fingerprints;
+	}
+
+}
@@ -0,0 +1,447 @@
+package ro.ulbsibiu.acaps.e3s.parser;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+/**
+ * Hand-written lexer for the E3S .tgff files. The input is read only once,
+ * either from a stream (through an internal byte buffer, which is refilled as
+ * needed) or directly from a {@link ByteBuffer} which holds the entire input
+ * (e.g.: a memory mapped file). The input is split into words. A word is a
+ * sequence of characters delimited by white spaces, by line comments (which
+ * start with <tt>#</tt>) or by curly brackets (each bracket is a word on its
+ * own).
+ * <p>
+ * The TGFF files are plain ASCII files, so no character decoding is made. The
+ * current word can be inspected in place (see {@link #wordEquals(String)} and
+ * {@link #wordByteAt(int)}) and numbers are parsed directly from its bytes
+ * (see {@link #wordDouble()}); a String is created only when it is explicitly
+ * requested, through {@link #wordString()}.
+ * </p>
+ * <p>
+ * Line comments are skipped, but the last one is remembered because E3S puts
+ * the name of each core in the comment right before its <tt>@CORE</tt> block.
+ * </p>
+ *
+ * @author Ciprian Radu
+ *
+ */
+public class E3sTgffLexer {
+
+	private static final Charset ASCII = Charset.forName("US-ASCII");
+
+	private static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+	private static final byte LINE_COMMENT = '#';
+
+	private static final byte BLOCK_START = '{';
+
+	private static final byte BLOCK_END = '}';
+
+	/**
+	 * the powers of 10 which are exactly represented as doubles (used for
+	 * parsing numbers)
+	 */
+	private static final double[] POWERS_OF_10 = { 1e0, 1e1, 1e2, 1e3, 1e4,
+			1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16,
+			1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+
+	/** the largest integer up to which all the integers are exactly represented as doubles (2^53) */
+	private static final long MAX_EXACT_INTEGER = 1L << 53;
+
+	/**
+	 * the input stream (<tt>null</tt> when the entire input is given as a
+	 * {@link ByteBuffer})
+	 */
+	private InputStream stream;
+
+	/**
+	 * the array backing the {@link #buffer} (used only when reading from a
+	 * stream)
+	 */
+	private byte[] array;
+
+	private ByteBuffer buffer;
+
+	/** the index of the next byte to be read from the buffer */
+	private int position;
+
+	/** the number of valid bytes from the buffer */
+	private int limit;
+
+	/** where the current word begins (in the buffer) */
+	private int wordStart;
+
+	/** where the current word ends (exclusive) */
+	private int wordEnd;
+
+	/** the current line number (the first line is 1) */
+	private int line;
+
+	/** the bytes of the last line comment (without the line terminator) */
+	private byte[] comment;
+
+	/** the length of the last line comment */
+	private int commentLength;
+
+	/**
+	 * Constructor
+	 *
+	 * @param stream
+	 *            the input (cannot be <tt>null</tt>)
+	 */
+	public E3sTgffLexer(InputStream stream) {
+		assert stream != null;
+
+		this.stream = stream;
+		array = new byte[DEFAULT_BUFFER_SIZE];
+		buffer = ByteBuffer.wrap(array);
+		comment = new byte[128];
+		position = 0;
+		limit = 0;
+		line = 1;
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param buffer
+	 *            a buffer with the entire input, between its position and its
+	 *            limit (cannot be <tt>null</tt>). The buffer is only read,
+	 *            using absolute indexes, so its position and limit are not
+	 *            modified.
+	 */
+	public E3sTgffLexer(ByteBuffer buffer) {
+		this(buffer, 1);
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param buffer
+	 *            a buffer with the entire input (see
+	 *            {@link #E3sTgffLexer(ByteBuffer)})
+	 * @param line
+	 *            the line number of the first byte from the buffer (useful
+	 *            when the buffer holds only a part of a file)
+	 */
+	public E3sTgffLexer(ByteBuffer buffer, int line) {
+		assert buffer != null;
+
+		this.stream = null;
+		this.buffer = buffer;
+		comment = new byte[128];
+		position = buffer.position();
+		limit = buffer.limit();
+		this.line = line;
+	}
+
+	/**
+	 * Reads more bytes into the buffer. The bytes of the current word (from
+	 * {@link #wordStart}) are moved at the beginning of the buffer, so that a
+	 * word never crosses the buffer boundaries. When the entire input is
+	 * already in the buffer, there is nothing to read.
+	 *
+	 * @return <tt>false</tt> when the end of the input was reached
+	 * @throws IOException
+	 */
+	private boolean fill() throws IOException {
+		if (stream == null) {
+			return false;
+		}
+		int kept = 0;
+		if (wordStart < limit) {
+			kept = limit - wordStart;
+			if (kept == array.length) {
+				byte[] larger = new byte[array.length * 2];
+				System.arraycopy(array, wordStart, larger, 0, kept);
+				array = larger;
+				buffer = ByteBuffer.wrap(array);
+			} else {
+				System.arraycopy(array, wordStart, array, 0, kept);
+			}
+		}
+		position -= wordStart;
+		wordStart = 0;
+		limit = kept;
+		int read = stream.read(array, limit, array.length - limit);
+		if (read > 0) {
+			limit += read;
+		}
+		return read > 0;
+	}
+
+	private static boolean isDelimiter(byte b) {
+		return b == ' ' || b == '\n' || b == '\r' || b == '\t'
+				|| b == LINE_COMMENT || b == BLOCK_START || b == BLOCK_END;
+	}
+
+	private void readComment() throws IOException {
+		commentLength = 0;
+		while (true) {
+			if (position == limit) {
+				wordStart = limit;
+				if (!fill()) {
+					break;
+				}
+			}
+			byte b = buffer.get(position);
+			if (b == '\n') {
+				break;
+			}
+			if (commentLength == comment.length) {
+				byte[] larger = new byte[comment.length * 2];
+				System.arraycopy(comment, 0, larger, 0, commentLength);
+				comment = larger;
+			}
+			comment[commentLength++] = b;
+			position++;
+		}
+	}
+
+	/**
+	 * Advances to the next word.
+	 *
+	 * @return <tt>false</tt> if the end of the input was reached (there are no
+	 *         more words)
+	 * @throws IOException
+	 */
+	public boolean nextWord() throws IOException {
+		byte b;
+		while (true) {
+			if (position == limit) {
+				wordStart = limit;
+				if (!fill()) {
+					wordStart = wordEnd = position;
+					return false;
+				}
+			}
+			b = buffer.get(position);
+			if (b == '\n') {
+				line++;
+				position++;
+			} else {
+				if (b == ' ' || b == '\t' || b == '\r') {
+					position++;
+				} else {
+					if (b == LINE_COMMENT) {
+						readComment();
+					} else {
+						break;
+					}
+				}
+			}
+		}
+
+		wordStart = position;
+		position++;
+		if (b != BLOCK_START && b != BLOCK_END) {
+			while (true) {
+				if (position == limit && !fill()) {
+					break;
+				}
+				if (isDelimiter(buffer.get(position))) {
+					break;
+				}
+				position++;
+			}
+		}
+		wordEnd = position;
+
+		return true;
+	}
+
+	/**
+	 * @return the length of the current word
+	 */
+	public int wordLength() {
+		return wordEnd - wordStart;
+	}
+
+	/**
+	 * @param index
+	 *            the index of the character, inside the current word
+	 * @return the (ASCII) character from the specified position of the current
+	 *         word
+	 */
+	public byte wordByteAt(int index) {
+		return buffer.get(wordStart + index);
+	}
+
+	/**
+	 * Checks if the current word is the specified keyword. The check is case
+	 * insensitive, as TGFF keywords are.
+	 *
+	 * @param keyword
+	 *            the keyword (in upper case)
+	 * @return whether the current word is the keyword or not
+	 */
+	public boolean wordEquals(String keyword) {
+		int length = wordEnd - wordStart;
+		if (length != keyword.length()) {
+			return false;
+		}
+		for (int i = 0; i < length; i++) {
+			int c = buffer.get(wordStart + i);
+			if (c >= 'a' && c <= 'z') {
+				c -= 'a' - 'A';
+			}
+			if (c != keyword.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return the current word, as a String
+	 */
+	public String wordString() {
+		int length = wordEnd - wordStart;
+		if (buffer.hasArray()) {
+			return new String(buffer.array(), buffer.arrayOffset() + wordStart,
+					length, ASCII);
+		}
+		byte[] bytes = new byte[length];
+		for (int i = 0; i < length; i++) {
+			bytes[i] = buffer.get(wordStart + i);
+		}
+		return new String(bytes, ASCII);
+	}
+
+	/**
+	 * Copies the current word.
+	 *
+	 * @param word
+	 *            where the current word is copied
+	 */
+	void copyWord(E3sTgffWord word) {
+		word.clear();
+		for (int i = wordStart; i < wordEnd; i++) {
+			word.append(buffer.get(i));
+		}
+	}
+
+	/**
+	 * Parses the current word as a floating point number, directly from the
+	 * buffer. Numbers with at most 15 significant digits and with a decimal
+	 * exponent between -22 and 22 (which covers all the numbers from the E3S
+	 * benchmarks) are exactly computed as a single multiplication or division
+	 * of two doubles, so the result is the same as the one returned by
+	 * {@link Double#parseDouble(String)}. The other numbers are delegated to
+	 * {@link Double#parseDouble(String)}.
+	 *
+	 * @return the current word, parsed as a floating point number
+	 * @throws NumberFormatException
+	 *             if the word is not a number
+	 */
+	public double wordDouble() {
+		int i = wordStart;
+		boolean negative = false;
+		byte b = buffer.get(i);
+		if (b == '-' || b == '+') {
+			negative = b == '-';
+			i++;
+		}
+
+		long mantissa = 0;
+		int significantDigits = 0;
+		int exponent = 0;
+		boolean digits = false;
+		while (i < wordEnd && (b = buffer.get(i)) >= '0' && b <= '9') {
+			mantissa = mantissa * 10 + (b - '0');
+			if (mantissa > 0) {
+				significantDigits++;
+			}
+			digits = true;
+			i++;
+		}
+		if (i < wordEnd && b == '.') {
+			i++;
+			while (i < wordEnd && (b = buffer.get(i)) >= '0' && b <= '9') {
+				mantissa = mantissa * 10 + (b - '0');
+				if (mantissa > 0) {
+					significantDigits++;
+				}
+				exponent--;
+				digits = true;
+				i++;
+			}
+		}
+		if (digits && i < wordEnd && (b == 'e' || b == 'E')) {
+			i++;
+			boolean negativeExponent = false;
+			if (i < wordEnd && ((b = buffer.get(i)) == '-' || b == '+')) {
+				negativeExponent = b == '-';
+				i++;
+			}
+			int explicitExponent = 0;
+			int exponentDigits = 0;
+			while (i < wordEnd && (b = buffer.get(i)) >= '0' && b <= '9') {
+				explicitExponent = explicitExponent * 10 + (b - '0');
+				exponentDigits++;
+				i++;
+			}
+			if (exponentDigits == 0 || exponentDigits > 4) {
+				// malformed or out of the fast path range
+				return Double.parseDouble(wordString());
+			}
+			exponent += negativeExponent ? -explicitExponent : explicitExponent;
+		}
+
+		if (!digits || i != wordEnd || significantDigits > 15
+				|| mantissa > MAX_EXACT_INTEGER || exponent < -22
+				|| exponent > 22) {
+			return Double.parseDouble(wordString());
+		}
+
+		double value = mantissa;
+		if (exponent > 0) {
+			value *= POWERS_OF_10[exponent];
+		} else {
+			if (exponent < 0) {
+				value /= POWERS_OF_10[-exponent];
+			}
+		}
+		return negative ? -value : value;
+	}
+
+	/**
+	 * @return the last line comment which was skipped (including the leading
+	 *         <tt>#</tt>), or <tt>null</tt> if no comment was found so far
+	 */
+	public String lastComment() {
+		String lastComment = null;
+		if (commentLength > 0) {
+			lastComment = new String(comment, 0, commentLength, ASCII);
+		}
+		return lastComment;
+	}
+
+	/**
+	 * @return where the current word begins, in the buffer (meaningful only
+	 *         when the entire input is given as a {@link ByteBuffer})
+	 */
+	int getWordStart() {
+		return wordStart;
+	}
+
+	/**
+	 * @return where the current word ends (exclusive), in the buffer
+	 *         (meaningful only when the entire input is given as a
+	 *         {@link ByteBuffer})
+	 */
+	int getWordEnd() {
+		return wordEnd;
+	}
+
+	/**
+	 * @return the line where the current word is
+	 */
+	public int getLine() {
+		return line;
+	}
+
+}
@@ -0,0 +1,465 @@
+package ro.ulbsibiu.acaps.e3s.parser;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import ro.ulbsibiu.acaps.e3s.ctg.E3sCore.E3sCoreParams;
+import ro.ulbsibiu.acaps.e3s.ctg.E3sDeadline.DeadlineType;
+import ro.ulbsibiu.acaps.e3s.ctg.E3sTaskCore.E3sTaskCoreParams;
+
+/**
+ * Reads the words of an E3S .tgff file (given by an {@link E3sTgffLexer}) and
+ * pushes the data to an {@link E3sTgffHandler}. Each word which starts a line
+ * is dispatched based on the keyword it represents, and the values which
+ * follow it are read in place. The data which is not needed by E3S (e.g.:
+ * <tt>@WIRING</tt>) is skipped.
+ * <p>
+ * A reader keeps the state of a single parse, so each parse (possibly, of a
+ * part of a file) needs its own reader.
+ * </p>
+ * 
+ * @author Ciprian Radu
+ * 
+ */
+class E3sTgffReader {
+
+	// TGFF keywords
+	
+	private static final String AT_TASK_GRAPH = "@TASK_GRAPH";
+	
+	private static final String TASK = "TASK";
+	
+	private static final String TYPE = "TYPE";
+	
+	private static final String ARC = "ARC";
+	
+	private static final String FROM = "FROM";
+	
+	private static final String TO = "TO";
+	
+	private static final String PERIOD = "PERIOD";
+	
+	private static final String ON = "ON";
+	
+	private static final String AT = "AT";
+	
+	private static final String HARD_DEADLINE = "HARD_DEADLINE";
+	
+	private static final String SOFT_DEADLINE = "SOFT_DEADLINE";
+	
+	private static final String BLOCK_START = "{";
+	
+	private static final String BLOCK_END = "}";
+	
+	private static final String AT_HYPERPERIOD = "@HYPERPERIOD";
+	
+	// E3S specific keywords
+	
+	private static final String AT_COMMUN_QUANT = "@COMMUN_QUANT";
+	
+	private static final String AT_CORE = "@CORE";
+	
+	private static final String AT_WIRE_BIT_WIDTH = "@WIRE_BIT_WIDTH";
+	
+	// the sections of an E3S file which hold data that is parsed
+	
+	private static final int SECTION_NONE = 0;
+	
+	private static final int SECTION_COMMUN_QUANT = 1;
+	
+	private static final int SECTION_TASK_GRAPH = 2;
+	
+	private static final int SECTION_CORE = 3;
+	
+	// ---
+	
+	/**
+	 * the name of the input (used for identifying the benchmark and for the
+	 * error messages)
+	 */
+	private String name;
+	
+	private E3sTgffLexer lexer;
+	
+	private E3sTgffHandler handler;
+	
+	// the words given to the handler are reused
+	
+	private E3sTgffWord nameWord = new E3sTgffWord();
+	
+	private E3sTgffWord fromWord = new E3sTgffWord();
+	
+	private E3sTgffWord toWord = new E3sTgffWord();
+	
+	private E3sTgffWord typeWord = new E3sTgffWord();
+	
+	private E3sTgffWord idWord = new E3sTgffWord();
+	
+	/** the name of the current core (taken from the last comment) */
+	private String coreName;
+	
+	/**
+	 * the buffer read by the lexer, when the task tables of the cores are
+	 * loaded lazily (<tt>null</tt> when they are parsed)
+	 */
+	private ByteBuffer lazyCoresBuffer;
+	
+	/** where the task table of the current core begins (in the lazy mode) */
+	private int taskTableStart;
+	
+	/** the line where the task table of the current core begins */
+	private int taskTableLine;
+	
+	// the state of the blocks which are read (kept between the calls of readBlock())
+	
+	private int section;
+	
+	private int taskGraphCounter;
+	
+	private double[] coreParams = new double[E3sCoreParams.values().length];
+	
+	private double[] taskCoreRow = new double[E3sTaskCoreParams.values().length];
+	
+	private int coreParamIndex;
+	
+	private int taskCoreParamIndex;
+	
+	/**
+	 * Constructor
+	 * 
+	 * @param name
+	 *            the name of the input (the benchmark's file path)
+	 * @param lexer
+	 *            the lexer which splits the input into words
+	 * @param handler
+	 *            the handler which receives the parsed data
+	 */
+	E3sTgffReader(String name, E3sTgffLexer lexer, E3sTgffHandler handler) {
+		this.name = name;
+		this.lexer = lexer;
+		this.handler = handler;
+	}
+	
+	/**
+	 * Makes this reader to skip the task tables of the cores. Instead, an
+	 * {@link E3sTgffTaskCoresLoader} is given to the handler for each core
+	 * (see {@link E3sTgffHandler#onTaskCoreRows(ro.ulbsibiu.acaps.e3s.ctg.E3sTaskCoresLoader)}).
+	 * 
+	 * @param buffer
+	 *            the buffer from which the lexer reads (the loaders read the
+	 *            task tables from it later, so it must not be modified)
+	 */
+	void setLazyCores(ByteBuffer buffer) {
+		lazyCoresBuffer = buffer;
+	}
+	
+	/**
+	 * Advances the lexer to the next word, which must exist.
+	 * 
+	 * @param what
+	 *            what is expected (used for the error message)
+	 * @throws IOException
+	 *             if the end of the file was reached
+	 */
+	private void nextWord(String what) throws IOException {
+		if (!lexer.nextWord()) {
+			throw new IOException(name + ": expected " + what
+					+ " at line " + lexer.getLine()
+					+ " but the end of the file was reached");
+		}
+	}
+	
+	/**
+	 * Advances the lexer to the next word, which must be the specified
+	 * keyword.
+	 * 
+	 * @param keyword
+	 *            the keyword
+	 * @throws IOException
+	 *             if the next word is not the keyword
+	 */
+	private void expectKeyword(String keyword) throws IOException {
+		nextWord(keyword);
+		if (!lexer.wordEquals(keyword)) {
+			throw new IOException(name + ": expected " + keyword
+					+ " at line " + lexer.getLine() + " but found "
+					+ lexer.wordString());
+		}
+	}
+	
+	/**
+	 * Parses the next word as a number.
+	 * 
+	 * @param what
+	 *            what is expected (used for the error message)
+	 * @return the number
+	 * @throws IOException
+	 *             if the next word is missing or it is not a number
+	 */
+	private double nextDouble(String what) throws IOException {
+		nextWord(what);
+		return wordDouble(what);
+	}
+	
+	private double wordDouble(String what) throws IOException {
+		try {
+			return lexer.wordDouble();
+		} catch (NumberFormatException e) {
+			throw new IOException(name + ": expected " + what
+					+ " at line " + lexer.getLine() + " but found "
+					+ lexer.wordString());
+		}
+	}
+	
+	/**
+	 * Parses a line from a <tt>@TASK_GRAPH</tt> block. The first word of the
+	 * line was already read by the lexer.
+	 * 
+	 * @throws IOException
+	 */
+	private void parseTaskGraphLine() throws IOException {
+		// the keyword is identified by its first character
+		switch (lexer.wordByteAt(0)) {
+		case 'T':
+		case 't':
+			if (lexer.wordEquals(TASK)) {
+				nextWord("the task name");
+				lexer.copyWord(nameWord);
+				expectKeyword(TYPE);
+				nextWord("the task type");
+				lexer.copyWord(typeWord);
+				handler.onTask(nameWord, typeWord);
+			}
+			break;
+		case 'A':
+		case 'a':
+			if (lexer.wordEquals(ARC)) {
+				nextWord("the arc name");
+				lexer.copyWord(nameWord);
+				expectKeyword(FROM);
+				nextWord("the source task");
+				lexer.copyWord(fromWord);
+				expectKeyword(TO);
+				nextWord("the destination task");
+				lexer.copyWord(toWord);
+				expectKeyword(TYPE);
+				nextWord("the arc type");
+				lexer.copyWord(typeWord);
+				handler.onArc(nameWord, fromWord, toWord, typeWord);
+			}
+			break;
+		case 'P':
+		case 'p':
+			if (lexer.wordEquals(PERIOD)) {
+				handler.onPeriod(nextDouble("the period"));
+			}
+			break;
+		case 'H':
+		case 'h':
+			if (lexer.wordEquals(HARD_DEADLINE)) {
+				parseDeadline(DeadlineType.HARD);
+			}
+			break;
+		case 'S':
+		case 's':
+			if (lexer.wordEquals(SOFT_DEADLINE)) {
+				parseDeadline(DeadlineType.SOFT);
+			}
+			break;
+		default:
+			// other TGFF attributes are not used by E3S
+		}
+	}
+	
+	private void parseDeadline(DeadlineType type) throws IOException {
+		nextWord("the deadline name");
+		lexer.copyWord(nameWord);
+		expectKeyword(ON);
+		nextWord("the task name");
+		lexer.copyWord(toWord);
+		expectKeyword(AT);
+		handler.onDeadline(type, nameWord, toWord, nextDouble("the deadline"));
+	}
+	
+	/**
+	 * Reads the entire input and pushes its data to the handler (including
+	 * the {@link E3sTgffHandler#onStart(String)} and
+	 * {@link E3sTgffHandler#onEnd()} notifications).
+	 * 
+	 * @throws IOException
+	 *             if the input cannot be read or it is not a valid E3S file
+	 */
+	void read() throws IOException {
+		handler.onStart(name);
+		readBlocks(0);
+		handler.onEnd();
+	}
+	
+	/**
+	 * Reads the blocks from the input and pushes their data to the handler.
+	 * The input must contain only whole top level blocks (it may be a part of
+	 * a file, see {@link E3sTgffChunk}).
+	 * 
+	 * @param firstCtgId
+	 *            the ID given to the first <tt>@TASK_GRAPH</tt> block from the
+	 *            input (the next task graphs are numbered consecutively)
+	 * @throws IOException
+	 *             if the input cannot be read or it is not a valid E3S file
+	 */
+	void readBlocks(int firstCtgId) throws IOException {
+		startBlocks(firstCtgId);
+		while (readBlock()) {
+			// all the blocks are read
+		}
+	}
+	
+	/**
+	 * Prepares this reader for reading the blocks one by one, with
+	 * {@link #readBlock()}.
+	 * 
+	 * @param firstCtgId
+	 *            the ID given to the first <tt>@TASK_GRAPH</tt> block from the
+	 *            input (the next task graphs are numbered consecutively)
+	 */
+	void startBlocks(int firstCtgId) {
+		section = SECTION_NONE;
+		taskGraphCounter = firstCtgId - 1;
+		coreParamIndex = 0;
+		taskCoreParamIndex = 0;
+	}
+	
+	/**
+	 * Reads from the input until a top level block ends (i.e. until its
+	 * closing curly bracket) and pushes the data to the handler. So, when
+	 * this method returns <tt>true</tt>, all the data of the block was given
+	 * to the handler.
+	 * 
+	 * @return <tt>true</tt> if a block ended, <tt>false</tt> if the end of
+	 *         the input was reached
+	 * @throws IOException
+	 *             if the input cannot be read or it is not a valid E3S file
+	 */
+	boolean readBlock() throws IOException {
+		while (lexer.nextWord()) {
+			if (lexer.wordByteAt(0) == '@') {
+				if (section == SECTION_CORE) {
+					endCore(coreParams, coreParamIndex, taskCoreRow, taskCoreParamIndex);
+				}
+				if (lexer.wordEquals(AT_TASK_GRAPH)) {
+					taskGraphCounter++;
+					handler.onTaskGraph(taskGraphCounter);
+					section = SECTION_TASK_GRAPH;
+				} else {
+					if (lexer.wordEquals(AT_COMMUN_QUANT)) {
+						nextWord("the communication quantities ID");
+						expectKeyword(BLOCK_START);
+						section = SECTION_COMMUN_QUANT;
+					} else {
+						if (lexer.wordEquals(AT_CORE)) {
+							// we use the last comment for obtaining the name of each core
+							String lastComment = lexer.lastComment();
+							if (lastComment == null) {
+								throw new IOException(name
+										+ ": no core name found before the core from line "
+										+ lexer.getLine());
+							}
+							coreName = lastComment.trim().substring(2);
+							nextWord("the core ID");
+							lexer.copyWord(idWord);
+							expectKeyword(BLOCK_START);
+							Arrays.fill(coreParams, 0);
+							coreParamIndex = 0;
+							taskCoreParamIndex = 0;
+							section = SECTION_CORE;
+						} else {
+							if (lexer.wordEquals(AT_WIRE_BIT_WIDTH)) {
+								handler.onWireBitWidth((int) nextDouble("the wire bit width"));
+							} else {
+								if (lexer.wordEquals(AT_HYPERPERIOD)) {
+									handler.onHyperperiod(nextDouble("the hyperperiod"));
+								}
+							}
+							section = SECTION_NONE;
+						}
+					}
+				}
+			} else {
+				if (lexer.wordEquals(BLOCK_END)) {
+					if (section == SECTION_CORE) {
+						endCore(coreParams, coreParamIndex, taskCoreRow, taskCoreParamIndex);
+					}
+					section = SECTION_NONE;
+					return true;
+				} else {
+					switch (section) {
+					case SECTION_TASK_GRAPH:
+						parseTaskGraphLine();
+						break;
+					case SECTION_COMMUN_QUANT:
+						lexer.copyWord(typeWord);
+						handler.onCommunicationVolume(typeWord,
+								nextDouble("the communication volume"));
+						break;
+					case SECTION_CORE:
+						if (lazyCoresBuffer != null && coreParamIndex == coreParams.length) {
+							// the task table is only skipped
+							break;
+						}
+						double value = wordDouble("a core parameter");
+						if (coreParamIndex < coreParams.length) {
+							coreParams[coreParamIndex] = value;
+							coreParamIndex++;
+							if (coreParamIndex == coreParams.length) {
+								handler.onCoreParams(coreName, idWord, coreParams);
+								taskTableStart = lexer.getWordEnd();
+								taskTableLine = lexer.getLine();
+							}
+						} else {
+							if (taskCoreParamIndex == 0) {
+								Arrays.fill(taskCoreRow, 0);
+							}
+							taskCoreRow[taskCoreParamIndex] = value;
+							taskCoreParamIndex++;
+							if (taskCoreParamIndex == taskCoreRow.length) {
+								handler.onTaskCoreRow(taskCoreRow);
+								taskCoreParamIndex = 0;
+							}
+						}
+						break;
+					default:
+						// the data from this section is not used
+					}
+				}
+			}
+		}
+		if (section == SECTION_CORE) {
+			endCore(coreParams, coreParamIndex, taskCoreRow, taskCoreParamIndex);
+			section = SECTION_NONE;
+		}
+		return false;
+	}
+	
+	/**
+	 * Ends a <tt>@CORE</tt> block. The data of incomplete cores or incomplete
+	 * task rows is given to the handler as well (the missing values are 0).
+	 * In the lazy mode, the task table ends where the current word begins.
+	 */
+	private void endCore(double[] coreParams,
+			int coreParamIndex, double[] taskCoreRow, int taskCoreParamIndex) {
+		if (coreParamIndex < coreParams.length) {
+			handler.onCoreParams(coreName, idWord, coreParams);
+		} else {
+			if (lazyCoresBuffer != null) {
+				handler.onTaskCoreRows(new E3sTgffTaskCoresLoader(name,
+						lazyCoresBuffer, taskTableStart, lexer.getWordStart(),
+						taskTableLine));
+			} else {
+				if (taskCoreParamIndex > 0) {
+					handler.onTaskCoreRow(taskCoreRow);
+				}
+			}
+		}
+	}
+
+}
@@ -0,0 +1,433 @@
+package ro.ulbsibiu.acaps.e3s.parser;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.log4j.Logger;
+
+import ro.ulbsibiu.acaps.e3s.ctg.E3sBenchmarkData;
+import ro.ulbsibiu.acaps.e3s.ctg.E3sCommunicationVolume;
+import ro.ulbsibiu.acaps.e3s.ctg.E3sCore;
+import ro.ulbsibiu.acaps.e3s.ctg.E3sCore.E3sCoreParams;
+import ro.ulbsibiu.acaps.e3s.ctg.E3sDeadline;
+import ro.ulbsibiu.acaps.e3s.ctg.E3sDeadline.DeadlineType;
+import ro.ulbsibiu.acaps.e3s.ctg.E3sEdge;
+import ro.ulbsibiu.acaps.e3s.ctg.E3sPlatform;
+import ro.ulbsibiu.acaps.e3s.ctg.E3sSymbolTable;
+import ro.ulbsibiu.acaps.e3s.ctg.E3sSymbols;
+import ro.ulbsibiu.acaps.e3s.ctg.E3sTaskCore;
+import ro.ulbsibiu.acaps.e3s.ctg.E3sVertex;
+
+/**
+ * Keeps binary snapshots of parsed E3S benchmarks on disk, so that an
+ * unchanged .tgff file is not parsed again. A snapshot is identified by the
+ * SHA-1 hash of the content of the .tgff file, so any change to the file
+ * makes its old snapshot unreachable and the file is parsed again.
+ * <p>
+ * A snapshot holds the symbols of the benchmark (see {@link E3sSymbols}),
+ * then the platform (the communication volumes, the cores and the wire bit
+ * width, which are shared by all the CTGs of a benchmark) only once, followed
+ * by the tasks, arcs and deadlines of each CTG. The symbols are interned
+ * first, in the order in which the .tgff file interned them, so a benchmark
+ * loaded from a snapshot has the same symbols as a parsed one. The CTGs are
+ * built again when a snapshot is loaded.
+ * </p>
+ * <p>
+ * A snapshot which cannot be read (e.g.: a truncated or a corrupt file) is
+ * ignored: the .tgff file is parsed and the snapshot is saved again. The
+ * snapshots are written to temporary files, which are then renamed, so
+ * multiple threads or processes may share the same directory.
+ * </p>
+ *
+ * @author Ciprian Radu
+ *
+ */
+public class E3sTgffSnapshotCache {
+
+	/**
+	 * Logger for this class
+	 */
+	private static final Logger logger = Logger
+			.getLogger(E3sTgffSnapshotCache.class);
+
+	/** identifies the snapshot files */
+	private static final int MAGIC = 0x45335353;
+
+	/** must be changed each time the snapshot format changes */
+	private static final int VERSION = 4;
+
+	private static final String SNAPSHOT_EXTENSION = ".snapshot";
+
+	/** the largest size of a list which is accepted from a snapshot */
+	private static final int MAX_SIZE = 1 << 24;
+
+	private static final E3sCoreParams[] CORE_PARAMS = E3sCoreParams.values();
+
+	private static final DeadlineType[] DEADLINE_TYPES = DeadlineType.values();
+
+	/** the directory with the snapshots */
+	private File directory;
+
+	/**
+	 * Constructor
+	 *
+	 * @param directory
+	 *            the directory where the snapshots are kept (it is created if
+	 *            it doesn't exist)
+	 */
+	public E3sTgffSnapshotCache(File directory) {
+		logger.assertLog(directory != null, "A directory must be specified");
+
+		this.directory = directory;
+	}
+
+	/**
+	 * Loads the E3S benchmark from the specified .tgff file. If a snapshot of
+	 * the file content exists, the benchmark is read from the snapshot.
+	 * Otherwise, the file is parsed and a snapshot is saved for later loads.
+	 *
+	 * @param filePath
+	 *            the path to the .tgff file
+	 * @return the E3S Communication Task Graphs
+	 * @throws IOException
+	 *             if the file cannot be read or it is not a valid E3S file
+	 */
+	public List<E3sBenchmarkData> load(String filePath) throws IOException {
+		File snapshot = new File(directory, hash(filePath) + SNAPSHOT_EXTENSION);
+		List<E3sBenchmarkData> e3sCtgs = null;
+		if (snapshot.isFile()) {
+			try {
+				e3sCtgs = read(snapshot, filePath);
+				if (logger.isDebugEnabled()) {
+					logger.debug("Loaded " + filePath + " from the snapshot " + snapshot);
+				}
+			} catch (IOException e) {
+				logger.warn("Ignoring the unreadable snapshot " + snapshot, e);
+			} catch (RuntimeException e) {
+				// a corrupt snapshot may still have a valid structure
+				logger.warn("Ignoring the invalid snapshot " + snapshot, e);
+			}
+			if (e3sCtgs == null) {
+				// it is replaced by the snapshot saved below
+				snapshot.delete();
+			}
+		}
+		if (e3sCtgs == null) {
+			// the file may change after it was hashed, so the snapshot is
+			// saved under the hash of the content which is actually parsed
+			MessageDigest digest = createDigest();
+			E3sBenchmarkDataBuilder builder = new E3sBenchmarkDataBuilder();
+			DigestInputStream stream = new DigestInputStream(
+					new FileInputStream(filePath), digest);
+			try {
+				new E3sTgffReader(filePath, new E3sTgffLexer(stream), builder).read();
+				// the rest of the file (if any) is hashed too
+				byte[] buffer = new byte[64 * 1024];
+				while (stream.read(buffer) > 0) {
+					// nothing to do
+				}
+			} finally {
+				stream.close();
+			}
+			e3sCtgs = builder.getE3sCtgs();
+			snapshot = new File(directory, toHexString(digest.digest()) + SNAPSHOT_EXTENSION);
+			try {
+				write(e3sCtgs, snapshot);
+			} catch (IOException e) {
+				logger.warn("Could not save the snapshot " + snapshot, e);
+			}
+		}
+		return e3sCtgs;
+	}
+
+	private static MessageDigest createDigest() {
+		try {
+			return MessageDigest.getInstance("SHA-1");
+		} catch (NoSuchAlgorithmException e) {
+			// every Java platform is required to support SHA-1
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static String toHexString(byte[] bytes) {
+		StringBuilder hexString = new StringBuilder();
+		for (byte b : bytes) {
+			hexString.append(Character.forDigit((b >> 4) & 0xF, 16));
+			hexString.append(Character.forDigit(b & 0xF, 16));
+		}
+		return hexString.toString();
+	}
+
+	/**
+	 * Computes the hash of the content of a file.
+	 *
+	 * @param filePath
+	 *            the file path
+	 * @return the SHA-1 hash, as a hexadecimal String
+	 * @throws IOException
+	 */
+	private static String hash(String filePath) throws IOException {
+		MessageDigest digest = createDigest();
+		InputStream stream = new FileInputStream(filePath);
+		try {
+			byte[] buffer = new byte[64 * 1024];
+			int read;
+			while ((read = stream.read(buffer)) > 0) {
+				digest.update(buffer, 0, read);
+			}
+		} finally {
+			stream.close();
+		}
+
+		return toHexString(digest.digest());
+	}
+
+	/**
+	 * Writes the snapshot to a new temporary file, which is then renamed, so
+	 * that a snapshot is never seen half written. If the snapshot cannot be
+	 * renamed because another thread or process has just saved it, its
+	 * snapshot is kept (they have the same content).
+	 */
+	private void write(List<E3sBenchmarkData> e3sCtgs, File snapshot)
+			throws IOException {
+		directory.mkdirs();
+		File temporary = File.createTempFile("e3s", SNAPSHOT_EXTENSION, directory);
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+				new FileOutputStream(temporary)));
+		try {
+			write(e3sCtgs, out);
+		} finally {
+			out.close();
+		}
+		if (!temporary.renameTo(snapshot)) {
+			temporary.delete();
+			if (!snapshot.isFile()) {
+				throw new IOException("Could not rename " + temporary + " to " + snapshot);
+			}
+		}
+	}
+
+	private static void write(List<E3sBenchmarkData> e3sCtgs,
+			DataOutputStream out) throws IOException {
+		out.writeInt(MAGIC);
+		out.writeInt(VERSION);
+
+		E3sSymbols symbols = e3sCtgs.get(0).getSymbols();
+		write(symbols.getTaskNames(), out);
+		write(symbols.getTaskTypes(), out);
+		write(symbols.getArcTypes(), out);
+		write(symbols.getCoreIds(), out);
+
+		// the platform is shared by all the CTGs
+		E3sPlatform platform = e3sCtgs.get(0).getPlatform();
+		List<E3sCommunicationVolume> communicationVolumes = platform.getCommunicationVolumes();
+		out.writeInt(communicationVolumes.size());
+		for (E3sCommunicationVolume communicationVolume : communicationVolumes) {
+			out.writeUTF(communicationVolume.getType());
+			out.writeDouble(communicationVolume.getVolume());
+		}
+		List<E3sCore> cores = platform.getCores();
+		out.writeInt(cores.size());
+		for (E3sCore core : cores) {
+			out.writeUTF(core.getName());
+			out.writeUTF(core.getId());
+			out.writeDouble(core.getPrice());
+			out.writeDouble(core.getBuffered());
+			out.writeDouble(core.getMaxFrequency());
+			out.writeDouble(core.getWidth());
+			out.writeDouble(core.getHeight());
+			out.writeDouble(core.getDensity());
+			out.writeDouble(core.getPreemptPower());
+			out.writeDouble(core.getCommunicationEnergyBit());
+			out.writeDouble(core.getIoEnergy());
+			out.writeDouble(core.getIdlePower());
+			List<E3sTaskCore> taskCores = core.getE3sTaskCores();
+			out.writeInt(taskCores.size());
+			for (E3sTaskCore taskCore : taskCores) {
+				out.writeUTF(taskCore.getType());
+				out.writeDouble(taskCore.getVersion());
+				out.writeDouble(taskCore.getValid());
+				out.writeDouble(taskCore.getTaskTime());
+				out.writeDouble(taskCore.getPreemtTime());
+				out.writeDouble(taskCore.getCodeBits());
+				out.writeDouble(taskCore.getTaskPower());
+			}
+		}
+		out.writeInt(platform.getWireBitWidth());
+		out.writeDouble(e3sCtgs.get(0).getHyperperiod());
+
+		out.writeInt(e3sCtgs.size());
+		for (E3sBenchmarkData e3sCtg : e3sCtgs) {
+			out.writeInt(e3sCtg.getCtgId());
+			out.writeDouble(e3sCtg.getPeriod());
+			List<E3sVertex> vertices = e3sCtg.getVertices();
+			out.writeInt(vertices.size());
+			for (E3sVertex vertex : vertices) {
+				out.writeUTF(vertex.getName());
+				out.writeUTF(vertex.getType());
+			}
+			List<E3sEdge> edges = e3sCtg.getEdges();
+			out.writeInt(edges.size());
+			for (E3sEdge edge : edges) {
+				out.writeUTF(edge.getName());
+				out.writeUTF(edge.getFrom());
+				out.writeUTF(edge.getTo());
+				out.writeUTF(edge.getType());
+			}
+			List<E3sDeadline> deadlines = e3sCtg.getDeadlines();
+			out.writeInt(deadlines.size());
+			for (E3sDeadline deadline : deadlines) {
+				out.writeByte(deadline.getType().ordinal());
+				out.writeUTF(deadline.getDeadlineName());
+				out.writeUTF(deadline.getTaskName());
+				out.writeDouble(deadline.getTime());
+			}
+		}
+	}
+
+	private static void write(E3sSymbolTable table, DataOutputStream out)
+			throws IOException {
+		int size = table.size();
+		out.writeInt(size);
+		for (int symbol = 0; symbol < size; symbol++) {
+			out.writeUTF(table.getString(symbol));
+		}
+	}
+
+	private static List<E3sBenchmarkData> read(File snapshot, String name)
+			throws IOException {
+		DataInputStream in = new DataInputStream(new BufferedInputStream(
+				new FileInputStream(snapshot)));
+		try {
+			return read(in, name);
+		} finally {
+			in.close();
+		}
+	}
+
+	private static List<E3sBenchmarkData> read(DataInputStream in, String name)
+			throws IOException {
+		if (in.readInt() != MAGIC) {
+			throw new IOException("Not an E3S snapshot");
+		}
+		if (in.readInt() != VERSION) {
+			throw new IOException("Unsupported E3S snapshot version");
+		}
+
+		E3sSymbols symbols = new E3sSymbols();
+		read(symbols.getTaskNames(), in);
+		read(symbols.getTaskTypes(), in);
+		read(symbols.getArcTypes(), in);
+		read(symbols.getCoreIds(), in);
+
+		int size = readSize(in);
+		List<E3sCommunicationVolume> communicationVolumes = new ArrayList<E3sCommunicationVolume>(size);
+		for (int i = 0; i < size; i++) {
+			communicationVolumes.add(symbols.createCommunicationVolume(
+					in.readUTF(), in.readDouble()));
+		}
+		size = readSize(in);
+		List<E3sCore> cores = new ArrayList<E3sCore>(size);
+		for (int i = 0; i < size; i++) {
+			E3sCore core = symbols.createCore(in.readUTF(), in.readUTF());
+			for (int j = 0; j < CORE_PARAMS.length; j++) {
+				core.setCoreParameter(CORE_PARAMS[j], in.readDouble());
+			}
+			int taskCores = readSize(in);
+			for (int j = 0; j < taskCores; j++) {
+				E3sTaskCore taskCore = new E3sTaskCore();
+				taskCore.setType(in.readUTF());
+				taskCore.setVersion(in.readDouble());
+				taskCore.setValid(in.readDouble());
+				taskCore.setTaskTime(in.readDouble());
+				taskCore.setPreemtTime(in.readDouble());
+				taskCore.setCodeBits(in.readDouble());
+				taskCore.setTaskPower(in.readDouble());
+				symbols.intern(taskCore);
+				core.addE3sTaskCore(taskCore);
+			}
+			cores.add(core);
+		}
+		E3sPlatform platform = new E3sPlatform(symbols, cores,
+				communicationVolumes, in.readInt());
+		double hyperperiod = readTime(in);
+
+		size = readSize(in);
+		List<E3sBenchmarkData> e3sCtgs = new ArrayList<E3sBenchmarkData>(size);
+		for (int i = 0; i < size; i++) {
+			E3sBenchmarkData e3sCtg = new E3sBenchmarkData(name, in.readInt());
+			e3sCtg.setSymbols(symbols);
+			e3sCtg.setPeriod(readTime(in));
+			int count = readSize(in);
+			for (int j = 0; j < count; j++) {
+				e3sCtg.addTask(in.readUTF(), in.readUTF());
+			}
+			count = readSize(in);
+			for (int j = 0; j < count; j++) {
+				e3sCtg.addEdge(in.readUTF(), in.readUTF(), in.readUTF(),
+						in.readUTF());
+			}
+			count = readSize(in);
+			for (int j = 0; j < count; j++) {
+				int type = in.readByte();
+				if (type < 0 || type >= DEADLINE_TYPES.length) {
+					throw new IOException("Invalid deadline type: " + type);
+				}
+				e3sCtg.addDeadline(DEADLINE_TYPES[type], in.readUTF(),
+						in.readUTF(), in.readDouble());
+			}
+			e3sCtg.setPlatform(platform);
+			e3sCtg.setHyperperiod(hyperperiod);
+			e3sCtg.buildCtg();
+			e3sCtgs.add(e3sCtg);
+		}
+
+		return e3sCtgs;
+	}
+
+	private static void read(E3sSymbolTable table, DataInputStream in)
+			throws IOException {
+		int size = readSize(in);
+		for (int symbol = 0; symbol < size; symbol++) {
+			if (table.intern(in.readUTF()) != symbol) {
+				throw new IOException("Duplicate symbol: " + symbol);
+			}
+		}
+	}
+
+	/**
+	 * Reads the size of a list (the snapshot may be corrupt, so it is checked
+	 * before the list is allocated).
+	 */
+	private static int readSize(DataInputStream in) throws IOException {
+		int size = in.readInt();
+		if (size < 0 || size > MAX_SIZE) {
+			throw new IOException("Invalid size: " + size);
+		}
+		return size;
+	}
+
+	/**
+	 * Reads a period or a hyperperiod (it is checked like a size).
+	 */
+	private static double readTime(DataInputStream in) throws IOException {
+		double time = in.readDouble();
+		if (!(time >= 0)) {
+			throw new IOException("Invalid time: " + time);
+		}
+		return time;
+	}
+
+}
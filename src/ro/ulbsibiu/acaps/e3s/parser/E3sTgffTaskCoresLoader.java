@@ -0,0 +1,95 @@
+package ro.ulbsibiu.acaps.e3s.parser;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import ro.ulbsibiu.acaps.e3s.ctg.E3sCore;
+import ro.ulbsibiu.acaps.e3s.ctg.E3sTaskCore;
+import ro.ulbsibiu.acaps.e3s.ctg.E3sTaskCore.E3sTaskCoreParams;
+import ro.ulbsibiu.acaps.e3s.ctg.E3sTaskCoresLoader;
+
+/**
+ * Parses the task table of a core, from a memory mapped E3S .tgff file. Only
+ * the location of the task table is remembered when the file is parsed; the
+ * table is parsed when its tasks are first requested.
+ *
+ * @author Ciprian Radu
+ *
+ */
+class E3sTgffTaskCoresLoader implements E3sTaskCoresLoader {
+
+	private static final E3sTaskCoreParams[] TASK_CORE_PARAMS = E3sTaskCoreParams.values();
+
+	/** the name of the benchmark (used for the error messages) */
+	private String name;
+
+	/** the buffer with the entire file */
+	private ByteBuffer buffer;
+
+	/** where the task table begins (in the buffer) */
+	private int start;
+
+	/** where the task table ends (exclusive) */
+	private int end;
+
+	/** the line where the task table begins */
+	private int line;
+
+	/**
+	 * Constructor
+	 *
+	 * @param name
+	 *            the name of the benchmark
+	 * @param buffer
+	 *            the buffer with the entire file
+	 * @param start
+	 *            where the task table begins (in the buffer)
+	 * @param end
+	 *            where the task table ends (exclusive)
+	 * @param line
+	 *            the line where the task table begins
+	 */
+	E3sTgffTaskCoresLoader(String name, ByteBuffer buffer, int start, int end,
+			int line) {
+		this.name = name;
+		this.buffer = buffer;
+		this.start = start;
+		this.end = end;
+		this.line = line;
+	}
+
+	@Override
+	public List<E3sTaskCore> loadE3sTaskCores(E3sCore core) {
+		ByteBuffer taskTable = buffer.duplicate();
+		taskTable.limit(end);
+		taskTable.position(start);
+		E3sTgffLexer lexer = new E3sTgffLexer(taskTable, line);
+
+		List<E3sTaskCore> e3sTaskCores = new ArrayList<E3sTaskCore>();
+		E3sTaskCore e3sTaskCore = null;
+		int taskCoreParamIndex = 0;
+		try {
+			while (lexer.nextWord()) {
+				if (taskCoreParamIndex == 0) {
+					e3sTaskCore = new E3sTaskCore();
+					e3sTaskCores.add(e3sTaskCore);
+				}
+				e3sTaskCore.setTaskCoreParameter(
+						TASK_CORE_PARAMS[taskCoreParamIndex], lexer.wordDouble());
+				taskCoreParamIndex = (taskCoreParamIndex + 1) % TASK_CORE_PARAMS.length;
+			}
+		} catch (IOException e) {
+			// the lexer reads only from the buffer
+			throw new IllegalStateException(e);
+		} catch (NumberFormatException e) {
+			throw new IllegalStateException(name + ": expected a core parameter at line "
+					+ lexer.getLine() + " but found " + lexer.wordString() + " (core "
+					+ core.getName() + ")");
+		}
+
+		return e3sTaskCores;
+	}
+
+}
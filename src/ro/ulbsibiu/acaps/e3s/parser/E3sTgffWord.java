@@ -0,0 +1,62 @@
+package ro.ulbsibiu.acaps.e3s.parser;
+
+/**
+ * A reusable {@link CharSequence} which holds a copy of a word read by the
+ * {@link E3sTgffLexer}. The parser gives its handler such words instead of
+ * creating a String for each value.
+ * 
+ * @author Ciprian Radu
+ * 
+ */
+class E3sTgffWord implements CharSequence {
+
+	private char[] chars = new char[32];
+
+	private int length;
+
+	/**
+	 * Empties this word.
+	 */
+	void clear() {
+		length = 0;
+	}
+
+	/**
+	 * Appends an (ASCII) character to this word.
+	 * 
+	 * @param b
+	 *            the character
+	 */
+	void append(byte b) {
+		if (length == chars.length) {
+			char[] larger = new char[chars.length * 2];
+			System.arraycopy(chars, 0, larger, 0, length);
+			chars = larger;
+		}
+		chars[length++] = (char) (b & 0xFF);
+	}
+
+	@Override
+	public int length() {
+		return length;
+	}
+
+	@Override
+	public char charAt(int index) {
+		if (index < 0 || index >= length) {
+			throw new IndexOutOfBoundsException(Integer.toString(index));
+		}
+		return chars[index];
+	}
+
+	@Override
+	public CharSequence subSequence(int start, int end) {
+		return toString().subSequence(start, end);
+	}
+
+	@Override
+	public String toString() {
+		return new String(chars, 0, length);
+	}
+
+}
@@ -6,8 +6,10 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBElement;
@@ -24,6 +26,7 @@ import ro.ulbsibiu.acaps.ctg.xml.task.TaskType;
 import ro.ulbsibiu.acaps.e3s.ctg.E3sBenchmarkData;
 import ro.ulbsibiu.acaps.e3s.ctg.E3sCore;
 import ro.ulbsibiu.acaps.e3s.ctg.E3sDeadline;
+import ro.ulbsibiu.acaps.e3s.ctg.E3sDeadlineIndex;
 import ro.ulbsibiu.acaps.e3s.ctg.E3sEdge;
 import ro.ulbsibiu.acaps.e3s.ctg.E3sTaskCore;
 import ro.ulbsibiu.acaps.e3s.ctg.E3sVertex;
@@ -60,35 +63,49 @@ public class E3sToXmlParser {
 	 * Each {@link E3sBenchmarkData} corresponds to a CTG from a benchmark.
 	 * Multiple CTGs may exist in a benchmark set, each CTG will have the same
 	 * cores associated. Thus, parsing cores must really be made only for the
-	 * first CTG of each benchmark.
+	 * first CTG of each benchmark. This keeps the names of the benchmarks
+	 * whose cores were parsed during the same conversion (it is given by the
+	 * caller, which may convert benchmarks concurrently).
 	 */
-	private static boolean coresParsed;
-
-	/** keeps the name of the last parsed E3S benchmark */
-	private static String oldName = "";
+	private Set<String> coresParsed;
 
 	/**
-	 * maps tasks, by their names, to their IDs, given when the tasks XML files
-	 * are created (note that the task type is not an ID; it is just a reference
-	 * in the all-tasks file from E3S)
+	 * Constructor (the cores are always parsed)
+	 * 
+	 * @param e3sBenchmarkData
+	 *            the E3S benchmark (cannot be <tt>null</tt>)
 	 */
-	private static Map<String, String> taskNameToIdMap;
+	public E3sToXmlParser(E3sBenchmarkData e3sBenchmarkData) {
+		this(e3sBenchmarkData, new HashSet<String>());
+	}
 
 	/**
 	 * Constructor
 	 * 
 	 * @param e3sBenchmarkData
 	 *            the E3S benchmark (cannot be <tt>null</tt>)
+	 * @param coresParsed
+	 *            the names of the benchmarks whose cores were already parsed
+	 *            by the current conversion (cannot be <tt>null</tt>); the
+	 *            cores are parsed only if the name of the benchmark is not in
+	 *            this set and then the name is added to it (the set must be
+	 *            synchronized if it is used by multiple threads)
 	 */
-	public E3sToXmlParser(E3sBenchmarkData e3sBenchmarkData) {
+	public E3sToXmlParser(E3sBenchmarkData e3sBenchmarkData,
+			Set<String> coresParsed) {
 		logger.assertLog(e3sBenchmarkData != null, "An E3sBenchmarkData must be specified");
+		logger.assertLog(coresParsed != null, "A set of benchmark names must be specified");
 
 		this.e3sBenchmarkData = e3sBenchmarkData;
-		coresParsed = false;
-		taskNameToIdMap = null;
+		this.coresParsed = coresParsed;
 	}
 
-	private static void parseTasks(List<E3sVertex> vertices,
+	/**
+	 * @return a map with the tasks, by their names, to their IDs, given when
+	 *         the tasks XML files are created (note that the task type is not
+	 *         an ID; it is just a reference in the all-tasks file from E3S)
+	 */
+	private static Map<String, String> parseTasks(List<E3sVertex> vertices,
 			String e3sBenchmarkName, int ctgId) throws JAXBException,
 			FileNotFoundException {
 		if (logger.isInfoEnabled()) {
@@ -99,7 +116,7 @@ public class E3sToXmlParser {
 		File e3sBenchmarkFile = new File(E3S_XML_FILE_PATH + e3sBenchmarkName);
 		e3sBenchmarkFile.mkdirs();
 
-		taskNameToIdMap = new HashMap<String, String>(vertices.size());
+		Map<String, String> taskNameToIdMap = new HashMap<String, String>(vertices.size());
 
 		for (int i = 0; i < vertices.size(); i++) {
 			E3sVertex e3sVertex = vertices.get(i);
@@ -125,6 +142,8 @@ public class E3sToXmlParser {
 			}
 			marshaller.marshal(task, new FileOutputStream(name));
 		}
+		
+		return taskNameToIdMap;
 	}
 
 	private static void parseCores(List<E3sCore> cores,
@@ -170,24 +189,8 @@ public class E3sToXmlParser {
 		}
 	}
 
-	private static E3sDeadline findDeadline(List<E3sDeadline> deadlines,
-			String task, ro.ulbsibiu.acaps.e3s.ctg.E3sDeadline.DeadlineType type) {
-		E3sDeadline deadline = null;
-
-		for (int i = 0; i < deadlines.size(); i++) {
-			E3sDeadline e3sDeadline = deadlines.get(i);
-			if (task.equals(e3sDeadline.getTaskName())
-					&& type.equals(e3sDeadline.getType())) {
-				deadline = e3sDeadline;
-				break;
-			}
-		}
-
-		return deadline;
-	}
-
-	private static void parseCtgs(List<E3sVertex> vertices,
-			List<E3sEdge> edges, List<E3sDeadline> deadlines, double period,
+	private static void parseCtgs(Map<String, String> taskNameToIdMap,
+			List<E3sEdge> edges, E3sDeadlineIndex deadlineIndex, double period,
 			String e3sBenchmarkName, int ctgId) throws JAXBException,
 			FileNotFoundException {
 		if (logger.isInfoEnabled()) {
@@ -211,8 +214,7 @@ public class E3sToXmlParser {
 			CommunicatingTaskType source = new CommunicatingTaskType();
 			String sourceId = taskNameToIdMap.get(e3sEdge.getFrom());
 			source.setId(sourceId);
-			E3sDeadline sourceE3sDeadline = findDeadline(deadlines,
-					e3sEdge.getFrom(),
+			E3sDeadline sourceE3sDeadline = deadlineIndex.getDeadline(e3sEdge.getFrom(),
 					ro.ulbsibiu.acaps.e3s.ctg.E3sDeadline.DeadlineType.HARD);
 			if (sourceE3sDeadline != null) {
 				DeadlineType sourceDeadline = new DeadlineType();
@@ -221,7 +223,7 @@ public class E3sToXmlParser {
 				sourceDeadline.setValue(sourceE3sDeadline.getTime());
 				source.getDeadline().add(sourceDeadline);
 			}
-			sourceE3sDeadline = findDeadline(deadlines, e3sEdge.getFrom(),
+			sourceE3sDeadline = deadlineIndex.getDeadline(e3sEdge.getFrom(),
 					ro.ulbsibiu.acaps.e3s.ctg.E3sDeadline.DeadlineType.SOFT);
 			if (sourceE3sDeadline != null) {
 				DeadlineType sourceDeadline = new DeadlineType();
@@ -235,8 +237,7 @@ public class E3sToXmlParser {
 			CommunicatingTaskType destination = new CommunicatingTaskType();
 			String destinationId = taskNameToIdMap.get(e3sEdge.getTo());
 			destination.setId(destinationId);
-			E3sDeadline destinationE3sDeadline = findDeadline(deadlines,
-					e3sEdge.getTo(),
+			E3sDeadline destinationE3sDeadline = deadlineIndex.getDeadline(e3sEdge.getTo(),
 					ro.ulbsibiu.acaps.e3s.ctg.E3sDeadline.DeadlineType.HARD);
 			if (destinationE3sDeadline != null) {
 				DeadlineType destinationDeadline = new DeadlineType();
@@ -245,7 +246,7 @@ public class E3sToXmlParser {
 				destinationDeadline.setValue(destinationE3sDeadline.getTime());
 				destination.getDeadline().add(destinationDeadline);
 			}
-			destinationE3sDeadline = findDeadline(deadlines, e3sEdge.getTo(),
+			destinationE3sDeadline = deadlineIndex.getDeadline(e3sEdge.getTo(),
 					ro.ulbsibiu.acaps.e3s.ctg.E3sDeadline.DeadlineType.SOFT);
 			if (destinationE3sDeadline != null) {
 				DeadlineType destinationDeadline = new DeadlineType();
@@ -286,21 +287,16 @@ public class E3sToXmlParser {
 			logger.info("Parsing the E3S benchmark data to XML files");
 		}
 
-		if (oldName.equals(e3sBenchmarkData.getName())) {
-			coresParsed = true;
-		} else {
-			coresParsed = false;
-		}
-		parseTasks(e3sBenchmarkData.getVertices(), e3sBenchmarkData.getName(),
+		Map<String, String> taskNameToIdMap = parseTasks(
+				e3sBenchmarkData.getVertices(), e3sBenchmarkData.getName(),
 				e3sBenchmarkData.getCtgId());
-		if (!coresParsed) {
+		if (coresParsed.add(e3sBenchmarkData.getName())) {
 			parseCores(e3sBenchmarkData.getCores(), e3sBenchmarkData.getName(),
 					e3sBenchmarkData.getCtgId());
 		}
-		parseCtgs(e3sBenchmarkData.getVertices(), e3sBenchmarkData.getEdges(),
-				e3sBenchmarkData.getDeadlines(), e3sBenchmarkData.getPeriod(),
+		parseCtgs(taskNameToIdMap, e3sBenchmarkData.getEdges(),
+				e3sBenchmarkData.getDeadlineIndex(), e3sBenchmarkData.getPeriod(),
 				e3sBenchmarkData.getName(), e3sBenchmarkData.getCtgId());
-		oldName = e3sBenchmarkData.getName();
 	}
 
 }
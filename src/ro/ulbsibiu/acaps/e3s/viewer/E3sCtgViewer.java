@@ -1,6 +1,7 @@
 package ro.ulbsibiu.acaps.e3s.viewer;
 import java.awt.BorderLayout;
-import java.io.FileNotFoundException;
+import java.io.File;
+import java.io.IOException;
 import java.util.List;
 
 import javax.swing.JApplet;
@@ -8,15 +9,14 @@ import javax.swing.JFrame;
 
 import org.jgraph.JGraph;
 import org.jgraph.graph.VertexView;
-import org.jgrapht.graph.DefaultDirectedWeightedGraph;
+import org.jgrapht.Graph;
 
 import ro.ulbsibiu.acaps.e3s.ctg.E3sBenchmarkData;
 import ro.ulbsibiu.acaps.e3s.parser.E3sTgffFileParser;
+import ro.ulbsibiu.acaps.e3s.parser.E3sTgffSnapshotCache;
 
 import com.jgraph.components.labels.MultiLineVertexRenderer;
 
-import de.susebox.jtopas.TokenizerException;
-
 /**
  * @author Ciprian Radu
  *
@@ -28,9 +28,9 @@ public class E3sCtgViewer extends JApplet {
 
 	private E3sJGraphModelAdapter jgAdapter;
 	
-	private DefaultDirectedWeightedGraph<Object, Object>  ctg;
+	private Graph<Object, Object> ctg;
 	
-	public E3sCtgViewer(DefaultDirectedWeightedGraph<Object, Object> ctg) {
+	public E3sCtgViewer(Graph<Object, Object> ctg) {
 		this.ctg = ctg;
 	}
 	
@@ -38,7 +38,11 @@ public class E3sCtgViewer extends JApplet {
         // create a visualization using JGraph, via an adapter
         jgAdapter = new E3sJGraphModelAdapter(ctg);
         JGraph jgraph = new JGraph(jgAdapter);
-		
+        // the CTG is only viewed (the graph may not support modifications)
+        jgraph.setEditable(false);
+        jgraph.setConnectable(false);
+        jgraph.setDisconnectable(false);
+
 		// Overrides the global vertex renderer
 		VertexView.renderer = new MultiLineVertexRenderer();
 		JGraphLayoutPanel layoutPanel = new JGraphLayoutPanel(jgraph);
@@ -57,19 +61,26 @@ public class E3sCtgViewer extends JApplet {
 
 	/**
 	 * Starts the demo as an application.
-	 * @throws TokenizerException
-	 * @throws FileNotFoundException 
+	 * @throws IOException
 	 */
-	public static void main(String[] args) throws FileNotFoundException, TokenizerException {
-		if (args == null || args.length == 0) {
-			System.err.println("usage:   java E3sCtgViewer.class <.tgff file>");
+	public static void main(String[] args) throws IOException {
+		final String CACHE = "-cache";
+		if (args == null || args.length == 0
+				|| (CACHE.equals(args[0]) && args.length < 3)) {
+			System.err.println("usage:   java E3sCtgViewer.class [-cache dir] <.tgff file>");
 			System.err.println("example: java E3sCtgViewer.class e3s/telecom-mocsyn.tgff");
+			System.err.println("example (reuse the parsed benchmark from a snapshot cache): java E3sCtgViewer.class -cache e3s-cache e3s/telecom-mocsyn.tgff");
 		} else {
-	    	E3sTgffFileParser e3sFileParser = new E3sTgffFileParser(args[0]);
-			e3sFileParser.parseTgffFile();
-			List<E3sBenchmarkData> ctgs = e3sFileParser.getE3sCtgs();
+			List<E3sBenchmarkData> ctgs;
+			if (CACHE.equals(args[0])) {
+				ctgs = new E3sTgffSnapshotCache(new File(args[1])).load(args[2]);
+			} else {
+		    	E3sTgffFileParser e3sFileParser = new E3sTgffFileParser(args[0]);
+				e3sFileParser.parseTgffFile();
+				ctgs = e3sFileParser.getE3sCtgs();
+			}
 			for (int i = ctgs.size() - 1; i >= 0; i--) {
-				E3sCtgViewer app = new E3sCtgViewer(ctgs.get(i).getCtg());
+				E3sCtgViewer app = new E3sCtgViewer(ctgs.get(i).getCompactCtg().asGraph());
 				
 				// Switch off D3D because of Sun XOR painting bug
 				// See http://www.jgraph.com/forum/viewtopic.php?t=4066
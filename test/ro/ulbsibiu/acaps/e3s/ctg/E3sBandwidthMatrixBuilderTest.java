@@ -0,0 +1,81 @@
+package ro.ulbsibiu.acaps.e3s.ctg;
+
+import java.util.Arrays;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+/**
+ * Checks the bandwidth matrices of the {@link E3sSmallBenchmark}, computed by
+ * hand. The bandwidth of an arc is its communication volume divided by the
+ * period of its CTG: 10 / 0.5 = 20 and 30 / 0.5 = 60 for CTG 0 and
+ * 30 / 0.25 = 120 for CTG 1.
+ * 
+ * @author Ciprian Radu
+ * 
+ */
+public class E3sBandwidthMatrixBuilderTest extends TestCase {
+
+	private List<E3sBenchmarkData> e3sCtgs;
+
+	@Override
+	protected void setUp() throws Exception {
+		e3sCtgs = E3sSmallBenchmark.parse();
+	}
+
+	public void testSingleCtg() {
+		E3sBandwidthMatrix matrix = e3sCtgs.get(0).getBandwidthMatrix();
+		assertEquals(6, matrix.getTaskCount());
+		assertEquals(6, matrix.getEntryCount());
+		assertEquals(20.0, matrix.getBandwidth(0, 1), 0);
+		assertEquals(60.0, matrix.getBandwidth(0, 2), 0);
+		assertEquals(20.0, matrix.getBandwidth(0, 5), 0);
+		assertEquals(60.0, matrix.getBandwidth(1, 3), 0);
+		assertEquals(60.0, matrix.getBandwidth(2, 3), 0);
+		assertEquals(20.0, matrix.getBandwidth(3, 4), 0);
+		assertEquals(0.0, matrix.getBandwidth(1, 0), 0);
+		assertEquals(-1, matrix.getEntry(4, 3));
+		assertEquals(240.0, matrix.getTotalBandwidth(), 0);
+
+		// the entries are sorted by row and, within a row, by column
+		assertTrue(Arrays.equals(new int[] { 0, 3, 4, 5, 6, 6, 6 },
+				matrix.getRowOffsets()));
+		assertTrue(Arrays.equals(new int[] { 0, 0, 0, 1, 2, 3 },
+				matrix.getRows()));
+		assertTrue(Arrays.equals(new int[] { 1, 2, 5, 3, 3, 4 },
+				matrix.getColumns()));
+	}
+
+	public void testRepeatedArcs() {
+		// the two arcs from x to y are summed
+		E3sBandwidthMatrix matrix = e3sCtgs.get(1).getBandwidthMatrix();
+		assertEquals(2, matrix.getTaskCount());
+		assertEquals(1, matrix.getEntryCount());
+		assertEquals(240.0, matrix.getBandwidth(0, 1), 0);
+	}
+
+	public void testMultipleCtgs() {
+		E3sBandwidthMatrixBuilder builder = new E3sBandwidthMatrixBuilder();
+		assertEquals(0, builder.addCtg(e3sCtgs.get(0)));
+		assertEquals(6, builder.addCtg(e3sCtgs.get(1)));
+		E3sBandwidthMatrix matrix = builder.build();
+		assertEquals(8, matrix.getTaskCount());
+		assertEquals(7, matrix.getEntryCount());
+		assertEquals(60.0, matrix.getBandwidth(2, 3), 0);
+		assertEquals(240.0, matrix.getBandwidth(6, 7), 0);
+		assertEquals(0.0, matrix.getBandwidth(5, 6), 0);
+		assertEquals(480.0, matrix.getTotalBandwidth(), 0);
+	}
+
+	public void testNoPeriod() {
+		E3sBenchmarkData e3sBenchmarkData = e3sCtgs.get(0);
+		e3sBenchmarkData.setPeriod(0);
+		try {
+			new E3sBandwidthMatrixBuilder().addCtg(e3sBenchmarkData);
+			fail("A CTG without a period was added");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+	}
+
+}
@@ -0,0 +1,76 @@
+package ro.ulbsibiu.acaps.e3s.ctg;
+
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+
+/**
+ * Checks the analysis of CTG 0 of the {@link E3sSmallBenchmark}, computed by
+ * hand. The tasks a, b, c, d, e, f are the tasks 0 to 5 of the compact CTG.
+ * 
+ * @author Ciprian Radu
+ * 
+ */
+public class E3sCtgAnalyticsTest extends TestCase {
+
+	private E3sCtgAnalytics analytics;
+
+	@Override
+	protected void setUp() throws Exception {
+		analytics = E3sSmallBenchmark.parse().get(0).getAnalytics();
+	}
+
+	public void testTopologicalOrder() {
+		int[] order = analytics.getTopologicalOrder();
+		assertEquals(6, order.length);
+		int[] positions = new int[order.length];
+		for (int i = 0; i < order.length; i++) {
+			positions[order[i]] = i;
+		}
+		assertTrue(positions[0] < positions[1]);
+		assertTrue(positions[0] < positions[2]);
+		assertTrue(positions[0] < positions[5]);
+		assertTrue(positions[1] < positions[3]);
+		assertTrue(positions[2] < positions[3]);
+		assertTrue(positions[3] < positions[4]);
+	}
+
+	public void testLevels() {
+		assertEquals(4, analytics.getLevelCount());
+		assertTrue(Arrays.equals(new int[] { 0, 1, 1, 2, 3, 1 },
+				analytics.getAsapLevels()));
+		// f has no successors, so it can wait until the last level
+		assertTrue(Arrays.equals(new int[] { 0, 1, 1, 2, 3, 3 },
+				analytics.getAlapLevels()));
+	}
+
+	public void testCommunicationPath() {
+		// a -> c -> d -> e carries 30 + 30 + 10, while a -> b -> d -> e carries 10 + 30 + 10
+		assertTrue(Arrays.equals(new int[] { 0, 2, 3, 4 },
+				analytics.getCommunicationPath()));
+		assertEquals(70.0, analytics.getCommunicationPathVolume(), 0);
+	}
+
+	public void testBestCaseCriticalPath() {
+		// type 0 takes at best 2 seconds (on core 0) and type 1 takes 1 second (on core 1)
+		assertTrue(Arrays.equals(new double[] { 2, 1, 2, 1, 2, 1 },
+				analytics.getBestTaskTimes()));
+		assertTrue(Arrays.equals(new double[] { 2, 3, 4, 5, 7, 3 },
+				analytics.getBestCaseFinishTimes()));
+		assertTrue(Arrays.equals(new int[] { 0, 2, 3, 4 },
+				analytics.getBestCaseCriticalPath()));
+		assertEquals(7.0, analytics.getBestCaseCriticalPathLength(), 0);
+	}
+
+	public void testCycle() throws Exception {
+		E3sBenchmarkData e3sBenchmarkData = E3sSmallBenchmark.parse().get(0);
+		e3sBenchmarkData.addEdge("a0_6", "e", "a", "0");
+		try {
+			e3sBenchmarkData.getAnalytics();
+			fail("A CTG with a cycle was analyzed");
+		} catch (IllegalStateException e) {
+			// expected
+		}
+	}
+
+}
@@ -0,0 +1,92 @@
+package ro.ulbsibiu.acaps.e3s.ctg;
+
+import junit.framework.TestCase;
+
+/**
+ * Checks the jobs of the {@link E3sSmallBenchmark}, computed by hand. Over
+ * the hyperperiod of 1 second, CTG 0 (6 tasks, 6 arcs, a period of 0.5) has
+ * 2 instances and CTG 1 (2 tasks, 1 arc, since the repeated arc is ignored, a
+ * period of 0.25) has 4 instances.
+ * 
+ * @author Ciprian Radu
+ * 
+ */
+public class E3sJobSetTest extends TestCase {
+
+	private E3sJobSet jobSet;
+
+	@Override
+	protected void setUp() throws Exception {
+		jobSet = new E3sJobSet(E3sSmallBenchmark.parse());
+	}
+
+	public void testCounts() {
+		assertEquals(1.0, jobSet.getHyperperiod(), 0);
+		assertEquals(2, jobSet.getCtgCount());
+		assertEquals(2, jobSet.getInstanceCount(0));
+		assertEquals(4, jobSet.getInstanceCount(1));
+		assertEquals(2 * 6 + 4 * 2, jobSet.getJobCount());
+		assertEquals(2 * 6 + 4 * 1, jobSet.getEdgeCount());
+		assertEquals(0, jobSet.getFirstJob(0));
+		assertEquals(12, jobSet.getFirstJob(1));
+	}
+
+	public void testJobs() {
+		// task e (4) of the second instance of CTG 0
+		int job = jobSet.getJob(0, 1, 4);
+		assertEquals(10, job);
+		assertEquals(0, jobSet.getJobCtgs()[job]);
+		assertEquals(1, jobSet.getJobInstances()[job]);
+		assertEquals(4, jobSet.getJobTasks()[job]);
+		assertEquals("e", jobSet.getTaskName(job));
+		assertEquals(0.5, jobSet.getReleaseTimes()[job], 0);
+		assertEquals(0.9, jobSet.getHardDeadlines()[job], 1e-12);
+		assertTrue(Double.isNaN(jobSet.getSoftDeadlines()[job]));
+
+		// task y (1) of the last instance of CTG 1
+		job = jobSet.getJob(1, 3, 1);
+		assertEquals(19, job);
+		assertEquals(0.75, jobSet.getReleaseTimes()[job], 0);
+		assertEquals(0.875, jobSet.getSoftDeadlines()[job], 0);
+		assertTrue(Double.isNaN(jobSet.getHardDeadlines()[job]));
+	}
+
+	public void testArcs() {
+		int[] successorOffsets = jobSet.getSuccessorOffsets();
+		int[] successors = jobSet.getSuccessors();
+		int[] predecessorOffsets = jobSet.getPredecessorOffsets();
+		int[] predecessors = jobSet.getPredecessors();
+
+		// task a of the second instance of CTG 0 reaches b, c and f of the same instance
+		int a = jobSet.getJob(0, 1, 0);
+		assertEquals(3, successorOffsets[a + 1] - successorOffsets[a]);
+		assertEquals(jobSet.getJob(0, 1, 1), successors[successorOffsets[a]]);
+		assertEquals(jobSet.getJob(0, 1, 2), successors[successorOffsets[a] + 1]);
+		assertEquals(jobSet.getJob(0, 1, 5), successors[successorOffsets[a] + 2]);
+		assertEquals(10.0, jobSet.getEdgeWeights()[successorOffsets[a]], 0);
+		assertEquals(30.0, jobSet.getEdgeWeights()[successorOffsets[a] + 1], 0);
+
+		// task d of the second instance of CTG 0 is reached from b and c
+		int d = jobSet.getJob(0, 1, 3);
+		assertEquals(2, predecessorOffsets[d + 1] - predecessorOffsets[d]);
+		assertEquals(jobSet.getJob(0, 1, 1), predecessors[predecessorOffsets[d]]);
+		assertEquals(jobSet.getJob(0, 1, 2), predecessors[predecessorOffsets[d] + 1]);
+		int edge = jobSet.getPredecessorEdges()[predecessorOffsets[d]];
+		assertEquals(d, successors[edge]);
+		assertEquals(jobSet.getJob(0, 1, 1), jobSet.getEdgeSources()[edge]);
+
+		// the instances of CTG 1 are not connected
+		int x = jobSet.getJob(1, 2, 0);
+		assertEquals(1, successorOffsets[x + 1] - successorOffsets[x]);
+		assertEquals(jobSet.getJob(1, 2, 1), successors[successorOffsets[x]]);
+		assertEquals(30.0, jobSet.getEdgeWeights()[successorOffsets[x]], 0);
+	}
+
+	public void testHyperperiod() throws Exception {
+		// a hyperperiod which is not a multiple of a period is rounded up
+		E3sJobSet shortJobSet = new E3sJobSet(E3sSmallBenchmark.parse(), 0.6);
+		assertEquals(2, shortJobSet.getInstanceCount(0));
+		assertEquals(3, shortJobSet.getInstanceCount(1));
+	}
+
+}
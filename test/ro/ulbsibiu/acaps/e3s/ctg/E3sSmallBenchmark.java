@@ -0,0 +1,97 @@
+package ro.ulbsibiu.acaps.e3s.ctg;
+
+import java.io.IOException;
+import java.util.List;
+
+import ro.ulbsibiu.acaps.e3s.parser.E3sTgffFileParser;
+
+/**
+ * A small E3S benchmark, whose analysis can be checked by hand. CTG 0 has
+ * six tasks:
+ * 
+ * <pre>
+ *     a --0--> b --1--> d --0--> e
+ *     a --1--> c --1--> d
+ *     a --0--> f
+ * </pre>
+ * 
+ * (the arcs are labeled with their types), a period of 0.5 and a hard
+ * deadline on e. CTG 1 has two tasks, x --1--> y, twice (the second arc
+ * repeats the first one), a period of 0.25 and a soft deadline on y. The
+ * hyperperiod is 1. The communication volume of type 0 is 10 and the one of
+ * type 1 is 30. Task type 0 takes 2 seconds on core 0 and 3 on core 1, while
+ * task type 1 takes 5 seconds on core 0 and 1 on core 1.
+ * 
+ * @author Ciprian Radu
+ * 
+ */
+final class E3sSmallBenchmark {
+
+	static final String TGFF = "@HYPERPERIOD 1\n"
+			+ "\n"
+			+ "@COMMUN_QUANT 0 {\n"
+			+ "0 10\n"
+			+ "1 30\n"
+			+ "}\n"
+			+ "\n"
+			+ "@TASK_GRAPH 0 {\n"
+			+ "PERIOD 0.5\n"
+			+ "\n"
+			+ "TASK a TYPE 0\n"
+			+ "TASK b TYPE 1\n"
+			+ "TASK c TYPE 0\n"
+			+ "TASK d TYPE 1\n"
+			+ "TASK e TYPE 0\n"
+			+ "TASK f TYPE 1\n"
+			+ "\n"
+			+ "ARC a0_0 FROM a TO b TYPE 0\n"
+			+ "ARC a0_1 FROM a TO c TYPE 1\n"
+			+ "ARC a0_2 FROM b TO d TYPE 1\n"
+			+ "ARC a0_3 FROM c TO d TYPE 1\n"
+			+ "ARC a0_4 FROM d TO e TYPE 0\n"
+			+ "ARC a0_5 FROM a TO f TYPE 0\n"
+			+ "\n"
+			+ "HARD_DEADLINE d0_0 ON e AT 0.4\n"
+			+ "}\n"
+			+ "\n"
+			+ "@TASK_GRAPH 1 {\n"
+			+ "PERIOD 0.25\n"
+			+ "\n"
+			+ "TASK x TYPE 0\n"
+			+ "TASK y TYPE 1\n"
+			+ "\n"
+			+ "ARC a1_0 FROM x TO y TYPE 1\n"
+			+ "ARC a1_1 FROM x TO y TYPE 1\n"
+			+ "\n"
+			+ "SOFT_DEADLINE d1_0 ON y AT 0.125\n"
+			+ "}\n"
+			+ "\n"
+			+ "# Slow core\n"
+			+ "@CORE 0 {\n"
+			+ "# price buffered max_freq width height density preempt_power commun_en_bit io_en_bit idle_power\n"
+			+ "  1     1        1e+08    1e-03 1e-03  0.5     0             0             0         0.1\n"
+			+ "# type version valid task_time preempt_time code_bits task_power\n"
+			+ "0       0       1     2         0            1000      1\n"
+			+ "1       0       1     5         0            1000      1\n"
+			+ "}\n"
+			+ "\n"
+			+ "# Fast core\n"
+			+ "@CORE 1 {\n"
+			+ "# price buffered max_freq width height density preempt_power commun_en_bit io_en_bit idle_power\n"
+			+ "  2     1        2e+08    1e-03 1e-03  0.5     0             0             0         0.2\n"
+			+ "# type version valid task_time preempt_time code_bits task_power\n"
+			+ "0       0       1     3         0            1000      2\n"
+			+ "1       0       1     1         0            1000      2\n"
+			+ "}\n";
+
+	private E3sSmallBenchmark() {
+	}
+
+	/**
+	 * @return the CTGs of the benchmark
+	 */
+	static List<E3sBenchmarkData> parse() throws IOException {
+		return E3sTgffFileParser.parseTgff("small", TGFF);
+	}
+
+}
@@ -0,0 +1,109 @@
+package ro.ulbsibiu.acaps.e3s.parser;
+
+import java.io.File;
+import java.util.List;
+
+import junit.framework.TestCase;
+import ro.ulbsibiu.acaps.e3s.ctg.E3sBenchmarkData;
+import ro.ulbsibiu.acaps.e3s.ctg.E3sCoreCatalog;
+
+/**
+ * Checks that all the ways of parsing an E3S benchmark give the same data as
+ * {@link E3sTgffFileParser#parseTgffFile()}, for each benchmark from the
+ * <tt>e3s</tt> directory.
+ * 
+ * @author Ciprian Radu
+ * 
+ */
+public class E3sTgffFileParserTest extends TestCase {
+
+	private static List<E3sBenchmarkData> parse(File file) throws Exception {
+		E3sTgffFileParser parser = new E3sTgffFileParser(file.getPath());
+		parser.parseTgffFile();
+		return parser.getE3sCtgs();
+	}
+
+	public void testMemoryMapped() throws Exception {
+		File[] files = E3sTgffTestFiles.listBenchmarks();
+		for (int i = 0; i < files.length; i++) {
+			E3sTgffFileParser parser = new E3sTgffFileParser(files[i].getPath());
+			parser.parseTgffFile(true);
+			assertEquals(files[i].getName(),
+					E3sTgffTestFiles.describe(parse(files[i]), true),
+					E3sTgffTestFiles.describe(parser.getE3sCtgs(), true));
+		}
+	}
+
+	public void testInParallel() throws Exception {
+		File[] files = E3sTgffTestFiles.listBenchmarks();
+		for (int i = 0; i < files.length; i++) {
+			String expected = E3sTgffTestFiles.describe(parse(files[i]), true);
+			for (int threads = 1; threads <= 4; threads++) {
+				E3sTgffFileParser parser = new E3sTgffFileParser(files[i].getPath());
+				parser.parseTgffFileInParallel(threads);
+				assertEquals(files[i].getName() + " with " + threads + " threads",
+						expected, E3sTgffTestFiles.describe(parser.getE3sCtgs(), true));
+			}
+		}
+	}
+
+	public void testLazily() throws Exception {
+		File[] files = E3sTgffTestFiles.listBenchmarks();
+		for (int i = 0; i < files.length; i++) {
+			E3sTgffFileParser parser = new E3sTgffFileParser(files[i].getPath());
+			parser.parseTgffFileLazily();
+			assertEquals(files[i].getName(),
+					E3sTgffTestFiles.describe(parse(files[i]), true),
+					E3sTgffTestFiles.describe(parser.getE3sCtgs(), true));
+		}
+	}
+
+	public void testOffHeap() throws Exception {
+		File[] files = E3sTgffTestFiles.listBenchmarks();
+		for (int i = 0; i < files.length; i++) {
+			E3sTgffFileParser parser = new E3sTgffFileParser(files[i].getPath());
+			parser.parseTgffFileOffHeap();
+			assertEquals(files[i].getName(),
+					E3sTgffTestFiles.describe(parse(files[i]), true),
+					E3sTgffTestFiles.describe(parser.getE3sCtgs(), true));
+		}
+	}
+
+	public void testCoreCatalog() throws Exception {
+		// the benchmarks share the types of the catalog, so their symbols differ
+		E3sCoreCatalog catalog = new E3sCoreCatalog();
+		File[] files = E3sTgffTestFiles.listBenchmarks();
+		for (int i = 0; i < files.length; i++) {
+			String expected = E3sTgffTestFiles.describe(parse(files[i]), false);
+			E3sTgffFileParser parser = new E3sTgffFileParser(files[i].getPath());
+			parser.setCoreCatalog(catalog);
+			parser.parseTgffFile();
+			assertEquals(files[i].getName(), expected,
+					E3sTgffTestFiles.describe(parser.getE3sCtgs(), false));
+
+			E3sTgffFileParser parallelParser = new E3sTgffFileParser(files[i].getPath());
+			parallelParser.setCoreCatalog(catalog);
+			parallelParser.parseTgffFileInParallel(3);
+			assertEquals(files[i].getName() + " in parallel", expected,
+					E3sTgffTestFiles.describe(parallelParser.getE3sCtgs(), false));
+			for (int c = 0; c < parser.getE3sCtgs().get(0).getCores().size(); c++) {
+				assertSame(parser.getE3sCtgs().get(0).getCores().get(c),
+						parallelParser.getE3sCtgs().get(0).getCores().get(c));
+			}
+		}
+		assertTrue(catalog.getCoreCount() > 0);
+	}
+
+	public void testText() throws Exception {
+		File[] files = E3sTgffTestFiles.listBenchmarks();
+		for (int i = 0; i < files.length; i++) {
+			List<E3sBenchmarkData> e3sCtgs = parse(files[i]);
+			String name = e3sCtgs.get(0).getName();
+			assertEquals(files[i].getName(),
+					E3sTgffTestFiles.describe(e3sCtgs, true),
+					E3sTgffTestFiles.describe(E3sTgffFileParser.parseTgff(name,
+							E3sTgffTestFiles.readText(files[i])), true));
+		}
+	}
+
+}
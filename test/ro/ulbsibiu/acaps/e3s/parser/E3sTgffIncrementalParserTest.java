@@ -0,0 +1,174 @@
+package ro.ulbsibiu.acaps.e3s.parser;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import junit.framework.TestCase;
+import ro.ulbsibiu.acaps.e3s.ctg.E3sBenchmarkData;
+
+/**
+ * Edits a copy of an E3S benchmark and checks that the incremental parser
+ * reports the changes and gives the same data as a full parse.
+ * 
+ * @author Ciprian Radu
+ * 
+ */
+public class E3sTgffIncrementalParserTest extends TestCase {
+
+	private File directory;
+
+	private File file;
+
+	private String text;
+
+	private E3sTgffIncrementalParser parser;
+
+	@Override
+	protected void setUp() throws Exception {
+		directory = E3sTgffTestFiles.createTemporaryDirectory();
+		file = new File(directory, "auto-indust-mocsyn.tgff");
+		E3sTgffTestFiles.copy(new File(E3sTgffTestFiles.E3S, file.getName()), file);
+		text = E3sTgffTestFiles.readText(file);
+		parser = new E3sTgffIncrementalParser(file.getPath());
+		assertTrue(parser.parseTgffFile().isFullyParsed());
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		E3sTgffTestFiles.delete(directory);
+	}
+
+	/**
+	 * Replaces the first occurrence of a text, after another text.
+	 */
+	private void edit(String after, String target, String replacement)
+			throws IOException {
+		int index = text.indexOf(target, text.indexOf(after));
+		assertTrue(target, index >= 0);
+		text = text.substring(0, index) + replacement
+				+ text.substring(index + target.length());
+		E3sTgffTestFiles.writeText(file, text);
+	}
+
+	/**
+	 * Replaces the first line which starts with a prefix, after a text.
+	 */
+	private void editLine(String after, String prefix, String line)
+			throws IOException {
+		int index = text.indexOf("\n" + prefix, text.indexOf(after)) + 1;
+		assertTrue(prefix, index > 0);
+		text = text.substring(0, index) + line
+				+ text.substring(text.indexOf('\n', index));
+		E3sTgffTestFiles.writeText(file, text);
+	}
+
+	private void assertParsed() throws Exception {
+		E3sTgffFileParser fileParser = new E3sTgffFileParser(file.getPath());
+		fileParser.parseTgffFile();
+		assertEquals(E3sTgffTestFiles.describe(fileParser.getE3sCtgs(), true),
+				E3sTgffTestFiles.describe(parser.getE3sCtgs(), true));
+	}
+
+	public void testUnchanged() throws Exception {
+		assertTrue(parser.parseTgffFile().isEmpty());
+		assertParsed();
+	}
+
+	public void testTaskGraph() throws Exception {
+		List<E3sBenchmarkData> before = new ArrayList<E3sBenchmarkData>(parser.getE3sCtgs());
+		edit("ARC a1_0 ", "TYPE 0", "TYPE 1");
+		E3sTgffChanges changes = parser.parseTgffFile();
+		assertFalse(changes.isFullyParsed());
+		assertEquals(Arrays.asList(1), changes.getChangedCtgIds());
+		assertTrue(changes.getChangedCoreIndexes().isEmpty());
+		assertFalse(changes.isCommunicationVolumesChanged());
+		assertParsed();
+		// the CTGs are updated in place
+		for (int i = 0; i < before.size(); i++) {
+			assertSame(before.get(i), parser.getE3sCtgs().get(i));
+		}
+	}
+
+	public void testCore() throws Exception {
+		editLine("@CORE 2 ", "0 ", "0 0 1 0.001 150E-6 6.9e+04 1.6");
+		E3sTgffChanges changes = parser.parseTgffFile();
+		assertFalse(changes.isFullyParsed());
+		assertTrue(changes.getChangedCtgIds().isEmpty());
+		assertEquals(Arrays.asList(2), changes.getChangedCoreIndexes());
+		assertParsed();
+	}
+
+	public void testHyperperiod() throws Exception {
+		edit("@HYPERPERIOD", "0.0009", "0.0018");
+		E3sTgffChanges changes = parser.parseTgffFile();
+		assertTrue(changes.isHyperperiodChanged());
+		assertFalse(changes.isCommunicationVolumesChanged());
+		assertTrue(changes.getChangedCtgIds().isEmpty());
+		assertEquals(0.0018, parser.getE3sCtgs().get(0).getHyperperiod(), 0);
+		assertParsed();
+	}
+
+	public void testCommunicationVolumes() throws Exception {
+		editLine("@COMMUN_QUANT", "1 ", "1 12345");
+		E3sTgffChanges changes = parser.parseTgffFile();
+		assertTrue(changes.isCommunicationVolumesChanged());
+		assertFalse(changes.isHyperperiodChanged());
+		assertEquals(parser.getE3sCtgs().size(), changes.getChangedCtgIds().size());
+		assertParsed();
+	}
+
+	public void testWireBitWidth() throws Exception {
+		edit("@WIRE_BIT_WIDTH", "32", "64");
+		E3sTgffChanges changes = parser.parseTgffFile();
+		assertTrue(changes.isWireBitWidthChanged());
+		assertEquals(64.0, parser.getE3sCtgs().get(0).getPlatform().getWireBitWidth(), 0);
+		assertParsed();
+
+		// the deleted line is detected too
+		edit("", "@WIRE_BIT_WIDTH 64", "");
+		changes = parser.parseTgffFile();
+		assertTrue(changes.isWireBitWidthChanged());
+		assertParsed();
+	}
+
+	public void testAddedTaskGraph() throws Exception {
+		text = text + "\n@TASK_GRAPH 99 {\nPERIOD 1\nTASK x TYPE 1\n}\n";
+		E3sTgffTestFiles.writeText(file, text);
+		assertTrue(parser.parseTgffFile().isFullyParsed());
+		assertParsed();
+	}
+
+	public void testInvalidEdit() throws Exception {
+		String expected = E3sTgffTestFiles.describe(parser.getE3sCtgs(), true);
+		int taskNames = parser.getE3sCtgs().get(0).getSymbols().getTaskNames().size();
+		edit("@TASK_GRAPH 1 ", "FROM ", "FROM unknown");
+		try {
+			parser.parseTgffFile();
+			fail("An arc from an unknown task was parsed");
+		} catch (IOException e) {
+			// expected
+		}
+		// nothing was changed
+		assertEquals(expected, E3sTgffTestFiles.describe(parser.getE3sCtgs(), true));
+		assertEquals(taskNames, parser.getE3sCtgs().get(0).getSymbols().getTaskNames().size());
+	}
+
+	public void testFrozen() throws Exception {
+		List<E3sBenchmarkData> before = new ArrayList<E3sBenchmarkData>(parser.getE3sCtgs());
+		for (int i = 0; i < before.size(); i++) {
+			before.get(i).freeze();
+		}
+		String frozen = E3sTgffTestFiles.describe(before, true);
+		edit("ARC a1_0 ", "TYPE 0", "TYPE 1");
+		assertTrue(parser.parseTgffFile().isFullyParsed());
+		assertParsed();
+		// the frozen CTGs are not modified
+		assertEquals(frozen, E3sTgffTestFiles.describe(before, true));
+		assertTrue(Collections.disjoint(before, parser.getE3sCtgs()));
+	}
+
+}
@@ -0,0 +1,114 @@
+package ro.ulbsibiu.acaps.e3s.parser;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import junit.framework.TestCase;
+import ro.ulbsibiu.acaps.e3s.ctg.E3sBenchmarkData;
+
+/**
+ * Checks that the benchmarks loaded from snapshots are the same as the
+ * parsed ones and that the corrupt snapshots are replaced.
+ * 
+ * @author Ciprian Radu
+ * 
+ */
+public class E3sTgffSnapshotCacheTest extends TestCase {
+
+	private File directory;
+
+	private E3sTgffSnapshotCache cache;
+
+	@Override
+	protected void setUp() throws Exception {
+		directory = E3sTgffTestFiles.createTemporaryDirectory();
+		cache = new E3sTgffSnapshotCache(directory);
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		E3sTgffTestFiles.delete(directory);
+	}
+
+	private static String parse(File file) throws Exception {
+		E3sTgffFileParser parser = new E3sTgffFileParser(file.getPath());
+		parser.parseTgffFile();
+		return E3sTgffTestFiles.describe(parser.getE3sCtgs(), true);
+	}
+
+	/**
+	 * @return the only snapshot of the cache
+	 */
+	private File getSnapshot() {
+		File[] snapshots = directory.listFiles();
+		assertEquals(1, snapshots.length);
+		return snapshots[0];
+	}
+
+	public void testLoad() throws Exception {
+		File[] files = E3sTgffTestFiles.listBenchmarks();
+		for (int i = 0; i < files.length; i++) {
+			String expected = parse(files[i]);
+			// the first load parses the file and saves its snapshot
+			assertEquals(files[i].getName(), expected,
+					E3sTgffTestFiles.describe(cache.load(files[i].getPath()), true));
+			assertEquals(i + 1, directory.listFiles().length);
+			// the second load reads the snapshot
+			assertEquals(files[i].getName(), expected,
+					E3sTgffTestFiles.describe(cache.load(files[i].getPath()), true));
+			assertEquals(i + 1, directory.listFiles().length);
+		}
+	}
+
+	public void testChangedFile() throws Exception {
+		File file = new File(directory, "benchmark.tgff");
+		E3sTgffTestFiles.copy(new File(E3sTgffTestFiles.E3S, "office-automation-mocsyn.tgff"), file);
+		cache.load(file.getPath());
+		String text = E3sTgffTestFiles.readText(file);
+		E3sTgffTestFiles.writeText(file, text.replace("PERIOD 0.03", "PERIOD 0.06"));
+		List<E3sBenchmarkData> e3sCtgs = cache.load(file.getPath());
+		assertEquals(0.06, e3sCtgs.get(0).getPeriod(), 0);
+		assertEquals(parse(file), E3sTgffTestFiles.describe(e3sCtgs, true));
+	}
+
+	public void testCorruptSnapshot() throws Exception {
+		File file = new File(E3sTgffTestFiles.E3S, "auto-indust-mocsyn.tgff");
+		String expected = parse(file);
+		cache.load(file.getPath());
+		File snapshot = getSnapshot();
+		byte[] good = E3sTgffTestFiles.read(snapshot);
+		Random random = new Random(1);
+		for (int k = 0; k < 60; k++) {
+			byte[] bad;
+			switch (k % 3) {
+			case 0:
+				bad = Arrays.copyOf(good, random.nextInt(good.length));
+				break;
+			case 1:
+				bad = good.clone();
+				for (int m = 0; m < 4; m++) {
+					bad[8 + random.nextInt(bad.length - 8)] = (byte) random.nextInt();
+				}
+				break;
+			default:
+				// a huge size
+				bad = good.clone();
+				int position = 8 + random.nextInt(bad.length - 12);
+				bad[position] = (byte) 0x7f;
+				bad[position + 1] = (byte) 0xff;
+				break;
+			}
+			E3sTgffTestFiles.write(snapshot, bad);
+			// a changed byte may still give a readable (but different) benchmark
+			List<E3sBenchmarkData> e3sCtgs = cache.load(file.getPath());
+			if (k % 3 == 0) {
+				assertEquals(expected, E3sTgffTestFiles.describe(e3sCtgs, true));
+				// the truncated snapshot was replaced
+				assertTrue(Arrays.equals(good, E3sTgffTestFiles.read(getSnapshot())));
+			}
+		}
+	}
+
+}
@@ -0,0 +1,190 @@
+package ro.ulbsibiu.acaps.e3s.parser;
+
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.List;
+
+import ro.ulbsibiu.acaps.e3s.ctg.E3sBenchmarkData;
+import ro.ulbsibiu.acaps.e3s.ctg.E3sCommunicationVolume;
+import ro.ulbsibiu.acaps.e3s.ctg.E3sCore;
+import ro.ulbsibiu.acaps.e3s.ctg.E3sCore.E3sCoreParams;
+import ro.ulbsibiu.acaps.e3s.ctg.E3sDeadline;
+import ro.ulbsibiu.acaps.e3s.ctg.E3sEdge;
+import ro.ulbsibiu.acaps.e3s.ctg.E3sTaskCore;
+import ro.ulbsibiu.acaps.e3s.ctg.E3sVertex;
+
+/**
+ * The E3S benchmarks used by the tests (the .tgff files from the
+ * <tt>e3s</tt> directory of the project, which must be the working
+ * directory) and the helpers which compare the parsed data.
+ * 
+ * @author Ciprian Radu
+ * 
+ */
+final class E3sTgffTestFiles {
+
+	/** the directory with the E3S benchmarks */
+	static final File E3S = new File("e3s");
+
+	private E3sTgffTestFiles() {
+	}
+
+	/**
+	 * @return the E3S benchmarks, sorted by name
+	 */
+	static File[] listBenchmarks() {
+		File[] files = E3S.listFiles(new FilenameFilter() {
+			public boolean accept(File dir, String name) {
+				return name.endsWith(".tgff");
+			}
+		});
+		if (files == null || files.length == 0) {
+			throw new IllegalStateException("No E3S benchmarks found in "
+					+ E3S.getAbsolutePath());
+		}
+		Arrays.sort(files);
+		return files;
+	}
+
+	/**
+	 * Describes the CTGs of a benchmark, with all their data and with the
+	 * data of their cores, so that two parses can be compared.
+	 * 
+	 * @param e3sCtgs
+	 *            the CTGs
+	 * @param symbols
+	 *            whether the symbols of the tasks and of the arcs are
+	 *            described too
+	 * @return the description
+	 */
+	static String describe(List<E3sBenchmarkData> e3sCtgs, boolean symbols) {
+		StringBuilder description = new StringBuilder();
+		for (int i = 0; i < e3sCtgs.size(); i++) {
+			E3sBenchmarkData e3sBenchmarkData = e3sCtgs.get(i);
+			description.append("CTG ").append(e3sBenchmarkData.getName())
+					.append(' ').append(e3sBenchmarkData.getCtgId())
+					.append(" period ").append(e3sBenchmarkData.getPeriod())
+					.append(" hyperperiod ").append(e3sBenchmarkData.getHyperperiod())
+					.append(" wire ").append(e3sBenchmarkData.getPlatform().getWireBitWidth())
+					.append('\n');
+			for (E3sCommunicationVolume volume : e3sBenchmarkData.getCommunicationVolumes()) {
+				description.append(" volume ").append(volume.getType())
+						.append(' ').append(volume.getVolume()).append('\n');
+			}
+			for (E3sVertex vertex : e3sBenchmarkData.getVertices()) {
+				description.append(" task ").append(vertex.getName())
+						.append(' ').append(vertex.getType());
+				if (symbols) {
+					description.append(' ').append(vertex.getNameSymbol())
+							.append(' ').append(vertex.getTypeSymbol());
+				}
+				description.append('\n');
+			}
+			for (E3sEdge edge : e3sBenchmarkData.getEdges()) {
+				description.append(" arc ").append(edge.getName())
+						.append(' ').append(edge.getFrom())
+						.append(' ').append(edge.getTo())
+						.append(' ').append(edge.getType())
+						.append(' ').append(edge.getWeight());
+				if (symbols) {
+					description.append(' ').append(edge.getTypeSymbol());
+				}
+				description.append('\n');
+			}
+			for (E3sDeadline deadline : e3sBenchmarkData.getDeadlines()) {
+				description.append(" deadline ").append(deadline.getType())
+						.append(' ').append(deadline.getDeadlineName())
+						.append(' ').append(deadline.getTaskName())
+						.append(' ').append(deadline.getTime()).append('\n');
+			}
+			description.append(" graph ").append(e3sBenchmarkData.getCtg().vertexSet().size())
+					.append(' ').append(e3sBenchmarkData.getCtg().edgeSet().size())
+					.append('\n');
+			for (E3sCore core : e3sBenchmarkData.getCores()) {
+				description.append(" core ").append(core.getName())
+						.append(' ').append(core.getId());
+				for (E3sCoreParams param : E3sCoreParams.values()) {
+					description.append(' ').append(core.getCoreParameter(param));
+				}
+				description.append('\n');
+				for (E3sTaskCore taskCore : core.getE3sTaskCores()) {
+					description.append("  row ").append(taskCore.getType())
+							.append(' ').append(taskCore.getVersion())
+							.append(' ').append(taskCore.getValid())
+							.append(' ').append(taskCore.getTaskTime())
+							.append(' ').append(taskCore.getPreemtTime())
+							.append(' ').append(taskCore.getCodeBits())
+							.append(' ').append(taskCore.getTaskPower())
+							.append('\n');
+				}
+			}
+		}
+		return description.toString();
+	}
+
+	static byte[] read(File file) throws IOException {
+		byte[] bytes = new byte[(int) file.length()];
+		DataInputStream in = new DataInputStream(new FileInputStream(file));
+		try {
+			in.readFully(bytes);
+		} finally {
+			in.close();
+		}
+		return bytes;
+	}
+
+	static void write(File file, byte[] bytes) throws IOException {
+		OutputStream out = new FileOutputStream(file);
+		try {
+			out.write(bytes);
+		} finally {
+			out.close();
+		}
+	}
+
+	static String readText(File file) throws IOException {
+		return new String(read(file), "US-ASCII");
+	}
+
+	static void writeText(File file, String text) throws IOException {
+		write(file, text.getBytes("US-ASCII"));
+	}
+
+	/**
+	 * Creates an empty temporary directory.
+	 */
+	static File createTemporaryDirectory() throws IOException {
+		File directory = File.createTempFile("e3s", ".test");
+		if (!directory.delete() || !directory.mkdir()) {
+			throw new IOException("Cannot create the directory " + directory);
+		}
+		return directory;
+	}
+
+	/**
+	 * Deletes a directory, with its files.
+	 */
+	static void delete(File directory) {
+		File[] files = directory.listFiles();
+		if (files != null) {
+			for (int i = 0; i < files.length; i++) {
+				files[i].delete();
+			}
+		}
+		directory.delete();
+	}
+
+	/**
+	 * Copies a file.
+	 */
+	static void copy(File source, File target) throws IOException {
+		write(target, read(source));
+	}
+
+}